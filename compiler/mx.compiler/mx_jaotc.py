@@ -27,6 +27,7 @@
 # ----------------------------------------------------------------------------------------------------
 from __future__ import print_function
 
+import filecmp
 import os
 import shutil
 import tempfile
@@ -92,6 +93,12 @@ def jaotc_run(tests, group):
                 program_args=test_info.get('program_args'),
                 commands=test_info.get('commands'),
             )
+        elif test_type == 'threads':
+            test_compile_threads(
+                opts_set=group_config['threads'],
+                modules=test_info['modules'],
+                threads=test_info['threads'],
+            )
         else:
             mx.abort('Unknown jaotc test: {}'.format(test))
 
@@ -161,6 +168,11 @@ jaotc_test_info = {
         'program_args' : ['--list-plugins'],
     },
     'javac'     : {'type' : 'javac'},
+    'compile-threads' : {
+        'type'    : 'threads',
+        'modules' : ['jdk.internal.vm.ci'],
+        'threads' : 4
+    },
 }
 
 jaotc_common_opts = ['-ea:org.graalvm...']
@@ -173,26 +185,29 @@ jaotc_common_gc_compressed = [
 
 jaotc_group_config = {
     'default': {
-        'tests': ['HelloWorld', 'javac', 'graal-jlink', 'java.base'],
+        'tests': ['HelloWorld', 'javac', 'graal-jlink', 'java.base', 'compile-threads'],
         'class':   jaotc_common_gc_compressed,
         'javac':   [jaotc_common_opts],
         'modules': [jaotc_common_opts],
+        'threads': [jaotc_common_opts],
     },
     'gate': {
-        'tests': ['HelloWorld', 'javac', 'java.base'],
+        'tests': ['HelloWorld', 'javac', 'java.base', 'compile-threads'],
         'class':   jaotc_common_gc_compressed,
         'javac':   [jaotc_common_opts],
         'modules': [jaotc_common_opts],
+        'threads': [jaotc_common_opts],
     },
     'daily': {
         'tests': ['graal-jlink', 'java.base'],
         'modules': jaotc_common_gc_compressed,
     },
     'stress': {
-        'tests': ['HelloWorld', 'javac', 'graal-jlink', 'java.base'],
+        'tests': ['HelloWorld', 'javac', 'graal-jlink', 'java.base', 'compile-threads'],
         'class':   jaotc_common_gc_compressed,
         'javac':   jaotc_common_gc_compressed,
         'modules': jaotc_common_gc_compressed,
+        'threads': jaotc_common_gc_compressed,
     },
 }
 
@@ -248,6 +263,35 @@ def test_modules(opts_set, classpath, main_class, modules, vm_args, program_args
             check_aot(classpath, main_class, common_opts, expected_out.data, lib_module, program_args)
 
 
+def test_compile_threads(opts_set, modules, threads):
+    """(jaotc-)Compiles `modules` with a single compilation thread and with `threads` threads.
+    Checks that both AOT libraries are byte-identical.
+    """
+    # jaotc uses ':' as separator.
+    module_list = ':'.join(modules)
+    for common_opts in opts_set:
+        out_dir = tempfile.mkdtemp()
+        try:
+            libs = []
+            for compile_threads in [1, threads]:
+                mx.log('(jaotc) Compiling module(s) {} with {} thread(s) and {}'.format(module_list, compile_threads, ' '.join(common_opts)))
+                # The library name ends up in the symbol table so both libraries get the same name.
+                lib_dir = os.path.join(out_dir, str(compile_threads))
+                os.mkdir(lib_dir)
+                lib = os.path.join(lib_dir, mx.add_lib_suffix(mx.add_lib_prefix('aot')))
+                # jaotc uses at most as many threads as there are processors.
+                run_jaotc(['-J' + opt for opt in common_opts] +
+                          ['-J-XX:ActiveProcessorCount=' + str(threads)] +
+                          ['--compile-threads', str(compile_threads)] +
+                          ['--module', module_list] +
+                          ['--exit-on-error', '--info', '--output', lib])
+                libs.append(lib)
+            if not filecmp.cmp(libs[0], libs[1], shallow=False):
+                mx.abort('AOT libraries compiled with 1 and {} threads differ: {} != {}'.format(threads, libs[0], libs[1]))
+        finally:
+            shutil.rmtree(out_dir)
+
+
 def collect_java_sources(source_dirs):
     javafilelist = []
     for sourceDir in source_dirs:
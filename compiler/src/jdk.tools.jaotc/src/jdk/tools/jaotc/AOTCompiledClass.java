@@ -292,9 +292,9 @@ final class AOTCompiledClass {
     }
 
     /**
-     * Add a method to the list of compiled methods. This method needs to be thread-safe.
+     * Add a method to the list of compiled methods.
      */
-    synchronized boolean addCompiledMethod(CompiledMethodInfo cm) {
+    boolean addCompiledMethod(CompiledMethodInfo cm) {
         return compiledMethods.add(cm);
     }
 
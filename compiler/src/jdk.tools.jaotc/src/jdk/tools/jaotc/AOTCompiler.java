@@ -83,10 +83,6 @@ final class AOTCompiler {
                 if (count % 100 == 0) {
                     main.printer.printInfo(".");
                 }
-                CompiledMethodInfo result = task.getResult();
-                if (result != null) {
-                    task.getHolder().addCompiledMethod(result);
-                }
             } else {
                 failedMethodCount.incrementAndGet();
                 main.printer.printlnVerbose("");
@@ -129,9 +125,10 @@ final class AOTCompiler {
         main.printer.printlnInfo("Compiling with " + compileQueue.getCorePoolSize() + " threads");
         main.printer.printInfo("."); // Compilation progress indication.
 
+        List<AOTCompilationTask> tasks = new ArrayList<>();
         for (AOTCompiledClass c : classes) {
             for (ResolvedJavaMethod m : c.getMethods()) {
-                enqueueMethod(c, m);
+                enqueueMethod(tasks, c, m);
             }
         }
 
@@ -139,6 +136,15 @@ final class AOTCompiler {
         compileQueue.shutdown();
         compileQueue.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
 
+        // Add the results in the order the methods were enqueued rather than the order in which
+        // the compilations finished so that the output does not depend on thread scheduling.
+        for (AOTCompilationTask task : tasks) {
+            CompiledMethodInfo result = task.getResult();
+            if (result != null) {
+                task.getHolder().addCompiledMethod(result);
+            }
+        }
+
         List<AOTCompiledClass> compiledClasses = new ArrayList<>();
         for (AOTCompiledClass compiledClass : classes) {
             if (compiledClass.hasCompiledMethods()) {
@@ -153,10 +159,11 @@ final class AOTCompiler {
      *
      * @param method method to be enqueued
      */
-    private void enqueueMethod(AOTCompiledClass aotClass, ResolvedJavaMethod method) {
+    private void enqueueMethod(List<AOTCompilationTask> tasks, AOTCompiledClass aotClass, ResolvedJavaMethod method) {
         AOTCompilationTask task = new AOTCompilationTask(main, graalOptions, aotClass, method, backend);
         try {
             compileQueue.execute(task);
+            tasks.add(task);
         } catch (RejectedExecutionException e) {
             e.printStackTrace();
         }
@@ -30,7 +30,9 @@ import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -54,7 +56,7 @@ final class Collector {
     }
 
     Set<Class<?>> collectClassesToCompile() {
-        Set<Class<?>> classesToCompile = new HashSet<>();
+        Set<Class<?>> classesToCompile = new LinkedHashSet<>();
         FileSupport fileSupport = new FileSupport();
         ClassSearch lookup = new ClassSearch();
         lookup.addProvider(new ModuleSourceProvider());
@@ -76,7 +78,14 @@ final class Collector {
         return classesToCompile;
     }
 
+    /**
+     * Orders methods by name and signature. The order in which the VM returns the declared methods
+     * of a class differs between VM runs, which would otherwise change the layout of the output.
+     */
+    private static final Comparator<ResolvedJavaMethod> METHOD_ORDER = Comparator.comparing((ResolvedJavaMethod m) -> m.getName()).thenComparing(m -> m.getSignature().toMethodDescriptor());
+
     private void addMethods(AOTCompiledClass aotClass, ResolvedJavaMethod[] methods, CompilationSpec compilationRestrictions) {
+        Arrays.sort(methods, METHOD_ORDER);
         for (ResolvedJavaMethod m : methods) {
             addMethod(aotClass, m, compilationRestrictions);
         }
@@ -26,7 +26,7 @@
 package jdk.tools.jaotc;
 
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.graalvm.compiler.code.CompilationResult;
@@ -191,7 +191,7 @@ final class CompiledMethodInfo {
     /**
      * List of referenced classes.
      */
-    private HashSet<AOTKlassData> dependentKlasses = new HashSet<>();
+    private LinkedHashSet<AOTKlassData> dependentKlasses = new LinkedHashSet<>();
 
     /**
      * Methods count used to generate unique global method id.
@@ -158,7 +158,7 @@ final class DataBuilder {
              * Generate metadata for compiled code and copy it into metadata section. Create
              * relocation information for all references (call, constants, etc) in compiled code.
              */
-            metadataBuilder = new MetadataBuilder(this);
+            metadataBuilder = new MetadataBuilder(this, main.options.threads);
             metadataBuilder.processMetadata(classes, stubCompiledCode);
         }
 
@@ -28,8 +28,14 @@ package jdk.tools.jaotc;
 import static jdk.tools.jaotc.AOTCompiledClass.getType;
 import static jdk.tools.jaotc.AOTCompiledClass.metadataName;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.graalvm.compiler.code.CompilationResult;
 import org.graalvm.compiler.hotspot.GraalHotSpotVMConfig;
@@ -41,10 +47,10 @@ import jdk.tools.jaotc.binformat.ByteContainer;
 import jdk.tools.jaotc.binformat.GotSymbol;
 import jdk.tools.jaotc.utils.NativeOrderOutputStream;
 import jdk.vm.ci.code.StackSlot;
+import jdk.vm.ci.code.TargetDescription;
 import jdk.vm.ci.code.site.DataPatch;
 import jdk.vm.ci.code.site.Infopoint;
 import jdk.vm.ci.code.site.Mark;
-import jdk.vm.ci.hotspot.HotSpotCompiledCode;
 import jdk.vm.ci.hotspot.HotSpotMetaData;
 
 final class MetadataBuilder {
@@ -53,19 +59,115 @@ final class MetadataBuilder {
 
     private final BinaryContainer binaryContainer;
 
-    MetadataBuilder(DataBuilder dataBuilder) {
+    /**
+     * Number of methods per thread whose {@link HotSpotMetaData} may be computed ahead of the
+     * method whose metadata is currently being written. This bounds the memory used for metadata
+     * that is not yet written to the binary container.
+     */
+    private static final int METADATA_LOOKAHEAD_PER_THREAD = 8;
+
+    /**
+     * Number of threads computing {@link HotSpotMetaData}.
+     */
+    private final int threads;
+
+    /**
+     * Executor computing {@link HotSpotMetaData} or {@code null} if metadata is computed on the
+     * thread writing it.
+     */
+    private ExecutorService metadataExecutor;
+
+    /**
+     * The methods for which the computation of {@link HotSpotMetaData} has not been started yet, in
+     * the order in which their metadata is written.
+     */
+    private Iterator<CompiledMethodInfo> pendingMethods;
+
+    /**
+     * The metadata computations that have been started, in the order in which the metadata is
+     * written.
+     */
+    private final ArrayDeque<PendingMetaData> metadataInFlight = new ArrayDeque<>();
+
+    private static final class PendingMetaData {
+        final CompiledMethodInfo methodInfo;
+        final Future<HotSpotMetaData> metaData;
+
+        PendingMetaData(CompiledMethodInfo methodInfo, Future<HotSpotMetaData> metaData) {
+            this.methodInfo = methodInfo;
+            this.metaData = metaData;
+        }
+    }
+
+    MetadataBuilder(DataBuilder dataBuilder, int threads) {
         this.dataBuilder = dataBuilder;
         this.binaryContainer = dataBuilder.getBinaryContainer();
+        this.threads = threads;
     }
 
     /**
      * Process compiled methods and create method metadata.
+     *
+     * Creating the {@link HotSpotMetaData} of a method (pc descriptors, scopes, relocations and oop
+     * maps) does not depend on the binary container and is done by {@link #threads} threads. Only
+     * the relocation processing and the writing of the metadata into the container, which assign
+     * offsets, are done sequentially on the calling thread, overlapping with the creation of the
+     * metadata for the methods that follow.
      */
     void processMetadata(List<AOTCompiledClass> classes, AOTCompiledClass stubCompiledCode) {
-        for (AOTCompiledClass c : classes) {
-            processMetadataClass(c);
+        if (threads > 1) {
+            List<CompiledMethodInfo> methods = new ArrayList<>();
+            for (AOTCompiledClass c : classes) {
+                methods.addAll(c.getCompiledMethods());
+            }
+            methods.addAll(stubCompiledCode.getCompiledMethods());
+            pendingMethods = methods.iterator();
+            metadataExecutor = Executors.newFixedThreadPool(threads, r -> {
+                Thread thread = new Thread(r, "jaotc metadata");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        try {
+            for (AOTCompiledClass c : classes) {
+                processMetadataClass(c);
+            }
+            processMetadataClass(stubCompiledCode);
+        } finally {
+            if (metadataExecutor != null) {
+                metadataExecutor.shutdownNow();
+                metadataExecutor = null;
+            }
+            pendingMethods = null;
+            metadataInFlight.clear();
+        }
+    }
+
+    private static HotSpotMetaData createMetaData(TargetDescription target, CompiledMethodInfo methodInfo) {
+        return new HotSpotMetaData(target, methodInfo.compiledCode());
+    }
+
+    /**
+     * Gets the {@link HotSpotMetaData} for {@code methodInfo}, which must be the next method whose
+     * metadata is written, and starts computing the metadata of the methods that follow.
+     */
+    private HotSpotMetaData nextMetaData(TargetDescription target, CompiledMethodInfo methodInfo) {
+        if (metadataExecutor == null) {
+            return createMetaData(target, methodInfo);
+        }
+        while (metadataInFlight.size() < threads * METADATA_LOOKAHEAD_PER_THREAD && pendingMethods.hasNext()) {
+            CompiledMethodInfo next = pendingMethods.next();
+            metadataInFlight.add(new PendingMetaData(next, metadataExecutor.submit(() -> createMetaData(target, next))));
+        }
+        PendingMetaData pending = metadataInFlight.removeFirst();
+        assert pending.methodInfo == methodInfo : "metadata requested out of order";
+        try {
+            return pending.metaData.get();
+        } catch (InterruptedException e) {
+            throw new InternalError("Interrupted while creating metadata for " + methodInfo.getMethodInfo().getSymbolName(), e);
+        } catch (ExecutionException e) {
+            throw new InternalError("Exception occurred during creation of metadata for " + methodInfo.getMethodInfo().getSymbolName(), e.getCause());
         }
-        processMetadataClass(stubCompiledCode);
     }
 
     private void processMetadataClass(AOTCompiledClass c) {
@@ -92,9 +194,8 @@ final class MetadataBuilder {
 
             methodInfo.setMetadataOffset(startOffset);
 
-            HotSpotCompiledCode compiledMethod = methodInfo.compiledCode();
             // pc and scope description
-            HotSpotMetaData metaData = new HotSpotMetaData(runtime.getTarget(), compiledMethod);
+            HotSpotMetaData metaData = nextMetaData(runtime.getTarget(), methodInfo);
 
             byte[] pcDesc = metaData.pcDescBytes();
             byte[] scopeDesc = metaData.scopesDescBytes();
@@ -94,6 +94,62 @@ public class AArch64InstructionEncodingTest extends GraalTest {
         }
     }
 
+    private class UmaxvEncodingTestCase extends AArch64InstructionEncodingTestCase {
+        UmaxvEncodingTestCase(int expected, int size, AArch64Assembler.SIMDElementSize laneWidth, Register dst, Register src) {
+            super(expected);
+            assembler.umaxv(size, laneWidth, dst, src);
+            closeAssembler();
+        }
+    }
+
+    private class DupEncodingTestCase extends AArch64InstructionEncodingTestCase {
+        DupEncodingTestCase(int expected, int size, AArch64Assembler.SIMDElementSize laneWidth, Register dst, Register src) {
+            super(expected);
+            assembler.dup(size, laneWidth, dst, src);
+            closeAssembler();
+        }
+    }
+
+    private class CmeqEncodingTestCase extends AArch64InstructionEncodingTestCase {
+        CmeqEncodingTestCase(int expected, int size, AArch64Assembler.SIMDElementSize laneWidth, Register dst, Register src1, Register src2) {
+            super(expected);
+            assembler.cmeq(size, laneWidth, dst, src1, src2);
+            closeAssembler();
+        }
+    }
+
+    private class UxtlEncodingTestCase extends AArch64InstructionEncodingTestCase {
+        UxtlEncodingTestCase(int expected, AArch64Assembler.SIMDElementSize srcLaneWidth, Register dst, Register src) {
+            super(expected);
+            assembler.uxtl(srcLaneWidth, dst, src);
+            closeAssembler();
+        }
+    }
+
+    private class XtnEncodingTestCase extends AArch64InstructionEncodingTestCase {
+        XtnEncodingTestCase(int expected, AArch64Assembler.SIMDElementSize dstLaneWidth, Register dst, Register src) {
+            super(expected);
+            assembler.xtn(dstLaneWidth, dst, src);
+            closeAssembler();
+        }
+    }
+
+    private class Ld1EncodingTestCase extends AArch64InstructionEncodingTestCase {
+        Ld1EncodingTestCase(int expected, int size, AArch64Assembler.SIMDElementSize laneWidth, Register dst, Register base, boolean postIndex) {
+            super(expected);
+            assembler.ld1(size, laneWidth, dst, base, postIndex);
+            closeAssembler();
+        }
+    }
+
+    private class St1EncodingTestCase extends AArch64InstructionEncodingTestCase {
+        St1EncodingTestCase(int expected, int size, AArch64Assembler.SIMDElementSize laneWidth, Register src, Register base, boolean postIndex) {
+            super(expected);
+            assembler.st1(size, laneWidth, src, base, postIndex);
+            closeAssembler();
+        }
+    }
+
     private static final int invalidInstructionCode = 0x00000000;
 
     private void assertWrapper(AArch64InstructionEncodingTestCase testCase) {
@@ -165,4 +221,52 @@ public class AArch64InstructionEncodingTest extends GraalTest {
     public void testUmovInvalidDataSize() {
         new UmovEncodingTestCase(invalidInstructionCode, 31, AArch64.r0, 3, AArch64.v0);
     }
+
+    @Test
+    public void testUmaxv() {
+        assertWrapper(new UmaxvEncodingTestCase(0x00a8306e, 128, AArch64Assembler.SIMDElementSize.Byte, AArch64.v0, AArch64.v0));
+        assertWrapper(new UmaxvEncodingTestCase(0x20a8706e, 128, AArch64Assembler.SIMDElementSize.HalfWord, AArch64.v0, AArch64.v1));
+    }
+
+    @Test(expected = AssertionError.class)
+    @SuppressWarnings("unused")
+    public void testUmaxvWithInvalidLane() {
+        new UmaxvEncodingTestCase(invalidInstructionCode, 128, AArch64Assembler.SIMDElementSize.DoubleWord, AArch64.v0, AArch64.v1);
+    }
+
+    @Test
+    public void testDup() {
+        assertWrapper(new DupEncodingTestCase(0x200c014e, 128, AArch64Assembler.SIMDElementSize.Byte, AArch64.v0, AArch64.r1));
+        assertWrapper(new DupEncodingTestCase(0x430c020e, 64, AArch64Assembler.SIMDElementSize.HalfWord, AArch64.v3, AArch64.r2));
+    }
+
+    @Test
+    public void testCmeq() {
+        assertWrapper(new CmeqEncodingTestCase(0x208c226e, 128, AArch64Assembler.SIMDElementSize.Byte, AArch64.v0, AArch64.v1, AArch64.v2));
+        assertWrapper(new CmeqEncodingTestCase(0x208c626e, 128, AArch64Assembler.SIMDElementSize.HalfWord, AArch64.v0, AArch64.v1, AArch64.v2));
+    }
+
+    @Test
+    public void testUxtl() {
+        assertWrapper(new UxtlEncodingTestCase(0x00a4082f, AArch64Assembler.SIMDElementSize.Byte, AArch64.v0, AArch64.v0));
+        assertWrapper(new UxtlEncodingTestCase(0x20a4102f, AArch64Assembler.SIMDElementSize.HalfWord, AArch64.v0, AArch64.v1));
+    }
+
+    @Test
+    public void testXtn() {
+        assertWrapper(new XtnEncodingTestCase(0x0028210e, AArch64Assembler.SIMDElementSize.Byte, AArch64.v0, AArch64.v0));
+        assertWrapper(new XtnEncodingTestCase(0x2028610e, AArch64Assembler.SIMDElementSize.HalfWord, AArch64.v0, AArch64.v1));
+    }
+
+    @Test
+    public void testLd1() {
+        assertWrapper(new Ld1EncodingTestCase(0x0070404c, 128, AArch64Assembler.SIMDElementSize.Byte, AArch64.v0, AArch64.r0, false));
+        assertWrapper(new Ld1EncodingTestCase(0x2070df4c, 128, AArch64Assembler.SIMDElementSize.Byte, AArch64.v0, AArch64.r1, true));
+    }
+
+    @Test
+    public void testSt1() {
+        assertWrapper(new St1EncodingTestCase(0x0070004c, 128, AArch64Assembler.SIMDElementSize.Byte, AArch64.v0, AArch64.r0, false));
+        assertWrapper(new St1EncodingTestCase(0x20709f0c, 64, AArch64Assembler.SIMDElementSize.Byte, AArch64.v0, AArch64.r1, true));
+    }
 }
@@ -554,4 +554,49 @@ class TestProtectedAssembler extends AArch64Assembler {
     public void umov(int size, Register dst, int srcIdx, Register src) {
         super.umov(size, dst, srcIdx, src);
     }
+
+    @Override
+    public void umaxv(int size, SIMDElementSize laneWidth, Register dst, Register src) {
+        super.umaxv(size, laneWidth, dst, src);
+    }
+
+    @Override
+    public void dup(int size, SIMDElementSize laneWidth, Register dst, Register src) {
+        super.dup(size, laneWidth, dst, src);
+    }
+
+    @Override
+    public void cmeq(int size, SIMDElementSize laneWidth, Register dst, Register src1, Register src2) {
+        super.cmeq(size, laneWidth, dst, src1, src2);
+    }
+
+    @Override
+    public void andVector(int size, Register dst, Register src1, Register src2) {
+        super.andVector(size, dst, src1, src2);
+    }
+
+    @Override
+    public void orrVector(int size, Register dst, Register src1, Register src2) {
+        super.orrVector(size, dst, src1, src2);
+    }
+
+    @Override
+    public void uxtl(SIMDElementSize srcLaneWidth, Register dst, Register src) {
+        super.uxtl(srcLaneWidth, dst, src);
+    }
+
+    @Override
+    public void xtn(SIMDElementSize dstLaneWidth, Register dst, Register src) {
+        super.xtn(dstLaneWidth, dst, src);
+    }
+
+    @Override
+    public void ld1(int size, SIMDElementSize laneWidth, Register dst, Register base, boolean postIndex) {
+        super.ld1(size, laneWidth, dst, base, postIndex);
+    }
+
+    @Override
+    public void st1(int size, SIMDElementSize laneWidth, Register src, Register base, boolean postIndex) {
+        super.st1(size, laneWidth, src, base, postIndex);
+    }
 }
@@ -50,6 +50,7 @@ import static org.graalvm.compiler.asm.aarch64.AArch64Assembler.Instruction.CCMP
 import static org.graalvm.compiler.asm.aarch64.AArch64Assembler.Instruction.CLREX;
 import static org.graalvm.compiler.asm.aarch64.AArch64Assembler.Instruction.CLS;
 import static org.graalvm.compiler.asm.aarch64.AArch64Assembler.Instruction.CLZ;
+import static org.graalvm.compiler.asm.aarch64.AArch64Assembler.Instruction.CMEQ;
 import static org.graalvm.compiler.asm.aarch64.AArch64Assembler.Instruction.CNT;
 import static org.graalvm.compiler.asm.aarch64.AArch64Assembler.Instruction.CSEL;
 import static org.graalvm.compiler.asm.aarch64.AArch64Assembler.Instruction.CSINC;
@@ -121,7 +122,12 @@ import static org.graalvm.compiler.asm.aarch64.AArch64Assembler.Instruction.TBNZ
 import static org.graalvm.compiler.asm.aarch64.AArch64Assembler.Instruction.TBZ;
 import static org.graalvm.compiler.asm.aarch64.AArch64Assembler.Instruction.UBFM;
 import static org.graalvm.compiler.asm.aarch64.AArch64Assembler.Instruction.UDIV;
+import static org.graalvm.compiler.asm.aarch64.AArch64Assembler.Instruction.UMAXV;
 import static org.graalvm.compiler.asm.aarch64.AArch64Assembler.Instruction.UMOV;
+import static org.graalvm.compiler.asm.aarch64.AArch64Assembler.Instruction.USHLL;
+import static org.graalvm.compiler.asm.aarch64.AArch64Assembler.Instruction.VAND;
+import static org.graalvm.compiler.asm.aarch64.AArch64Assembler.Instruction.VORR;
+import static org.graalvm.compiler.asm.aarch64.AArch64Assembler.Instruction.XTN;
 import static org.graalvm.compiler.asm.aarch64.AArch64Assembler.InstructionType.FP32;
 import static org.graalvm.compiler.asm.aarch64.AArch64Assembler.InstructionType.FP64;
 import static org.graalvm.compiler.asm.aarch64.AArch64Assembler.InstructionType.General32;
@@ -546,6 +552,9 @@ public abstract class AArch64Assembler extends Assembler {
     private static final int SIMDImm5Offset = 16;
     private static final int SIMDQBitOffset = 30;
     private static final int SIMDSizeOffset = 22;
+    private static final int SIMDLoadStoreSizeOffset = 10;
+    private static final int SIMDPostIndexImmediate = 0b1_0_0_11111 << 16;
+    private static final int SIMDImmhOffset = 19;
 
     /**
      * Encoding for all instructions.
@@ -685,7 +694,16 @@ public abstract class AArch64Assembler extends Assembler {
 
         BLR_NATIVE(0xc0000000),
 
-        ADDV(0x0e31b800);
+        ADDV(0x0e31b800),
+        UMAXV(0x2e30a800),
+        DUP(0x0e000c00),
+        CMEQ(0x2e208c00),
+        VAND(0x0e201c00),
+        VORR(0x0ea01c00),
+        USHLL(0x2f00a400),
+        XTN(0x0e212800),
+        LD1(0x0c407000),
+        ST1(0x0c007000);
 
         public final int encoding;
 
@@ -3282,4 +3300,133 @@ public abstract class AArch64Assembler extends Assembler {
         int imm5 = simdDataType.encoding | srcIdx << Integer.numberOfTrailingZeros(simdDataType.encoding) + 1;
         emitInt((size >> 6) << SIMDQBitOffset | imm5 << SIMDImm5Offset | UMOV.encoding | rd(dst) | rs1(src));
     }
+
+    /**
+     * dst = max(src[0], ..., src[n]), treating the lanes as unsigned values.
+     *
+     * @param size register size. Has to be 64 or 128.
+     * @param laneWidth the width that SIMD register is treated as different lanes with.
+     * @param dst SIMD register. Should not be null.
+     * @param src SIMD register. Should not be null.
+     */
+    public void umaxv(int size, SIMDElementSize laneWidth, Register dst, Register src) {
+        assert 64 == size || 128 == size : "Invalid size for umaxv";
+        assert SIMDElementSize.DoubleWord != laneWidth : "Invalid lane width for umaxv";
+        assert 64 != size || SIMDElementSize.Word != laneWidth : "Invalid size and lane combination for umaxv";
+        emitInt((size >> 7) << SIMDQBitOffset | laneWidth.encoding << SIMDSizeOffset | UMAXV.encoding | rd(dst) | rs1(src));
+    }
+
+    /**
+     * dst[0...n] = src, n = size/laneWidth.
+     *
+     * @param size register size. Has to be 64 or 128.
+     * @param laneWidth the width that SIMD register is treated as different lanes with.
+     * @param dst SIMD register. Should not be null.
+     * @param src general purpose register. Should not be null or stack pointer.
+     */
+    public void dup(int size, SIMDElementSize laneWidth, Register dst, Register src) {
+        assert 64 == size || 128 == size : "Invalid size for dup";
+        assert 64 != size || SIMDElementSize.DoubleWord != laneWidth : "Invalid size and lane combination for dup";
+        assert src.getRegisterCategory().equals(CPU);
+        int imm5 = 1 << laneWidth.encoding;
+        emitInt((size >> 7) << SIMDQBitOffset | imm5 << SIMDImm5Offset | Instruction.DUP.encoding | rd(dst) | rs1(src));
+    }
+
+    /**
+     * dst[i] = src1[i] == src2[i] ? all ones : 0, for every lane i.
+     *
+     * @param size register size. Has to be 64 or 128.
+     * @param laneWidth the width that SIMD register is treated as different lanes with.
+     * @param dst SIMD register. Should not be null.
+     * @param src1 SIMD register. Should not be null.
+     * @param src2 SIMD register. Should not be null.
+     */
+    public void cmeq(int size, SIMDElementSize laneWidth, Register dst, Register src1, Register src2) {
+        assert 64 == size || 128 == size : "Invalid size for cmeq";
+        assert 64 != size || SIMDElementSize.DoubleWord != laneWidth : "Invalid size and lane combination for cmeq";
+        emitInt((size >> 7) << SIMDQBitOffset | laneWidth.encoding << SIMDSizeOffset | CMEQ.encoding | rd(dst) | rs1(src1) | rs2(src2));
+    }
+
+    /**
+     * dst = src1 &amp; src2, bitwise over the whole vector.
+     *
+     * @param size register size. Has to be 64 or 128.
+     * @param dst SIMD register. Should not be null.
+     * @param src1 SIMD register. Should not be null.
+     * @param src2 SIMD register. Should not be null.
+     */
+    public void andVector(int size, Register dst, Register src1, Register src2) {
+        assert 64 == size || 128 == size : "Invalid size for and";
+        emitInt((size >> 7) << SIMDQBitOffset | VAND.encoding | rd(dst) | rs1(src1) | rs2(src2));
+    }
+
+    /**
+     * dst = src1 | src2, bitwise over the whole vector.
+     *
+     * @param size register size. Has to be 64 or 128.
+     * @param dst SIMD register. Should not be null.
+     * @param src1 SIMD register. Should not be null.
+     * @param src2 SIMD register. Should not be null.
+     */
+    public void orrVector(int size, Register dst, Register src1, Register src2) {
+        assert 64 == size || 128 == size : "Invalid size for orr";
+        emitInt((size >> 7) << SIMDQBitOffset | VORR.encoding | rd(dst) | rs1(src1) | rs2(src2));
+    }
+
+    /**
+     * dst[0...n] = zeroExtend(src[0...n]), n = 64/srcLaneWidth. Widens the lanes in the lower 64
+     * bits of {@code src} to twice their width (UXTL).
+     *
+     * @param srcLaneWidth the lane width of the source register. May not be DoubleWord.
+     * @param dst SIMD register. Should not be null.
+     * @param src SIMD register. Should not be null.
+     */
+    public void uxtl(SIMDElementSize srcLaneWidth, Register dst, Register src) {
+        assert SIMDElementSize.DoubleWord != srcLaneWidth : "Invalid lane width for uxtl";
+        int immh = 1 << srcLaneWidth.encoding;
+        emitInt(immh << SIMDImmhOffset | USHLL.encoding | rd(dst) | rs1(src));
+    }
+
+    /**
+     * dst[0...n] = truncate(src[0...n]), n = 128/dstLaneWidth/2. Narrows the lanes of
+     * {@code src} to half their width and writes them to the lower 64 bits of {@code dst} (XTN).
+     *
+     * @param dstLaneWidth the lane width of the destination register. May not be DoubleWord.
+     * @param dst SIMD register. Should not be null.
+     * @param src SIMD register. Should not be null.
+     */
+    public void xtn(SIMDElementSize dstLaneWidth, Register dst, Register src) {
+        assert SIMDElementSize.DoubleWord != dstLaneWidth : "Invalid lane width for xtn";
+        emitInt(dstLaneWidth.encoding << SIMDSizeOffset | XTN.encoding | rd(dst) | rs1(src));
+    }
+
+    /**
+     * Loads a single SIMD register from the address in {@code base} (LD1, one register).
+     *
+     * @param size register size. Has to be 64 or 128.
+     * @param laneWidth the width that SIMD register is treated as different lanes with.
+     * @param dst SIMD register. Should not be null.
+     * @param base general purpose register holding the address. Should not be null.
+     * @param postIndex if true, {@code base} is incremented by {@code size / 8} after the load.
+     */
+    public void ld1(int size, SIMDElementSize laneWidth, Register dst, Register base, boolean postIndex) {
+        assert 64 == size || 128 == size : "Invalid size for ld1";
+        int postIndexBits = postIndex ? SIMDPostIndexImmediate : 0;
+        emitInt((size >> 7) << SIMDQBitOffset | laneWidth.encoding << SIMDLoadStoreSizeOffset | Instruction.LD1.encoding | postIndexBits | rs1(base) | rt(dst));
+    }
+
+    /**
+     * Stores a single SIMD register to the address in {@code base} (ST1, one register).
+     *
+     * @param size register size. Has to be 64 or 128.
+     * @param laneWidth the width that SIMD register is treated as different lanes with.
+     * @param src SIMD register. Should not be null.
+     * @param base general purpose register holding the address. Should not be null.
+     * @param postIndex if true, {@code base} is incremented by {@code size / 8} after the store.
+     */
+    public void st1(int size, SIMDElementSize laneWidth, Register src, Register base, boolean postIndex) {
+        assert 64 == size || 128 == size : "Invalid size for st1";
+        int postIndexBits = postIndex ? SIMDPostIndexImmediate : 0;
+        emitInt((size >> 7) << SIMDQBitOffset | laneWidth.encoding << SIMDLoadStoreSizeOffset | Instruction.ST1.encoding | postIndexBits | rs1(base) | rt(src));
+    }
 }
@@ -221,6 +221,12 @@ public class CompilationResult {
      */
     private int targetCodeSize;
 
+    /**
+     * Offset in {@link #targetCode} of the first instruction of the out-of-line region holding the
+     * rarely executed blocks, or -1 if the code was not split into a hot and a cold region.
+     */
+    private int coldCodeStart = -1;
+
     private ArrayList<CodeAnnotation> annotations;
 
     private Assumption[] assumptions;
@@ -805,6 +811,20 @@ public class CompilationResult {
         return hasUnsafeAccess;
     }
 
+    public void setColdCodeStart(int coldCodeStart) {
+        checkOpen();
+        this.coldCodeStart = coldCodeStart;
+    }
+
+    /**
+     * Gets the offset of the out-of-line region holding the cold blocks of this compilation.
+     *
+     * @return the offset of the cold region or -1 if the code has no such region
+     */
+    public int getColdCodeStart() {
+        return coldCodeStart;
+    }
+
     /**
      * Clears the information in this object pertaining to generating code. That is, the
      * {@linkplain #getMarks() marks}, {@linkplain #getInfopoints() infopoints},
@@ -820,6 +840,7 @@ public class CompilationResult {
         exceptionHandlers.clear();
         marks.clear();
         dataSection.clear();
+        coldCodeStart = -1;
         if (annotations != null) {
             annotations.clear();
         }
@@ -48,6 +48,7 @@ import org.graalvm.compiler.lir.aarch64.AArch64AddressValue;
 import org.graalvm.compiler.lir.aarch64.AArch64ArithmeticOp;
 import org.graalvm.compiler.lir.aarch64.AArch64ArrayCompareToOp;
 import org.graalvm.compiler.lir.aarch64.AArch64ArrayEqualsOp;
+import org.graalvm.compiler.lir.aarch64.AArch64ArrayIndexOfOp;
 import org.graalvm.compiler.lir.aarch64.AArch64AtomicMove.AtomicReadAndAddLSEOp;
 import org.graalvm.compiler.lir.aarch64.AArch64AtomicMove.AtomicReadAndAddOp;
 import org.graalvm.compiler.lir.aarch64.AArch64AtomicMove.AtomicReadAndWriteOp;
@@ -66,6 +67,8 @@ import org.graalvm.compiler.lir.aarch64.AArch64Move;
 import org.graalvm.compiler.lir.aarch64.AArch64Move.MembarOp;
 import org.graalvm.compiler.lir.aarch64.AArch64PauseOp;
 import org.graalvm.compiler.lir.aarch64.AArch64SpeculativeBarrier;
+import org.graalvm.compiler.lir.aarch64.AArch64StringLatin1InflateOp;
+import org.graalvm.compiler.lir.aarch64.AArch64StringUTF16CompressOp;
 import org.graalvm.compiler.lir.aarch64.AArch64ZeroMemoryOp;
 import org.graalvm.compiler.lir.gen.LIRGenerationResult;
 import org.graalvm.compiler.lir.gen.LIRGenerator;
@@ -241,6 +244,24 @@ public abstract class AArch64LIRGenerator extends LIRGenerator {
      */
     @Override
     public Variable emitConditionalMove(PlatformKind cmpKind, Value left, final Value right, Condition cond, boolean unorderedIsTrue, Value trueValue, Value falseValue) {
+        ConditionFlag cmpCondition = emitConditionalMoveCompare(cmpKind, left, right, cond, unorderedIsTrue);
+        return emitCondMoveOp(cmpCondition, trueValue, falseValue);
+    }
+
+    /**
+     * Emits a single comparison followed by one {@code csel} (or {@code cset}) per value pair.
+     */
+    @Override
+    public Variable[] emitConditionalMoves(PlatformKind cmpKind, Value left, Value right, Condition cond, boolean unorderedIsTrue, Value[] trueValues, Value[] falseValues) {
+        ConditionFlag cmpCondition = emitConditionalMoveCompare(cmpKind, left, right, cond, unorderedIsTrue);
+        Variable[] results = new Variable[trueValues.length];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = emitCondMoveOp(cmpCondition, trueValues[i], falseValues[i]);
+        }
+        return results;
+    }
+
+    private ConditionFlag emitConditionalMoveCompare(PlatformKind cmpKind, Value left, Value right, Condition cond, boolean unorderedIsTrue) {
         AArch64ArithmeticLIRGenerator arithLir = ((AArch64ArithmeticLIRGenerator) arithmeticLIRGen);
         Value actualRight = right;
         if (isJavaConstant(actualRight) && arithLir.mustReplaceNullWithNullRegister((asJavaConstant(actualRight)))) {
@@ -249,7 +270,10 @@ public abstract class AArch64LIRGenerator extends LIRGenerator {
         boolean mirrored = emitCompare(cmpKind, left, actualRight, cond, unorderedIsTrue);
         Condition finalCondition = mirrored ? cond.mirror() : cond;
         boolean finalUnorderedIsTrue = mirrored ? !unorderedIsTrue : unorderedIsTrue;
-        ConditionFlag cmpCondition = toConditionFlag(((AArch64Kind) cmpKind).isInteger(), finalCondition, finalUnorderedIsTrue);
+        return toConditionFlag(((AArch64Kind) cmpKind).isInteger(), finalCondition, finalUnorderedIsTrue);
+    }
+
+    private Variable emitCondMoveOp(ConditionFlag cmpCondition, Value trueValue, Value falseValue) {
         Variable result = newVariable(trueValue.getValueKind());
 
         if (isIntConstant(trueValue, 1) && isIntConstant(falseValue, 0)) {
@@ -552,6 +576,32 @@ public abstract class AArch64LIRGenerator extends LIRGenerator {
         return result;
     }
 
+    @Override
+    public Variable emitArrayIndexOf(JavaKind arrayKind, JavaKind valueKind, boolean findTwoConsecutive, Value sourcePointer, Value sourceCount, Value fromIndex, Value... searchValues) {
+        if (findTwoConsecutive) {
+            throw GraalError.unimplemented("searching for two consecutive values is not implemented on AArch64");
+        }
+        Variable result = newVariable(LIRKind.value(AArch64Kind.DWORD));
+        Value[] allocatableSearchValues = new Value[searchValues.length];
+        for (int i = 0; i < searchValues.length; i++) {
+            allocatableSearchValues[i] = asAllocatable(searchValues[i]);
+        }
+        append(new AArch64ArrayIndexOfOp(this, arrayKind, valueKind, result, asAllocatable(sourcePointer), asAllocatable(sourceCount), asAllocatable(fromIndex), allocatableSearchValues));
+        return result;
+    }
+
+    @Override
+    public void emitStringLatin1Inflate(Value src, Value dst, Value len) {
+        append(new AArch64StringLatin1InflateOp(this, asAllocatable(src), asAllocatable(dst), asAllocatable(len)));
+    }
+
+    @Override
+    public Variable emitStringUTF16Compress(Value src, Value dst, Value len) {
+        Variable result = newVariable(LIRKind.value(AArch64Kind.DWORD));
+        append(new AArch64StringUTF16CompressOp(this, result, asAllocatable(src), asAllocatable(dst), asAllocatable(len)));
+        return result;
+    }
+
     @Override
     protected JavaConstant zapValueForKind(PlatformKind kind) {
         long dead = 0xDEADDEADDEADDEADL;
@@ -464,6 +464,20 @@ public abstract class AMD64LIRGenerator extends LIRGenerator {
         return emitCondMoveOp(finalCondition, finalTrueValue, finalFalseValue, isFloatComparison, unorderedIsTrue, isSelfEqualsCheck);
     }
 
+    @Override
+    public Variable[] emitConditionalMoves(PlatformKind cmpKind, Value left, Value right, Condition cond, boolean unorderedIsTrue, Value[] trueValues, Value[] falseValues) {
+        if (cmpKind == AMD64Kind.SINGLE || cmpKind == AMD64Kind.DOUBLE) {
+            return super.emitConditionalMoves(cmpKind, left, right, cond, unorderedIsTrue, trueValues, falseValues);
+        }
+        // the moves emitted between the compare and the cmovs do not modify the flags
+        Condition finalCondition = emitCompare(cmpKind, left, right, cond);
+        Variable[] results = new Variable[trueValues.length];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = emitCondMoveOp(finalCondition, trueValues[i], falseValues[i], false, unorderedIsTrue);
+        }
+        return results;
+    }
+
     private Variable emitCondMoveOp(Condition condition, Value trueValue, Value falseValue, boolean isFloatComparison, boolean unorderedIsTrue) {
         return emitCondMoveOp(condition, trueValue, falseValue, isFloatComparison, unorderedIsTrue, false);
     }
@@ -81,6 +81,9 @@ public final class GraalOptions {
     @Option(help = "", type = OptionType.Debug)
     public static final OptionKey<Integer> EscapeAnalysisLoopCutoff = new OptionKey<>(20);
 
+    @Option(help = "Keep objects that are allocated in a loop and passed to the next iteration virtual if their identity cannot be observed.", type = OptionType.Expert)
+    public static final OptionKey<Boolean> EscapeAnalysisLoopCarriedAllocations = new OptionKey<>(false);
+
     @Option(help = "", type = OptionType.Debug)
     public static final OptionKey<String> EscapeAnalyzeOnly = new OptionKey<>(null);
 
@@ -105,6 +108,16 @@ public final class GraalOptions {
     @Option(help = "", type = OptionType.Debug)
     public static final OptionKey<Boolean> PartialUnroll = new OptionKey<>(true);
 
+    @Option(help = "Unroll counted loops over primitive arrays by the number of iterations that fit into a vector register. " +
+                   "This only changes the unroll factor, no vector instructions are emitted.", type = OptionType.Expert)
+    public static final OptionKey<Boolean> VectorWidthUnroll = new OptionKey<>(false);
+
+    @Option(help = "Split long running counted loops without safepoints into an outer loop that polls for safepoints and a poll-free inner loop with a bounded trip count.", type = OptionType.Expert)
+    public static final OptionKey<Boolean> LoopStripMining = new OptionKey<>(false);
+
+    @Option(help = "Replace range checks on induction variables inside counted loops by speculative guards in front of the loop.", type = OptionType.Expert)
+    public static final OptionKey<Boolean> LoopPredication = new OptionKey<>(false);
+
     @Option(help = "", type = OptionType.Expert)
     public static final OptionKey<Float> MinimumPeelFrequency = new OptionKey<>(0.35f);
 
@@ -191,6 +204,15 @@ public final class GraalOptions {
     @Option(help = "", type = OptionType.Debug)
     public static final OptionKey<Boolean> CanOmitFrame = new OptionKey<>(true);
 
+    @Option(help = "Emit blocks that are rarely executed according to the profile into an out-of-line region at the end of the compiled code.", type = OptionType.Expert)
+    public static final OptionKey<Boolean> HotColdSplitting = new OptionKey<>(false);
+
+    @Option(help = "Relative frequency below which a block is moved to the cold region by HotColdSplitting.", type = OptionType.Expert)
+    public static final OptionKey<Double> HotColdSplittingColdFrequency = new OptionKey<>(0.001D);
+
+    @Option(help = "Convert unpredictable diamonds into conditional moves based on the branch profile.", type = OptionType.Expert)
+    public static final OptionKey<Boolean> IfConversion = new OptionKey<>(false);
+
     // Ahead of time compilation
     @Option(help = "Try to avoid emitting code where patching is required", type = OptionType.Expert)
     public static final OptionKey<Boolean> ImmutableCode = new OptionKey<>(false);
@@ -53,6 +53,11 @@ import org.graalvm.compiler.core.common.cfg.Loop;
  * together in the schedule thus decreasing the probability for inserted phi moves. Also, the
  * algorithm sets the linear scan order number of the block that corresponds to its index in the
  * linear scan order.
+ *
+ * The code emission order can optionally be split into a hot and a cold region. Blocks whose
+ * relative frequency is below a threshold are moved behind all other blocks, keeping their relative
+ * order, so that rarely executed code such as exception paths, deoptimization exits and allocation
+ * slow paths does not dilute the instruction cache footprint of the frequently executed code.
  */
 public final class ComputeBlockOrder {
 
@@ -96,6 +101,52 @@ public final class ComputeBlockOrder {
         return order.toArray(new AbstractBlockBase<?>[0]);
     }
 
+    /**
+     * Computes the block order used for code emission and moves all
+     * {@linkplain #isColdBlock(AbstractBlockBase, double) cold} blocks to the end of the order.
+     *
+     * @param coldFrequency relative frequency below which a block is considered cold
+     * @return sorted list of blocks
+     */
+    public static <T extends AbstractBlockBase<T>> AbstractBlockBase<?>[] computeCodeEmittingOrder(int blockCount, T startBlock, double coldFrequency) {
+        AbstractBlockBase<?>[] order = computeCodeEmittingOrder(blockCount, startBlock);
+        AbstractBlockBase<?>[] result = new AbstractBlockBase<?>[order.length];
+        int hotIndex = 0;
+        for (AbstractBlockBase<?> block : order) {
+            if (!isColdBlock(block, coldFrequency)) {
+                result[hotIndex++] = block;
+            }
+        }
+        int coldIndex = hotIndex;
+        for (AbstractBlockBase<?> block : order) {
+            if (isColdBlock(block, coldFrequency)) {
+                result[coldIndex++] = block;
+            }
+        }
+        assert coldIndex == order.length;
+        return result;
+    }
+
+    /**
+     * Determines whether {@code block} belongs into the cold region of the code emission order.
+     * The start block is never cold.
+     */
+    public static boolean isColdBlock(AbstractBlockBase<?> block, double coldFrequency) {
+        return block.getPredecessorCount() != 0 && block.getRelativeFrequency() < coldFrequency;
+    }
+
+    /**
+     * Gets the index of the first block of the trailing run of cold blocks in {@code order}, or
+     * {@code order.length} if the order does not end with a cold block.
+     */
+    public static int firstColdBlockIndex(AbstractBlockBase<?>[] order, double coldFrequency) {
+        int index = order.length;
+        while (index > 0 && isColdBlock(order[index - 1], coldFrequency)) {
+            index--;
+        }
+        return index;
+    }
+
     /**
      * Iteratively adds paths to the code emission block order.
      */
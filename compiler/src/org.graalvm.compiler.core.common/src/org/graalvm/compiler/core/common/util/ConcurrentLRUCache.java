@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.core.common.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded map that can be shared between threads and evicts approximately least recently used
+ * entries. Lookups never block; they only record the current value of a logical clock in the
+ * entry, which is advanced by insertions. All entries used since the last insertion are therefore
+ * considered equally recent (but more recent than the entry inserted last), which is sufficient for
+ * caches whose entries are expensive to create and are inserted rarely compared to how often they
+ * are looked up.
+ */
+public final class ConcurrentLRUCache<K, V> {
+
+    private static final class Entry<V> {
+        final V value;
+        volatile long lastUse;
+
+        Entry(V value, long lastUse) {
+            this.value = value;
+            this.lastUse = lastUse;
+        }
+    }
+
+    private final ConcurrentHashMap<K, Entry<V>> map;
+    private final int maxSize;
+    /**
+     * Advanced by 2 for each insertion. Inserted entries are stamped with the new (even) value and
+     * used entries with the following odd value.
+     */
+    private final AtomicLong clock = new AtomicLong();
+
+    public ConcurrentLRUCache(int maxSize) {
+        assert maxSize > 0 : maxSize;
+        this.map = new ConcurrentHashMap<>(maxSize);
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Gets the value associated with {@code key} and marks it as recently used.
+     *
+     * @return the value or {@code null} if there is no entry for {@code key}
+     */
+    public V get(K key) {
+        Entry<V> entry = map.get(key);
+        if (entry == null) {
+            return null;
+        }
+        long now = clock.get() + 1;
+        if (entry.lastUse != now) {
+            // Avoid writing to the shared entry when it has already been marked.
+            entry.lastUse = now;
+        }
+        return entry.value;
+    }
+
+    /**
+     * Associates {@code value} with {@code key} unless there already is a value for {@code key}.
+     *
+     * @return the value previously associated with {@code key} or {@code null} if {@code value}
+     *         was inserted
+     */
+    public V putIfAbsent(K key, V value) {
+        Entry<V> previous = map.putIfAbsent(key, new Entry<>(value, clock.addAndGet(2)));
+        return previous == null ? null : previous.value;
+    }
+
+    /**
+     * Associates {@code value} with {@code key}, replacing any previous value.
+     */
+    public void put(K key, V value) {
+        map.put(key, new Entry<>(value, clock.addAndGet(2)));
+    }
+
+    /**
+     * Removes least recently used entries until the size of this cache is within its bound.
+     *
+     * @return the number of entries removed by this call
+     */
+    public int evict() {
+        int evicted = 0;
+        while (map.size() > maxSize) {
+            K eldestKey = null;
+            Entry<V> eldest = null;
+            for (Map.Entry<K, Entry<V>> e : map.entrySet()) {
+                if (eldest == null || e.getValue().lastUse < eldest.lastUse) {
+                    eldestKey = e.getKey();
+                    eldest = e.getValue();
+                }
+            }
+            if (eldest == null) {
+                break;
+            }
+            // Another thread may have evicted or replaced the entry in the meantime.
+            if (map.remove(eldestKey, eldest)) {
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    public int size() {
+        return map.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.core.test;
+
+import org.graalvm.compiler.debug.DebugOptions;
+import org.graalvm.compiler.java.BytecodeParserOptions;
+import org.graalvm.compiler.nodes.InvokeNode;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.StructuredGraph.AllowAssumptions;
+import org.graalvm.compiler.options.OptionValues;
+import org.junit.Test;
+
+/**
+ * Tests that a compilation exceeding {@link DebugOptions#CompilationMemoryBudget} stops inlining
+ * but still produces correct code.
+ */
+public class CompilationMemoryBudgetTest extends GraalCompilerTest {
+
+    public static int callee(int a) {
+        return (a * 31) ^ (a >>> 3);
+    }
+
+    public static int callerSnippet(int a) {
+        return callee(a) + callee(a + 1);
+    }
+
+    private OptionValues budgetOptions(long budget) {
+        return new OptionValues(getInitialOptions(), DebugOptions.CompilationMemoryBudget, budget, BytecodeParserOptions.InlineDuringParsing, false);
+    }
+
+    private StructuredGraph applyHighTier(OptionValues options) {
+        StructuredGraph graph = parseEager("callerSnippet", AllowAssumptions.NO, options);
+        createSuites(options).getHighTier().apply(graph, getDefaultHighTierContext());
+        return graph;
+    }
+
+    @Test
+    public void testWithinBudget() {
+        long budget = 1L << 30;
+        StructuredGraph graph = applyHighTier(budgetOptions(budget));
+        assertFalse(graph.getDebug().isMemoryBudgetExceeded());
+        long usage = graph.getDebug().getMemoryBudgetUsage();
+        assertTrue(usage > 0L, "expected usage to be recorded with a budget");
+        assertTrue(usage <= budget, "usage %d exceeds the budget %d", usage, budget);
+        assertTrue(graph.getNodes().filter(InvokeNode.class).isEmpty(), "expected callee to be inlined");
+    }
+
+    @Test
+    public void testBudgetDisabled() {
+        StructuredGraph graph = applyHighTier(budgetOptions(0L));
+        assertFalse(graph.getDebug().isMemoryBudgetExceeded());
+        assertTrue(graph.getDebug().getMemoryBudgetUsage() == 0L, "no usage is recorded without a budget");
+        assertTrue(graph.getNodes().filter(InvokeNode.class).isEmpty(), "expected callee to be inlined");
+    }
+
+    @Test
+    public void testInliningStopped() {
+        StructuredGraph graph = applyHighTier(budgetOptions(1L));
+        assertTrue(graph.getDebug().isMemoryBudgetExceeded());
+        assertTrue(graph.getDebug().getMemoryBudgetUsage() > 1L);
+        assertFalse(graph.getNodes().filter(InvokeNode.class).isEmpty(), "expected inlining to stop once the budget is exceeded");
+    }
+
+    @Test
+    public void testCompilationCompletes() {
+        OptionValues options = budgetOptions(1L);
+        for (int a : new int[]{0, 1, -7, 42, Integer.MAX_VALUE}) {
+            test(options, "callerSnippet", a);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.core.test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.graalvm.compiler.core.common.util.ConcurrentLRUCache;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ConcurrentLRUCacheTest {
+
+    @Test
+    public void testPutIfAbsent() {
+        ConcurrentLRUCache<String, Integer> cache = new ConcurrentLRUCache<>(4);
+        Assert.assertNull(cache.putIfAbsent("a", 1));
+        Assert.assertEquals(Integer.valueOf(1), cache.putIfAbsent("a", 2));
+        Assert.assertEquals(Integer.valueOf(1), cache.get("a"));
+        cache.put("a", 3);
+        Assert.assertEquals(Integer.valueOf(3), cache.get("a"));
+        Assert.assertNull(cache.get("b"));
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        ConcurrentLRUCache<String, Integer> cache = new ConcurrentLRUCache<>(2);
+        cache.putIfAbsent("a", 1);
+        cache.putIfAbsent("b", 2);
+        Assert.assertEquals(0, cache.evict());
+        // Using "a" makes "b" the least recently used entry.
+        cache.get("a");
+        cache.putIfAbsent("c", 3);
+        Assert.assertEquals(1, cache.evict());
+        Assert.assertEquals(2, cache.size());
+        Assert.assertNull(cache.get("b"));
+        Assert.assertEquals(Integer.valueOf(1), cache.get("a"));
+        Assert.assertEquals(Integer.valueOf(3), cache.get("c"));
+    }
+
+    @Test
+    public void testConcurrentAccess() throws Exception {
+        int maxSize = 16;
+        ConcurrentLRUCache<Integer, Integer> cache = new ConcurrentLRUCache<>(maxSize);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int seed = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 10000; i++) {
+                        Integer key = (i * 7 + seed) % 64;
+                        Integer value = cache.get(key);
+                        if (value == null) {
+                            cache.putIfAbsent(key, key * 2);
+                            cache.evict();
+                        } else {
+                            Assert.assertEquals(key * 2, value.intValue());
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        Assert.assertTrue(cache.size() <= maxSize);
+    }
+}
@@ -24,19 +24,26 @@
  */
 package org.graalvm.compiler.core.test;
 
+import java.io.DataInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.zip.GZIPInputStream;
 
 import org.graalvm.collections.EconomicMap;
 import org.graalvm.compiler.debug.DebugOptions;
 import org.graalvm.compiler.debug.DebugOptions.PrintGraphTarget;
+import org.graalvm.compiler.nodes.StructuredGraph;
 import org.graalvm.compiler.options.OptionKey;
 import org.graalvm.compiler.options.OptionValues;
 import org.junit.Test;
 
+import jdk.vm.ci.code.InstalledCode;
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+
 /**
  * Check that setting the dump path results in files ending up in the right directory with matching
  * names.
@@ -47,6 +54,20 @@ public class DumpPathTest extends GraalCompilerTest {
         return new String("snippet");
     }
 
+    @Override
+    protected InstalledCode getCode(ResolvedJavaMethod method, StructuredGraph graph, boolean forceCompile, boolean installAsDefault, OptionValues options) {
+        // Each test compiles the snippet with different dump options.
+        return super.getCode(method, graph, true, installAsDefault, options);
+    }
+
+    /**
+     * Compiles and runs the snippet and closes its debug context so that the dumps are complete.
+     */
+    private void dump(OptionValues options) {
+        test(options, "snippet");
+        getDebugContext(options, null, null).close();
+    }
+
     @Test
     public void testDump() throws IOException {
         assumeManagementLibraryIsLoadable();
@@ -61,12 +82,67 @@ public class DumpPathTest extends GraalCompilerTest {
             overrides.put(DebugOptions.MethodFilter, null);
 
             // Generate dump files.
-            test(new OptionValues(getInitialOptions(), overrides), "snippet");
+            dump(new OptionValues(getInitialOptions(), overrides));
             // Check that IGV files got created, in the right place.
             checkForFiles(temp.path, extensions);
         }
     }
 
+    private static EconomicMap<OptionKey<?>, Object> graphDumpOptions(TemporaryDirectory temp) {
+        EconomicMap<OptionKey<?>, Object> overrides = OptionValues.newOptionMap();
+        overrides.put(DebugOptions.DumpPath, temp.toString());
+        overrides.put(DebugOptions.PrintGraph, PrintGraphTarget.File);
+        overrides.put(DebugOptions.Dump, "*");
+        overrides.put(DebugOptions.MethodFilter, null);
+        return overrides;
+    }
+
+    @Test
+    public void testCompressedAsyncDump() throws IOException {
+        assumeManagementLibraryIsLoadable();
+        try (TemporaryDirectory temp = new TemporaryDirectory(Paths.get("."), "DumpPathTest")) {
+            EconomicMap<OptionKey<?>, Object> overrides = graphDumpOptions(temp);
+            overrides.put(DebugOptions.PrintGraphCompressed, true);
+            overrides.put(DebugOptions.PrintGraphAsync, true);
+            dump(new OptionValues(getInitialOptions(), overrides));
+            checkForFiles(temp.path, new String[]{".bgv.gz"});
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(temp.path, "*.bgv.gz")) {
+                for (Path filePath : stream) {
+                    try (InputStream in = new GZIPInputStream(Files.newInputStream(filePath))) {
+                        byte[] magic = new byte[4];
+                        new DataInputStream(in).readFully(magic);
+                        assertTrue(new String(magic, "US-ASCII").equals("BIGV"), "%s does not start with the BIGV magic", filePath);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testDumpMinCompileTime() throws IOException {
+        assumeManagementLibraryIsLoadable();
+        // Dumping every phase makes the compilation take well over a millisecond.
+        assertTrue(countDumps(1) > 0, "missing dump of a compilation above the threshold");
+        assertTrue(countDumps(Integer.MAX_VALUE) == 0, "unexpected dump of a compilation below the threshold");
+    }
+
+    private int countDumps(int minCompileTime) throws IOException {
+        try (TemporaryDirectory temp = new TemporaryDirectory(Paths.get("."), "DumpPathTest")) {
+            EconomicMap<OptionKey<?>, Object> overrides = graphDumpOptions(temp);
+            overrides.put(DebugOptions.DumpMinCompileTime, minCompileTime);
+            dump(new OptionValues(getInitialOptions(), overrides));
+            int count = 0;
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(temp.path, "*.bgv")) {
+                for (Path filePath : stream) {
+                    if (Files.size(filePath) != 0) {
+                        count++;
+                    }
+                }
+            }
+            return count;
+        }
+    }
+
     /**
      * Check that the given directory contains file or directory names with all the given
      * extensions.
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.core.test;
+
+import static org.graalvm.compiler.api.directives.GraalDirectives.SLOWPATH_PROBABILITY;
+import static org.graalvm.compiler.api.directives.GraalDirectives.injectBranchProbability;
+
+import org.graalvm.compiler.code.CompilationResult;
+import org.graalvm.compiler.core.common.GraalOptions;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.StructuredGraph.AllowAssumptions;
+import org.graalvm.compiler.options.OptionValues;
+import org.junit.Test;
+
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+
+/**
+ * Tests that {@link GraalOptions#HotColdSplitting} moves rarely executed blocks into a cold region
+ * at the end of the code without changing the semantics of the compiled method.
+ */
+public class HotColdSplittingTest extends GraalCompilerTest {
+
+    static int sideEffect;
+
+    public static int rareBranchSnippet(int a) {
+        int result = a * 7;
+        if (injectBranchProbability(SLOWPATH_PROBABILITY, a < 0)) {
+            sideEffect = a;
+            result = -result + Integer.bitCount(a);
+        }
+        return result + 1;
+    }
+
+    private OptionValues splittingOptions(boolean enabled) {
+        return new OptionValues(getInitialOptions(), GraalOptions.HotColdSplitting, enabled);
+    }
+
+    private CompilationResult compileSnippet(OptionValues options) {
+        ResolvedJavaMethod method = getResolvedJavaMethod("rareBranchSnippet");
+        StructuredGraph graph = parseEager(method, AllowAssumptions.YES, options);
+        return compile(method, graph, options);
+    }
+
+    @Test
+    public void testColdRegion() {
+        CompilationResult result = compileSnippet(splittingOptions(true));
+        assertTrue(result.getColdCodeStart() > 0, "expected a cold region");
+        assertTrue(result.getColdCodeStart() < result.getTargetCodeSize(), "cold region must be inside the code");
+    }
+
+    @Test
+    public void testNoColdRegionByDefault() {
+        CompilationResult result = compileSnippet(splittingOptions(false));
+        assertTrue(result.getColdCodeStart() == -1, "unexpected cold region");
+    }
+
+    @Test
+    public void testSemantics() {
+        OptionValues options = splittingOptions(true);
+        for (int a : new int[]{0, 1, -1, 42, Integer.MIN_VALUE, Integer.MAX_VALUE}) {
+            test(options, "rareBranchSnippet", a);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.core.test;
+
+import static org.graalvm.compiler.api.directives.GraalDirectives.injectBranchProbability;
+
+import org.graalvm.compiler.core.common.GraalOptions;
+import org.graalvm.compiler.nodes.IfNode;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.calc.ConditionalNode;
+import org.graalvm.compiler.options.OptionValues;
+import org.graalvm.compiler.phases.common.IfConversionPhase;
+import org.junit.Test;
+
+/**
+ * Tests that {@link IfConversionPhase} replaces unpredictable diamonds by {@link ConditionalNode}s
+ * and leaves well predicted ones alone.
+ */
+public class IfConversionTest extends GraalCompilerTest {
+
+    private boolean expectConverted;
+
+    @Override
+    protected void checkLowTierGraph(StructuredGraph graph) {
+        int ifs = graph.getNodes(IfNode.TYPE).count();
+        int conditionals = graph.getNodes().filter(ConditionalNode.class).count();
+        if (expectConverted) {
+            assertTrue(ifs == 0, "expected all ifs to be converted in %s", graph);
+            assertTrue(conditionals == 2, "expected 2 conditionals, found %d in %s", conditionals, graph);
+        } else {
+            assertTrue(ifs == 1, "expected the if to remain in %s", graph);
+        }
+    }
+
+    public static int unpredictableSnippet(int a, int b) {
+        int x;
+        int y;
+        if (injectBranchProbability(0.5, a < b)) {
+            x = a * 3 + b;
+            y = a ^ 5;
+        } else {
+            x = b - a;
+            y = b;
+        }
+        return x + (y << 1);
+    }
+
+    public static long unpredictableLongSnippet(long a, long b) {
+        long x;
+        long y;
+        if (injectBranchProbability(0.4, a != b)) {
+            x = a + 1;
+            y = a & b;
+        } else {
+            x = b << 3;
+            y = a | 1;
+        }
+        return x * 31 + y;
+    }
+
+    public static int predictableSnippet(int a, int b) {
+        int x;
+        int y;
+        if (injectBranchProbability(0.99, a < b)) {
+            x = a * 3 + b;
+            y = a ^ 5;
+        } else {
+            x = b - a;
+            y = b;
+        }
+        return x + (y << 1);
+    }
+
+    private void testIfConversion(boolean converted, String name, Object... args) {
+        expectConverted = converted;
+        OptionValues options = new OptionValues(getInitialOptions(), GraalOptions.IfConversion, true);
+        test(options, name, args);
+    }
+
+    @Test
+    public void testUnpredictable() {
+        for (int[] args : new int[][]{{1, 2}, {2, 1}, {0, 0}, {Integer.MIN_VALUE, Integer.MAX_VALUE}, {-7, -8}}) {
+            testIfConversion(true, "unpredictableSnippet", args[0], args[1]);
+        }
+    }
+
+    @Test
+    public void testUnpredictableLong() {
+        for (long[] args : new long[][]{{1, 2}, {5, 5}, {Long.MIN_VALUE, -1}}) {
+            testIfConversion(true, "unpredictableLongSnippet", args[0], args[1]);
+        }
+    }
+
+    @Test
+    public void testPredictable() {
+        testIfConversion(false, "predictableSnippet", 1, 2);
+        testIfConversion(false, "predictableSnippet", 2, 1);
+    }
+}
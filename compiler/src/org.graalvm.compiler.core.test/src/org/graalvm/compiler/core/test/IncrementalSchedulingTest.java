@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.core.test;
+
+import org.junit.Test;
+
+import org.graalvm.compiler.nodes.IfNode;
+import org.graalvm.compiler.nodes.LogicConstantNode;
+import org.graalvm.compiler.nodes.LoopExitNode;
+import org.graalvm.compiler.nodes.ReturnNode;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.StructuredGraph.AllowAssumptions;
+import org.graalvm.compiler.nodes.StructuredGraph.ScheduleResult;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.cfg.Block;
+import org.graalvm.compiler.nodes.calc.AddNode;
+import org.graalvm.compiler.options.OptionValues;
+import org.graalvm.compiler.phases.schedule.SchedulePhase;
+import org.graalvm.compiler.phases.schedule.SchedulePhase.SchedulingStrategy;
+
+public class IncrementalSchedulingTest extends GraphScheduleTest {
+
+    public static int incrementalSnippet(int a, int b) {
+        int sum = 0;
+        for (int i = 0; i < a; i++) {
+            sum += i * b;
+        }
+        if (sum > 100) {
+            return sum;
+        }
+        return sum * 3;
+    }
+
+    @Test
+    public void testIncrementalScheduling() {
+        OptionValues options = new OptionValues(getInitialOptions(), SchedulePhase.Options.IncrementalScheduling, true);
+        StructuredGraph graph = parseEager("incrementalSnippet", AllowAssumptions.YES, options);
+        SchedulePhase schedulePhase = new SchedulePhase(SchedulingStrategy.LATEST_OUT_OF_LOOPS);
+
+        schedulePhase.apply(graph);
+        ScheduleResult first = graph.getLastSchedule();
+        schedulePhase.apply(graph);
+        assertTrue(graph.getLastSchedule() == first, "unchanged graph must keep its schedule");
+
+        // only floating nodes and branch probabilities change: the control flow graph is reused
+        IfNode branch = null;
+        for (IfNode ifNode : graph.getNodes(IfNode.TYPE)) {
+            if (!(ifNode.trueSuccessor() instanceof LoopExitNode) && !(ifNode.falseSuccessor() instanceof LoopExitNode)) {
+                branch = ifNode;
+            }
+        }
+        Block trueBlock = first.getCFG().blockFor(branch.trueSuccessor());
+        double trueFrequency = trueBlock.getRelativeFrequency();
+        branch.setTrueSuccessorProbability(branch.getTrueSuccessorProbability() > 0.5 ? 0.01 : 0.99);
+        ReturnNode ret = graph.getNodes(ReturnNode.TYPE).first();
+        ValueNode result = ret.result();
+        ValueNode doubled = graph.addOrUnique(new AddNode(result, result));
+        ret.replaceFirstInput(result, doubled);
+        schedulePhase.apply(graph);
+        ScheduleResult second = graph.getLastSchedule();
+        assertTrue(second != first);
+        assertTrue(second.getCFG() == first.getCFG(), "control flow graph must be reused");
+        assertTrue(second.getNodeToBlockMap().get(doubled) != null);
+        assertTrue(trueBlock.getRelativeFrequency() != trueFrequency, "block frequencies must be recomputed");
+
+        // the control flow changes: the graph is scheduled from scratch
+        for (IfNode ifNode : graph.getNodes(IfNode.TYPE)) {
+            if (!(ifNode.trueSuccessor() instanceof LoopExitNode) && !(ifNode.falseSuccessor() instanceof LoopExitNode)) {
+                ifNode.setCondition(LogicConstantNode.tautology(graph));
+            }
+        }
+        createCanonicalizerPhase().apply(graph, getProviders());
+        schedulePhase.apply(graph);
+        assertTrue(graph.getLastSchedule().getCFG() != second.getCFG());
+    }
+
+    @Test
+    public void testModificationsNotTrackedByDefault() {
+        StructuredGraph graph = parseEager("incrementalSnippet", AllowAssumptions.YES);
+        new SchedulePhase(SchedulingStrategy.LATEST_OUT_OF_LOOPS).apply(graph);
+        ReturnNode ret = graph.getNodes(ReturnNode.TYPE).first();
+        ret.replaceFirstInput(ret.result(), graph.addOrUnique(new AddNode(ret.result(), ret.result())));
+        assertFalse(graph.isTrackingModifications());
+        assertTrue(graph.getModificationCount() == 0 && graph.getControlFlowModificationCount() == 0);
+    }
+}
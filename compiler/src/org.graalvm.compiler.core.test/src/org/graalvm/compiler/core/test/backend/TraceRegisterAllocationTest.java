@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.core.test.backend;
+
+import org.graalvm.compiler.core.test.GraalCompilerTest;
+import org.graalvm.compiler.lir.alloc.trace.TraceRegisterAllocationPhase;
+import org.graalvm.compiler.options.OptionValues;
+import org.junit.Test;
+
+public class TraceRegisterAllocationTest extends GraalCompilerTest {
+
+    private void testTraceRA(String name, Object... args) {
+        OptionValues options = new OptionValues(getInitialOptions(), TraceRegisterAllocationPhase.Options.TraceRA, true);
+        test(options, name, args);
+        OptionValues biDirectional = new OptionValues(options, TraceRegisterAllocationPhase.Options.TraceRABiDirectional, true);
+        test(biDirectional, name, args);
+    }
+
+    public static int branchSnippet(int a, int b) {
+        int result;
+        if (a > b) {
+            result = a * 3 + b;
+        } else {
+            result = b - a;
+        }
+        return result + a;
+    }
+
+    @Test
+    public void testBranch() {
+        testTraceRA("branchSnippet", 5, 3);
+        testTraceRA("branchSnippet", -7, 11);
+    }
+
+    public static long loopSnippet(int[] array) {
+        long sum = 0;
+        int max = Integer.MIN_VALUE;
+        for (int i = 0; i < array.length; i++) {
+            int value = array[i];
+            if (value > max) {
+                max = value;
+            }
+            sum += value;
+        }
+        return sum * 31 + max;
+    }
+
+    @Test
+    public void testLoop() {
+        testTraceRA("loopSnippet", new int[]{4, -2, 19, 7, 0, 3});
+        testTraceRA("loopSnippet", new int[0]);
+    }
+
+    /**
+     * Keeps more values alive than there are registers so that some of them must be spilled.
+     */
+    public static int pressureSnippet(int a, int b) {
+        int v0 = a + 1;
+        int v1 = a * 2;
+        int v2 = b + 3;
+        int v3 = b * 5;
+        int v4 = a ^ b;
+        int v5 = a - b;
+        int v6 = a | b;
+        int v7 = a & b;
+        int v8 = a * b;
+        int v9 = v0 + v3;
+        int v10 = v1 - v2;
+        int v11 = v4 * 7;
+        int v12 = v5 + v6;
+        int v13 = v7 * v8;
+        int v14 = v0 ^ v9;
+        int v15 = v10 | v11;
+        int v16 = v12 * 3;
+        int v17 = v13 + 11;
+        for (int i = 0; i < a; i++) {
+            v0 += v17;
+            v17 += v16 ^ i;
+            v16 += v15;
+            v15 += v14 * i;
+            v14 += v13;
+            v13 += v12;
+            v12 += v11 ^ i;
+            v11 += v10;
+            v10 += v9;
+            v9 += v8 * i;
+        }
+        return v0 + v1 + v2 + v3 + v4 + v5 + v6 + v7 + v8 + v9 + v10 + v11 + v12 + v13 + v14 + v15 + v16 + v17;
+    }
+
+    @Test
+    public void testPressure() {
+        testTraceRA("pressureSnippet", 10, 3);
+        testTraceRA("pressureSnippet", 0, -9);
+    }
+
+    private static int callee(int x) {
+        return x * 17;
+    }
+
+    public static int callSnippet(int a, double d, Object o) {
+        int x = callee(a);
+        int y = callee(x + 1);
+        double e = d * 3;
+        return x + y + (int) e + o.hashCode() + a;
+    }
+
+    @Test
+    public void testCall() {
+        testTraceRA("callSnippet", 3, 2.5, "abc");
+    }
+
+    public static int exceptionSnippet(int[] array, int index, int fallback) {
+        int before = fallback * 3;
+        try {
+            return array[index] + before;
+        } catch (ArrayIndexOutOfBoundsException e) {
+            return before + index;
+        }
+    }
+
+    @Test
+    public void testException() {
+        testTraceRA("exceptionSnippet", new int[]{1, 2, 3}, 1, 9);
+        testTraceRA("exceptionSnippet", new int[]{1, 2, 3}, 5, 9);
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.core.test.ea;
+
+import org.graalvm.compiler.core.common.GraalOptions;
+import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.options.OptionValues;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests that {@link GraalOptions#EscapeAnalysisLoopCarriedAllocations} keeps objects that are
+ * passed from one loop iteration to the next virtual.
+ */
+public class PartialEscapeAnalysisLoopTest extends EATestBase {
+
+    private boolean loopCarriedAllocations = true;
+
+    private OptionValues loopOptions() {
+        return new OptionValues(getInitialOptions(), GraalOptions.EscapeAnalysisLoopCarriedAllocations, loopCarriedAllocations);
+    }
+
+    @Override
+    protected DebugContext getDebugContext() {
+        return getDebugContext(loopOptions(), null, null);
+    }
+
+    public static int loopCarriedSnippet(int n) {
+        TestClassInt p = new TestClassInt(0, 1);
+        for (int i = 0; i < n; i++) {
+            p = new TestClassInt(p.x + i, p.y * 3);
+        }
+        return p.x + p.y;
+    }
+
+    @Test
+    public void testLoopCarried() {
+        testEscapeAnalysis("loopCarriedSnippet", null, false, 0);
+        for (int n : new int[]{0, 1, 2, 10}) {
+            test(loopOptions(), "loopCarriedSnippet", n);
+        }
+    }
+
+    @Test
+    public void testLoopCarriedDisabled() {
+        loopCarriedAllocations = false;
+        prepareGraph("loopCarriedSnippet", false);
+        Assert.assertTrue("expected the allocations to be materialized", getAllocationCount() > 0);
+    }
+
+    static final class Cursor {
+        final int[] data;
+        final int index;
+
+        Cursor(int[] data, int index) {
+            this.data = data;
+            this.index = index;
+        }
+
+        boolean hasNext() {
+            return index < data.length;
+        }
+
+        int get() {
+            return data[index];
+        }
+
+        Cursor next() {
+            return new Cursor(data, index + 1);
+        }
+    }
+
+    public static int cursorSnippet(int[] data) {
+        int sum = 0;
+        for (Cursor cursor = new Cursor(data, 0); cursor.hasNext(); cursor = cursor.next()) {
+            sum += cursor.get();
+        }
+        return sum;
+    }
+
+    @Test
+    public void testCursor() {
+        testEscapeAnalysis("cursorSnippet", null, false, 0);
+        test(loopOptions(), "cursorSnippet", new int[]{1, 2, 3, 4, 5});
+        test(loopOptions(), "cursorSnippet", new int[0]);
+    }
+
+    public static boolean identitySnippet(int n) {
+        TestClassInt first = new TestClassInt(0, 0);
+        TestClassInt p = first;
+        for (int i = 0; i < n; i++) {
+            p = new TestClassInt(p.x + i, 0);
+        }
+        return p == first;
+    }
+
+    @Test
+    public void testObservedIdentity() {
+        prepareGraph("identitySnippet", false);
+        Assert.assertTrue("the identity of the loop entry allocation is observed after the loop", getAllocationCount() > 0);
+        test(loopOptions(), "identitySnippet", 0);
+        test(loopOptions(), "identitySnippet", 3);
+    }
+
+    public static boolean twoPhisSnippet(int n) {
+        TestClassInt a = new TestClassInt(0, 0);
+        TestClassInt b = new TestClassInt(0, 0);
+        for (int i = 0; i < n; i++) {
+            TestClassInt q = new TestClassInt(a.x + i, b.y);
+            a = q;
+            b = q;
+        }
+        return a == b;
+    }
+
+    @Test
+    public void testAllocationInTwoPhis() {
+        prepareGraph("twoPhisSnippet", false);
+        Assert.assertTrue("an allocation flowing into two loop phis must not become two virtual objects", getAllocationCount() > 0);
+        for (int n : new int[]{0, 1, 3}) {
+            test(loopOptions(), "twoPhisSnippet", n);
+        }
+    }
+
+    public static TestClassInt escapeAfterLoopSnippet(int n) {
+        TestClassInt p = new TestClassInt(1, 1);
+        for (int i = 0; i < n; i++) {
+            p = new TestClassInt(p.y, p.x + p.y);
+        }
+        return p;
+    }
+
+    @Test
+    public void testEscapeAfterLoop() {
+        // only the final object is materialized, after the loop exit
+        testEscapeAnalysis("escapeAfterLoopSnippet", null, false, 1);
+        test(loopOptions(), "escapeAfterLoopSnippet", 7);
+    }
+}
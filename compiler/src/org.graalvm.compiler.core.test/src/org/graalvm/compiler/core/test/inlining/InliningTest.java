@@ -24,14 +24,18 @@
  */
 package org.graalvm.compiler.core.test.inlining;
 
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 
 import org.graalvm.compiler.core.common.GraalOptions;
 import org.graalvm.compiler.core.test.GraalCompilerTest;
 import org.graalvm.compiler.debug.DebugContext;
 import org.graalvm.compiler.debug.DebugDumpScope;
+import org.graalvm.compiler.debug.DebugOptions;
 import org.graalvm.compiler.debug.TTY;
 import org.graalvm.compiler.graph.Node;
+import org.graalvm.compiler.java.BytecodeParserOptions;
 import org.graalvm.compiler.nodes.FullInfopointNode;
 import org.graalvm.compiler.nodes.Invoke;
 import org.graalvm.compiler.nodes.StructuredGraph;
@@ -41,7 +45,12 @@ import org.graalvm.compiler.nodes.graphbuilderconf.GraphBuilderConfiguration;
 import org.graalvm.compiler.options.OptionValues;
 import org.graalvm.compiler.phases.OptimisticOptimizations;
 import org.graalvm.compiler.phases.PhaseSuite;
+import org.graalvm.compiler.phases.common.CanonicalizerPhase;
 import org.graalvm.compiler.phases.common.DeadCodeEliminationPhase;
+import org.graalvm.compiler.phases.common.inlining.CalleeGraphPrefetcher;
+import org.graalvm.compiler.phases.common.inlining.InliningPhase;
+import org.graalvm.compiler.phases.common.inlining.policy.GreedyInliningPolicy;
+import org.graalvm.compiler.phases.common.inlining.policy.InliningPolicy;
 import org.graalvm.compiler.phases.tiers.HighTierContext;
 import org.graalvm.compiler.serviceprovider.GraalServices;
 import org.junit.Assert;
@@ -77,6 +86,92 @@ public class InliningTest extends GraalCompilerTest {
         assertInlined(getGraph("invokeMethodOnStaticFinalFieldSnippet", false));
     }
 
+    @Test
+    public void testParallelInliningGraphs() {
+        OptionValues options = new OptionValues(getInitialOptions(), InliningPhase.Options.ParallelInliningGraphs, true);
+        assertInlined(getGraph("invokeStaticSnippet", options, false));
+        assertInlined(getGraph("invokeConstructorSnippet", options, false));
+        assertInlined(getGraph("invokeFinalMethodSnippet", options, false));
+        assertInlined(getGraph("invokeMethodOnFinalClassSnippet", options, false));
+        assertNotInlined(getGraph("invokeOverriddenPublicMethodSnippet", options, false));
+    }
+
+    @SuppressWarnings("all")
+    public static int prefetchSnippet(int a) {
+        return prefetchCallee1(a) + prefetchCallee2(a);
+    }
+
+    static int prefetchCallee1(int a) {
+        return a * 3;
+    }
+
+    static int prefetchCallee2(int a) {
+        return a ^ 5;
+    }
+
+    /**
+     * Waits for the callee graphs to be prefetched before inlining so that the inliner is
+     * guaranteed to use them instead of parsing the callees itself.
+     */
+    @Test
+    @SuppressWarnings("try")
+    public void testParallelInliningGraphsPrefetchHits() {
+        OptionValues options = new OptionValues(getInitialOptions(), InliningPhase.Options.ParallelInliningGraphs, true, DebugOptions.Counters, "", BytecodeParserOptions.InlineDuringParsing, false);
+        DebugContext debug = getDebugContext(options, null, null);
+        ForkJoinPool pool = new ForkJoinPool(1);
+        try (DebugContext.Scope s = debug.scope("InliningTest", new DebugDumpScope("prefetchSnippet", true))) {
+            StructuredGraph graph = parse(builder(getResolvedJavaMethod("prefetchSnippet"), AllowAssumptions.YES, debug), getEagerGraphBuilderSuite());
+            HighTierContext context = new HighTierContext(getProviders(), getDefaultGraphBuilderSuite(), OptimisticOptimizations.ALL);
+            CanonicalizerPhase canonicalizer = createCanonicalizerPhase();
+            InliningPolicy policy = new GreedyInliningPolicy(null);
+            CalleeGraphPrefetcher prefetcher = new CalleeGraphPrefetcher(graph, context, canonicalizer, policy, pool);
+            prefetcher.prefetch(graph.getInvokes());
+            Assert.assertTrue(pool.awaitQuiescence(1, TimeUnit.MINUTES));
+
+            new InliningPhase(policy, canonicalizer) {
+                @Override
+                protected CalleeGraphPrefetcher createPrefetcher(StructuredGraph g, HighTierContext c) {
+                    return prefetcher;
+                }
+            }.apply(graph, context);
+            assertInlined(graph);
+            Assert.assertEquals(2, CalleeGraphPrefetcher.PrefetchedGraphsUsed.getCurrentValue(debug));
+        } catch (Throwable e) {
+            throw debug.handle(e);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * The speculation log of a compilation is not thread safe, so the graphs parsed on the prefetch
+     * pool must not use it.
+     */
+    @Test
+    @SuppressWarnings("try")
+    public void testPrefetchedGraphsDoNotUseSpeculationLog() {
+        OptionValues options = new OptionValues(getInitialOptions(), InliningPhase.Options.ParallelInliningGraphs, true, BytecodeParserOptions.InlineDuringParsing, false);
+        DebugContext debug = getDebugContext(options, null, null);
+        ForkJoinPool pool = new ForkJoinPool(1);
+        try (DebugContext.Scope s = debug.scope("InliningTest", new DebugDumpScope("prefetchSnippet", true))) {
+            StructuredGraph graph = builder(getResolvedJavaMethod("prefetchSnippet"), AllowAssumptions.YES, debug).speculationLog(getCodeCache().createSpeculationLog()).build();
+            HighTierContext context = new HighTierContext(getProviders(), getDefaultGraphBuilderSuite(), OptimisticOptimizations.ALL);
+            getEagerGraphBuilderSuite().apply(graph, context);
+            CalleeGraphPrefetcher prefetcher = new CalleeGraphPrefetcher(graph, context, createCanonicalizerPhase(), new GreedyInliningPolicy(null), pool);
+            prefetcher.prefetch(graph.getInvokes());
+            Assert.assertTrue(pool.awaitQuiescence(1, TimeUnit.MINUTES));
+
+            StructuredGraph callee = prefetcher.getGraph(getResolvedJavaMethod("prefetchCallee1"), debug);
+            Assert.assertNotNull("callee graph was not prefetched", callee);
+            Assert.assertNotNull(graph.getSpeculationLog());
+            Assert.assertNull(callee.getSpeculationLog());
+        } catch (Throwable e) {
+            throw debug.handle(e);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
     @Ignore("would need read elimination/EA before inlining")
     @Test
     public void testDependentStaticBindableInlining() {
@@ -24,6 +24,7 @@
  */
 package org.graalvm.compiler.core.gen;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
@@ -43,6 +44,7 @@ import org.graalvm.compiler.debug.DebugContext.CompilerPhaseScope;
 import org.graalvm.compiler.debug.GraalError;
 import org.graalvm.compiler.debug.TimerKey;
 import org.graalvm.compiler.lir.LIR;
+import org.graalvm.compiler.lir.LIRInstruction;
 import org.graalvm.compiler.lir.alloc.OutOfRegistersException;
 import org.graalvm.compiler.lir.asm.CompilationResultBuilder;
 import org.graalvm.compiler.lir.asm.CompilationResultBuilderFactory;
@@ -50,6 +52,8 @@ import org.graalvm.compiler.lir.framemap.FrameMap;
 import org.graalvm.compiler.lir.gen.LIRGenerationResult;
 import org.graalvm.compiler.lir.gen.LIRGeneratorTool;
 import org.graalvm.compiler.lir.phases.AllocationPhase.AllocationContext;
+import org.graalvm.compiler.lir.phases.EconomyAllocationStage;
+import org.graalvm.compiler.lir.phases.EconomyPreAllocationOptimizationStage;
 import org.graalvm.compiler.lir.phases.LIRSuites;
 import org.graalvm.compiler.lir.phases.PostAllocationOptimizationPhase.PostAllocationOptimizationContext;
 import org.graalvm.compiler.lir.phases.PreAllocationOptimizationPhase.PreAllocationOptimizationContext;
@@ -57,6 +61,7 @@ import org.graalvm.compiler.nodes.StructuredGraph;
 import org.graalvm.compiler.nodes.StructuredGraph.ScheduleResult;
 import org.graalvm.compiler.nodes.cfg.Block;
 import org.graalvm.compiler.nodes.spi.NodeLIRBuilderTool;
+import org.graalvm.compiler.options.OptionValues;
 
 import jdk.vm.ci.code.RegisterConfig;
 import jdk.vm.ci.code.TargetDescription;
@@ -73,6 +78,7 @@ import jdk.vm.ci.meta.VMConstant;
 public class LIRCompilerBackend {
     private static final TimerKey EmitLIR = DebugContext.timer("EmitLIR").doc("Time spent generating LIR from HIR.");
     private static final TimerKey EmitCode = DebugContext.timer("EmitCode").doc("Time spent generating machine code from LIR.");
+    private static final CounterKey EconomyLIRStages = DebugContext.counter("MemoryBudgetEconomyLIRStages").doc("Compilations that used the economy LIR stages after exceeding their memory budget.");
     private static final TimerKey BackEnd = DebugContext.timer("BackEnd").doc("Time spent in EmitLIR and EmitCode.");
 
     @SuppressWarnings("try")
@@ -141,9 +147,19 @@ public class LIRCompilerBackend {
             assert startBlock != null;
             assert startBlock.getPredecessorCount() == 0;
 
-            AbstractBlockBase<?>[] codeEmittingOrder = ComputeBlockOrder.computeCodeEmittingOrder(blocks.length, startBlock);
+            AbstractBlockBase<?>[] codeEmittingOrder;
+            int firstColdBlockIndex;
+            if (GraalOptions.HotColdSplitting.getValue(graph.getOptions())) {
+                double coldFrequency = GraalOptions.HotColdSplittingColdFrequency.getValue(graph.getOptions());
+                codeEmittingOrder = ComputeBlockOrder.computeCodeEmittingOrder(blocks.length, startBlock, coldFrequency);
+                firstColdBlockIndex = ComputeBlockOrder.firstColdBlockIndex(codeEmittingOrder, coldFrequency);
+            } else {
+                codeEmittingOrder = ComputeBlockOrder.computeCodeEmittingOrder(blocks.length, startBlock);
+                firstColdBlockIndex = codeEmittingOrder.length;
+            }
             AbstractBlockBase<?>[] linearScanOrder = ComputeBlockOrder.computeLinearScanOrder(blocks.length, startBlock);
             LIR lir = new LIR(schedule.getCFG(), linearScanOrder, codeEmittingOrder, graph.getOptions(), graph.getDebug());
+            lir.setFirstColdBlockIndex(firstColdBlockIndex);
 
             LIRGenerationProvider lirBackend = (LIRGenerationProvider) backend;
             RegisterAllocationConfig registerAllocationConfig = backend.newRegisterAllocationConfig(registerConfig, allocationRestrictedTo);
@@ -154,6 +170,9 @@ public class LIRCompilerBackend {
             // LIR generation
             LIRGenerationContext context = new LIRGenerationContext(lirGen, nodeLirGen, graph, schedule);
             new LIRGenerationPhase().apply(backend.getTarget(), lirGenRes, context);
+            if (debug.hasMemoryBudget()) {
+                debug.chargeMemory(estimatedLIRBytes(lir));
+            }
 
             try (DebugContext.Scope s = debug.scope("LIRStages", nodeLirGen, lirGenRes, lir)) {
                 // Dump LIR along with HIR (the LIR is looked up from context)
@@ -170,9 +189,35 @@ public class LIRCompilerBackend {
         }
     }
 
-    private static LIRGenerationResult emitLowLevel(TargetDescription target, LIRGenerationResult lirGenRes, LIRGeneratorTool lirGen, LIRSuites lirSuites,
+    /**
+     * Approximate heap size of a LIR instruction including its operand arrays, as charged against
+     * the {@linkplain DebugContext#chargeMemory memory budget} of a compilation.
+     */
+    private static final int LIR_INSTRUCTION_BYTES = 96;
+
+    private static long estimatedLIRBytes(LIR lir) {
+        long instructions = 0;
+        for (AbstractBlockBase<?> block : lir.linearScanOrder()) {
+            if (block != null) {
+                ArrayList<LIRInstruction> ops = lir.getLIRforBlock(block);
+                if (ops != null) {
+                    instructions += ops.size();
+                }
+            }
+        }
+        return instructions * LIR_INSTRUCTION_BYTES;
+    }
+
+    private static LIRGenerationResult emitLowLevel(TargetDescription target, LIRGenerationResult lirGenRes, LIRGeneratorTool lirGen, LIRSuites suites,
                     RegisterAllocationConfig registerAllocationConfig) {
         DebugContext debug = lirGenRes.getLIR().getDebug();
+        LIRSuites lirSuites = suites;
+        if (debug.isMemoryBudgetExceeded()) {
+            // Trade code quality for a smaller footprint in the most expensive LIR stages.
+            OptionValues options = lirGenRes.getLIR().getOptions();
+            lirSuites = new LIRSuites(new EconomyPreAllocationOptimizationStage(), new EconomyAllocationStage(options), suites.getPostAllocationOptimizationStage());
+            EconomyLIRStages.increment(debug);
+        }
         PreAllocationOptimizationContext preAllocOptContext = new PreAllocationOptimizationContext(lirGen);
         lirSuites.getPreAllocationOptimizationStage().apply(target, lirGenRes, preAllocOptContext);
         debug.dump(DebugContext.BASIC_LEVEL, lirGenRes.getLIR(), "After PreAllocationOptimizationStage");
@@ -584,11 +584,55 @@ public abstract class NodeLIRBuilder implements NodeLIRBuilderTool, LIRGeneratio
 
     @Override
     public void emitConditional(ConditionalNode conditional) {
+        if (conditional.condition() instanceof CompareNode) {
+            List<ConditionalNode> group = conditionalGroup(conditional);
+            if (group.size() > 1) {
+                emitConditionalGroup((CompareNode) conditional.condition(), group);
+                return;
+            }
+        }
         Value tVal = operand(conditional.trueValue());
         Value fVal = operand(conditional.falseValue());
         setResult(conditional, emitConditional(conditional.condition(), tVal, fVal));
     }
 
+    /**
+     * Collects the {@link ConditionalNode}s of the current block that share the condition of
+     * {@code conditional} and whose inputs are already available, so that they can be emitted
+     * after a single comparison.
+     */
+    private List<ConditionalNode> conditionalGroup(ConditionalNode conditional) {
+        List<ConditionalNode> group = new ArrayList<>(2);
+        group.add(conditional);
+        StructuredGraph.ScheduleResult schedule = conditional.graph().getLastSchedule();
+        if (schedule == null) {
+            return group;
+        }
+        for (Node usage : conditional.condition().usages()) {
+            if (usage != conditional && usage instanceof ConditionalNode) {
+                ConditionalNode sibling = (ConditionalNode) usage;
+                if (!hasOperand(sibling) && hasOperand(sibling.trueValue()) && hasOperand(sibling.falseValue()) && schedule.getNodeToBlockMap().get(sibling) == gen.getCurrentBlock()) {
+                    group.add(sibling);
+                }
+            }
+        }
+        return group;
+    }
+
+    private void emitConditionalGroup(CompareNode compare, List<ConditionalNode> group) {
+        Value[] trueValues = new Value[group.size()];
+        Value[] falseValues = new Value[group.size()];
+        for (int i = 0; i < trueValues.length; i++) {
+            trueValues[i] = operand(group.get(i).trueValue());
+            falseValues[i] = operand(group.get(i).falseValue());
+        }
+        PlatformKind kind = gen.getLIRKind(compare.getX().stamp(NodeView.DEFAULT)).getPlatformKind();
+        Variable[] results = gen.emitConditionalMoves(kind, operand(compare.getX()), operand(compare.getY()), compare.condition().asCondition(), compare.unorderedIsTrue(), trueValues, falseValues);
+        for (int i = 0; i < results.length; i++) {
+            setResult(group.get(i), results[i]);
+        }
+    }
+
     public Variable emitConditional(LogicNode node, Value trueValue, Value falseValue) {
         if (node instanceof IsNullNode) {
             IsNullNode isNullNode = (IsNullNode) node;
@@ -26,6 +26,7 @@ package org.graalvm.compiler.debug;
 
 import static java.util.FormattableFlags.LEFT_JUSTIFY;
 import static java.util.FormattableFlags.UPPERCASE;
+import static org.graalvm.compiler.debug.DebugOptions.CompilationMemoryBudget;
 import static org.graalvm.compiler.debug.DebugOptions.Count;
 import static org.graalvm.compiler.debug.DebugOptions.Counters;
 import static org.graalvm.compiler.debug.DebugOptions.DisableIntercept;
@@ -131,7 +132,8 @@ public final class DebugContext implements AutoCloseable {
             return builder.build(parentOutput);
         } else {
             if (sharedChannel == null) {
-                sharedChannel = new IgvDumpChannel(() -> getDumpPath(".bgv", false), immutable.options);
+                String extension = DebugOptions.PrintGraphCompressed.getValue(immutable.options) ? ".bgv.gz" : ".bgv";
+                sharedChannel = new IgvDumpChannel(() -> getDumpPath(extension, false), immutable.options);
             }
             builder.attr(GraphOutput.ATTR_VM_ID, GraalServices.getExecutionID());
             final GraphOutput<G, M> output = builder.build(sharedChannel);
@@ -191,6 +193,11 @@ public final class DebugContext implements AutoCloseable {
          */
         final EconomicSet<String> unscopedMemUseTrackers;
 
+        /**
+         * The value of {@link DebugOptions#CompilationMemoryBudget} or 0 if no budget applies.
+         */
+        final long memoryBudget;
+
         private static EconomicSet<String> parseUnscopedMetricSpec(String spec, boolean unconditional, boolean accumulatedKey) {
             EconomicSet<String> res;
             if (spec == null) {
@@ -261,6 +268,7 @@ public final class DebugContext implements AutoCloseable {
                             isNotEmpty(DebugOptions.TrackMemUse, options) ||
                             DumpOnPhaseChange.getValue(options) != null;
             this.listMetrics = ListMetrics.getValue(options);
+            this.memoryBudget = Math.max(0L, CompilationMemoryBudget.getValue(options));
         }
 
         private Immutable() {
@@ -270,6 +278,7 @@ public final class DebugContext implements AutoCloseable {
             this.unscopedMemUseTrackers = null;
             this.scopesEnabled = false;
             this.listMetrics = false;
+            this.memoryBudget = 0L;
         }
 
         public boolean hasUnscopedMetrics() {
@@ -486,6 +495,60 @@ public final class DebugContext implements AutoCloseable {
         return globalMetrics;
     }
 
+    private static final CounterKey memoryBudgetExceededCounter = DebugContext.counter("CompilationMemoryBudgetExceeded").doc("Number of compilations that exceeded their memory budget");
+
+    /**
+     * Bytes charged against the {@linkplain DebugOptions#CompilationMemoryBudget memory budget} of
+     * the computation associated with this context.
+     */
+    private long memoryBudgetUsage;
+
+    private boolean memoryBudgetExceeded;
+
+    /**
+     * Determines if a {@linkplain DebugOptions#CompilationMemoryBudget memory budget} applies to the
+     * computation associated with this context. Callers should check this before computing the
+     * size of a {@linkplain #chargeMemory charge}.
+     */
+    public boolean hasMemoryBudget() {
+        return immutable.memoryBudget != 0;
+    }
+
+    /**
+     * Charges {@code bytes} against the {@linkplain DebugOptions#CompilationMemoryBudget memory
+     * budget} of the computation associated with this context. This is a no-op if no budget
+     * applies. Charges accumulate over the lifetime of this context, which is expected to span a
+     * single compilation.
+     */
+    public void chargeMemory(long bytes) {
+        long budget = immutable.memoryBudget;
+        if (budget != 0) {
+            memoryBudgetUsage += bytes;
+            if (!memoryBudgetExceeded && memoryBudgetUsage > budget) {
+                memoryBudgetExceeded = true;
+                memoryBudgetExceededCounter.increment(this);
+                log(BASIC_LEVEL, "Memory budget of %d bytes exceeded by %s", budget, description);
+            }
+        }
+    }
+
+    /**
+     * Determines if more memory was {@linkplain #chargeMemory charged} to this context than the
+     * {@linkplain DebugOptions#CompilationMemoryBudget memory budget} allows. Once this is the
+     * case, a compilation should stop transformations that grow the graph and skip optional
+     * phases so that it can still complete with less optimized code instead of bailing out.
+     */
+    public boolean isMemoryBudgetExceeded() {
+        return memoryBudgetExceeded;
+    }
+
+    /**
+     * Gets the number of bytes {@linkplain #chargeMemory charged} to this context so far.
+     */
+    public long getMemoryBudgetUsage() {
+        return memoryBudgetUsage;
+    }
+
     /**
      * Object used to create a {@link DebugContext}.
      */
@@ -170,6 +170,14 @@ public class DebugOptions {
     public static final OptionKey<Integer> PrintGraphPort = new OptionKey<>(4445);
     @Option(help = "Schedule graphs as they are dumped.", type = OptionType.Debug)
     public static final OptionKey<Boolean> PrintGraphWithSchedule = new OptionKey<>(false);
+    @Option(help = "Compress graphs dumped to files with gzip. Compressed dumps are written to files with a .bgv.gz extension.", type = OptionType.Debug)
+    public static final OptionKey<Boolean> PrintGraphCompressed = new OptionKey<>(false);
+    @Option(help = "Write dumped graphs to the file or network on a background thread instead of the compiler thread.", type = OptionType.Debug)
+    public static final OptionKey<Boolean> PrintGraphAsync = new OptionKey<>(false);
+    @Option(help = "Only keep the graphs dumped by compilations that take at least this many milliseconds. " +
+                   "The graphs of a compilation are buffered until it completes, in a temporary file once they exceed 4 MB. " +
+                   "Combine with MethodFilter to restrict dumping to specific methods.", type = OptionType.Debug)
+    public static final OptionKey<Integer> DumpMinCompileTime = new OptionKey<>(0);
 
     @Option(help = "Treat any exceptions during dumping as fatal.", type = OptionType.Debug)
     public static final OptionKey<Boolean> DumpingErrorsAreFatal = new OptionKey<>(false);
@@ -192,6 +200,11 @@ public class DebugOptions {
     @Option(help = "Do not compile anything on bootstrap but just initialize the compiler.", type = OptionType.Debug)
     public static final OptionKey<Boolean> BootstrapInitializeOnly = new OptionKey<>(false);
 
+    @Option(help = "Approximate number of bytes of graph nodes and LIR instructions a single compilation may allocate " +
+                   "before it stops inlining and loop transformations and skips optional optimization phases. " +
+                   "The value can be suffixed with k, m or g. A value of 0 disables the budget.", type = OptionType.Expert)
+    public static final OptionKey<Long> CompilationMemoryBudget = new OptionKey<>(0L);
+
     /**
      * Gets the directory in which {@link DebugDumpHandler}s can generate output. This will be the
      * directory specified by {@link #DumpPath} if it has been set otherwise it will be derived from
@@ -27,41 +27,158 @@ package org.graalvm.compiler.debug;
 import static org.graalvm.compiler.debug.DebugOptions.PrintGraphHost;
 import static org.graalvm.compiler.debug.DebugOptions.PrintGraphPort;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InterruptedIOException;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
 import java.nio.channels.ClosedByInterruptException;
 import java.nio.channels.FileChannel;
 import java.nio.channels.SocketChannel;
 import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
 
 import org.graalvm.compiler.debug.DebugOptions.PrintGraphTarget;
 import org.graalvm.compiler.options.OptionValues;
 
 import jdk.vm.ci.common.NativeImageReinitialize;
 
+/**
+ * The channel to which the binary graphs of a single {@link DebugContext} are dumped. The
+ * underlying file or network channel is opened lazily on the first write. Depending on the options,
+ * the output is layered as follows:
+ * <ul>
+ * <li>{@link DebugOptions#DumpMinCompileTime} buffers the output and only writes it out in
+ * {@link #realClose()} if the channel was open for long enough. At most
+ * {@link #MAX_PENDING_BYTES} are buffered in memory. Beyond that, the output is written out directly
+ * if the channel has already been open for long enough and spilled to a temporary file
+ * otherwise.</li>
+ * <li>{@link DebugOptions#PrintGraphAsync} hands the output over to a shared writer thread.</li>
+ * <li>{@link DebugOptions#PrintGraphCompressed} compresses the output written to files with
+ * gzip.</li>
+ * </ul>
+ */
 final class IgvDumpChannel implements WritableByteChannel {
+    private static final int MAX_PENDING_BYTES = 1 << 22;
+
     private final Supplier<Path> pathProvider;
     private final OptionValues options;
+    private final long startTime;
     private WritableByteChannel sharedChannel;
+    private WritableByteChannel output;
+    private ByteArrayOutputStream pending;
+    private FileChannel spilled;
     private boolean closed;
 
     IgvDumpChannel(Supplier<Path> pathProvider, OptionValues options) {
         this.pathProvider = pathProvider;
         this.options = options;
+        this.startTime = System.nanoTime();
+        if (DebugOptions.DumpMinCompileTime.getValue(options) > 0) {
+            this.pending = new ByteArrayOutputStream();
+        }
     }
 
     @Override
     public int write(ByteBuffer src) throws IOException {
-        WritableByteChannel channel = channel();
+        if (closed) {
+            throw new IOException("already closed");
+        }
+        if (pending != null || spilled != null) {
+            return buffer(src);
+        }
+        WritableByteChannel channel = output();
         return channel == null ? 0 : channel.write(src);
     }
 
+    private int buffer(ByteBuffer src) throws IOException {
+        int count = src.remaining();
+        if (pending != null && pending.size() + count > MAX_PENDING_BYTES) {
+            if (elapsedMillis() >= DebugOptions.DumpMinCompileTime.getValue(options)) {
+                // The graphs will be kept anyway so there is no need to buffer them any longer.
+                flushBuffered();
+                WritableByteChannel channel = output();
+                return channel == null ? 0 : channel.write(src);
+            }
+            spill();
+        }
+        if (spilled != null) {
+            writeFully(spilled, src);
+        } else {
+            if (src.hasArray()) {
+                pending.write(src.array(), src.arrayOffset() + src.position(), count);
+                src.position(src.limit());
+            } else {
+                byte[] bytes = new byte[count];
+                src.get(bytes);
+                pending.write(bytes);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Moves the output buffered in memory to a temporary file that is deleted when it is closed.
+     */
+    private void spill() throws IOException {
+        Path file = Files.createTempFile("igv-dump", ".bgv");
+        spilled = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+        pending.writeTo(Channels.newOutputStream(spilled));
+        pending = null;
+    }
+
+    /**
+     * Writes the buffered output to the {@linkplain #output() output channel} and stops buffering.
+     */
+    private void flushBuffered() throws IOException {
+        ByteArrayOutputStream buffered = pending;
+        FileChannel file = spilled;
+        pending = null;
+        spilled = null;
+        try {
+            WritableByteChannel channel = output();
+            if (channel == null) {
+                return;
+            }
+            if (buffered != null) {
+                writeFully(channel, ByteBuffer.wrap(buffered.toByteArray()));
+            }
+            if (file != null) {
+                ByteBuffer chunk = ByteBuffer.allocate(1 << 16);
+                file.position(0);
+                while (file.read(chunk) >= 0) {
+                    chunk.flip();
+                    writeFully(channel, chunk);
+                    chunk.clear();
+                }
+            }
+        } finally {
+            if (file != null) {
+                file.close();
+            }
+        }
+    }
+
+    private static void writeFully(WritableByteChannel channel, ByteBuffer src) throws IOException {
+        while (src.hasRemaining()) {
+            channel.write(src);
+        }
+    }
+
+    private long elapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+    }
+
     @Override
     public boolean isOpen() {
         return !closed;
@@ -72,13 +189,49 @@ final class IgvDumpChannel implements WritableByteChannel {
     }
 
     void realClose() throws IOException {
-        closed = true;
-        if (sharedChannel != null) {
-            sharedChannel.close();
+        if (closed) {
+            return;
+        }
+        try {
+            boolean empty = pending != null && pending.size() == 0;
+            if ((pending != null || spilled != null) && !empty && elapsedMillis() >= DebugOptions.DumpMinCompileTime.getValue(options)) {
+                flushBuffered();
+            }
+        } finally {
+            closed = true;
+            pending = null;
+            if (spilled != null) {
+                spilled.close();
+                spilled = null;
+            }
+            if (output != null) {
+                output.close();
+                output = null;
+            }
             sharedChannel = null;
         }
     }
 
+    /**
+     * Gets the channel that the dumped bytes are written to, creating it if necessary.
+     */
+    private WritableByteChannel output() throws IOException {
+        if (output == null) {
+            WritableByteChannel channel = channel();
+            if (channel == null) {
+                return null;
+            }
+            if (channel instanceof FileChannel && DebugOptions.PrintGraphCompressed.getValue(options)) {
+                channel = Channels.newChannel(new GZIPOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            }
+            if (DebugOptions.PrintGraphAsync.getValue(options)) {
+                channel = new AsyncChannel(channel);
+            }
+            output = channel;
+        }
+        return output;
+    }
+
     WritableByteChannel channel() throws IOException {
         if (closed) {
             throw new IOException("already closed");
@@ -150,4 +303,123 @@ final class IgvDumpChannel implements WritableByteChannel {
         }
     }
 
+    /**
+     * A channel that copies the written bytes and lets a single daemon thread, shared by all
+     * {@link IgvDumpChannel}s, write them to the wrapped channel. Since there is only one writer
+     * thread, the writes to a channel are performed in order. The number of pending writes is
+     * bounded so that a slow file system or IGV instance cannot make the compiler run out of memory.
+     * An error in the writer thread is recorded as the failure of the channel whose write caused it
+     * and reported by the next call to {@link #write} or {@link #close}.
+     */
+    private static final class AsyncChannel implements WritableByteChannel {
+
+        private static final int MAX_PENDING_WRITES = 1024;
+
+        @NativeImageReinitialize private static BlockingQueue<Runnable> writes;
+
+        private interface WriterAction {
+            void run() throws IOException;
+        }
+
+        private final WritableByteChannel channel;
+        private volatile IOException failure;
+        private boolean open = true;
+
+        AsyncChannel(WritableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        private static synchronized BlockingQueue<Runnable> writes() {
+            if (writes == null) {
+                BlockingQueue<Runnable> queue = new LinkedBlockingQueue<>(MAX_PENDING_WRITES);
+                Thread writer = new Thread(() -> {
+                    while (true) {
+                        try {
+                            queue.take().run();
+                        } catch (Throwable t) {
+                            // keep draining, failures of the actions are recorded by enqueue
+                        }
+                    }
+                }, "IGV dump writer");
+                writer.setDaemon(true);
+                writer.start();
+                writes = queue;
+            }
+            return writes;
+        }
+
+        private void enqueue(WriterAction action) throws IOException {
+            try {
+                writes().put(() -> {
+                    try {
+                        action.run();
+                    } catch (Throwable t) {
+                        if (failure == null) {
+                            failure = t instanceof IOException ? (IOException) t : new IOException("IGV dump writer failed", t);
+                        }
+                    }
+                });
+            } catch (InterruptedException e) {
+                throw new InterruptedIOException();
+            }
+        }
+
+        private void checkFailure() throws IOException {
+            IOException e = failure;
+            if (e != null) {
+                failure = null;
+                throw e;
+            }
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            checkFailure();
+            if (!open) {
+                throw new IOException("already closed");
+            }
+            int count = src.remaining();
+            // The source buffer is reused by the caller so the bytes must be copied.
+            ByteBuffer copy = ByteBuffer.allocate(count);
+            copy.put(src);
+            copy.flip();
+            enqueue(() -> {
+                if (failure == null) {
+                    writeFully(channel, copy);
+                }
+            });
+            return count;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        /**
+         * Closes the wrapped channel once all pending writes have been performed and waits for it
+         * so that the dump is complete when this method returns.
+         */
+        @Override
+        public void close() throws IOException {
+            if (!open) {
+                return;
+            }
+            open = false;
+            CountDownLatch done = new CountDownLatch(1);
+            enqueue(() -> {
+                try {
+                    channel.close();
+                } finally {
+                    done.countDown();
+                }
+            });
+            try {
+                done.await();
+            } catch (InterruptedException e) {
+                throw new InterruptedIOException();
+            }
+            checkFailure();
+        }
+    }
 }
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.graph.test;
+
+import static org.graalvm.compiler.graph.test.matchers.NodeIterableContains.contains;
+import static org.graalvm.compiler.nodeinfo.NodeCycles.CYCLES_IGNORED;
+import static org.graalvm.compiler.nodeinfo.NodeSize.SIZE_IGNORED;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import org.graalvm.collections.UnmodifiableEconomicMap;
+import org.junit.Test;
+
+import org.graalvm.compiler.graph.Graph;
+import org.graalvm.compiler.graph.Node;
+import org.graalvm.compiler.graph.NodeClass;
+import org.graalvm.compiler.nodeinfo.NodeInfo;
+import org.graalvm.compiler.options.OptionValues;
+
+public class CompactGraphStorageTest extends GraphTest {
+
+    @NodeInfo(cycles = CYCLES_IGNORED, size = SIZE_IGNORED)
+    static final class Def extends Node {
+        public static final NodeClass<Def> TYPE = NodeClass.create(Def.class);
+
+        protected Def() {
+            super(TYPE);
+        }
+    }
+
+    @NodeInfo(cycles = CYCLES_IGNORED, size = SIZE_IGNORED)
+    static final class Use extends Node {
+        public static final NodeClass<Use> TYPE = NodeClass.create(Use.class);
+        @Input Def in;
+
+        protected Use(Def in) {
+            super(TYPE);
+            this.in = in;
+        }
+    }
+
+    private Graph createGraph() {
+        OptionValues options = new OptionValues(getOptions(), Graph.Options.CompactGraphStorage, true);
+        return new Graph(options, getDebug(options));
+    }
+
+    @Test
+    public void testTrimToSize() {
+        Graph graph = createGraph();
+        Def def = graph.add(new Def());
+        Use[] uses = new Use[8];
+        for (int i = 0; i < uses.length; i++) {
+            uses[i] = graph.add(new Use(def));
+        }
+        for (int i = 0; i < uses.length; i += 2) {
+            uses[i].safeDelete();
+        }
+        assertEquals(uses.length / 2, def.getUsageCount());
+
+        graph.trimToSize();
+
+        assertEquals(1 + uses.length / 2, graph.getNodeCount());
+        assertEquals(0, graph.getNodesDeletedSinceLastCompression());
+        assertEquals(uses.length / 2, def.getUsageCount());
+        for (int i = 1; i < uses.length; i += 2) {
+            assertThat(def.usages(), contains(uses[i]));
+        }
+
+        // the graph must still be able to grow after trimming
+        Use use = graph.add(new Use(def));
+        assertEquals(uses.length / 2 + 1, def.getUsageCount());
+        assertThat(def.usages(), contains(use));
+    }
+
+    @Test
+    public void testCopyAndFreeze() {
+        Graph graph = createGraph();
+        Def def = graph.add(new Def());
+        for (int i = 0; i < 10; i++) {
+            graph.add(new Use(def));
+        }
+        graph.freeze();
+        assertTrue(graph.isFrozen());
+
+        Node[] copiedDef = new Node[1];
+        Graph copy = graph.copy((UnmodifiableEconomicMap<Node, Node> duplicates) -> copiedDef[0] = duplicates.get(def), graph.getDebug());
+        assertEquals(graph.getNodeCount(), copy.getNodeCount());
+        assertEquals(10, copiedDef[0].getUsageCount());
+        for (Node usage : copiedDef[0].usages()) {
+            assertTrue(usage.graph() == copy);
+        }
+    }
+}
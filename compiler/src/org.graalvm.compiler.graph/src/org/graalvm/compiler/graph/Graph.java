@@ -64,6 +64,8 @@ public class Graph {
         public static final OptionKey<Boolean> VerifyGraalGraphEdges = new OptionKey<>(false);
         @Option(help = "Graal graph compression is performed when percent of live nodes falls below this value", type = OptionType.Debug)//
         public static final OptionKey<Integer> GraphCompressionThreshold = new OptionKey<>(70);
+        @Option(help = "Keep the node and usage arrays of graphs at their exact size when graphs are duplicated, compressed or frozen", type = OptionType.Expert)//
+        public static final OptionKey<Boolean> CompactGraphStorage = new OptionKey<>(false);
     }
 
     private enum FreezeState {
@@ -117,6 +119,27 @@ public class Graph {
      */
     int compressions;
 
+    /**
+     * Determines if {@link #modificationCount} and {@link #controlFlowModificationCount} are
+     * maintained. This is off until someone {@linkplain #trackModifications() asks} for it so that
+     * graph edits do not pay for the counting otherwise.
+     */
+    boolean trackModifications;
+
+    /**
+     * Incremented whenever a node is added to or removed from this graph and whenever an input or
+     * successor of a node changes. These are the changes reported to a {@link NodeEventListener}
+     * as {@link NodeEvent#NODE_ADDED}, {@link NodeEvent#NODE_REMOVED} and
+     * {@link NodeEvent#INPUT_CHANGED}.
+     */
+    int modificationCount;
+
+    /**
+     * Incremented whenever a successor edge changes or a node with successors is added or
+     * removed.
+     */
+    int controlFlowModificationCount;
+
     NodeEventListener nodeEventListener;
 
     /**
@@ -154,6 +177,11 @@ public class Graph {
      */
     private final OptionValues options;
 
+    /**
+     * Caches the value of {@link Options#CompactGraphStorage}.
+     */
+    private final boolean compactStorage;
+
     /**
      * The {@link DebugContext} used while compiling this graph.
      */
@@ -260,6 +288,7 @@ public class Graph {
         iterableNodesLast = new ArrayList<>(NodeClass.allocatedNodeIterabledIds());
         this.name = name;
         this.options = options;
+        this.compactStorage = Options.CompactGraphStorage.getValue(options);
         this.trackNodeSourcePosition = trackNodeSourcePosition || trackNodeSourcePositionDefault(options, debug);
         assert debug != null;
         this.debug = debug;
@@ -418,6 +447,36 @@ public class Graph {
         return compressions;
     }
 
+    /**
+     * Starts maintaining the {@linkplain #getModificationCount() modification counts} of this graph.
+     * Tracking cannot be turned off again.
+     */
+    public void trackModifications() {
+        trackModifications = true;
+    }
+
+    public boolean isTrackingModifications() {
+        return trackModifications;
+    }
+
+    /**
+     * Gets a counter that changes whenever nodes are added to or removed from this graph or the
+     * edges between its nodes change. Data of a node other than its edges is not tracked. The
+     * counter only changes after {@link #trackModifications()} has been called.
+     */
+    public int getModificationCount() {
+        return modificationCount;
+    }
+
+    /**
+     * Gets a counter that changes whenever the control flow of this graph changes, i.e., whenever a
+     * successor edge changes or a node with successors is added or removed. If this counter did
+     * not change, neither did the set of fixed nodes nor their order.
+     */
+    public int getControlFlowModificationCount() {
+        return controlFlowModificationCount;
+    }
+
     /**
      * Gets the number of nodes which have been deleted from this graph since it was last
      * {@linkplain #maybeCompress() compressed}.
@@ -908,7 +967,17 @@ public class Graph {
         if (compressionThreshold == 0 || liveNodePercent >= compressionThreshold) {
             return false;
         }
+        compress();
+        if (compactStorage && nodes.length > 2 * nodesSize + 1) {
+            // release the space of the deleted nodes but leave room for growth
+            nodes = Arrays.copyOf(nodes, 2 * nodesSize + 1);
+        }
+        return true;
+    }
+
+    private void compress() {
         GraphCompressions.increment(debug);
+        int liveNodeCount = getNodeCount();
         int nextId = 0;
         for (int i = 0; nextId < liveNodeCount; i++) {
             Node n = nodes[i];
@@ -932,9 +1001,42 @@ public class Graph {
         compressions++;
         nodesDeletedBeforeLastCompression += nodesDeletedSinceLastCompression;
         nodesDeletedSinceLastCompression = 0;
-        return true;
+    }
+
+    boolean isCompactStorage() {
+        return compactStorage;
     }
 
+    /**
+     * Shrinks the node array of this graph as well as the {@linkplain Node#usages() usage} arrays
+     * of its nodes to their exact size. Unless dumping or logging is enabled, the list of nodes is
+     * first compressed irrespective of the {@linkplain Options#GraphCompressionThreshold compression
+     * threshold}. This is useful for graphs that are kept alive for a long time, for example in a
+     * graph cache.
+     */
+    public void trimToSize() {
+        assert !isFrozen();
+        if (getNodesDeletedSinceLastCompression() != 0 && !debug.isDumpEnabledForMethod() && !debug.isLogEnabledForMethod()) {
+            compress();
+        }
+        trimStorage();
+    }
+
+    private void trimStorage() {
+        if (nodes.length > nodesSize) {
+            nodes = Arrays.copyOf(nodes, nodesSize);
+        }
+        for (int i = 0; i < nodesSize; i++) {
+            Node n = nodes[i];
+            if (n != null) {
+                n.trimUsages();
+            }
+        }
+        TrimmedGraphs.increment(debug);
+    }
+
+    private static final CounterKey TrimmedGraphs = DebugContext.counter("GraphTrimmed");
+
     /**
      * Returns an {@link Iterable} providing all the live nodes whose type is compatible with
      * {@code type}.
@@ -1056,6 +1158,10 @@ public class Graph {
         int id = nodesSize++;
         nodes[id] = node;
         node.id = id;
+        recordModification(node);
+        if (debug.hasMemoryBudget()) {
+            debug.chargeMemory(estimatedNodeBytes(node));
+        }
         if (currentNodeSourcePosition != null && trackNodeSourcePosition()) {
             node.setNodeSourcePosition(currentNodeSourcePosition);
         }
@@ -1077,6 +1183,17 @@ public class Graph {
         nodes = newNodes;
     }
 
+    /**
+     * Makes room for at least {@code additionalNodes} more nodes without going through the
+     * repeated doubling of {@link #grow()}.
+     */
+    private void ensureNodeCapacity(int additionalNodes) {
+        int capacity = nodesSize + additionalNodes;
+        if (nodes.length < capacity) {
+            nodes = Arrays.copyOf(nodes, capacity);
+        }
+    }
+
     @SuppressWarnings("unused")
     protected void afterRegister(Node node) {
 
@@ -1102,6 +1219,30 @@ public class Graph {
         }
     }
 
+    /**
+     * Size of the fields declared by {@link Node} itself, including the object header, as charged
+     * against the {@linkplain DebugContext#chargeMemory memory budget} of a compilation.
+     */
+    private static final int NODE_BASE_BYTES = 64;
+
+    /**
+     * Estimates the heap size of {@code node} from the number of fields declared by its class.
+     */
+    private static long estimatedNodeBytes(Node node) {
+        NodeClass<?> nodeClass = node.getNodeClass();
+        int fields = nodeClass.getInputEdges().getCount() + nodeClass.getSuccessorEdges().getCount() + nodeClass.getData().getCount();
+        return NODE_BASE_BYTES + 8L * fields;
+    }
+
+    private void recordModification(Node node) {
+        if (trackModifications) {
+            modificationCount++;
+            if (node.getNodeClass().getSuccessorEdges().getCount() != 0) {
+                controlFlowModificationCount++;
+            }
+        }
+    }
+
     private void updateNodeCaches(Node node) {
         int nodeClassId = node.getNodeClass().iterableId();
         if (nodeClassId != Node.NOT_ITERABLE) {
@@ -1127,6 +1268,7 @@ public class Graph {
         }
         nodes[node.id] = null;
         nodesDeletedSinceLastCompression++;
+        recordModification(node);
 
         if (nodeEventListener != null) {
             nodeEventListener.event(NodeEvent.NODE_REMOVED, node);
@@ -1237,6 +1379,9 @@ public class Graph {
     @SuppressWarnings({"all", "try"})
     public EconomicMap<Node, Node> addDuplicates(Iterable<? extends Node> newNodes, final Graph oldGraph, int estimatedNodeCount, DuplicationReplacement replacements) {
         try (DebugCloseable s = DuplicateGraph.start(getDebug())) {
+            if (compactStorage) {
+                ensureNodeCapacity(estimatedNodeCount);
+            }
             return NodeClass.addGraphDuplicate(this, oldGraph, estimatedNodeCount, newNodes, replacements);
         }
     }
@@ -1246,6 +1391,9 @@ public class Graph {
     }
 
     public void freeze() {
+        if (compactStorage && !isFrozen()) {
+            trimToSize();
+        }
         this.freezeState = FreezeState.DeepFreeze;
     }
 
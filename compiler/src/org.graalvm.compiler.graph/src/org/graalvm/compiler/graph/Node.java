@@ -488,6 +488,28 @@ public abstract class Node implements Cloneable, Formattable, NodeInterface {
         }
     }
 
+    /**
+     * Shrinks the array holding the usages beyond {@link #INLINE_USAGE_COUNT} to its exact size.
+     */
+    void trimUsages() {
+        if (extraUsagesCount == 0) {
+            extraUsages = NO_NODES;
+        } else if (extraUsagesCount < extraUsages.length) {
+            extraUsages = Arrays.copyOf(extraUsages, extraUsagesCount);
+        }
+    }
+
+    /**
+     * Preallocates room for {@code count} usages so that adding them does not require the array
+     * holding the usages beyond {@link #INLINE_USAGE_COUNT} to grow repeatedly.
+     */
+    void ensureUsageCapacity(int count) {
+        int extra = count - INLINE_USAGE_COUNT;
+        if (extra > extraUsages.length) {
+            extraUsages = Arrays.copyOf(extraUsages, extra);
+        }
+    }
+
     private void movUsageFromEndTo(int destIndex) {
         if (destIndex >= INLINE_USAGE_COUNT) {
             movUsageFromEndToExtraUsages(destIndex - INLINE_USAGE_COUNT);
@@ -644,6 +666,9 @@ public abstract class Node implements Cloneable, Formattable, NodeInterface {
                 assert assertTrue(newSuccessor.predecessor == null, "unexpected non-null predecessor in new successor (%s): %s, this=%s", newSuccessor, newSuccessor.predecessor, this);
                 newSuccessor.predecessor = this;
             }
+            if (graph != null && graph.trackModifications) {
+                graph.controlFlowModificationCount++;
+            }
             maybeNotifyInputChanged(this);
         }
     }
@@ -942,6 +967,9 @@ public abstract class Node implements Cloneable, Formattable, NodeInterface {
     private void maybeNotifyInputChanged(Node node) {
         if (graph != null) {
             assert !graph.isFrozen();
+            if (graph.trackModifications) {
+                graph.modificationCount++;
+            }
             NodeEventListener listener = graph.nodeEventListener;
             if (listener != null) {
                 listener.event(Graph.NodeEvent.INPUT_CHANGED, node);
@@ -1010,6 +1038,9 @@ public abstract class Node implements Cloneable, Formattable, NodeInterface {
     public void clearInputs() {
         assert assertFalse(isDeleted(), "cannot clear inputs of deleted node");
         getNodeClass().unregisterAtInputsAsUsage(this);
+        if (graph != null && graph.trackModifications) {
+            graph.modificationCount++;
+        }
     }
 
     boolean removeThisFromUsages(Node n) {
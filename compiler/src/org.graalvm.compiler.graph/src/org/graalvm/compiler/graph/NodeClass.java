@@ -921,6 +921,9 @@ public final class NodeClass<T> extends FieldIntrospection<T> {
                     Node newNode = node.clone(graph, WithAllEdges);
                     assert newNode.getNodeClass().isLeafNode() || newNode.hasNoUsages();
                     assert newNode.getClass() == node.getClass();
+                    if (graph.isCompactStorage()) {
+                        newNode.ensureUsageCapacity(node.getUsageCount());
+                    }
                     newNodes.put(node, newNode);
                 }
             }
@@ -31,9 +31,11 @@ import javax.management.MalformedObjectNameException;
 import javax.management.ObjectName;
 
 import org.graalvm.compiler.debug.TTY;
+import org.graalvm.compiler.hotspot.CompilerTelemetry;
 import org.graalvm.compiler.hotspot.GraalHotSpotVMConfig;
 import org.graalvm.compiler.hotspot.HotSpotGraalManagementRegistration;
 import org.graalvm.compiler.hotspot.HotSpotGraalRuntime;
+import org.graalvm.compiler.hotspot.management.CompilerTelemetryMBean;
 import org.graalvm.compiler.hotspot.management.HotSpotGraalRuntimeMBean;
 
 /**
@@ -71,6 +73,12 @@ public final class LibGraalHotSpotGraalManagement extends MBeanProxy<HotSpotGraa
                 mbean = new HotSpotGraalRuntimeMBean(objectName, runtime);
                 initialize(mbean, beanName, objectName);
                 enqueueForRegistrationAndNotify(this, runtime);
+                CompilerTelemetry telemetry = runtime.getCompilerTelemetry();
+                if (telemetry != null) {
+                    String telemetryName = nameWithIsolateId("org.graalvm.compiler.hotspot:type=" + runtime.getName().replace(':', '_') + ",name=CompilerTelemetry");
+                    ObjectName telemetryObjectName = new ObjectName(telemetryName);
+                    enqueueForRegistrationAndNotify(new MBeanProxy<>(new CompilerTelemetryMBean(telemetryObjectName, telemetry), telemetryName), runtime);
+                }
             } catch (MalformedObjectNameException err) {
                 err.printStackTrace(TTY.out);
             }
@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.hotspot.management;
+
+import java.util.Map;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.InvalidAttributeValueException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanException;
+import javax.management.MBeanInfo;
+import javax.management.ObjectName;
+import javax.management.ReflectionException;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.CompositeDataSupport;
+import javax.management.openmbean.CompositeType;
+import javax.management.openmbean.OpenDataException;
+import javax.management.openmbean.OpenType;
+import javax.management.openmbean.SimpleType;
+
+import org.graalvm.compiler.hotspot.CompilerTelemetry;
+import org.graalvm.compiler.hotspot.CompilerTelemetry.RollingHistogram;
+
+/**
+ * Read-only MBean publishing the {@link CompilerTelemetry} of a VM. Histograms are exposed as
+ * {@link CompositeData} with the keys {@code total}, {@code count}, {@code min}, {@code max},
+ * {@code mean}, {@code p50}, {@code p90} and {@code p99}. Times are in microseconds, sizes in
+ * bytes.
+ */
+public final class CompilerTelemetryMBean implements DynamicMBean {
+
+    private static final String COMPILATIONS = "Compilations";
+    private static final String BAILOUTS = "Bailouts";
+    private static final String INSTALLED_CODE_BYTES = "InstalledCodeBytes";
+    private static final String COMPILE_TIME = "CompileTime";
+    private static final String CODE_SIZE = "CodeSize";
+    private static final String MEMORY_USED = "MemoryUsed";
+    private static final String TIER_TIMES = "TierTimes";
+    private static final String PHASE_TIMES = "PhaseTimes";
+
+    private static final String[] HISTOGRAM_KEYS = {"total", "count", "min", "max", "mean", "p50", "p90", "p99"};
+    private static final CompositeType HISTOGRAM_TYPE = createHistogramType();
+
+    private static CompositeType createHistogramType() {
+        OpenType<?>[] types = new OpenType<?>[HISTOGRAM_KEYS.length];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = SimpleType.LONG;
+        }
+        try {
+            return new CompositeType("Histogram", "Rolling histogram", HISTOGRAM_KEYS, HISTOGRAM_KEYS, types);
+        } catch (OpenDataException e) {
+            throw new InternalError(e);
+        }
+    }
+
+    private final CompilerTelemetry telemetry;
+    private final ObjectName objectName;
+
+    public CompilerTelemetryMBean(ObjectName objectName, CompilerTelemetry telemetry) {
+        this.objectName = objectName;
+        this.telemetry = telemetry;
+    }
+
+    public ObjectName getObjectName() {
+        return objectName;
+    }
+
+    @Override
+    public Object getAttribute(String name) throws AttributeNotFoundException, MBeanException {
+        try {
+            switch (name) {
+                case COMPILATIONS:
+                    return telemetry.getCompilations();
+                case BAILOUTS:
+                    return telemetry.getBailouts();
+                case INSTALLED_CODE_BYTES:
+                    return telemetry.getInstalledCodeBytes();
+                case COMPILE_TIME:
+                    return toCompositeData(telemetry.getCompileTime());
+                case CODE_SIZE:
+                    return toCompositeData(telemetry.getCodeSize());
+                case MEMORY_USED:
+                    return toCompositeData(telemetry.getMemoryUsed());
+                case TIER_TIMES:
+                    return toCompositeData("TierTimes", telemetry.getTierTimes());
+                case PHASE_TIMES:
+                    return toCompositeData("PhaseTimes", telemetry.getPhaseTimes());
+                default:
+                    throw new AttributeNotFoundException(name);
+            }
+        } catch (OpenDataException e) {
+            throw new MBeanException(e);
+        }
+    }
+
+    private static CompositeData toCompositeData(RollingHistogram.Snapshot snapshot) throws OpenDataException {
+        Object[] values = {snapshot.total, snapshot.count, snapshot.min, snapshot.max, snapshot.mean, snapshot.p50, snapshot.p90, snapshot.p99};
+        return new CompositeDataSupport(HISTOGRAM_TYPE, HISTOGRAM_KEYS, values);
+    }
+
+    /**
+     * Converts a map of named histograms to {@link CompositeData} with one item per name.
+     *
+     * @return {@code null} if {@code histograms} is empty since composite data cannot be empty
+     */
+    private static CompositeData toCompositeData(String typeName, Map<String, RollingHistogram.Snapshot> histograms) throws OpenDataException {
+        if (histograms.isEmpty()) {
+            return null;
+        }
+        String[] names = new String[histograms.size()];
+        OpenType<?>[] types = new OpenType<?>[names.length];
+        Object[] values = new Object[names.length];
+        int i = 0;
+        for (Map.Entry<String, RollingHistogram.Snapshot> e : histograms.entrySet()) {
+            names[i] = e.getKey();
+            types[i] = HISTOGRAM_TYPE;
+            values[i] = toCompositeData(e.getValue());
+            i++;
+        }
+        CompositeType type = new CompositeType(typeName, typeName, names, names, types);
+        return new CompositeDataSupport(type, names, values);
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] names) {
+        AttributeList list = new AttributeList();
+        for (String name : names) {
+            try {
+                list.add(new Attribute(name, getAttribute(name)));
+            } catch (AttributeNotFoundException | MBeanException e) {
+                // Omitted from the result as specified by DynamicMBean.getAttributes
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException, InvalidAttributeValueException {
+        throw new AttributeNotFoundException(attribute.getName() + " is read-only");
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) throws MBeanException, ReflectionException {
+        throw new MBeanException(new IllegalStateException("Cannot find operation " + actionName));
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        MBeanAttributeInfo[] attrs = {
+                        new MBeanAttributeInfo(COMPILATIONS, Long.class.getName(), "Number of compilations", true, false, false),
+                        new MBeanAttributeInfo(BAILOUTS, Long.class.getName(), "Number of compilations that failed or bailed out", true, false, false),
+                        new MBeanAttributeInfo(INSTALLED_CODE_BYTES, Long.class.getName(), "Total size in bytes of installed code", true, false, false),
+                        new MBeanAttributeInfo(COMPILE_TIME, CompositeData.class.getName(), "Compile time in microseconds", true, false, false),
+                        new MBeanAttributeInfo(CODE_SIZE, CompositeData.class.getName(), "Installed code size in bytes", true, false, false),
+                        new MBeanAttributeInfo(MEMORY_USED, CompositeData.class.getName(), "Memory allocated per compilation in bytes", true, false, false),
+                        new MBeanAttributeInfo(TIER_TIMES, CompositeData.class.getName(), "Compile time in microseconds per compiler tier", true, false, false),
+                        new MBeanAttributeInfo(PHASE_TIMES, CompositeData.class.getName(), "Compile time in microseconds per compiler phase", true, false, false),
+        };
+        return new MBeanInfo(CompilerTelemetryMBean.class.getName(), "Graal compiler telemetry", attrs, null, null, null);
+    }
+}
@@ -36,6 +36,7 @@ import javax.management.NotCompliantMBeanException;
 import javax.management.ObjectName;
 
 import org.graalvm.compiler.debug.TTY;
+import org.graalvm.compiler.hotspot.CompilerTelemetry;
 import org.graalvm.compiler.hotspot.GraalHotSpotVMConfig;
 import org.graalvm.compiler.hotspot.HotSpotGraalManagementRegistration;
 import org.graalvm.compiler.hotspot.HotSpotGraalRuntime;
@@ -53,6 +54,7 @@ import org.graalvm.compiler.serviceprovider.ServiceProvider;
 public final class HotSpotGraalManagement implements HotSpotGraalManagementRegistration {
 
     private HotSpotGraalRuntimeMBean bean;
+    private CompilerTelemetryMBean telemetryBean;
     private volatile boolean needsRegistration = true;
     HotSpotGraalManagement nextDeferred;
 
@@ -66,6 +68,10 @@ public final class HotSpotGraalManagement implements HotSpotGraalManagementRegis
                 String name = runtime.getName().replace(':', '_');
                 ObjectName objectName = new ObjectName("org.graalvm.compiler.hotspot:type=" + name);
                 bean = new HotSpotGraalRuntimeMBean(objectName, runtime);
+                CompilerTelemetry telemetry = runtime.getCompilerTelemetry();
+                if (telemetry != null) {
+                    telemetryBean = new CompilerTelemetryMBean(new ObjectName("org.graalvm.compiler.hotspot:type=" + name + ",name=CompilerTelemetry"), telemetry);
+                }
                 registration.add(this);
             } catch (MalformedObjectNameException err) {
                 err.printStackTrace(TTY.out);
@@ -121,6 +127,15 @@ public final class HotSpotGraalManagement implements HotSpotGraalManagementRegis
                         // Registration failed - don't try again
                         m.bean = null;
                     }
+                    CompilerTelemetryMBean telemetryBean = m.telemetryBean;
+                    if (telemetryBean != null) {
+                        try {
+                            platformMBeanServer.registerMBean(telemetryBean, telemetryBean.getObjectName());
+                        } catch (InstanceAlreadyExistsException | MBeanRegistrationException | NotCompliantMBeanException e) {
+                            e.printStackTrace(TTY.out);
+                            m.telemetryBean = null;
+                        }
+                    }
                     m.needsRegistration = false;
                 }
             }
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.hotspot.test;
+
+import java.io.DataInputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.zip.Adler32;
+
+import org.graalvm.compiler.core.test.GraalCompilerTest;
+import org.junit.Test;
+
+/**
+ * Tests compiled calls to {@link Adler32}.
+ */
+@SuppressWarnings("javadoc")
+public class Adler32SubstitutionsTest extends GraalCompilerTest {
+
+    public static long updateBytes(byte[] input, int offset, int length) {
+        Adler32 adler = new Adler32();
+        adler.update(input, offset, length);
+        return adler.getValue();
+    }
+
+    private static byte[] readClassfile() throws Throwable {
+        String classfileName = Adler32SubstitutionsTest.class.getSimpleName().replace('.', '/') + ".class";
+        InputStream s = Adler32SubstitutionsTest.class.getResourceAsStream(classfileName);
+        byte[] buf = new byte[s.available()];
+        new DataInputStream(s).readFully(buf);
+        return buf;
+    }
+
+    @Test
+    public void test1() {
+        byte[] buf = "some string".getBytes();
+        test("updateBytes", buf, 0, buf.length);
+    }
+
+    @Test
+    public void test2() throws Throwable {
+        byte[] buf = readClassfile();
+        test("updateBytes", buf, 0, buf.length);
+        for (int offset = 1; offset < buf.length; offset++) {
+            test("updateBytes", buf, offset, buf.length - offset);
+        }
+    }
+
+    @Test
+    public void test3() {
+        // Long enough to exceed the number of bytes that can be summed without a modulo reduction.
+        byte[] buf = new byte[10000];
+        for (int i = 0; i < buf.length; i++) {
+            buf[i] = (byte) 0xff;
+        }
+        test("updateBytes", buf, 0, buf.length);
+    }
+
+    public static long updateByteBuffer(ByteBuffer buffer) {
+        Adler32 adler = new Adler32();
+        buffer.rewind();
+        adler.update(buffer);
+        return adler.getValue();
+    }
+
+    @Test
+    public void test4() throws Throwable {
+        byte[] buf = readClassfile();
+
+        ByteBuffer directBuf = ByteBuffer.allocateDirect(buf.length);
+        directBuf.put(buf);
+        ByteBuffer heapBuf = ByteBuffer.wrap(buf);
+
+        test("updateByteBuffer", directBuf);
+        test("updateByteBuffer", heapBuf);
+    }
+}
@@ -284,10 +284,6 @@ public class CheckGraalIntrinsics extends GraalTest {
             add(toBeInvestigated,
                             // Only used as a marker for vectorization?
                             "java/util/stream/Streams$RangeIntSpliterator.forEachRemaining(Ljava/util/function/IntConsumer;)V",
-                            // Only implemented on non-AMD64 platforms (some logic and runtime call)
-                            "java/util/zip/Adler32.updateByteBuffer(IJII)I",
-                            // Only implemented on non-AMD64 platforms (some logic and runtime call)
-                            "java/util/zip/Adler32.updateBytes(I[BII)I",
                             // Emits a slow and a fast path and some dispatching logic
                             "jdk/internal/misc/Unsafe.allocateUninitializedArray0(Ljava/lang/Class;I)Ljava/lang/Object;",
 
@@ -529,6 +525,13 @@ public class CheckGraalIntrinsics extends GraalTest {
                             "java/util/zip/CRC32C.updateDirectByteBuffer(IJII)I");
         }
 
+        // Adler32 intrinsics (HotSpot only generates the stub on AArch64)
+        if (isJDK9OrHigher() && !config.useAdler32Intrinsics()) {
+            add(ignore,
+                            "java/util/zip/Adler32.updateByteBuffer(IJII)I",
+                            "java/util/zip/Adler32.updateBytes(I[BII)I");
+        }
+
         String cbcEncryptName = HotSpotGraphBuilderPlugins.lookupIntrinsicName(config, "com/sun/crypto/provider/CipherBlockChaining", "implEncrypt", "encrypt");
         String cbcDecryptName = HotSpotGraphBuilderPlugins.lookupIntrinsicName(config, "com/sun/crypto/provider/CipherBlockChaining", "implDecrypt", "decrypt");
         String aesEncryptName = HotSpotGraphBuilderPlugins.lookupIntrinsicName(config, "com/sun/crypto/provider/AESCrypt", "implEncryptBlock", "encryptBlock");
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.hotspot.test;
+
+import org.graalvm.compiler.hotspot.CompilerTelemetry.RollingHistogram;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CompilerTelemetryTest {
+
+    @Test
+    public void testEmptyHistogram() {
+        RollingHistogram.Snapshot snapshot = new RollingHistogram(8).snapshot();
+        Assert.assertEquals(0, snapshot.total);
+        Assert.assertEquals(0, snapshot.count);
+        Assert.assertEquals(0, snapshot.max);
+    }
+
+    @Test
+    public void testPercentiles() {
+        RollingHistogram histogram = new RollingHistogram(100);
+        for (int i = 100; i >= 1; i--) {
+            histogram.add(i);
+        }
+        RollingHistogram.Snapshot snapshot = histogram.snapshot();
+        Assert.assertEquals(100, snapshot.count);
+        Assert.assertEquals(1, snapshot.min);
+        Assert.assertEquals(100, snapshot.max);
+        Assert.assertEquals(50, snapshot.mean);
+        Assert.assertEquals(50, snapshot.p50);
+        Assert.assertEquals(90, snapshot.p90);
+        Assert.assertEquals(99, snapshot.p99);
+    }
+
+    @Test
+    public void testRollingWindow() {
+        RollingHistogram histogram = new RollingHistogram(4);
+        for (int i = 1; i <= 10; i++) {
+            histogram.add(i);
+        }
+        RollingHistogram.Snapshot snapshot = histogram.snapshot();
+        Assert.assertEquals(10, snapshot.total);
+        Assert.assertEquals(4, snapshot.count);
+        Assert.assertEquals(7, snapshot.min);
+        Assert.assertEquals(10, snapshot.max);
+    }
+}
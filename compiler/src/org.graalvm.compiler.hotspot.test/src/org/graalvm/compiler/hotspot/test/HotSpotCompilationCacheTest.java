@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.hotspot.test;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.graalvm.compiler.code.CompilationResult;
+import org.graalvm.compiler.core.common.CompilationIdentifier;
+import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.hotspot.HotSpotCompilationCache;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import jdk.vm.ci.code.InstalledCode;
+import jdk.vm.ci.hotspot.HotSpotResolvedJavaMethod;
+import jdk.vm.ci.runtime.JVMCICompiler;
+
+/**
+ * Tests that compilation results survive a round trip through the {@link HotSpotCompilationCache}.
+ */
+public class HotSpotCompilationCacheTest extends HotSpotGraalCompilerTest {
+
+    private static final long MAX_SIZE = 16 * 1024 * 1024;
+
+    private Path cacheFile;
+
+    @Before
+    public void createCacheFile() throws IOException {
+        cacheFile = Files.createTempFile("compilation-cache", ".bin");
+    }
+
+    @After
+    public void deleteCacheFile() throws IOException {
+        Files.deleteIfExists(cacheFile);
+    }
+
+    public static int loopSnippet(int[] values, Object o) {
+        int sum = 0;
+        for (int i = 0; i < values.length; i++) {
+            sum += values[i] * 31;
+        }
+        return o == null ? sum : sum + o.hashCode();
+    }
+
+    public static String stringConstantSnippet(int b) {
+        return b > 0 ? "positive" : "other";
+    }
+
+    static final class Configuration {
+        /**
+         * Initialized from a system property so that javac does not inline the value.
+         */
+        static final int SCALE = Integer.getInteger("graal.HotSpotCompilationCacheTest.scale", 3);
+    }
+
+    public static int foldedStaticSnippet(int value) {
+        return value * Configuration.SCALE;
+    }
+
+    private CompilationResult compileAndStore(HotSpotResolvedJavaMethod method, DebugContext debug) {
+        HotSpotCompilationCache.Recording recording;
+        CompilationResult result;
+        HotSpotCompilationCache.beginRecording();
+        try {
+            StructuredGraph graph = parseForCompile(method, debug);
+            result = compile(method, graph);
+        } finally {
+            recording = HotSpotCompilationCache.endRecording();
+        }
+        HotSpotCompilationCache cache = HotSpotCompilationCache.open(cacheFile, MAX_SIZE, runtime());
+        Assert.assertNotNull(cache);
+        try {
+            cache.store(debug, method, JVMCICompiler.INVOCATION_ENTRY_BCI, true, false, result, recording);
+        } finally {
+            cache.close();
+        }
+        return result;
+    }
+
+    private CompilationResult lookup(HotSpotResolvedJavaMethod method, DebugContext debug) {
+        HotSpotCompilationCache cache = HotSpotCompilationCache.open(cacheFile, MAX_SIZE, runtime());
+        Assert.assertNotNull(cache);
+        try {
+            CompilationIdentifier compilationId = runtime().getHostBackend().getCompilationIdentifier(method);
+            return cache.lookup(debug, method, JVMCICompiler.INVOCATION_ENTRY_BCI, true, false, compilationId);
+        } finally {
+            cache.close();
+        }
+    }
+
+    private void testRoundTrip(String name, Object[]... argumentSets) throws Exception {
+        HotSpotResolvedJavaMethod method = (HotSpotResolvedJavaMethod) getResolvedJavaMethod(name);
+        DebugContext debug = getDebugContext();
+        CompilationResult original = compileAndStore(method, debug);
+        CompilationResult cached = lookup(method, debug);
+        Assert.assertNotNull("no cached result for " + name, cached);
+        Assert.assertEquals(original.getTargetCodeSize(), cached.getTargetCodeSize());
+        Assert.assertArrayEquals(Arrays.copyOf(original.getTargetCode(), original.getTargetCodeSize()), Arrays.copyOf(cached.getTargetCode(), cached.getTargetCodeSize()));
+        Assert.assertEquals(original.getInfopoints().size(), cached.getInfopoints().size());
+        Assert.assertEquals(original.getDataPatches().size(), cached.getDataPatches().size());
+        Assert.assertEquals(original.getMarks().size(), cached.getMarks().size());
+        Assert.assertEquals(original.getTotalFrameSize(), cached.getTotalFrameSize());
+
+        InstalledCode code = addMethod(debug, method, cached);
+        for (Object[] args : argumentSets) {
+            Assert.assertEquals(referenceInvoke(method, null, args), code.executeVarargs(args));
+        }
+    }
+
+    @Test
+    public void testLoop() throws Exception {
+        testRoundTrip("loopSnippet", new Object[]{new int[]{1, 2, 3, 4, 5}, null}, new Object[]{new int[]{7}, 42});
+    }
+
+    @Test
+    public void testStringConstants() throws Exception {
+        testRoundTrip("stringConstantSnippet", new Object[]{17}, new Object[]{-1});
+    }
+
+    /**
+     * Simulates a run in which a {@code static final} field that the cached code folded was
+     * initialized to a different value.
+     */
+    @Test
+    public void testFoldedStaticFinalChanged() throws Exception {
+        HotSpotResolvedJavaMethod method = (HotSpotResolvedJavaMethod) getResolvedJavaMethod("foldedStaticSnippet");
+        DebugContext debug = getDebugContext();
+        int scale = Configuration.SCALE;
+        compileAndStore(method, debug);
+        Assert.assertNotNull("entry must be valid while the folded value is unchanged", lookup(method, debug));
+
+        Field field = Configuration.class.getDeclaredField("SCALE");
+        Object base = UNSAFE.staticFieldBase(field);
+        long offset = UNSAFE.staticFieldOffset(field);
+        UNSAFE.putInt(base, offset, scale + 1);
+        try {
+            Assert.assertNull("entry must be rejected after the folded value changed", lookup(method, debug));
+        } finally {
+            UNSAFE.putInt(base, offset, scale);
+        }
+        Assert.assertNotNull(lookup(method, debug));
+    }
+
+    @Test
+    public void testFingerprintMismatch() throws IOException {
+        HotSpotResolvedJavaMethod method = (HotSpotResolvedJavaMethod) getResolvedJavaMethod("loopSnippet");
+        DebugContext debug = getDebugContext();
+        compileAndStore(method, debug);
+        try (FileChannel channel = FileChannel.open(cacheFile, StandardOpenOption.WRITE)) {
+            // corrupt the VM fingerprint in the file header
+            channel.write(ByteBuffer.wrap(new byte[]{0x55, 0x55, 0x55, 0x55}), 8);
+        }
+        Assert.assertNull(lookup(method, debug));
+    }
+
+    @Test
+    public void testIncompatibleFileIsReplaced() throws IOException {
+        HotSpotResolvedJavaMethod method = (HotSpotResolvedJavaMethod) getResolvedJavaMethod("loopSnippet");
+        DebugContext debug = getDebugContext();
+        compileAndStore(method, debug);
+        long size = Files.size(cacheFile);
+        try (FileChannel channel = FileChannel.open(cacheFile, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0x55, 0x55, 0x55, 0x55}), 8);
+            // simulates another VM that still has the incompatible file mapped
+            MappedByteBuffer mapping = channel.map(MapMode.READ_ONLY, 0, size);
+            Assert.assertNull(lookup(method, debug));
+            Assert.assertEquals("incompatible file must not be truncated in place", size, channel.size());
+            mapping.position((int) size - 1);
+            mapping.get();
+        }
+        Assert.assertTrue("file is reinitialized", Files.size(cacheFile) < size);
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.hotspot.test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.graalvm.compiler.bytecode.BytecodeStream;
+import org.graalvm.compiler.bytecode.Bytecodes;
+import org.graalvm.compiler.hotspot.HotSpotProfileReplay;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.spi.ProfileProvider;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import jdk.vm.ci.meta.ProfilingInfo;
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+
+/**
+ * Tests that profiles captured by {@link HotSpotProfileReplay} are replayed unchanged.
+ */
+public class HotSpotProfileReplayTest extends HotSpotGraalCompilerTest {
+
+    private Path profileFile;
+
+    @Before
+    public void createProfileFile() throws IOException {
+        profileFile = Files.createTempFile("profiles", ".bin");
+    }
+
+    @After
+    public void deleteProfileFile() throws IOException {
+        Files.deleteIfExists(profileFile);
+    }
+
+    public static int profiledSnippet(Object o, int n) {
+        int result = 0;
+        for (int i = 0; i < n; i++) {
+            if ((i & 3) == 0) {
+                result += o.hashCode();
+            } else {
+                result ^= i;
+            }
+        }
+        return result;
+    }
+
+    public static int unprofiledSnippet(int n) {
+        return n + 1;
+    }
+
+    @Test
+    public void testRoundTrip() {
+        for (int i = 0; i < 10000; i++) {
+            profiledSnippet(i % 2 == 0 ? "a" : Integer.valueOf(i), 10);
+        }
+        ResolvedJavaMethod method = getResolvedJavaMethod("profiledSnippet");
+        HotSpotProfileReplay capture = HotSpotProfileReplay.create(null, true);
+        ProfilingInfo original = capture.createProfileProvider().getProfilingInfo(method);
+        capture.write(profileFile);
+
+        HotSpotProfileReplay replay = HotSpotProfileReplay.create(profileFile, false);
+        ProfilingInfo replayed = replay.createProfileProvider().getProfilingInfo(method);
+        Assert.assertNotSame(original, replayed);
+        Assert.assertEquals(original.getCodeSize(), replayed.getCodeSize());
+        Assert.assertEquals(original.isMature(), replayed.isMature());
+        BytecodeStream stream = new BytecodeStream(method.getCode());
+        while (stream.currentBC() != Bytecodes.END) {
+            int bci = stream.currentBCI();
+            Assert.assertEquals(original.getBranchTakenProbability(bci), replayed.getBranchTakenProbability(bci), 0);
+            Assert.assertArrayEquals(original.getSwitchProbabilities(bci), replayed.getSwitchProbabilities(bci), 0);
+            Assert.assertEquals(original.getTypeProfile(bci), replayed.getTypeProfile(bci));
+            Assert.assertEquals(original.getMethodProfile(bci), replayed.getMethodProfile(bci));
+            Assert.assertEquals(original.getExceptionSeen(bci), replayed.getExceptionSeen(bci));
+            Assert.assertEquals(original.getNullSeen(bci), replayed.getNullSeen(bci));
+            Assert.assertEquals(original.getExecutionCount(bci), replayed.getExecutionCount(bci));
+            stream.next();
+        }
+    }
+
+    @Test
+    public void testNotRecorded() {
+        HotSpotProfileReplay capture = HotSpotProfileReplay.create(null, true);
+        capture.createProfileProvider().getProfilingInfo(getResolvedJavaMethod("profiledSnippet"));
+        capture.write(profileFile);
+
+        HotSpotProfileReplay replay = HotSpotProfileReplay.create(profileFile, false);
+        ResolvedJavaMethod method = getResolvedJavaMethod("unprofiledSnippet");
+        ProfilingInfo info = replay.createProfileProvider().getProfilingInfo(method);
+        Assert.assertEquals(ProfileProvider.DEFAULT.getProfilingInfo(method).getClass(), info.getClass());
+    }
+
+    public static int lateProfiledSnippet(int n) {
+        int result = 0;
+        for (int i = 0; i < n; i++) {
+            result += i * n;
+        }
+        return result;
+    }
+
+    /**
+     * A method without a profile in the current VM when it is first queried gets one later. The
+     * replayed profile must then forward to that profile instead of the empty one seen first,
+     * otherwise for example deoptimizations in the current VM are never taken into account.
+     */
+    @Test
+    public void testReplayUsesCurrentProfile() {
+        ResolvedJavaMethod method = getResolvedJavaMethod("lateProfiledSnippet");
+        HotSpotProfileReplay capture = HotSpotProfileReplay.create(null, true);
+        capture.createProfileProvider().getProfilingInfo(method);
+        capture.write(profileFile);
+
+        HotSpotProfileReplay replay = HotSpotProfileReplay.create(profileFile, false);
+        ProfilingInfo first = replay.createProfileProvider().getProfilingInfo(method);
+        Assume.assumeFalse("method is already profiled", first.setCompilerIRSize(StructuredGraph.class, 42));
+
+        // the VM creates the profile asynchronously
+        long deadline = System.currentTimeMillis() + 10000;
+        boolean profiled = false;
+        while (!profiled && System.currentTimeMillis() < deadline) {
+            for (int i = 0; i < 10000; i++) {
+                lateProfiledSnippet(10);
+            }
+            profiled = ProfileProvider.DEFAULT.getProfilingInfo(method).setCompilerIRSize(StructuredGraph.class, 42);
+        }
+        Assume.assumeTrue("method is not profiled", profiled);
+        ProfilingInfo later = replay.createProfileProvider().getProfilingInfo(method);
+        Assert.assertTrue(later.setCompilerIRSize(StructuredGraph.class, 43));
+        Assert.assertEquals(43, later.getCompilerIRSize(StructuredGraph.class));
+    }
+}
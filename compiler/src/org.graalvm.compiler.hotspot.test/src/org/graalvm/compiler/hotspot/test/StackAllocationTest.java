@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.hotspot.test;
+
+import java.util.Arrays;
+
+import org.graalvm.compiler.code.CompilationResult;
+import org.graalvm.compiler.core.test.GraalCompilerTest;
+import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.hotspot.nodes.AllocaNode;
+import org.graalvm.compiler.hotspot.phases.StackAllocationPhase;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.java.NewArrayNode;
+import org.graalvm.compiler.options.OptionValues;
+import org.junit.Test;
+
+import jdk.vm.ci.code.InstalledCode;
+import jdk.vm.ci.code.InvalidInstalledCodeException;
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+import jdk.vm.ci.meta.SpeculationLog;
+
+/**
+ * Tests that {@link StackAllocationPhase} moves non-escaping arrays of variable length into the
+ * stack frame and keeps escaping arrays on the heap.
+ */
+public class StackAllocationTest extends GraalCompilerTest {
+
+    private final SpeculationLog speculationLog = getCodeCache().createSpeculationLog();
+
+    private boolean expectStackAllocation;
+
+    @Override
+    protected SpeculationLog getSpeculationLog() {
+        speculationLog.collectFailedSpeculations();
+        return speculationLog;
+    }
+
+    @Override
+    protected InstalledCode addMethod(DebugContext debug, ResolvedJavaMethod method, CompilationResult compilationResult) {
+        assert speculationLog == compilationResult.getSpeculationLog();
+        return getBackend().createInstalledCode(debug, method, compilationResult, null, false);
+    }
+
+    @Override
+    protected void checkMidTierGraph(StructuredGraph graph) {
+        int allocas = graph.getNodes().filter(AllocaNode.class).count();
+        int newArrays = graph.getNodes().filter(NewArrayNode.class).count();
+        if (expectStackAllocation) {
+            assertTrue(allocas == 1 && newArrays == 0, "expected a stack allocated array in %s", graph);
+        } else {
+            assertTrue(allocas == 0 && newArrays == 1, "expected a heap allocated array in %s", graph);
+        }
+    }
+
+    private OptionValues stackAllocationOptions() {
+        return new OptionValues(getInitialOptions(), StackAllocationPhase.Options.StackAllocateArrays, true);
+    }
+
+    private void testStackAllocation(boolean stackAllocated, String name, Object... args) {
+        expectStackAllocation = stackAllocated;
+        test(stackAllocationOptions(), name, args);
+    }
+
+    public static int boundedLengthSnippet(int n) {
+        int[] squares = new int[n & 31];
+        for (int i = 0; i < squares.length; i++) {
+            squares[i] = i * i;
+        }
+        int sum = 0;
+        for (int i = 0; i < squares.length; i++) {
+            sum += squares[i];
+        }
+        return sum;
+    }
+
+    @Test
+    public void testBoundedLength() {
+        for (int n : new int[]{0, 1, 17, 31, 32, -1}) {
+            testStackAllocation(true, "boundedLengthSnippet", n);
+        }
+    }
+
+    public static long checksumSnippet(byte[] input) {
+        byte[] buffer = new byte[input.length];
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i] = (byte) (input[i] ^ 0x5a);
+        }
+        long checksum = 0;
+        for (int i = 0; i < buffer.length; i++) {
+            checksum = checksum * 31 + buffer[i];
+        }
+        return checksum;
+    }
+
+    @Test
+    public void testSpeculativeLength() {
+        testStackAllocation(true, "checksumSnippet", new byte[]{1, 2, 3, 4, 5, 6, 7});
+    }
+
+    /**
+     * An input longer than the speculated maximum length must deoptimize before the allocation and
+     * still produce the right result. The recompiled code allocates the array on the heap.
+     */
+    @Test
+    public void testSpeculativeLengthExceeded() throws InvalidInstalledCodeException {
+        OptionValues options = stackAllocationOptions();
+        ResolvedJavaMethod method = getResolvedJavaMethod("checksumSnippet");
+        byte[] input = new byte[StackAllocationPhase.Options.StackAllocationMaxArrayBytes.getValue(options) * 2];
+        Arrays.fill(input, (byte) 42);
+        long expected = checksumSnippet(input);
+
+        // The code cached by the other tests uses another speculation log, so it is not reused.
+        expectStackAllocation = true;
+        InstalledCode code = getCode(method, null, true, false, options);
+        assertDeepEquals(expected, code.executeVarargs((Object) input));
+        assertFalse(code.isValid(), "the failed length speculation must invalidate the code");
+
+        expectStackAllocation = false;
+        code = getCode(method, null, true, false, options);
+        assertDeepEquals(expected, code.executeVarargs((Object) input));
+        assertTrue(code.isValid());
+    }
+
+    public static int restartSnippet(int[] input, int n) {
+        int[] buffer = new int[n & 31];
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i] = input[i] * 2;
+        }
+        int sum = 0;
+        for (int i = 0; i < buffer.length; i++) {
+            sum += buffer[i];
+        }
+        return sum;
+    }
+
+    /**
+     * A failing bounds check after the array was written to must deoptimize to the allocation,
+     * since the interpreter cannot be given the stack allocated array.
+     */
+    @Test
+    public void testDeoptimizationRestartsAtAllocation() {
+        int[] input = {1, 2, 3, 4, 5};
+        testStackAllocation(true, "restartSnippet", input, 5);
+        testStackAllocation(true, "restartSnippet", input, 9);
+    }
+
+    public static int[] escapingSnippet(int n) {
+        int[] result = new int[n & 31];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = i;
+        }
+        return result;
+    }
+
+    @Test
+    public void testEscaping() {
+        testStackAllocation(false, "escapingSnippet", 9);
+    }
+}
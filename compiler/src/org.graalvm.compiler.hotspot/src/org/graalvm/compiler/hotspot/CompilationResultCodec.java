@@ -0,0 +1,1143 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.hotspot;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.graalvm.collections.EconomicMap;
+import org.graalvm.collections.Equivalence;
+import org.graalvm.compiler.api.replacements.SnippetReflectionProvider;
+import org.graalvm.compiler.code.CompilationResult;
+import org.graalvm.compiler.code.CompilationResult.CodeMark;
+import org.graalvm.compiler.code.DataSection;
+import org.graalvm.compiler.code.DataSection.Data;
+import org.graalvm.compiler.core.common.CompilationIdentifier;
+import org.graalvm.compiler.core.common.LIRKind;
+import org.graalvm.compiler.core.common.spi.ForeignCallSignature;
+import org.graalvm.compiler.hotspot.HotSpotCompilationCache.FoldedField;
+import org.graalvm.compiler.hotspot.HotSpotCompilationCache.Recording;
+import org.graalvm.compiler.hotspot.meta.HotSpotProviders;
+
+import jdk.vm.ci.code.Architecture;
+import jdk.vm.ci.code.BytecodeFrame;
+import jdk.vm.ci.code.BytecodePosition;
+import jdk.vm.ci.code.DebugInfo;
+import jdk.vm.ci.code.Location;
+import jdk.vm.ci.code.ReferenceMap;
+import jdk.vm.ci.code.Register;
+import jdk.vm.ci.code.RegisterValue;
+import jdk.vm.ci.code.StackLockValue;
+import jdk.vm.ci.code.StackSlot;
+import jdk.vm.ci.code.VirtualObject;
+import jdk.vm.ci.code.site.Call;
+import jdk.vm.ci.code.site.ConstantReference;
+import jdk.vm.ci.code.site.DataPatch;
+import jdk.vm.ci.code.site.DataSectionReference;
+import jdk.vm.ci.code.site.ExceptionHandler;
+import jdk.vm.ci.code.site.Infopoint;
+import jdk.vm.ci.code.site.InfopointReason;
+import jdk.vm.ci.code.site.Reference;
+import jdk.vm.ci.hotspot.HotSpotCompressedNullConstant;
+import jdk.vm.ci.hotspot.HotSpotConstant;
+import jdk.vm.ci.hotspot.HotSpotJVMCIRuntime;
+import jdk.vm.ci.hotspot.HotSpotMetaspaceConstant;
+import jdk.vm.ci.hotspot.HotSpotObjectConstant;
+import jdk.vm.ci.hotspot.HotSpotReferenceMap;
+import jdk.vm.ci.hotspot.HotSpotResolvedObjectType;
+import jdk.vm.ci.meta.AllocatableValue;
+import jdk.vm.ci.meta.Assumptions.Assumption;
+import jdk.vm.ci.meta.Assumptions.ConcreteMethod;
+import jdk.vm.ci.meta.Assumptions.ConcreteSubtype;
+import jdk.vm.ci.meta.Assumptions.LeafType;
+import jdk.vm.ci.meta.Constant;
+import jdk.vm.ci.meta.ConstantReflectionProvider;
+import jdk.vm.ci.meta.InvokeTarget;
+import jdk.vm.ci.meta.JavaConstant;
+import jdk.vm.ci.meta.JavaKind;
+import jdk.vm.ci.meta.JavaType;
+import jdk.vm.ci.meta.JavaValue;
+import jdk.vm.ci.meta.PlatformKind;
+import jdk.vm.ci.meta.PrimitiveConstant;
+import jdk.vm.ci.meta.ResolvedJavaField;
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+import jdk.vm.ci.meta.ResolvedJavaType;
+import jdk.vm.ci.meta.VMConstant;
+import jdk.vm.ci.meta.Value;
+import jdk.vm.ci.meta.ValueKind;
+
+/**
+ * Binary encoding of an installed {@link CompilationResult} for the
+ * {@link HotSpotCompilationCache}.
+ *
+ * References to VM data structures are stored symbolically: types by name, methods by holder, name
+ * and signature, foreign calls by their {@link ForeignCallSignature} and object constants as the
+ * class mirror or interned string they denote. Compilations that refer to anything that cannot be
+ * named in a different VM instance (e.g. arbitrary heap objects or speculations) are rejected with
+ * a {@link NotCacheableException}.
+ *
+ * The values of the constant folded fields are stored as {@linkplain #describe descriptions}
+ * that are compared with the current values of the fields before a result is decoded. Objects
+ * that are only used as receivers of further folded reads are identified by the read that produced
+ * them, which allows chains such as a static final configuration object and its final fields to be
+ * checked without naming the objects themselves.
+ */
+final class CompilationResultCodec {
+
+    /**
+     * Thrown if a compilation result contains data that cannot be reproduced in another VM
+     * instance.
+     */
+    @SuppressWarnings("serial")
+    static final class NotCacheableException extends Exception {
+        NotCacheableException(String reason) {
+            super(reason);
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+
+    /**
+     * The content of a {@link HotSpotReferenceMap}, which cannot be read back from the map itself.
+     */
+    static final class ReferenceMapContent {
+        final Location[] objects;
+        final Location[] derivedBase;
+        final int[] sizeInBytes;
+        final int maxRegisterSize;
+
+        ReferenceMapContent(Location[] objects, Location[] derivedBase, int[] sizeInBytes, int maxRegisterSize) {
+            this.objects = objects;
+            this.derivedBase = derivedBase;
+            this.sizeInBytes = sizeInBytes;
+            this.maxRegisterSize = maxRegisterSize;
+        }
+    }
+
+    private static final byte VALUE_ILLEGAL = 0;
+    private static final byte VALUE_REGISTER = 1;
+    private static final byte VALUE_STACK_SLOT = 2;
+    private static final byte VALUE_PRIMITIVE = 3;
+    private static final byte VALUE_NULL = 4;
+    private static final byte VALUE_COMPRESSED_NULL = 5;
+    private static final byte VALUE_OBJECT = 6;
+    private static final byte VALUE_VIRTUAL_OBJECT = 7;
+    private static final byte VALUE_STACK_LOCK = 8;
+
+    private static final byte OBJECT_CLASS_MIRROR = 0;
+    private static final byte OBJECT_INTERNED_STRING = 1;
+
+    private static final byte METASPACE_TYPE = 0;
+    private static final byte METASPACE_METHOD = 1;
+
+    private static final byte KIND_ILLEGAL = 0;
+    private static final byte KIND_VALUE = 1;
+    private static final byte KIND_REFERENCE = 2;
+    private static final byte KIND_COMPRESSED_REFERENCE = 3;
+
+    private static final byte ASSUMPTION_LEAF_TYPE = 0;
+    private static final byte ASSUMPTION_CONCRETE_SUBTYPE = 1;
+    private static final byte ASSUMPTION_CONCRETE_METHOD = 2;
+
+    private static final byte SITE_CALL = 0;
+    private static final byte SITE_INFOPOINT = 1;
+
+    private static final byte CALL_TARGET_METHOD = 0;
+    private static final byte CALL_TARGET_FOREIGN = 1;
+
+    private static final byte POSITION = 0;
+    private static final byte FRAME = 1;
+
+    private static final byte RECEIVER_STATIC = 0;
+    private static final byte RECEIVER_FOLDED = 1;
+    private static final byte RECEIVER_OBJECT = 2;
+
+    private CompilationResultCodec() {
+    }
+
+    /**
+     * Describes {@code value} such that the description changes if the value observed by compiled
+     * code that folded it changes. Primitive values, strings and class mirrors are described
+     * completely. The elements of arrays are described since they may have been folded as well.
+     * Other objects are described by their type, their fields are checked separately if they were
+     * folded.
+     */
+    static String describe(JavaConstant value, HotSpotProviders providers) {
+        return describe(value, providers, true);
+    }
+
+    private static String describe(JavaConstant value, HotSpotProviders providers, boolean withElements) {
+        if (value.isNull()) {
+            return "null";
+        }
+        if (value.getJavaKind().isPrimitive()) {
+            return value.getJavaKind().getTypeChar() + ":" + Encoder.rawValue((PrimitiveConstant) value);
+        }
+        ConstantReflectionProvider constantReflection = providers.getConstantReflection();
+        ResolvedJavaType mirror = constantReflection.asJavaType(value);
+        if (mirror != null) {
+            return "class:" + mirror.getName();
+        }
+        ResolvedJavaType type = providers.getMetaAccess().lookupJavaType(value);
+        if (type.isArray()) {
+            int length = constantReflection.readArrayLength(value);
+            String array = type.getName() + "[" + length + "]";
+            if (!withElements) {
+                return array;
+            }
+            StringBuilder elements = new StringBuilder();
+            for (int i = 0; i < length; i++) {
+                elements.append(describe(constantReflection.readArrayElement(value, i), providers, false)).append('\n');
+            }
+            return array + HotSpotCompilationCache.toHex(HotSpotCompilationCache.digest(elements.toString().getBytes(StandardCharsets.UTF_8)));
+        }
+        String string = providers.getSnippetReflection().asObject(String.class, value);
+        if (string != null) {
+            return "string:" + string;
+        }
+        return "object:" + type.getName();
+    }
+
+    static final class Encoder {
+        private final DataOutputStream out;
+        private final HotSpotProviders providers;
+        private final Recording recording;
+
+        Encoder(DataOutputStream out, HotSpotProviders providers, Recording recording) {
+            this.out = out;
+            this.providers = providers;
+            this.recording = recording;
+        }
+
+        void encode(CompilationResult result) throws IOException, NotCacheableException {
+            if (result.isImmutablePIC()) {
+                throw new NotCacheableException("position independent code");
+            }
+            if (result.getSpeculationLog() != null && result.getSpeculationLog().hasSpeculations()) {
+                throw new NotCacheableException("speculations");
+            }
+            writeNullableString(result.getName());
+            out.writeInt(result.getEntryBCI());
+            out.writeInt(result.getTotalFrameSize());
+            out.writeInt(result.getMaxInterpreterFrameSize());
+            out.writeInt(result.getBytecodeSize());
+            out.writeBoolean(result.hasUnsafeAccess());
+            StackSlot customStackArea = result.getCustomStackArea();
+            out.writeBoolean(customStackArea != null);
+            if (customStackArea != null) {
+                writeValue(customStackArea);
+            }
+
+            int codeSize = result.getTargetCodeSize();
+            out.writeInt(codeSize);
+            out.write(result.getTargetCode(), 0, codeSize);
+
+            ResolvedJavaMethod[] methods = result.getMethods();
+            out.writeInt(methods.length);
+            for (ResolvedJavaMethod method : methods) {
+                writeMethod(method);
+                out.writeUTF(HotSpotCompilationCache.codeFingerprint(method));
+            }
+
+            writeFoldedFields(recording.foldedFields);
+
+            out.writeInt(recording.layouts.size());
+            for (ResolvedJavaType type : recording.layouts) {
+                writeType(type);
+                out.writeUTF(HotSpotCompilationCache.classLayout(type));
+            }
+
+            Assumption[] assumptions = result.getAssumptions();
+            out.writeInt(assumptions == null ? 0 : assumptions.length);
+            if (assumptions != null) {
+                for (Assumption assumption : assumptions) {
+                    writeAssumption(assumption);
+                }
+            }
+
+            writeDataSection(result.getDataSection());
+
+            List<ExceptionHandler> handlers = result.getExceptionHandlers();
+            out.writeInt(handlers.size());
+            for (ExceptionHandler handler : handlers) {
+                out.writeInt(handler.pcOffset);
+                out.writeInt(handler.handlerPos);
+            }
+
+            List<Infopoint> infopoints = result.getInfopoints();
+            out.writeInt(infopoints.size());
+            for (Infopoint infopoint : infopoints) {
+                writeInfopoint(infopoint);
+            }
+
+            List<DataPatch> patches = result.getDataPatches();
+            out.writeInt(patches.size());
+            for (DataPatch patch : patches) {
+                out.writeInt(patch.pcOffset);
+                writeReference(patch.reference);
+            }
+
+            List<CodeMark> marks = result.getMarks();
+            out.writeInt(marks.size());
+            for (CodeMark mark : marks) {
+                if (!(mark.id instanceof HotSpotMarkId)) {
+                    throw new NotCacheableException("mark " + mark.id);
+                }
+                out.writeInt(mark.pcOffset);
+                out.writeUTF(((HotSpotMarkId) mark.id).name());
+            }
+        }
+
+        private void writeFoldedFields(List<FoldedField> foldedFields) throws IOException, NotCacheableException {
+            out.writeInt(foldedFields.size());
+            for (int i = 0; i < foldedFields.size(); i++) {
+                FoldedField folded = foldedFields.get(i);
+                writeType(folded.field.getDeclaringClass());
+                out.writeUTF(folded.field.getName());
+                out.writeUTF(folded.field.getType().getName());
+                if (folded.receiver == null) {
+                    out.writeByte(RECEIVER_STATIC);
+                } else {
+                    int producer = -1;
+                    for (int j = 0; j < i; j++) {
+                        if (folded.receiver.equals(foldedFields.get(j).value)) {
+                            producer = j;
+                            break;
+                        }
+                    }
+                    if (producer >= 0) {
+                        out.writeByte(RECEIVER_FOLDED);
+                        out.writeInt(producer);
+                    } else if (folded.receiver instanceof HotSpotObjectConstant) {
+                        out.writeByte(RECEIVER_OBJECT);
+                        writeObjectConstant((HotSpotObjectConstant) folded.receiver);
+                    } else {
+                        throw new NotCacheableException("folded read of " + folded.field.format("%H.%n") + " from " + folded.receiver);
+                    }
+                }
+                out.writeUTF(describe(folded.value, providers));
+            }
+        }
+
+        private void writeDataSection(DataSection data) throws IOException, NotCacheableException {
+            int size = data.getSectionSize();
+            out.writeInt(size);
+            if (size == 0) {
+                return;
+            }
+            out.writeInt(data.getSectionAlignment());
+            byte[] bytes = new byte[size];
+            ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.nativeOrder());
+            List<Integer> positions = new ArrayList<>();
+            List<VMConstant> constants = new ArrayList<>();
+            data.buildDataSection(buffer, (position, constant) -> {
+                positions.add(position);
+                constants.add(constant);
+            });
+            out.write(bytes);
+            out.writeInt(positions.size());
+            for (int i = 0; i < positions.size(); i++) {
+                out.writeInt(positions.get(i));
+                writeVMConstant(constants.get(i));
+            }
+        }
+
+        private void writeReference(Reference reference) throws IOException, NotCacheableException {
+            if (reference instanceof DataSectionReference) {
+                out.writeBoolean(true);
+                out.writeInt(((DataSectionReference) reference).getOffset());
+            } else if (reference instanceof ConstantReference) {
+                out.writeBoolean(false);
+                writeVMConstant(((ConstantReference) reference).getConstant());
+            } else {
+                throw new NotCacheableException("reference " + reference);
+            }
+        }
+
+        private void writeVMConstant(VMConstant constant) throws IOException, NotCacheableException {
+            if (constant instanceof HotSpotMetaspaceConstant) {
+                HotSpotMetaspaceConstant metaspaceConstant = (HotSpotMetaspaceConstant) constant;
+                out.writeBoolean(true);
+                out.writeBoolean(metaspaceConstant.isCompressed());
+                ResolvedJavaType type = metaspaceConstant.asResolvedJavaType();
+                if (type != null) {
+                    out.writeByte(METASPACE_TYPE);
+                    writeType(type);
+                } else {
+                    ResolvedJavaMethod method = metaspaceConstant.asResolvedJavaMethod();
+                    if (method == null) {
+                        throw new NotCacheableException("metaspace constant " + constant);
+                    }
+                    out.writeByte(METASPACE_METHOD);
+                    writeMethod(method);
+                }
+            } else if (constant instanceof HotSpotObjectConstant) {
+                out.writeBoolean(false);
+                writeObjectConstant((HotSpotObjectConstant) constant);
+            } else {
+                throw new NotCacheableException("constant " + constant);
+            }
+        }
+
+        private void writeObjectConstant(HotSpotObjectConstant constant) throws IOException, NotCacheableException {
+            out.writeBoolean(constant.isCompressed());
+            ResolvedJavaType mirror = providers.getConstantReflection().asJavaType(constant);
+            if (mirror != null) {
+                out.writeByte(OBJECT_CLASS_MIRROR);
+                writeType(mirror);
+            } else if (constant.isInternedString()) {
+                out.writeByte(OBJECT_INTERNED_STRING);
+                out.writeUTF(constant.asObject(String.class));
+            } else {
+                throw new NotCacheableException("object constant " + constant);
+            }
+        }
+
+        private void writeAssumption(Assumption assumption) throws IOException, NotCacheableException {
+            if (assumption instanceof LeafType) {
+                out.writeByte(ASSUMPTION_LEAF_TYPE);
+                writeType(((LeafType) assumption).context);
+            } else if (assumption instanceof ConcreteSubtype) {
+                ConcreteSubtype concreteSubtype = (ConcreteSubtype) assumption;
+                out.writeByte(ASSUMPTION_CONCRETE_SUBTYPE);
+                writeType(concreteSubtype.context);
+                writeType(concreteSubtype.subtype);
+            } else if (assumption instanceof ConcreteMethod) {
+                ConcreteMethod concreteMethod = (ConcreteMethod) assumption;
+                out.writeByte(ASSUMPTION_CONCRETE_METHOD);
+                writeMethod(concreteMethod.method);
+                writeType(concreteMethod.context);
+                writeMethod(concreteMethod.impl);
+            } else {
+                throw new NotCacheableException("assumption " + assumption);
+            }
+        }
+
+        private void writeInfopoint(Infopoint infopoint) throws IOException, NotCacheableException {
+            if (infopoint instanceof Call) {
+                Call call = (Call) infopoint;
+                out.writeByte(SITE_CALL);
+                out.writeInt(call.pcOffset);
+                out.writeInt(call.size);
+                out.writeBoolean(call.direct);
+                writeCallTarget(call.target);
+            } else if (infopoint.getClass() == Infopoint.class) {
+                out.writeByte(SITE_INFOPOINT);
+                out.writeInt(infopoint.pcOffset);
+                out.writeByte(infopoint.reason.ordinal());
+            } else {
+                throw new NotCacheableException("infopoint " + infopoint);
+            }
+            writeDebugInfo(infopoint.debugInfo);
+        }
+
+        private void writeCallTarget(InvokeTarget target) throws IOException, NotCacheableException {
+            if (target instanceof ResolvedJavaMethod) {
+                out.writeByte(CALL_TARGET_METHOD);
+                writeMethod((ResolvedJavaMethod) target);
+            } else if (target instanceof HotSpotForeignCallLinkage) {
+                out.writeByte(CALL_TARGET_FOREIGN);
+                ForeignCallSignature signature = ((HotSpotForeignCallLinkage) target).getDescriptor().getSignature();
+                out.writeUTF(signature.getName());
+                out.writeUTF(signature.getResultType().getName());
+                Class<?>[] argumentTypes = signature.getArgumentTypes();
+                out.writeInt(argumentTypes.length);
+                for (Class<?> argumentType : argumentTypes) {
+                    out.writeUTF(argumentType.getName());
+                }
+            } else {
+                throw new NotCacheableException("call target " + target);
+            }
+        }
+
+        private void writeDebugInfo(DebugInfo debugInfo) throws IOException, NotCacheableException {
+            out.writeBoolean(debugInfo != null);
+            if (debugInfo == null) {
+                return;
+            }
+            if (debugInfo.getCalleeSaveInfo() != null) {
+                throw new NotCacheableException("callee save info");
+            }
+            VirtualObject[] virtualObjects = debugInfo.getVirtualObjectMapping();
+            out.writeInt(virtualObjects == null ? -1 : virtualObjects.length);
+            if (virtualObjects != null) {
+                // the objects are created first since their values may refer to each other
+                for (VirtualObject virtualObject : virtualObjects) {
+                    writeType(virtualObject.getType());
+                    out.writeInt(virtualObject.getId());
+                }
+                for (VirtualObject virtualObject : virtualObjects) {
+                    JavaValue[] values = virtualObject.getValues();
+                    out.writeInt(values.length);
+                    for (int i = 0; i < values.length; i++) {
+                        out.writeByte(virtualObject.getSlotKind(i).ordinal());
+                        writeValue(values[i]);
+                    }
+                }
+            }
+            writePosition(debugInfo.getBytecodePosition());
+
+            ReferenceMap referenceMap = debugInfo.getReferenceMap();
+            out.writeBoolean(referenceMap != null);
+            if (referenceMap != null) {
+                ReferenceMapContent content = recording.referenceMaps.get(referenceMap);
+                if (content == null) {
+                    throw new NotCacheableException("unrecorded reference map");
+                }
+                writeLocations(content.objects);
+                writeLocations(content.derivedBase);
+                out.writeInt(content.sizeInBytes.length);
+                for (int size : content.sizeInBytes) {
+                    out.writeInt(size);
+                }
+                out.writeInt(content.maxRegisterSize);
+            }
+        }
+
+        private void writeLocations(Location[] locations) throws IOException {
+            out.writeInt(locations.length);
+            for (Location location : locations) {
+                out.writeBoolean(location != null);
+                if (location != null) {
+                    out.writeInt(location.reg == null ? -1 : location.reg.number);
+                    out.writeInt(location.offset);
+                }
+            }
+        }
+
+        private void writePosition(BytecodePosition position) throws IOException, NotCacheableException {
+            out.writeBoolean(position != null);
+            if (position == null) {
+                return;
+            }
+            writePosition(position.getCaller());
+            writeMethod(position.getMethod());
+            out.writeInt(position.getBCI());
+            if (position instanceof BytecodeFrame) {
+                BytecodeFrame frame = (BytecodeFrame) position;
+                out.writeByte(FRAME);
+                out.writeBoolean(frame.rethrowException);
+                out.writeBoolean(frame.duringCall);
+                out.writeInt(frame.numLocals);
+                out.writeInt(frame.numStack);
+                out.writeInt(frame.numLocks);
+                for (int i = 0; i < frame.numLocals; i++) {
+                    out.writeByte(frame.getLocalValueKind(i).ordinal());
+                }
+                for (int i = 0; i < frame.numStack; i++) {
+                    out.writeByte(frame.getStackValueKind(i).ordinal());
+                }
+                out.writeInt(frame.values.length);
+                for (JavaValue value : frame.values) {
+                    writeValue(value);
+                }
+            } else {
+                out.writeByte(POSITION);
+            }
+        }
+
+        private void writeValue(JavaValue value) throws IOException, NotCacheableException {
+            if (value == Value.ILLEGAL) {
+                out.writeByte(VALUE_ILLEGAL);
+            } else if (value instanceof RegisterValue) {
+                RegisterValue register = (RegisterValue) value;
+                out.writeByte(VALUE_REGISTER);
+                out.writeInt(register.getRegister().number);
+                writeKind(register.getValueKind());
+            } else if (value instanceof StackSlot) {
+                StackSlot slot = (StackSlot) value;
+                out.writeByte(VALUE_STACK_SLOT);
+                out.writeInt(slot.getRawOffset());
+                out.writeBoolean(slot.getRawAddFrameSize());
+                writeKind(slot.getValueKind());
+            } else if (value instanceof PrimitiveConstant) {
+                PrimitiveConstant primitive = (PrimitiveConstant) value;
+                out.writeByte(VALUE_PRIMITIVE);
+                out.writeByte(primitive.getJavaKind().ordinal());
+                out.writeLong(rawValue(primitive));
+            } else if (value == JavaConstant.NULL_POINTER) {
+                out.writeByte(VALUE_NULL);
+            } else if (value == HotSpotCompressedNullConstant.COMPRESSED_NULL) {
+                out.writeByte(VALUE_COMPRESSED_NULL);
+            } else if (value instanceof HotSpotObjectConstant) {
+                out.writeByte(VALUE_OBJECT);
+                writeObjectConstant((HotSpotObjectConstant) value);
+            } else if (value instanceof VirtualObject) {
+                out.writeByte(VALUE_VIRTUAL_OBJECT);
+                out.writeInt(((VirtualObject) value).getId());
+            } else if (value instanceof StackLockValue) {
+                StackLockValue lock = (StackLockValue) value;
+                out.writeByte(VALUE_STACK_LOCK);
+                writeValue(lock.getOwner());
+                writeValue((JavaValue) lock.getSlot());
+                out.writeBoolean(lock.isEliminated());
+            } else {
+                throw new NotCacheableException("value " + value);
+            }
+        }
+
+        private static long rawValue(PrimitiveConstant primitive) {
+            switch (primitive.getJavaKind()) {
+                case Boolean:
+                    return primitive.asBoolean() ? 1 : 0;
+                case Float:
+                    return Float.floatToRawIntBits(primitive.asFloat());
+                case Double:
+                    return Double.doubleToRawLongBits(primitive.asDouble());
+                case Illegal:
+                    return 0;
+                default:
+                    return primitive.asLong();
+            }
+        }
+
+        private void writeKind(ValueKind<?> kind) throws IOException, NotCacheableException {
+            if (kind == ValueKind.Illegal) {
+                out.writeByte(KIND_ILLEGAL);
+                return;
+            }
+            if (!(kind instanceof LIRKind) || !(kind.getPlatformKind() instanceof Enum<?>)) {
+                throw new NotCacheableException("value kind " + kind);
+            }
+            LIRKind lirKind = (LIRKind) kind;
+            if (lirKind.isValue()) {
+                out.writeByte(KIND_VALUE);
+            } else if (kind.getPlatformKind().getVectorLength() == 1 && !lirKind.isDerivedReference() && !lirKind.isUnknownReference()) {
+                out.writeByte(lirKind.isCompressedReference(0) ? KIND_COMPRESSED_REFERENCE : KIND_REFERENCE);
+            } else {
+                throw new NotCacheableException("value kind " + kind);
+            }
+            out.writeUTF(((Enum<?>) kind.getPlatformKind()).name());
+        }
+
+        private void writeType(ResolvedJavaType type) throws IOException {
+            out.writeUTF(type.getName());
+        }
+
+        private void writeMethod(ResolvedJavaMethod method) throws IOException {
+            writeType(method.getDeclaringClass());
+            out.writeUTF(method.getName());
+            out.writeUTF(method.getSignature().toMethodDescriptor());
+        }
+
+        private void writeNullableString(String value) throws IOException {
+            out.writeBoolean(value != null);
+            if (value != null) {
+                out.writeUTF(value);
+            }
+        }
+    }
+
+    /**
+     * Reconstructs a {@link CompilationResult} from its encoding. All symbolic references are
+     * resolved relative to the root method of the compilation. Any reference that cannot be
+     * resolved anymore makes the entry invalid.
+     */
+    static final class Decoder {
+        private final DataInputStream in;
+        private final HotSpotProviders providers;
+        private final HotSpotResolvedObjectType accessingClass;
+        private final Architecture arch;
+        private final EconomicMap<Integer, VirtualObject> virtualObjects = EconomicMap.create(Equivalence.DEFAULT);
+
+        Decoder(DataInputStream in, HotSpotProviders providers, HotSpotResolvedObjectType accessingClass) {
+            this.in = in;
+            this.providers = providers;
+            this.accessingClass = accessingClass;
+            this.arch = providers.getCodeCache().getTarget().arch;
+        }
+
+        CompilationResult decode(CompilationIdentifier compilationId) throws IOException, NotCacheableException {
+            String name = readNullableString();
+            CompilationResult result = new CompilationResult(compilationId, name);
+            result.setEntryBCI(in.readInt());
+            result.setTotalFrameSize(in.readInt());
+            result.setMaxInterpreterFrameSize(in.readInt());
+            result.setBytecodeSize(in.readInt());
+            result.setHasUnsafeAccess(in.readBoolean());
+            if (in.readBoolean()) {
+                result.setCustomStackAreaOffset((StackSlot) readValue());
+            }
+
+            int codeSize = in.readInt();
+            byte[] code = new byte[codeSize];
+            in.readFully(code);
+            result.setTargetCode(code, codeSize);
+
+            int methodCount = in.readInt();
+            ResolvedJavaMethod[] methods = new ResolvedJavaMethod[methodCount];
+            for (int i = 0; i < methodCount; i++) {
+                methods[i] = readMethod();
+                if (!in.readUTF().equals(HotSpotCompilationCache.codeFingerprint(methods[i]))) {
+                    throw new NotCacheableException("bytecodes of " + methods[i].format("%H.%n(%p)") + " changed");
+                }
+            }
+            result.setMethods(methods[0], Arrays.asList(methods).subList(1, methodCount));
+
+            checkFoldedFields();
+
+            int layoutCount = in.readInt();
+            for (int i = 0; i < layoutCount; i++) {
+                ResolvedJavaType type = readType();
+                if (!in.readUTF().equals(HotSpotCompilationCache.classLayout(type))) {
+                    throw new NotCacheableException("layout of " + type.toJavaName() + " changed");
+                }
+            }
+
+            Assumption[] assumptions = new Assumption[in.readInt()];
+            for (int i = 0; i < assumptions.length; i++) {
+                assumptions[i] = readAssumption();
+            }
+            result.setAssumptions(assumptions);
+
+            readDataSection(result.getDataSection());
+
+            int handlerCount = in.readInt();
+            for (int i = 0; i < handlerCount; i++) {
+                result.recordExceptionHandler(in.readInt(), in.readInt());
+            }
+            int infopointCount = in.readInt();
+            for (int i = 0; i < infopointCount; i++) {
+                readInfopoint(result);
+            }
+            int patchCount = in.readInt();
+            for (int i = 0; i < patchCount; i++) {
+                int pcOffset = in.readInt();
+                result.recordDataPatch(pcOffset, readReference());
+            }
+            int markCount = in.readInt();
+            for (int i = 0; i < markCount; i++) {
+                int pcOffset = in.readInt();
+                HotSpotMarkId markId = HotSpotMarkId.valueOf(in.readUTF());
+                if (!markId.isAvailable()) {
+                    throw new NotCacheableException("mark " + markId + " not supported by this VM");
+                }
+                result.recordMark(pcOffset, markId);
+            }
+            result.close();
+            return result;
+        }
+
+        /**
+         * Reads the folded fields again and compares their values with the recorded ones.
+         */
+        private void checkFoldedFields() throws IOException, NotCacheableException {
+            JavaConstant[] values = new JavaConstant[in.readInt()];
+            for (int i = 0; i < values.length; i++) {
+                ResolvedJavaField field = readField();
+                JavaConstant receiver;
+                byte tag = in.readByte();
+                if (tag == RECEIVER_STATIC) {
+                    if (!field.isStatic()) {
+                        throw new IOException("static read of instance field " + field.format("%H.%n"));
+                    }
+                    if (!field.getDeclaringClass().isInitialized()) {
+                        throw new NotCacheableException(field.getDeclaringClass().toJavaName() + " is not initialized");
+                    }
+                    receiver = null;
+                } else if (tag == RECEIVER_FOLDED) {
+                    int producer = in.readInt();
+                    if (producer < 0 || producer >= i) {
+                        throw new IOException("reference to unknown folded field " + producer);
+                    }
+                    receiver = values[producer];
+                } else if (tag == RECEIVER_OBJECT) {
+                    receiver = readObjectConstant();
+                } else {
+                    throw new IOException("unknown receiver tag " + tag);
+                }
+                if (receiver != null && (field.isStatic() || receiver.isNull() || !field.getDeclaringClass().isInstance(receiver))) {
+                    throw new NotCacheableException("receiver of " + field.format("%H.%n") + " changed");
+                }
+                JavaConstant value = providers.getConstantReflection().readFieldValue(field, receiver);
+                if (value == null || !in.readUTF().equals(describe(value, providers))) {
+                    throw new NotCacheableException("value of " + field.format("%H.%n") + " changed");
+                }
+                values[i] = value;
+            }
+        }
+
+        private ResolvedJavaField readField() throws IOException, NotCacheableException {
+            ResolvedJavaType holder = readType();
+            String name = in.readUTF();
+            String typeName = in.readUTF();
+            for (ResolvedJavaField field : holder.getStaticFields()) {
+                if (field.getName().equals(name) && field.getType().getName().equals(typeName)) {
+                    return field;
+                }
+            }
+            for (ResolvedJavaField field : holder.getInstanceFields(false)) {
+                if (field.getName().equals(name) && field.getType().getName().equals(typeName)) {
+                    return field;
+                }
+            }
+            throw new NotCacheableException("field " + holder.toJavaName() + "." + name + " not found");
+        }
+
+        private void readDataSection(DataSection data) throws IOException, NotCacheableException {
+            int size = in.readInt();
+            if (size == 0) {
+                return;
+            }
+            int alignment = in.readInt();
+            byte[] bytes = new byte[size];
+            in.readFully(bytes);
+            int patchCount = in.readInt();
+            int[] positions = new int[patchCount];
+            VMConstant[] constants = new VMConstant[patchCount];
+            for (int i = 0; i < patchCount; i++) {
+                positions[i] = in.readInt();
+                constants[i] = readVMConstant();
+            }
+            DataSectionReference ref = data.insertData(new CachedData(bytes, alignment, positions, constants));
+            assert ref != null;
+        }
+
+        private Reference readReference() throws IOException, NotCacheableException {
+            if (in.readBoolean()) {
+                DataSectionReference reference = new DataSectionReference();
+                reference.setOffset(in.readInt());
+                return reference;
+            }
+            return new ConstantReference(readVMConstant());
+        }
+
+        private VMConstant readVMConstant() throws IOException, NotCacheableException {
+            if (in.readBoolean()) {
+                boolean compressed = in.readBoolean();
+                Constant constant;
+                if (in.readByte() == METASPACE_TYPE) {
+                    constant = ((HotSpotResolvedObjectType) readType()).klass();
+                } else {
+                    constant = ((jdk.vm.ci.hotspot.HotSpotResolvedJavaMethod) readMethod()).getEncoding();
+                }
+                return (VMConstant) (compressed ? ((HotSpotConstant) constant).compress() : constant);
+            }
+            return (VMConstant) readObjectConstant();
+        }
+
+        private JavaConstant readObjectConstant() throws IOException, NotCacheableException {
+            boolean compressed = in.readBoolean();
+            JavaConstant constant;
+            if (in.readByte() == OBJECT_CLASS_MIRROR) {
+                constant = providers.getConstantReflection().asJavaClass(readType());
+            } else {
+                SnippetReflectionProvider snippetReflection = providers.getSnippetReflection();
+                constant = snippetReflection.forObject(in.readUTF().intern());
+            }
+            return compressed ? ((HotSpotObjectConstant) constant).compress() : constant;
+        }
+
+        private Assumption readAssumption() throws IOException, NotCacheableException {
+            byte tag = in.readByte();
+            switch (tag) {
+                case ASSUMPTION_LEAF_TYPE:
+                    return new LeafType(readType());
+                case ASSUMPTION_CONCRETE_SUBTYPE: {
+                    ResolvedJavaType context = readType();
+                    return new ConcreteSubtype(context, readType());
+                }
+                case ASSUMPTION_CONCRETE_METHOD: {
+                    ResolvedJavaMethod method = readMethod();
+                    ResolvedJavaType context = readType();
+                    return new ConcreteMethod(method, context, readMethod());
+                }
+                default:
+                    throw new IOException("unknown assumption tag " + tag);
+            }
+        }
+
+        private void readInfopoint(CompilationResult result) throws IOException, NotCacheableException {
+            byte tag = in.readByte();
+            int pcOffset = in.readInt();
+            if (tag == SITE_CALL) {
+                int size = in.readInt();
+                boolean direct = in.readBoolean();
+                InvokeTarget target = readCallTarget();
+                result.recordCall(pcOffset, size, target, readDebugInfo(), direct);
+            } else {
+                InfopointReason reason = InfopointReason.values()[in.readByte()];
+                result.recordInfopoint(pcOffset, readDebugInfo(), reason);
+            }
+        }
+
+        private InvokeTarget readCallTarget() throws IOException, NotCacheableException {
+            if (in.readByte() == CALL_TARGET_METHOD) {
+                return readMethod();
+            }
+            String name = in.readUTF();
+            Class<?> resultType = readClass();
+            Class<?>[] argumentTypes = new Class<?>[in.readInt()];
+            for (int i = 0; i < argumentTypes.length; i++) {
+                argumentTypes[i] = readClass();
+            }
+            HotSpotForeignCallLinkage linkage = providers.getForeignCalls().lookupRegisteredForeignCall(new ForeignCallSignature(name, resultType, argumentTypes));
+            if (linkage == null) {
+                throw new NotCacheableException("unknown foreign call " + name);
+            }
+            return linkage;
+        }
+
+        private DebugInfo readDebugInfo() throws IOException, NotCacheableException {
+            if (!in.readBoolean()) {
+                return null;
+            }
+            virtualObjects.clear();
+            int virtualObjectCount = in.readInt();
+            VirtualObject[] mapping = null;
+            if (virtualObjectCount >= 0) {
+                mapping = new VirtualObject[virtualObjectCount];
+                for (int i = 0; i < virtualObjectCount; i++) {
+                    ResolvedJavaType type = readType();
+                    int id = in.readInt();
+                    mapping[i] = VirtualObject.get(type, id);
+                    virtualObjects.put(id, mapping[i]);
+                }
+                for (VirtualObject virtualObject : mapping) {
+                    int length = in.readInt();
+                    JavaValue[] values = new JavaValue[length];
+                    JavaKind[] kinds = new JavaKind[length];
+                    for (int i = 0; i < length; i++) {
+                        kinds[i] = JavaKind.values()[in.readByte()];
+                        values[i] = readValue();
+                    }
+                    virtualObject.setValues(values, kinds);
+                }
+            }
+            DebugInfo debugInfo = new DebugInfo(readPosition(), mapping);
+            if (in.readBoolean()) {
+                Location[] objects = readLocations();
+                Location[] derivedBase = readLocations();
+                int[] sizeInBytes = new int[in.readInt()];
+                for (int i = 0; i < sizeInBytes.length; i++) {
+                    sizeInBytes[i] = in.readInt();
+                }
+                debugInfo.setReferenceMap(new HotSpotReferenceMap(objects, derivedBase, sizeInBytes, in.readInt()));
+            }
+            return debugInfo;
+        }
+
+        private Location[] readLocations() throws IOException {
+            Location[] locations = new Location[in.readInt()];
+            for (int i = 0; i < locations.length; i++) {
+                if (in.readBoolean()) {
+                    int registerNumber = in.readInt();
+                    int offset = in.readInt();
+                    locations[i] = registerNumber < 0 ? Location.stack(offset) : Location.subregister(register(registerNumber), offset);
+                }
+            }
+            return locations;
+        }
+
+        private BytecodePosition readPosition() throws IOException, NotCacheableException {
+            if (!in.readBoolean()) {
+                return null;
+            }
+            BytecodePosition caller = readPosition();
+            ResolvedJavaMethod method = readMethod();
+            int bci = in.readInt();
+            if (in.readByte() == POSITION) {
+                return new BytecodePosition(caller, method, bci);
+            }
+            boolean rethrowException = in.readBoolean();
+            boolean duringCall = in.readBoolean();
+            int numLocals = in.readInt();
+            int numStack = in.readInt();
+            int numLocks = in.readInt();
+            JavaKind[] slotKinds = new JavaKind[numLocals + numStack];
+            for (int i = 0; i < slotKinds.length; i++) {
+                slotKinds[i] = JavaKind.values()[in.readByte()];
+            }
+            JavaValue[] values = new JavaValue[in.readInt()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = readValue();
+            }
+            return new BytecodeFrame((BytecodeFrame) caller, method, bci, rethrowException, duringCall, values, slotKinds, numLocals, numStack, numLocks);
+        }
+
+        private JavaValue readValue() throws IOException, NotCacheableException {
+            byte tag = in.readByte();
+            switch (tag) {
+                case VALUE_ILLEGAL:
+                    return Value.ILLEGAL;
+                case VALUE_REGISTER: {
+                    Register register = register(in.readInt());
+                    return register.asValue(readKind());
+                }
+                case VALUE_STACK_SLOT: {
+                    int offset = in.readInt();
+                    boolean addFrameSize = in.readBoolean();
+                    return StackSlot.get(readKind(), offset, addFrameSize);
+                }
+                case VALUE_PRIMITIVE:
+                    return readPrimitive(JavaKind.values()[in.readByte()], in.readLong());
+                case VALUE_NULL:
+                    return JavaConstant.NULL_POINTER;
+                case VALUE_COMPRESSED_NULL:
+                    return HotSpotCompressedNullConstant.COMPRESSED_NULL;
+                case VALUE_OBJECT:
+                    return readObjectConstant();
+                case VALUE_VIRTUAL_OBJECT: {
+                    VirtualObject virtualObject = virtualObjects.get(in.readInt());
+                    if (virtualObject == null) {
+                        throw new IOException("reference to unknown virtual object");
+                    }
+                    return virtualObject;
+                }
+                case VALUE_STACK_LOCK: {
+                    JavaValue owner = readValue();
+                    AllocatableValue slot = (AllocatableValue) readValue();
+                    return new StackLockValue(owner, slot, in.readBoolean());
+                }
+                default:
+                    throw new IOException("unknown value tag " + tag);
+            }
+        }
+
+        private static PrimitiveConstant readPrimitive(JavaKind kind, long rawValue) throws IOException {
+            switch (kind) {
+                case Boolean:
+                    return JavaConstant.forBoolean(rawValue != 0);
+                case Byte:
+                case Short:
+                case Char:
+                case Int:
+                case Long:
+                    return JavaConstant.forIntegerKind(kind, rawValue);
+                case Float:
+                    return JavaConstant.forFloat(Float.intBitsToFloat((int) rawValue));
+                case Double:
+                    return JavaConstant.forDouble(Double.longBitsToDouble(rawValue));
+                case Illegal:
+                    return JavaConstant.forIllegal();
+                default:
+                    throw new IOException("unexpected primitive kind " + kind);
+            }
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private ValueKind<?> readKind() throws IOException {
+            byte tag = in.readByte();
+            if (tag == KIND_ILLEGAL) {
+                return ValueKind.Illegal;
+            }
+            Class<? extends Enum> kindClass = (Class<? extends Enum>) arch.getWordKind().getClass();
+            PlatformKind platformKind = (PlatformKind) Enum.valueOf(kindClass, in.readUTF());
+            switch (tag) {
+                case KIND_VALUE:
+                    return LIRKind.value(platformKind);
+                case KIND_REFERENCE:
+                    return LIRKind.reference(platformKind);
+                case KIND_COMPRESSED_REFERENCE:
+                    return LIRKind.compressedReference(platformKind);
+                default:
+                    throw new IOException("unknown kind tag " + tag);
+            }
+        }
+
+        private Register register(int number) throws IOException {
+            for (Register register : arch.getRegisters()) {
+                if (register.number == number) {
+                    return register;
+                }
+            }
+            throw new IOException("unknown register " + number);
+        }
+
+        private ResolvedJavaType readType() throws IOException, NotCacheableException {
+            String name = in.readUTF();
+            JavaType type = HotSpotJVMCIRuntime.runtime().lookupType(name, accessingClass, false);
+            if (!(type instanceof ResolvedJavaType)) {
+                throw new NotCacheableException("type " + name + " is not loaded");
+            }
+            return (ResolvedJavaType) type;
+        }
+
+        private ResolvedJavaMethod readMethod() throws IOException, NotCacheableException {
+            ResolvedJavaType holder = readType();
+            String name = in.readUTF();
+            String descriptor = in.readUTF();
+            ResolvedJavaMethod method = HotSpotCompilationCache.findMethod(holder, name, descriptor);
+            if (method == null) {
+                throw new NotCacheableException("method " + holder.toJavaName() + "." + name + descriptor + " not found");
+            }
+            return method;
+        }
+
+        private Class<?> readClass() throws IOException, NotCacheableException {
+            String name = in.readUTF();
+            for (JavaKind kind : JavaKind.values()) {
+                if ((kind.isPrimitive() || kind == JavaKind.Void) && kind.getJavaName().equals(name)) {
+                    return kind.toJavaClass();
+                }
+            }
+            try {
+                return Class.forName(name, false, CompilationResultCodec.class.getClassLoader());
+            } catch (ClassNotFoundException e) {
+                throw new NotCacheableException("class " + name + " not found");
+            }
+        }
+
+        private String readNullableString() throws IOException {
+            return in.readBoolean() ? in.readUTF() : null;
+        }
+    }
+
+    /**
+     * The complete data section of a cached compilation, including the positions of its
+     * relocations.
+     */
+    private static final class CachedData extends Data {
+        private final byte[] bytes;
+        private final int[] patchPositions;
+        private final VMConstant[] patchConstants;
+
+        CachedData(byte[] bytes, int alignment, int[] patchPositions, VMConstant[] patchConstants) {
+            super(alignment, bytes.length);
+            this.bytes = bytes;
+            this.patchPositions = patchPositions;
+            this.patchConstants = patchConstants;
+        }
+
+        @Override
+        protected void emit(ByteBuffer buffer, DataSection.Patches patches) {
+            int start = buffer.position();
+            buffer.put(bytes);
+            for (int i = 0; i < patchPositions.length; i++) {
+                patches.registerPatch(start + patchPositions[i], patchConstants[i]);
+            }
+        }
+    }
+}
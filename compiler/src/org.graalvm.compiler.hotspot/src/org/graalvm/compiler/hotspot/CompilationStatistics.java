@@ -44,6 +44,7 @@ import org.graalvm.compiler.debug.CSVUtil;
 import org.graalvm.compiler.options.Option;
 import org.graalvm.compiler.options.OptionKey;
 import org.graalvm.compiler.options.OptionValues;
+import org.graalvm.compiler.replacements.SnippetTemplate.CacheStatistics;
 import org.graalvm.compiler.serviceprovider.GraalServices;
 
 import jdk.vm.ci.hotspot.HotSpotInstalledCode;
@@ -92,11 +93,17 @@ public final class CompilationStatistics {
 
     @NotReported private final long startTime;
     @NotReported private long threadAllocatedBytesStart;
+    @NotReported private long snippetTemplateHitsStart;
+    @NotReported private long snippetTemplateMissesStart;
+    @NotReported private long snippetTemplateEvictionsStart;
 
     private int bytecodeCount;
     private int codeSize;
     @TimeValue private long duration;
     private long memoryUsed;
+    private long snippetTemplateHits;
+    private long snippetTemplateMisses;
+    private long snippetTemplateEvictions;
     private final boolean osr;
     private final String holder;
     private final String name;
@@ -111,6 +118,9 @@ public final class CompilationStatistics {
             startTime = System.nanoTime();
             bytecodeCount = method.getCodeSize();
             threadAllocatedBytesStart = getThreadAllocatedBytes();
+            snippetTemplateHitsStart = CacheStatistics.getThreadHits();
+            snippetTemplateMissesStart = CacheStatistics.getThreadMisses();
+            snippetTemplateEvictionsStart = CacheStatistics.getThreadEvictions();
         } else {
             assert DUMMY == null : "only DUMMY has no method";
             holder = "";
@@ -125,6 +135,9 @@ public final class CompilationStatistics {
             duration = System.nanoTime() - startTime;
             codeSize = (int) code.getCodeSize();
             memoryUsed = getThreadAllocatedBytes() - threadAllocatedBytesStart;
+            snippetTemplateHits = CacheStatistics.getThreadHits() - snippetTemplateHitsStart;
+            snippetTemplateMisses = CacheStatistics.getThreadMisses() - snippetTemplateMissesStart;
+            snippetTemplateEvictions = CacheStatistics.getThreadEvictions() - snippetTemplateEvictionsStart;
             if (current.get().getLast() != this) {
                 throw new RuntimeException("mismatch in finish()");
             }
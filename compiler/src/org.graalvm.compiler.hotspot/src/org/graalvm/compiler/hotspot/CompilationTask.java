@@ -50,6 +50,7 @@ import org.graalvm.compiler.debug.TimerKey;
 import org.graalvm.compiler.nodes.StructuredGraph;
 import org.graalvm.compiler.options.OptionKey;
 import org.graalvm.compiler.options.OptionValues;
+import org.graalvm.compiler.serviceprovider.GraalServices;
 import org.graalvm.compiler.printer.GraalDebugHandlersFactory;
 
 import jdk.vm.ci.code.BailoutException;
@@ -166,10 +167,31 @@ public class CompilationTask {
 
             final CompilationPrinter printer = CompilationPrinter.begin(debug.getOptions(), compilationId, method, entryBCI);
 
+            HotSpotCompilationCache cache = HotSpotCompilationCache.get(debug.getOptions(), compiler.getGraalRuntime());
+            if (cache != null) {
+                CompilationResult cached = cache.lookup(debug, method, entryBCI, useProfilingInfo, shouldRetainLocalVariables, compilationId);
+                if (cached != null && installCachedMethod(debug, cached)) {
+                    result = cached;
+                    printer.finish(result);
+                    stats.finish(method, installedCode);
+                    return successResult(method);
+                }
+            }
+
             StructuredGraph graph;
+            HotSpotCompilationCache.Recording recording = null;
             try (DebugContext.Scope s = debug.scope("Compiling", new DebugDumpScope(getIdString(), true))) {
-                graph = compiler.createGraph(method, entryBCI, useProfilingInfo, compilationId, debug.getOptions(), debug);
-                result = compiler.compile(graph, method, entryBCI, useProfilingInfo, shouldRetainLocalVariables, compilationId, debug);
+                if (cache != null) {
+                    HotSpotCompilationCache.beginRecording();
+                }
+                try {
+                    graph = compiler.createGraph(method, entryBCI, useProfilingInfo, compilationId, debug.getOptions(), debug);
+                    result = compiler.compile(graph, method, entryBCI, useProfilingInfo, shouldRetainLocalVariables, compilationId, debug);
+                } finally {
+                    if (cache != null) {
+                        recording = HotSpotCompilationCache.endRecording();
+                    }
+                }
             } catch (Throwable e) {
                 throw debug.handle(e);
             }
@@ -178,22 +200,29 @@ public class CompilationTask {
                 try (DebugCloseable b = CodeInstallationTime.start(debug)) {
                     installMethod(debug, graph, result);
                 }
+                if (cache != null) {
+                    cache.store(debug, method, entryBCI, useProfilingInfo, shouldRetainLocalVariables, result, recording);
+                }
                 // Installation is included in compilation time and memory usage reported by printer
                 printer.finish(result);
             }
             stats.finish(method, installedCode);
             if (result != null) {
-                // For compilation of substitutions the method in the compilation request might be
-                // different than the actual method parsed. The root of the compilation will always
-                // be the first method in the methods list, so use that instead.
-                ResolvedJavaMethod rootMethod = result.getMethods()[0];
-                int inlinedBytecodes = result.getBytecodeSize() - rootMethod.getCodeSize();
-                assert inlinedBytecodes >= 0 : rootMethod + " " + method;
-                return HotSpotCompilationRequestResult.success(inlinedBytecodes);
+                return successResult(method);
             }
             return null;
         }
 
+        private HotSpotCompilationRequestResult successResult(HotSpotResolvedJavaMethod method) {
+            // For compilation of substitutions the method in the compilation request might be
+            // different than the actual method parsed. The root of the compilation will always
+            // be the first method in the methods list, so use that instead.
+            ResolvedJavaMethod rootMethod = result.getMethods()[0];
+            int inlinedBytecodes = result.getBytecodeSize() - rootMethod.getCodeSize();
+            assert inlinedBytecodes >= 0 : rootMethod + " " + method;
+            return HotSpotCompilationRequestResult.success(inlinedBytecodes);
+        }
+
     }
 
     public CompilationTask(HotSpotJVMCIRuntime jvmciRuntime,
@@ -332,8 +361,13 @@ public class CompilationTask {
         }
 
         HotSpotCompilationWrapper compilation = new HotSpotCompilationWrapper();
+        CompilerTelemetry telemetry = compiler.getGraalRuntime().getCompilerTelemetry();
+        long startTime = telemetry == null ? 0L : System.nanoTime();
+        long allocatedBytesStart = telemetry == null ? 0L : GraalServices.getCurrentThreadAllocatedBytes();
+        HotSpotCompilationRequestResult requestResult = null;
         try (DebugCloseable a = CompilationTime.start(debug)) {
-            return compilation.run(debug);
+            requestResult = compilation.run(debug);
+            return requestResult;
         } finally {
             try {
                 int compiledBytecodes = 0;
@@ -348,6 +382,11 @@ public class CompilationTask {
                         InstalledCodeSize.add(debug, codeSize);
                     }
                 }
+                if (telemetry != null) {
+                    boolean bailout = requestResult == null || requestResult.getFailureMessage() != null;
+                    long allocatedBytes = GraalServices.getCurrentThreadAllocatedBytes() - allocatedBytesStart;
+                    telemetry.record(debug, System.nanoTime() - startTime, allocatedBytes, codeSize, bailout);
+                }
             } catch (Throwable t) {
                 return compilation.handleException(t);
             }
@@ -374,6 +413,24 @@ public class CompilationTask {
         }
     }
 
+    /**
+     * Installs a result taken from the {@link HotSpotCompilationCache}. A failure to install is not
+     * an error since the assumptions made by the cached code may no longer hold.
+     *
+     * @return {@code true} if the code was installed
+     */
+    @SuppressWarnings("try")
+    private boolean installCachedMethod(DebugContext debug, CompilationResult compResult) {
+        try (DebugCloseable b = CodeInstallationTime.start(debug)) {
+            installMethod(debug, null, compResult);
+            return true;
+        } catch (BailoutException e) {
+            debug.log("Installing cached code for %s failed: %s", getMethod(), e.getMessage());
+            installedCode = null;
+            return false;
+        }
+    }
+
     @Override
     public String toString() {
         return "Compilation[id=" + getId() + ", " + getMethod().format("%H.%n(%p)") + (getEntryBCI() == JVMCICompiler.INVOCATION_ENTRY_BCI ? "" : "@" + getEntryBCI()) + "]";
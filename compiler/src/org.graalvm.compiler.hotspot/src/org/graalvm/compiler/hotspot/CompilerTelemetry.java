@@ -0,0 +1,351 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.hotspot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.graalvm.compiler.core.phases.HighTier;
+import org.graalvm.compiler.core.phases.LowTier;
+import org.graalvm.compiler.core.phases.MidTier;
+import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.debug.DebugOptions;
+import org.graalvm.compiler.debug.KeyRegistry;
+import org.graalvm.compiler.debug.MetricKey;
+import org.graalvm.compiler.debug.TimerKey;
+import org.graalvm.compiler.options.Option;
+import org.graalvm.compiler.options.OptionKey;
+import org.graalvm.compiler.options.OptionType;
+import org.graalvm.compiler.options.OptionValues;
+
+/**
+ * Live performance data about the compilations of this VM, published through the compiler
+ * telemetry MBean. Compile time, installed code size and memory used are kept in rolling
+ * histograms over the most recent compilations. Compile time is additionally broken down per tier
+ * and per phase based on the {@link DebugContext} timers of each compilation.
+ *
+ * Nothing is recorded unless {@link Options#CompilerTelemetry} is enabled.
+ */
+public final class CompilerTelemetry {
+
+    public static class Options {
+        // @formatter:off
+        @Option(help = "Records compile times, installed code sizes and memory usage of compilations " +
+                       "and publishes them through the compiler telemetry MBean.", type = OptionType.Expert)
+        public static final OptionKey<Boolean> CompilerTelemetry = new OptionKey<>(false);
+        @Option(help = "Number of most recent compilations over which the compiler telemetry histograms are computed.", type = OptionType.Expert)
+        public static final OptionKey<Integer> CompilerTelemetryWindow = new OptionKey<>(1024);
+        // @formatter:on
+    }
+
+    private static final String PHASE_TIMER_PREFIX = "PhaseTime_";
+    private static final String FLAT_TIMER_SUFFIX = "_Flat";
+
+    private static final String[] TIER_NAMES = {"HighTier", "MidTier", "LowTier", "BackEnd"};
+    private static final TimerKey[] TIER_TIMERS = {
+                    DebugContext.timer(PHASE_TIMER_PREFIX + "%s", HighTier.class),
+                    DebugContext.timer(PHASE_TIMER_PREFIX + "%s", MidTier.class),
+                    DebugContext.timer(PHASE_TIMER_PREFIX + "%s", LowTier.class),
+                    DebugContext.timer("BackEnd")};
+
+    private final int window;
+    private final AtomicLong compilations = new AtomicLong();
+    private final AtomicLong bailouts = new AtomicLong();
+    private final AtomicLong installedCodeBytes = new AtomicLong();
+    private final RollingHistogram compileTime;
+    private final RollingHistogram codeSize;
+    private final RollingHistogram memoryUsed;
+    private final RollingHistogram[] tierTimes;
+    private final Map<String, RollingHistogram> phaseTimes = new ConcurrentHashMap<>();
+
+    private int phaseTimerCount;
+    private TimerKey[] phaseTimers = {};
+
+    /**
+     * The options last passed to {@link #withTimers} and the options derived from them.
+     */
+    private static final class TimedOptions {
+        final OptionValues options;
+        final OptionValues timedOptions;
+
+        TimedOptions(OptionValues options) {
+            this.options = options;
+            this.timedOptions = new OptionValues(options, DebugOptions.Timers, "");
+        }
+    }
+
+    private volatile TimedOptions lastTimedOptions;
+
+    private CompilerTelemetry(int window) {
+        this.window = window;
+        this.compileTime = new RollingHistogram(window);
+        this.codeSize = new RollingHistogram(window);
+        this.memoryUsed = new RollingHistogram(window);
+        this.tierTimes = new RollingHistogram[TIER_NAMES.length];
+        for (int i = 0; i < tierTimes.length; i++) {
+            tierTimes[i] = new RollingHistogram(window);
+        }
+    }
+
+    /**
+     * Creates the telemetry for a runtime. This is called once when the runtime is created, which
+     * then hands out the result with {@link HotSpotGraalRuntimeProvider#getCompilerTelemetry()}.
+     *
+     * @return {@code null} if {@link Options#CompilerTelemetry} is disabled
+     */
+    public static CompilerTelemetry create(OptionValues options) {
+        if (Options.CompilerTelemetry.getValue(options)) {
+            return new CompilerTelemetry(Math.max(1, Options.CompilerTelemetryWindow.getValue(options)));
+        }
+        return null;
+    }
+
+    /**
+     * Determines if {@code options} request any metrics for a {@link DebugContext}.
+     */
+    public static boolean hasMetricOptions(OptionValues options) {
+        return DebugOptions.Timers.getValue(options) != null || DebugOptions.Counters.getValue(options) != null || DebugOptions.MemUseTrackers.getValue(options) != null ||
+                        DebugOptions.Time.getValue(options) != null || DebugOptions.Count.getValue(options) != null || DebugOptions.TrackMemUse.getValue(options) != null ||
+                        DebugOptions.ListMetrics.getValue(options);
+    }
+
+    /**
+     * Gets options derived from {@code options} that enable the timers from which the per tier and
+     * per phase compile times are taken.
+     */
+    public OptionValues withTimers(OptionValues options) {
+        TimedOptions last = lastTimedOptions;
+        if (last == null || last.options != options) {
+            last = new TimedOptions(options);
+            lastTimedOptions = last;
+        }
+        return last.timedOptions;
+    }
+
+    /**
+     * Records the results of a compilation.
+     *
+     * @param debug the context in which the compilation was performed
+     * @param durationNanos the time spent in the compilation, including code installation
+     * @param allocatedBytes the memory allocated by the compilation
+     * @param codeBytes the size of the installed code or 0 if no code was installed
+     * @param bailout specifies if the compilation failed
+     */
+    public void record(DebugContext debug, long durationNanos, long allocatedBytes, int codeBytes, boolean bailout) {
+        compilations.incrementAndGet();
+        if (bailout) {
+            bailouts.incrementAndGet();
+            return;
+        }
+        compileTime.add(durationNanos / 1000);
+        memoryUsed.add(allocatedBytes);
+        if (codeBytes > 0) {
+            installedCodeBytes.addAndGet(codeBytes);
+            codeSize.add(codeBytes);
+        }
+        if (!debug.areMetricsEnabled()) {
+            return;
+        }
+        for (int i = 0; i < TIER_TIMERS.length; i++) {
+            long value = TIER_TIMERS[i].getCurrentValue(debug);
+            if (value != 0) {
+                tierTimes[i].add(value / 1000);
+            }
+        }
+        for (TimerKey timer : getPhaseTimers()) {
+            long value = timer.getCurrentValue(debug);
+            if (value != 0) {
+                String phase = timer.getName().substring(PHASE_TIMER_PREFIX.length());
+                RollingHistogram histogram = phaseTimes.get(phase);
+                if (histogram == null) {
+                    phaseTimes.putIfAbsent(phase, new RollingHistogram(window));
+                    histogram = phaseTimes.get(phase);
+                }
+                histogram.add(value / 1000);
+            }
+        }
+    }
+
+    /**
+     * Gets the timers of all phases that have been registered so far. Phase timers are registered
+     * lazily when a phase class is first used, so the list is refreshed whenever new metric keys
+     * have been registered.
+     */
+    private synchronized TimerKey[] getPhaseTimers() {
+        List<MetricKey> keys = KeyRegistry.getKeys();
+        if (keys.size() != phaseTimerCount) {
+            List<TimerKey> timers = new ArrayList<>();
+            List<String> tierTimerNames = new ArrayList<>();
+            for (TimerKey tierTimer : TIER_TIMERS) {
+                tierTimerNames.add(tierTimer.getName());
+            }
+            for (MetricKey key : keys) {
+                String name = key.getName();
+                if (key instanceof TimerKey && name.startsWith(PHASE_TIMER_PREFIX) && !name.endsWith(FLAT_TIMER_SUFFIX) && !tierTimerNames.contains(name)) {
+                    timers.add((TimerKey) key);
+                }
+            }
+            phaseTimers = timers.toArray(new TimerKey[timers.size()]);
+            phaseTimerCount = keys.size();
+        }
+        return phaseTimers;
+    }
+
+    public long getCompilations() {
+        return compilations.get();
+    }
+
+    public long getBailouts() {
+        return bailouts.get();
+    }
+
+    public long getInstalledCodeBytes() {
+        return installedCodeBytes.get();
+    }
+
+    /**
+     * Gets the histogram of compile times in microseconds.
+     */
+    public RollingHistogram.Snapshot getCompileTime() {
+        return compileTime.snapshot();
+    }
+
+    /**
+     * Gets the histogram of installed code sizes in bytes.
+     */
+    public RollingHistogram.Snapshot getCodeSize() {
+        return codeSize.snapshot();
+    }
+
+    /**
+     * Gets the histogram of memory allocated per compilation in bytes.
+     */
+    public RollingHistogram.Snapshot getMemoryUsed() {
+        return memoryUsed.snapshot();
+    }
+
+    /**
+     * Gets the histograms of compile times in microseconds per tier, in the order the tiers are
+     * run.
+     */
+    public Map<String, RollingHistogram.Snapshot> getTierTimes() {
+        Map<String, RollingHistogram.Snapshot> result = new LinkedHashMap<>();
+        for (int i = 0; i < TIER_NAMES.length; i++) {
+            result.put(TIER_NAMES[i], tierTimes[i].snapshot());
+        }
+        return result;
+    }
+
+    /**
+     * Gets the histograms of compile times in microseconds per phase, ordered by phase name.
+     */
+    public Map<String, RollingHistogram.Snapshot> getPhaseTimes() {
+        Map<String, RollingHistogram.Snapshot> result = new TreeMap<>();
+        for (Map.Entry<String, RollingHistogram> e : phaseTimes.entrySet()) {
+            result.put(e.getKey(), e.getValue().snapshot());
+        }
+        return result;
+    }
+
+    /**
+     * A histogram over the most recently added samples.
+     */
+    public static final class RollingHistogram {
+
+        private final long[] samples;
+        private int next;
+        private boolean full;
+        private long total;
+
+        public RollingHistogram(int window) {
+            this.samples = new long[window];
+        }
+
+        public synchronized void add(long sample) {
+            samples[next++] = sample;
+            if (next == samples.length) {
+                next = 0;
+                full = true;
+            }
+            total++;
+        }
+
+        public synchronized Snapshot snapshot() {
+            long[] values = Arrays.copyOf(samples, full ? samples.length : next);
+            return new Snapshot(total, values);
+        }
+
+        /**
+         * Summary of the samples in a {@link RollingHistogram} at a point in time.
+         */
+        public static final class Snapshot {
+            /**
+             * Number of samples added since the histogram was created.
+             */
+            public final long total;
+            /**
+             * Number of samples in the window the other values are computed from.
+             */
+            public final long count;
+            public final long min;
+            public final long max;
+            public final long mean;
+            public final long p50;
+            public final long p90;
+            public final long p99;
+
+            Snapshot(long total, long[] values) {
+                this.total = total;
+                this.count = values.length;
+                if (values.length == 0) {
+                    min = max = mean = p50 = p90 = p99 = 0;
+                } else {
+                    Arrays.sort(values);
+                    long sum = 0;
+                    for (long v : values) {
+                        sum += v;
+                    }
+                    min = values[0];
+                    max = values[values.length - 1];
+                    mean = sum / values.length;
+                    p50 = percentile(values, 50);
+                    p90 = percentile(values, 90);
+                    p99 = percentile(values, 99);
+                }
+            }
+
+            private static long percentile(long[] sorted, int percent) {
+                int index = (int) Math.ceil(percent / 100.0 * sorted.length) - 1;
+                return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+            }
+        }
+    }
+}
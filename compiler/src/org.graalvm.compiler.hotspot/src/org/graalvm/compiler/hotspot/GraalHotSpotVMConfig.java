@@ -149,6 +149,7 @@ public class GraalHotSpotVMConfig extends GraalHotSpotVMConfigAccess {
     private final boolean useSHA512Intrinsics = getFlag("UseSHA512Intrinsics", Boolean.class);
     private final boolean useGHASHIntrinsics = getFlag("UseGHASHIntrinsics", Boolean.class, false, isJDK8OrJDK11Plus);
     private final boolean useBase64Intrinsics = getFlag("UseBASE64Intrinsics", Boolean.class, false, isJDK11Plus);
+    private final boolean useAdler32Intrinsics = getFlag("UseAdler32Intrinsics", Boolean.class, false, isJDK11Plus);
     private final boolean useMontgomeryMultiplyIntrinsic = getFlag("UseMontgomeryMultiplyIntrinsic", Boolean.class, false, isJDK8OrJDK11Plus);
     private final boolean useMontgomerySquareIntrinsic = getFlag("UseMontgomerySquareIntrinsic", Boolean.class, false, isJDK8OrJDK11Plus);
     private final boolean useMulAddIntrinsic = getFlag("UseMulAddIntrinsic", Boolean.class, false, isJDK8OrJDK11Plus);
@@ -187,6 +188,14 @@ public class GraalHotSpotVMConfig extends GraalHotSpotVMConfigAccess {
         return useBase64Intrinsics && base64EncodeBlock != 0;
     }
 
+    /**
+     * HotSpot only generates {@code StubRoutines::_updateBytesAdler32} on AArch64, so this is
+     * {@code false} on AMD64 even if {@code UseAdler32Intrinsics} is set.
+     */
+    public boolean useAdler32Intrinsics() {
+        return useAdler32Intrinsics && updateBytesAdler32 != 0;
+    }
+
     public boolean useMontgomeryMultiplyIntrinsic() {
         return useMontgomeryMultiplyIntrinsic && montgomeryMultiply != 0;
     }
@@ -307,6 +307,12 @@ public abstract class HotSpotBackend extends Backend implements FrameMap.Referen
     public static final HotSpotForeignCallDescriptor UPDATE_BYTES_CRC32C = new HotSpotForeignCallDescriptor(LEAF_NO_VZERO, NOT_REEXECUTABLE, any(), "updateBytesCRC32C", int.class, int.class,
                     WordBase.class, int.class);
 
+    /**
+     * Descriptor for {@code StubRoutines::_updateBytesAdler32}.
+     */
+    public static final HotSpotForeignCallDescriptor UPDATE_BYTES_ADLER32 = new HotSpotForeignCallDescriptor(LEAF, NOT_REEXECUTABLE, any(), "updateBytesAdler32", int.class, int.class,
+                    WordBase.class, int.class);
+
     public static String copyMemoryName = JavaVersionUtil.JAVA_SPEC <= 8 ? "copyMemory" : "copyMemory0";
 
     /**
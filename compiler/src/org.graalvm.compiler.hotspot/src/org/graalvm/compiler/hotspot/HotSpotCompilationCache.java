@@ -0,0 +1,699 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.hotspot;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.graalvm.collections.EconomicMap;
+import org.graalvm.collections.EconomicSet;
+import org.graalvm.collections.Equivalence;
+import org.graalvm.collections.UnmodifiableMapCursor;
+import org.graalvm.compiler.bytecode.BytecodeStream;
+import org.graalvm.compiler.bytecode.Bytecodes;
+import org.graalvm.compiler.code.CompilationResult;
+import org.graalvm.compiler.core.common.CompilationIdentifier;
+import org.graalvm.compiler.debug.CounterKey;
+import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.debug.GraalError;
+import org.graalvm.compiler.debug.TTY;
+import org.graalvm.compiler.hotspot.CompilationResultCodec.NotCacheableException;
+import org.graalvm.compiler.hotspot.CompilationResultCodec.ReferenceMapContent;
+import org.graalvm.compiler.hotspot.meta.HotSpotProviders;
+import org.graalvm.compiler.options.Option;
+import org.graalvm.compiler.options.OptionKey;
+import org.graalvm.compiler.options.OptionType;
+import org.graalvm.compiler.options.OptionValues;
+
+import jdk.vm.ci.code.Location;
+import jdk.vm.ci.code.ReferenceMap;
+import jdk.vm.ci.hotspot.HotSpotResolvedJavaMethod;
+import jdk.vm.ci.hotspot.HotSpotResolvedObjectType;
+import jdk.vm.ci.hotspot.HotSpotVMConfigStore;
+import jdk.vm.ci.hotspot.VMFlag;
+import jdk.vm.ci.meta.Assumptions.Assumption;
+import jdk.vm.ci.meta.Assumptions.ConcreteMethod;
+import jdk.vm.ci.meta.Assumptions.ConcreteSubtype;
+import jdk.vm.ci.meta.Assumptions.LeafType;
+import jdk.vm.ci.meta.ConstantPool;
+import jdk.vm.ci.meta.JavaConstant;
+import jdk.vm.ci.meta.JavaType;
+import jdk.vm.ci.meta.ResolvedJavaField;
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+import jdk.vm.ci.meta.ResolvedJavaType;
+import jdk.vm.ci.services.Services;
+
+/**
+ * A persistent cache of installed compilation results. Results are stored in a file shared by
+ * subsequent runs of the VM and are reinstalled instead of recompiling a method when they are still
+ * valid.
+ *
+ * An entry is keyed by the compiled method, the {@linkplain #codeFingerprint fingerprint} of its
+ * bytecodes and of the constant pool entries they refer to, the entry BCI and a
+ * fingerprint of the compiler options and of the few VM addresses that compiled code embeds as
+ * immediates (the compressed pointer bases and the card and CRC tables). Entries for different
+ * address space layouts can therefore coexist in one file. The file as a whole is tagged with a
+ * fingerprint of layout-independent data only: the VM and compiler versions and the VM flags and
+ * constants. Stub and field addresses change with address space layout randomization and cached
+ * code refers to them symbolically, so they do not take part in any fingerprint. The file is
+ * replaced if its fingerprint does not match. Each entry
+ * additionally records the code fingerprints of all inlined methods, the class hierarchy
+ * assumptions made by the compilation, the values of all fields it constant folded and the layout
+ * of all classes whose field offsets or instance sizes it embeds. All of them are checked before an
+ * entry is reinstalled and HotSpot validates the assumptions again during installation. Whenever a
+ * check fails the method is compiled as usual. The folded values and class layouts are
+ * {@linkplain #beginRecording() recorded} while the compilation runs.
+ *
+ * The existing entries are copied out of a read-only mapping of the file. New entries are appended
+ * under a file lock so that several VMs can share the same cache file. A file written by an
+ * incompatible VM is never truncated since other VMs may have it mapped; it is atomically replaced
+ * by a new file instead.
+ */
+public final class HotSpotCompilationCache {
+
+    public static class Options {
+        // @formatter:off
+        @Option(help = "File in which installed compilation results are cached across VM runs. " +
+                       "The cache is disabled if no file is specified.", type = OptionType.Expert)
+        public static final OptionKey<String> CompilationCacheFile = new OptionKey<>(null);
+        @Option(help = "Maximum size in MB of the compilation cache file.", type = OptionType.Expert)
+        public static final OptionKey<Integer> CompilationCacheMaxSize = new OptionKey<>(256);
+        // @formatter:on
+    }
+
+    private static final CounterKey CacheHits = DebugContext.counter("CompilationCache_Hits");
+    private static final CounterKey CacheMisses = DebugContext.counter("CompilationCache_Misses");
+    private static final CounterKey CacheInvalid = DebugContext.counter("CompilationCache_Invalid");
+    private static final CounterKey CacheStored = DebugContext.counter("CompilationCache_Stored");
+    private static final CounterKey CacheNotCacheable = DebugContext.counter("CompilationCache_NotCacheable");
+
+    private static final int MAGIC = 0x47434343;
+    private static final int FORMAT_VERSION = 2;
+    private static final int FINGERPRINT_LENGTH = 32;
+    private static final int HEADER_SIZE = 4 + 4 + FINGERPRINT_LENGTH;
+
+    private static final ThreadLocal<Recording> recordings = new ThreadLocal<>();
+
+    private static HotSpotCompilationCache instance;
+    private static boolean initialized;
+
+    private final Path path;
+    private final long maxSize;
+    private final HotSpotProviders providers;
+    private final FileChannel channel;
+    private final String layoutFingerprint;
+
+    /**
+     * The payloads of the entries in the cache.
+     */
+    private final Map<String, byte[]> entries = new HashMap<>();
+    private long fileSize;
+    private boolean disabled;
+
+    private OptionValues lastOptions;
+    private String lastOptionsFingerprint;
+
+    private HotSpotCompilationCache(Path path, long maxSize, HotSpotProviders providers, FileChannel channel) {
+        this.path = path;
+        this.maxSize = maxSize;
+        this.providers = providers;
+        this.channel = channel;
+        this.layoutFingerprint = layoutFingerprint(providers.getConfig());
+    }
+
+    /**
+     * Gets the cache for this VM, opening the cache file on first use.
+     *
+     * @return {@code null} if the cache is disabled
+     */
+    public static synchronized HotSpotCompilationCache get(OptionValues options, HotSpotGraalRuntimeProvider runtime) {
+        if (!initialized) {
+            initialized = true;
+            String file = Options.CompilationCacheFile.getValue(options);
+            if (file != null) {
+                instance = open(Paths.get(file), Options.CompilationCacheMaxSize.getValue(options) * 1024L * 1024L, runtime);
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Opens a cache backed by {@code path}, independent of the cache {@linkplain #get returned}
+     * for this VM.
+     *
+     * @param maxSize the size in bytes beyond which the cache file is not extended
+     * @return {@code null} if the file cannot be used as a cache
+     */
+    public static HotSpotCompilationCache open(Path path, long maxSize, HotSpotGraalRuntimeProvider runtime) {
+        try {
+            byte[] fingerprint = vmFingerprint(runtime);
+            // a VM with a different fingerprint may replace the file concurrently, so give up
+            // rather than replacing it back and forth
+            for (int attempt = 0; attempt < 2; attempt++) {
+                FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                HotSpotCompilationCache cache = new HotSpotCompilationCache(path, maxSize, runtime.getHostProviders(), channel);
+                boolean loaded;
+                try (FileLock lock = channel.lock()) {
+                    loaded = cache.load(fingerprint);
+                } catch (IOException e) {
+                    channel.close();
+                    throw e;
+                }
+                if (loaded) {
+                    return cache;
+                }
+                channel.close();
+                replace(path, fingerprint);
+            }
+            throw new IOException("cache file is in use by an incompatible VM");
+        } catch (IOException e) {
+            TTY.printf("Warning: disabling compilation cache %s: %s%n", path, e);
+            return null;
+        }
+    }
+
+    /**
+     * Indexes the entries of the cache file. Must be called while holding the file lock.
+     *
+     * @return {@code false} if the file was written by an incompatible VM and must be
+     *         {@linkplain #replace replaced}
+     */
+    private boolean load(byte[] fingerprint) throws IOException {
+        long size = channel.size();
+        if (size == 0) {
+            // freshly created, nobody else can have entries mapped
+            channel.write(header(fingerprint), 0);
+            fileSize = HEADER_SIZE;
+            return true;
+        }
+        if (size < HEADER_SIZE) {
+            return false;
+        }
+        MappedByteBuffer mapping = channel.map(MapMode.READ_ONLY, 0, size);
+        byte[] fileFingerprint = new byte[FINGERPRINT_LENGTH];
+        if (mapping.getInt() != MAGIC || mapping.getInt() != FORMAT_VERSION) {
+            return false;
+        }
+        mapping.get(fileFingerprint);
+        if (!Arrays.equals(fingerprint, fileFingerprint)) {
+            return false;
+        }
+        fileSize = index(mapping);
+        return true;
+    }
+
+    private static ByteBuffer header(byte[] fingerprint) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(FORMAT_VERSION).put(fingerprint).flip();
+        return header;
+    }
+
+    /**
+     * Atomically replaces the cache file by an empty cache for {@code fingerprint}. VMs that still
+     * have the old file open keep using it without noticing.
+     */
+    private static void replace(Path path, byte[] fingerprint) throws IOException {
+        Path dir = path.toAbsolutePath().getParent();
+        Path tmp = Files.createTempFile(dir, path.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                out.write(header(fingerprint), 0);
+            }
+            Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Adds all complete entries starting at the current position of {@code mapping} to the index.
+     *
+     * @return the position in {@code mapping} after the last complete entry
+     */
+    private int index(ByteBuffer mapping) {
+        while (mapping.remaining() >= 8) {
+            int start = mapping.position();
+            int keyLength = mapping.getInt();
+            if (keyLength < 0 || keyLength > mapping.remaining() - 4) {
+                // truncated by a VM that died while appending
+                mapping.position(start);
+                break;
+            }
+            byte[] key = new byte[keyLength];
+            mapping.get(key);
+            int payloadLength = mapping.getInt();
+            if (payloadLength < 0 || payloadLength > mapping.remaining()) {
+                mapping.position(start);
+                break;
+            }
+            // copy the payload so that no view into the mapping outlives the file lock
+            byte[] payload = new byte[payloadLength];
+            mapping.get(payload);
+            entries.putIfAbsent(new String(key, StandardCharsets.UTF_8), payload);
+        }
+        return mapping.position();
+    }
+
+    /**
+     * Releases the cache file. Entries are neither looked up nor stored afterwards.
+     */
+    public synchronized void close() {
+        disabled = true;
+        entries.clear();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // nothing to do
+        }
+    }
+
+    private synchronized byte[] getEntry(String key) {
+        return disabled ? null : entries.get(key);
+    }
+
+    private synchronized void disable(IOException e) {
+        if (!disabled) {
+            disabled = true;
+            TTY.printf("Warning: disabling compilation cache %s: %s%n", path, e);
+        }
+    }
+
+    /**
+     * Looks up a cached compilation result for {@code method}.
+     *
+     * @return the result or {@code null} if there is no valid entry for the method
+     */
+    public CompilationResult lookup(DebugContext debug, HotSpotResolvedJavaMethod method, int entryBCI, boolean useProfilingInfo, boolean retainLocals, CompilationIdentifier compilationId) {
+        byte[] payload = getEntry(key(debug.getOptions(), method, entryBCI, useProfilingInfo, retainLocals));
+        if (payload == null) {
+            CacheMisses.increment(debug);
+            return null;
+        }
+        try {
+            HotSpotResolvedObjectType accessingClass = (HotSpotResolvedObjectType) method.getDeclaringClass();
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+            CompilationResult result = new CompilationResultCodec.Decoder(in, providers, accessingClass).decode(compilationId);
+            String invalid = checkAssumptions(result.getAssumptions());
+            if (invalid != null) {
+                throw new NotCacheableException(invalid);
+            }
+            CacheHits.increment(debug);
+            return result;
+        } catch (NotCacheableException e) {
+            debug.log("Cached compilation of %s is invalid: %s", method, e.getMessage());
+        } catch (IOException | RuntimeException | AssertionError e) {
+            debug.log("Cached compilation of %s cannot be decoded: %s", method, e);
+        }
+        CacheInvalid.increment(debug);
+        return null;
+    }
+
+    /**
+     * Stores a compilation result that was just installed for {@code method}.
+     *
+     * @param recording the data {@linkplain #endRecording() recorded} while the result was
+     *            produced
+     */
+    public void store(DebugContext debug, HotSpotResolvedJavaMethod method, int entryBCI, boolean useProfilingInfo, boolean retainLocals, CompilationResult result, Recording recording) {
+        String key = key(debug.getOptions(), method, entryBCI, useProfilingInfo, retainLocals);
+        if (getEntry(key) != null || recording == null) {
+            return;
+        }
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try {
+            new CompilationResultCodec.Encoder(new DataOutputStream(buffer), providers, recording).encode(result);
+        } catch (NotCacheableException e) {
+            debug.log("Compilation of %s is not cacheable: %s", method, e.getMessage());
+            CacheNotCacheable.increment(debug);
+            return;
+        } catch (IOException e) {
+            throw new GraalError(e);
+        }
+        if (append(key, buffer.toByteArray())) {
+            CacheStored.increment(debug);
+        }
+    }
+
+    private synchronized boolean append(String key, byte[] payload) {
+        if (disabled || entries.containsKey(key)) {
+            return false;
+        }
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer entry = ByteBuffer.allocate(8 + keyBytes.length + payload.length);
+        entry.putInt(keyBytes.length).put(keyBytes).putInt(payload.length).put(payload).flip();
+        try (FileLock lock = channel.lock()) {
+            long size = channel.size();
+            if (size > fileSize) {
+                // pick up the entries appended by other VMs in the meantime
+                fileSize += index(channel.map(MapMode.READ_ONLY, fileSize, size - fileSize));
+                if (entries.containsKey(key)) {
+                    return false;
+                }
+                if (size > fileSize) {
+                    channel.truncate(fileSize);
+                }
+            }
+            if (fileSize + entry.remaining() > maxSize) {
+                return false;
+            }
+            channel.write(entry, fileSize);
+            fileSize += 8 + keyBytes.length + payload.length;
+        } catch (IOException e) {
+            disable(e);
+            return false;
+        }
+        entries.put(key, payload);
+        return true;
+    }
+
+    /**
+     * Checks the class hierarchy assumptions of a cached result against the current state of the
+     * VM.
+     *
+     * @return a description of the first assumption that no longer holds or {@code null}
+     */
+    private static String checkAssumptions(Assumption[] assumptions) {
+        if (assumptions == null) {
+            return null;
+        }
+        for (Assumption assumption : assumptions) {
+            boolean valid;
+            if (assumption instanceof LeafType) {
+                valid = ((LeafType) assumption).context.isLeaf();
+            } else if (assumption instanceof ConcreteSubtype) {
+                ConcreteSubtype concreteSubtype = (ConcreteSubtype) assumption;
+                valid = concreteSubtype.subtype.equals(concreteSubtype.context.findLeafConcreteSubtype().getResult());
+            } else if (assumption instanceof ConcreteMethod) {
+                ConcreteMethod concreteMethod = (ConcreteMethod) assumption;
+                valid = concreteMethod.impl.equals(concreteMethod.context.findUniqueConcreteMethod(concreteMethod.method).getResult());
+            } else {
+                valid = false;
+            }
+            if (!valid) {
+                return "assumption " + assumption + " does not hold";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The data about a compilation that cannot be derived from its {@link CompilationResult} but is
+     * needed to store it in the cache.
+     */
+    public static final class Recording {
+        /**
+         * The content of the reference maps created by the compilation. The content of a
+         * {@link jdk.vm.ci.hotspot.HotSpotReferenceMap} is not accessible after it has been
+         * created, so it is recorded by {@link HotSpotReferenceMapBuilder}.
+         */
+        final EconomicMap<ReferenceMap, ReferenceMapContent> referenceMaps = EconomicMap.create(Equivalence.IDENTITY_WITH_SYSTEM_HASHCODE);
+
+        /**
+         * The field reads that were constant folded, in the order in which they were first folded.
+         * The receiver of a folded instance field read is usually the value of an earlier one.
+         */
+        final List<FoldedField> foldedFields = new ArrayList<>();
+
+        /**
+         * The classes whose field offsets or instance sizes are embedded in the code.
+         */
+        final EconomicSet<ResolvedJavaType> layouts = EconomicSet.create(Equivalence.DEFAULT);
+
+        private Recording() {
+        }
+    }
+
+    static final class FoldedField {
+        final ResolvedJavaField field;
+        final JavaConstant receiver;
+        final JavaConstant value;
+
+        FoldedField(ResolvedJavaField field, JavaConstant receiver, JavaConstant value) {
+            this.field = field;
+            this.receiver = receiver;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Starts recording the data needed to {@linkplain #store store} the compilation performed by
+     * the current thread.
+     */
+    public static void beginRecording() {
+        recordings.set(new Recording());
+    }
+
+    /**
+     * Stops recording for the current thread.
+     *
+     * @return the data recorded since {@link #beginRecording()}
+     */
+    public static Recording endRecording() {
+        Recording recording = recordings.get();
+        recordings.remove();
+        return recording;
+    }
+
+    static void recordReferenceMap(ReferenceMap map, Location[] objects, Location[] derivedBase, int[] sizeInBytes, int maxRegisterSize) {
+        Recording recording = recordings.get();
+        if (recording != null) {
+            recording.referenceMaps.put(map, new ReferenceMapContent(objects, derivedBase, sizeInBytes, maxRegisterSize));
+        }
+    }
+
+    /**
+     * Records that the compilation performed by the current thread constant folded the read of
+     * {@code field}. Instance fields of compiler objects are folded when snippets are specialized
+     * for their constant parameters. These values only depend on the compiler version and options,
+     * which are part of the fingerprints, so such reads are not recorded.
+     *
+     * @param receiver the receiver of the read or {@code null} for a static field
+     * @param value the value that was folded
+     */
+    public static void recordFoldedField(ResolvedJavaField field, JavaConstant receiver, JavaConstant value) {
+        Recording recording = recordings.get();
+        if (recording == null || value == null || (receiver != null && isCompilerType(field.getDeclaringClass()))) {
+            return;
+        }
+        for (FoldedField folded : recording.foldedFields) {
+            if (folded.field.equals(field) && (receiver == null ? folded.receiver == null : receiver.equals(folded.receiver))) {
+                return;
+            }
+        }
+        recording.foldedFields.add(new FoldedField(field, receiver, value));
+    }
+
+    private static boolean isCompilerType(ResolvedJavaType type) {
+        String name = type.getName();
+        return name.startsWith("Lorg/graalvm/compiler/") || name.startsWith("Ljdk/vm/ci/");
+    }
+
+    /**
+     * Records that the compilation performed by the current thread embeds a field offset or the
+     * instance size of {@code type}.
+     */
+    public static void recordLayout(ResolvedJavaType type) {
+        Recording recording = recordings.get();
+        if (recording != null) {
+            recording.layouts.add(type);
+        }
+    }
+
+    private String key(OptionValues options, HotSpotResolvedJavaMethod method, int entryBCI, boolean useProfilingInfo, boolean retainLocals) {
+        return method.getDeclaringClass().getName() + "." + method.getName() + method.getSignature().toMethodDescriptor() + "@" + entryBCI + ":" + codeFingerprint(method) + ":" +
+                        (useProfilingInfo ? "p" : "") + (retainLocals ? "l" : "") + ":" + optionsFingerprint(options) + ":" + layoutFingerprint;
+    }
+
+    private synchronized String optionsFingerprint(OptionValues options) {
+        if (options != lastOptions) {
+            List<String> values = new ArrayList<>();
+            UnmodifiableMapCursor<OptionKey<?>, Object> cursor = options.getMap().getEntries();
+            while (cursor.advance()) {
+                OptionKey<?> key = cursor.getKey();
+                if (key != Options.CompilationCacheFile && key != Options.CompilationCacheMaxSize) {
+                    values.add(key.getName() + "=" + cursor.getValue());
+                }
+            }
+            Collections.sort(values);
+            lastOptionsFingerprint = toHex(digest(String.join("\n", values).getBytes(StandardCharsets.UTF_8)));
+            lastOptions = options;
+        }
+        return lastOptionsFingerprint;
+    }
+
+    private static byte[] vmFingerprint(HotSpotGraalRuntimeProvider runtime) {
+        GraalHotSpotVMConfig config = runtime.getVMConfig();
+        HotSpotVMConfigStore store = config.getStore();
+        Map<String, String> properties = Services.getSavedProperties();
+        List<String> values = new ArrayList<>();
+        values.add("java.vm.version=" + properties.get("java.vm.version"));
+        values.add("graal.version=" + properties.get("graal.version"));
+        values.add("arch=" + runtime.getTarget().arch.getName());
+        for (VMFlag flag : store.getFlags().values()) {
+            values.add("flag:" + flag.name + "=" + flag.value);
+        }
+        for (Map.Entry<String, Long> e : store.getConstants().entrySet()) {
+            values.add("constant:" + e.getKey() + "=" + e.getValue());
+        }
+        Collections.sort(values);
+        return digest(String.join("\n", values).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Computes a fingerprint of the VM addresses that compiled code embeds as immediates. Unlike
+     * the {@linkplain #vmFingerprint VM fingerprint} it is part of the entry keys.
+     */
+    private static String layoutFingerprint(GraalHotSpotVMConfig config) {
+        String layout = "oop=" + config.getOopEncoding() + ",klass=" + config.getKlassEncoding() + ",cardtable=" + config.cardtableStartAddress + ",crc=" + config.crcTableAddress;
+        return toHex(Arrays.copyOf(digest(layout.getBytes(StandardCharsets.UTF_8)), 8));
+    }
+
+    static String bytecodeHash(ResolvedJavaMethod method) {
+        byte[] code = method.getCode();
+        return code == null ? "" : toHex(digest(code));
+    }
+
+    /**
+     * Computes a fingerprint of the bytecodes of {@code method} and of the symbolic references and
+     * constants in the constant pool that they refer to. Unlike the {@linkplain #bytecodeHash
+     * bytecode hash} it changes if a constant pool entry behind an unchanged index changes.
+     */
+    static String codeFingerprint(ResolvedJavaMethod method) {
+        byte[] code = method.getCode();
+        if (code == null) {
+            return "";
+        }
+        ConstantPool cp = method.getConstantPool();
+        StringBuilder references = new StringBuilder();
+        BytecodeStream stream = new BytecodeStream(code);
+        for (int opcode = stream.currentBC(); opcode != Bytecodes.END; opcode = stream.currentBC()) {
+            switch (opcode) {
+                case Bytecodes.GETSTATIC:
+                case Bytecodes.PUTSTATIC:
+                case Bytecodes.GETFIELD:
+                case Bytecodes.PUTFIELD:
+                    references.append(cp.lookupField(stream.readCPI(), method, opcode).format("%H.%n:%T"));
+                    break;
+                case Bytecodes.INVOKEVIRTUAL:
+                case Bytecodes.INVOKESPECIAL:
+                case Bytecodes.INVOKESTATIC:
+                case Bytecodes.INVOKEINTERFACE:
+                    references.append(cp.lookupMethod(stream.readCPI(), opcode).format("%H.%n(%P)%R"));
+                    break;
+                case Bytecodes.NEW:
+                case Bytecodes.ANEWARRAY:
+                case Bytecodes.CHECKCAST:
+                case Bytecodes.INSTANCEOF:
+                case Bytecodes.MULTIANEWARRAY:
+                    references.append(cp.lookupType(stream.readCPI(), opcode).getName());
+                    break;
+                case Bytecodes.LDC:
+                case Bytecodes.LDC_W:
+                case Bytecodes.LDC2_W: {
+                    Object constant = cp.lookupConstant(stream.readCPI());
+                    references.append(constant instanceof JavaType ? ((JavaType) constant).getName() : ((JavaConstant) constant).toValueString());
+                    break;
+                }
+                default:
+                    stream.next();
+                    continue;
+            }
+            references.append('\n');
+            stream.next();
+        }
+        byte[] referenceBytes = references.toString().getBytes(StandardCharsets.UTF_8);
+        byte[] data = Arrays.copyOf(code, code.length + referenceBytes.length);
+        System.arraycopy(referenceBytes, 0, data, code.length, referenceBytes.length);
+        return toHex(digest(data));
+    }
+
+    /**
+     * Computes a fingerprint of the instance size and the offsets of all fields of {@code type}.
+     */
+    static String classLayout(ResolvedJavaType type) {
+        StringBuilder layout = new StringBuilder();
+        if (type instanceof HotSpotResolvedObjectType && !type.isArray() && !type.isInterface()) {
+            layout.append("size=").append(((HotSpotResolvedObjectType) type).instanceSize()).append('\n');
+        }
+        for (ResolvedJavaField field : type.getInstanceFields(true)) {
+            layout.append(field.format("%H.%n:%T@")).append(field.getOffset()).append('\n');
+        }
+        for (ResolvedJavaField field : type.getStaticFields()) {
+            layout.append(field.format("static %H.%n:%T@")).append(field.getOffset()).append('\n');
+        }
+        return toHex(digest(layout.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    static ResolvedJavaMethod findMethod(ResolvedJavaType holder, String name, String descriptor) {
+        if (name.equals("<clinit>")) {
+            return holder.getClassInitializer();
+        }
+        ResolvedJavaMethod[] candidates = name.equals("<init>") ? holder.getDeclaredConstructors() : holder.getDeclaredMethods();
+        for (ResolvedJavaMethod candidate : candidates) {
+            if (candidate.getName().equals(name) && candidate.getSignature().toMethodDescriptor().equals(descriptor)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    static byte[] digest(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data);
+        } catch (NoSuchAlgorithmException e) {
+            throw new GraalError(e);
+        }
+    }
+
+    static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return sb.toString();
+    }
+}
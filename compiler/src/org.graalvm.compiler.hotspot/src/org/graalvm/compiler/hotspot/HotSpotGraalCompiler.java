@@ -52,6 +52,7 @@ import org.graalvm.compiler.nodes.Cancellable;
 import org.graalvm.compiler.nodes.StructuredGraph;
 import org.graalvm.compiler.nodes.StructuredGraph.AllowAssumptions;
 import org.graalvm.compiler.nodes.graphbuilderconf.GraphBuilderConfiguration;
+import org.graalvm.compiler.nodes.spi.ProfileProvider;
 import org.graalvm.compiler.options.OptionValues;
 import org.graalvm.compiler.phases.OptimisticOptimizations;
 import org.graalvm.compiler.phases.OptimisticOptimizations.Optimization;
@@ -184,6 +185,7 @@ public class HotSpotGraalCompiler implements GraalJVMCICompiler, Cancellable {
             if (speculationLog != null) {
                 speculationLog.collectFailedSpeculations();
             }
+            HotSpotProfileReplay profileReplay = HotSpotProfileReplay.get(options, graalRuntime);
             // @formatter:off
             graph = new StructuredGraph.Builder(options, debug, allowAssumptions).
                             method(method).
@@ -191,6 +193,7 @@ public class HotSpotGraalCompiler implements GraalJVMCICompiler, Cancellable {
                             entryBCI(entryBCI).
                             speculationLog(speculationLog).
                             useProfilingInfo(useProfilingInfo).
+                            profileProvider(profileReplay == null ? ProfileProvider.DEFAULT : profileReplay.createProfileProvider()).
                             compilationId(compilationId).build();
             // @formatter:on
         }
@@ -211,7 +214,7 @@ public class HotSpotGraalCompiler implements GraalJVMCICompiler, Cancellable {
 
         Suites suites = getSuites(providers, options);
         LIRSuites lirSuites = getLIRSuites(providers, options);
-        ProfilingInfo profilingInfo = useProfilingInfo ? method.getProfilingInfo(!isOSR, isOSR) : DefaultProfilingInfo.get(TriState.FALSE);
+        ProfilingInfo profilingInfo = useProfilingInfo ? graph.getProfileProvider().getProfilingInfo(method, !isOSR, isOSR) : DefaultProfilingInfo.get(TriState.FALSE);
         OptimisticOptimizations optimisticOpts = getOptimisticOpts(profilingInfo, options);
 
         /*
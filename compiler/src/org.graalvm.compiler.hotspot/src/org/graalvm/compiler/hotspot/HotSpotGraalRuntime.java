@@ -153,6 +153,7 @@ public final class HotSpotGraalRuntime implements HotSpotGraalRuntimeProvider {
     private final Map<ExceptionAction, Integer> compilationProblemsPerAction;
 
     private final CompilerProfiler compilerProfiler;
+    private final CompilerTelemetry compilerTelemetry;
 
     /**
      * @param nameQualifier a qualifier to be added to this runtime's {@linkplain #getName() name}
@@ -182,6 +183,7 @@ public final class HotSpotGraalRuntime implements HotSpotGraalRuntimeProvider {
         compilerConfigurationName = compilerConfigurationFactory.getName();
 
         this.instrumentation = compilerConfigurationFactory.createInstrumentation(options);
+        this.compilerTelemetry = CompilerTelemetry.create(options);
 
         if (IS_AOT) {
             management = AOT_INJECTED_MANAGEMENT == null ? null : AOT_INJECTED_MANAGEMENT.get();
@@ -357,9 +359,18 @@ public final class HotSpotGraalRuntime implements HotSpotGraalRuntimeProvider {
             }
         }
 
+        OptionValues debugOptions = compilationOptions;
+        GlobalMetrics globalMetrics = metricValues;
+        CompilerTelemetry telemetry = compilerTelemetry;
+        if (telemetry != null && !CompilerTelemetry.hasMetricOptions(compilationOptions)) {
+            // Timers enabled only for the telemetry are not aggregated
+            // into the metrics printed at shutdown.
+            debugOptions = telemetry.withTimers(compilationOptions);
+            globalMetrics = null;
+        }
         Description description = new Description(compilable, compilationId.toString(CompilationIdentifier.Verbosity.ID));
-        Builder builder = new Builder(compilationOptions, factories).//
-                        globalMetrics(metricValues).//
+        Builder builder = new Builder(debugOptions, factories).//
+                        globalMetrics(globalMetrics).//
                         description(description).//
                         logStream(logStream);
         if (compilerProfiler != null) {
@@ -535,6 +546,11 @@ public final class HotSpotGraalRuntime implements HotSpotGraalRuntimeProvider {
         return outputDirectory;
     }
 
+    @Override
+    public CompilerTelemetry getCompilerTelemetry() {
+        return compilerTelemetry;
+    }
+
     @Override
     public Map<ExceptionAction, Integer> getCompilationProblemsPerAction() {
         return compilationProblemsPerAction;
@@ -97,6 +97,13 @@ public interface HotSpotGraalRuntimeProvider extends GraalRuntime, RuntimeProvid
      */
     DiagnosticsOutputDirectory getOutputDirectory();
 
+    /**
+     * Gets the live performance data about the compilations of this runtime.
+     *
+     * @return {@code null} if {@link CompilerTelemetry.Options#CompilerTelemetry} is disabled
+     */
+    CompilerTelemetry getCompilerTelemetry();
+
     /**
      * Gets the map used to count compilation problems at each {@link ExceptionAction} level. All
      * updates and queries to the map should be synchronized.
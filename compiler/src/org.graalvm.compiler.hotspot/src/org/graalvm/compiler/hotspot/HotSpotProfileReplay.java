@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.hotspot;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.graalvm.compiler.debug.TTY;
+import org.graalvm.compiler.nodes.spi.ProfileProvider;
+import org.graalvm.compiler.options.Option;
+import org.graalvm.compiler.options.OptionKey;
+import org.graalvm.compiler.options.OptionType;
+import org.graalvm.compiler.options.OptionValues;
+
+import jdk.vm.ci.meta.ProfilingInfo;
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+
+/**
+ * Captures the profiles consumed by compilations so that they can be replayed by later runs of the
+ * VM. With replayed profiles, a freshly started VM can compile hot methods with the profiles of a
+ * warmed up run instead of the incomplete profiles collected so far.
+ *
+ * When capturing, the profile of each method is recorded the first time a compilation
+ * {@linkplain #createProfileProvider() queries} it and the records are written to the capture file
+ * when the runtime shuts down. A later recording of the same method replaces an earlier one. When
+ * replaying, each compilation receives a {@link RecordedProfilingInfo} for the methods in the
+ * replay file whose bytecodes are unchanged. Other methods use the profiles of the current VM.
+ */
+public final class HotSpotProfileReplay {
+
+    public static class Options {
+        // @formatter:off
+        @Option(help = "File to which the profiles used by compilations are written when the VM exits.", type = OptionType.Expert)
+        public static final OptionKey<String> ProfileCaptureFile = new OptionKey<>(null);
+        @Option(help = "File with profiles written by ProfileCaptureFile that are used instead of the profiles " +
+                       "collected by the VM.", type = OptionType.Expert)
+        public static final OptionKey<String> ProfileReplayFile = new OptionKey<>(null);
+        // @formatter:on
+    }
+
+    private static final int MAGIC = 0x47505246;
+    private static final int FORMAT_VERSION = 1;
+
+    private static HotSpotProfileReplay instance;
+    private static boolean initialized;
+
+    private final Map<String, ProfileRecord> replayed;
+    /**
+     * The records resolved so far against the methods of this VM. The profile of the current VM
+     * can change between queries (e.g. a method that had no profile when first queried gets one),
+     * so only the resolved records are cached and each query wraps the profile current at that
+     * time.
+     */
+    private final Map<ResolvedJavaMethod, RecordedProfilingInfo> resolved = new ConcurrentHashMap<>();
+    /**
+     * The methods with a record whose bytecodes changed since the record was captured.
+     */
+    private final Set<ResolvedJavaMethod> stale = ConcurrentHashMap.newKeySet();
+    private final Map<String, ProfileRecord> captured;
+
+    private HotSpotProfileReplay(Map<String, ProfileRecord> replayed, boolean capture) {
+        this.replayed = replayed;
+        this.captured = capture ? new ConcurrentHashMap<>() : null;
+    }
+
+    /**
+     * Gets the profile capture and replay support for this VM.
+     *
+     * @return {@code null} if neither capturing nor replaying profiles is enabled
+     */
+    public static synchronized HotSpotProfileReplay get(OptionValues options, HotSpotGraalRuntimeProvider runtime) {
+        if (!initialized) {
+            initialized = true;
+            String captureFile = Options.ProfileCaptureFile.getValue(options);
+            String replayFile = Options.ProfileReplayFile.getValue(options);
+            if (captureFile != null || replayFile != null) {
+                instance = create(replayFile == null ? null : Paths.get(replayFile), captureFile != null);
+                if (captureFile != null && runtime instanceof HotSpotGraalRuntime) {
+                    Path path = Paths.get(captureFile);
+                    ((HotSpotGraalRuntime) runtime).addShutdownHook(() -> instance.write(path));
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Creates support for capturing or replaying profiles independent of the one
+     * {@linkplain #get returned} for this VM.
+     *
+     * @param replayFile the file with the profiles to replay or {@code null}
+     * @param capture specifies if the profiles used by compilations are to be captured
+     */
+    public static HotSpotProfileReplay create(Path replayFile, boolean capture) {
+        return new HotSpotProfileReplay(replayFile == null ? null : read(replayFile), capture);
+    }
+
+    /**
+     * Creates a provider for the profiles of a single compilation.
+     */
+    public ProfileProvider createProfileProvider() {
+        return new ReplayProfileProvider();
+    }
+
+    private final class ReplayProfileProvider implements ProfileProvider {
+        /**
+         * The methods whose profiles were captured for this compilation. Callee graphs may be
+         * parsed on other threads (see {@code InliningPhase.Options.ParallelInliningGraphs}).
+         */
+        private final Set<ResolvedJavaMethod> capturedMethods = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public ProfilingInfo getProfilingInfo(ResolvedJavaMethod method, boolean includeNormal, boolean includeOSR) {
+            ProfilingInfo info = DEFAULT.getProfilingInfo(method, includeNormal, includeOSR);
+            if (!includeNormal) {
+                // profiles of OSR executions only are neither recorded nor replayed
+                return info;
+            }
+            if (replayed != null) {
+                info = replay(method, info);
+            }
+            if (captured != null && capturedMethods.add(method)) {
+                ProfileRecord record = ProfileRecord.capture(method, info);
+                captured.put(record.key(), record);
+            }
+            return info;
+        }
+    }
+
+    private ProfilingInfo replay(ResolvedJavaMethod method, ProfilingInfo info) {
+        RecordedProfilingInfo result = resolved.get(method);
+        if (result == null) {
+            ProfileRecord record = replayed.get(ProfileRecord.key(method));
+            if (record == null || stale.contains(method)) {
+                return info;
+            }
+            if (!record.bytecodeHash.equals(HotSpotCompilationCache.bytecodeHash(method))) {
+                stale.add(method);
+                return info;
+            }
+            result = new RecordedProfilingInfo(method, info, record);
+            RecordedProfilingInfo existing = resolved.putIfAbsent(method, result);
+            if (existing != null) {
+                result = existing;
+            }
+        }
+        return result.withDelegate(info);
+    }
+
+    /**
+     * Writes the captured profiles to {@code path}.
+     */
+    public void write(Path path) {
+        if (captured == null) {
+            return;
+        }
+        try (OutputStream os = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            DataOutputStream out = new DataOutputStream(os);
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            ProfileRecord[] records = captured.values().toArray(new ProfileRecord[0]);
+            out.writeInt(records.length);
+            for (ProfileRecord record : records) {
+                record.write(out);
+            }
+            out.flush();
+        } catch (IOException e) {
+            TTY.printf("Warning: could not write profiles to %s: %s%n", path, e);
+        }
+    }
+
+    /**
+     * Reads the profiles in {@code path}.
+     *
+     * @return the profiles by {@linkplain ProfileRecord#key() method key}, which is empty if the
+     *         file cannot be read
+     */
+    static Map<String, ProfileRecord> read(Path path) {
+        Map<String, ProfileRecord> records = new ConcurrentHashMap<>();
+        try (InputStream is = new GZIPInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            DataInputStream in = new DataInputStream(is);
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                TTY.printf("Warning: ignoring profiles in %s: unsupported format%n", path);
+                return records;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                ProfileRecord record = ProfileRecord.read(in);
+                records.put(record.key(), record);
+            }
+        } catch (NoSuchFileException e) {
+            // nothing captured yet
+        } catch (IOException e) {
+            TTY.printf("Warning: ignoring profiles in %s: %s%n", path, e);
+        }
+        return records;
+    }
+}
@@ -132,7 +132,9 @@ public final class HotSpotReferenceMapBuilder extends ReferenceMapBuilder {
             }
         }
 
-        return new HotSpotReferenceMap(objects, derivedBase, sizeInBytes, maxRegisterSize);
+        HotSpotReferenceMap map = new HotSpotReferenceMap(objects, derivedBase, sizeInBytes, maxRegisterSize);
+        HotSpotCompilationCache.recordReferenceMap(map, objects, derivedBase, sizeInBytes, maxRegisterSize);
+        return map;
     }
 
     private static int bytesPerElement(LIRKind kind) {
@@ -0,0 +1,326 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.hotspot;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.graalvm.compiler.bytecode.BytecodeStream;
+import org.graalvm.compiler.bytecode.Bytecodes;
+import org.graalvm.compiler.nodes.StructuredGraph;
+
+import jdk.vm.ci.meta.DeoptimizationReason;
+import jdk.vm.ci.meta.JavaMethodProfile;
+import jdk.vm.ci.meta.JavaMethodProfile.ProfiledMethod;
+import jdk.vm.ci.meta.JavaTypeProfile;
+import jdk.vm.ci.meta.JavaTypeProfile.ProfiledType;
+import jdk.vm.ci.meta.ProfilingInfo;
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+import jdk.vm.ci.meta.TriState;
+
+/**
+ * A symbolic snapshot of the {@link ProfilingInfo} of a method that can be written to a file and
+ * {@linkplain RecordedProfilingInfo replayed} in another VM instance. Types and methods are
+ * referenced by name.
+ *
+ * Only the bytecode indexes for which the profile differs from an empty profile are recorded.
+ */
+final class ProfileRecord {
+
+    private static final int BRANCH = 1;
+    private static final int SWITCH = 1 << 1;
+    private static final int TYPES = 1 << 2;
+    private static final int METHODS = 1 << 3;
+    private static final int EXCEPTION_SEEN = 1 << 4;
+    private static final int NULL_SEEN = 1 << 5;
+    private static final int EXECUTION_COUNT = 1 << 6;
+
+    /**
+     * The profile of a single bytecode. Unused fields have the values of an empty profile.
+     */
+    static final class BciProfile {
+        final int bci;
+        double branchTakenProbability = -1;
+        double[] switchProbabilities;
+        TriState typesNullSeen = TriState.UNKNOWN;
+        double typesNotRecorded;
+        String[] types;
+        double[] typeProbabilities;
+        double methodsNotRecorded;
+        String[] methods;
+        double[] methodProbabilities;
+        TriState exceptionSeen = TriState.UNKNOWN;
+        TriState nullSeen = TriState.UNKNOWN;
+        int executionCount = -1;
+
+        BciProfile(int bci) {
+            this.bci = bci;
+        }
+
+        private int flags() {
+            int flags = 0;
+            flags |= branchTakenProbability != -1 ? BRANCH : 0;
+            flags |= switchProbabilities != null ? SWITCH : 0;
+            flags |= types != null ? TYPES : 0;
+            flags |= methods != null ? METHODS : 0;
+            flags |= exceptionSeen != TriState.UNKNOWN ? EXCEPTION_SEEN : 0;
+            flags |= nullSeen != TriState.UNKNOWN ? NULL_SEEN : 0;
+            flags |= executionCount != -1 ? EXECUTION_COUNT : 0;
+            return flags;
+        }
+    }
+
+    final String holder;
+    final String name;
+    final String descriptor;
+    final String bytecodeHash;
+    final int codeSize;
+    final boolean mature;
+    final int compilerIRSize;
+    final int[] deoptimizationCounts;
+    final BciProfile[] profiles;
+
+    private ProfileRecord(String holder, String name, String descriptor, String bytecodeHash, int codeSize, boolean mature, int compilerIRSize, int[] deoptimizationCounts,
+                    BciProfile[] profiles) {
+        this.holder = holder;
+        this.name = name;
+        this.descriptor = descriptor;
+        this.bytecodeHash = bytecodeHash;
+        this.codeSize = codeSize;
+        this.mature = mature;
+        this.compilerIRSize = compilerIRSize;
+        this.deoptimizationCounts = deoptimizationCounts;
+        this.profiles = profiles;
+    }
+
+    static String key(ResolvedJavaMethod method) {
+        return key(method.getDeclaringClass().getName(), method.getName(), method.getSignature().toMethodDescriptor());
+    }
+
+    private static String key(String holder, String name, String descriptor) {
+        return holder + "." + name + descriptor;
+    }
+
+    String key() {
+        return key(holder, name, descriptor);
+    }
+
+    /**
+     * Takes a snapshot of the profile of {@code method}.
+     */
+    static ProfileRecord capture(ResolvedJavaMethod method, ProfilingInfo info) {
+        byte[] code = method.getCode();
+        List<BciProfile> profiles = new ArrayList<>();
+        if (code != null) {
+            BytecodeStream stream = new BytecodeStream(code);
+            while (stream.currentBC() != Bytecodes.END) {
+                BciProfile profile = captureBci(info, stream.currentBCI());
+                if (profile.flags() != 0) {
+                    profiles.add(profile);
+                }
+                stream.next();
+            }
+        }
+        DeoptimizationReason[] reasons = DeoptimizationReason.values();
+        int[] deoptimizationCounts = new int[reasons.length];
+        for (DeoptimizationReason reason : reasons) {
+            deoptimizationCounts[reason.ordinal()] = info.getDeoptimizationCount(reason);
+        }
+        return new ProfileRecord(method.getDeclaringClass().getName(), method.getName(), method.getSignature().toMethodDescriptor(), HotSpotCompilationCache.bytecodeHash(method),
+                        info.getCodeSize(), info.isMature(), info.getCompilerIRSize(StructuredGraph.class), deoptimizationCounts, profiles.toArray(new BciProfile[profiles.size()]));
+    }
+
+    private static BciProfile captureBci(ProfilingInfo info, int bci) {
+        BciProfile profile = new BciProfile(bci);
+        profile.branchTakenProbability = info.getBranchTakenProbability(bci);
+        profile.switchProbabilities = info.getSwitchProbabilities(bci);
+        JavaTypeProfile typeProfile = info.getTypeProfile(bci);
+        if (typeProfile != null) {
+            ProfiledType[] types = typeProfile.getTypes();
+            profile.typesNullSeen = typeProfile.getNullSeen();
+            profile.typesNotRecorded = typeProfile.getNotRecordedProbability();
+            profile.types = new String[types.length];
+            profile.typeProbabilities = new double[types.length];
+            for (int i = 0; i < types.length; i++) {
+                profile.types[i] = types[i].getType().getName();
+                profile.typeProbabilities[i] = types[i].getProbability();
+            }
+        }
+        JavaMethodProfile methodProfile = info.getMethodProfile(bci);
+        if (methodProfile != null) {
+            ProfiledMethod[] methods = methodProfile.getMethods();
+            profile.methodsNotRecorded = methodProfile.getNotRecordedProbability();
+            profile.methods = new String[methods.length];
+            profile.methodProbabilities = new double[methods.length];
+            for (int i = 0; i < methods.length; i++) {
+                profile.methods[i] = key(methods[i].getMethod());
+                profile.methodProbabilities[i] = methods[i].getProbability();
+            }
+        }
+        profile.exceptionSeen = info.getExceptionSeen(bci);
+        profile.nullSeen = info.getNullSeen(bci);
+        profile.executionCount = info.getExecutionCount(bci);
+        return profile;
+    }
+
+    void write(DataOutputStream out) throws IOException {
+        out.writeUTF(holder);
+        out.writeUTF(name);
+        out.writeUTF(descriptor);
+        out.writeUTF(bytecodeHash);
+        out.writeInt(codeSize);
+        out.writeBoolean(mature);
+        out.writeInt(compilerIRSize);
+        int nonZero = 0;
+        for (int count : deoptimizationCounts) {
+            nonZero += count != 0 ? 1 : 0;
+        }
+        out.writeByte(nonZero);
+        for (int i = 0; i < deoptimizationCounts.length; i++) {
+            if (deoptimizationCounts[i] != 0) {
+                out.writeByte(i);
+                out.writeInt(deoptimizationCounts[i]);
+            }
+        }
+        out.writeInt(profiles.length);
+        for (BciProfile profile : profiles) {
+            int flags = profile.flags();
+            out.writeInt(profile.bci);
+            out.writeByte(flags);
+            if ((flags & BRANCH) != 0) {
+                out.writeDouble(profile.branchTakenProbability);
+            }
+            if ((flags & SWITCH) != 0) {
+                writeDoubles(out, profile.switchProbabilities);
+            }
+            if ((flags & TYPES) != 0) {
+                out.writeByte(profile.typesNullSeen.ordinal());
+                out.writeDouble(profile.typesNotRecorded);
+                writeStrings(out, profile.types);
+                writeDoubles(out, profile.typeProbabilities);
+            }
+            if ((flags & METHODS) != 0) {
+                out.writeDouble(profile.methodsNotRecorded);
+                writeStrings(out, profile.methods);
+                writeDoubles(out, profile.methodProbabilities);
+            }
+            if ((flags & EXCEPTION_SEEN) != 0) {
+                out.writeByte(profile.exceptionSeen.ordinal());
+            }
+            if ((flags & NULL_SEEN) != 0) {
+                out.writeByte(profile.nullSeen.ordinal());
+            }
+            if ((flags & EXECUTION_COUNT) != 0) {
+                out.writeInt(profile.executionCount);
+            }
+        }
+    }
+
+    static ProfileRecord read(DataInputStream in) throws IOException {
+        String holder = in.readUTF();
+        String name = in.readUTF();
+        String descriptor = in.readUTF();
+        String bytecodeHash = in.readUTF();
+        int codeSize = in.readInt();
+        boolean mature = in.readBoolean();
+        int compilerIRSize = in.readInt();
+        int[] deoptimizationCounts = new int[DeoptimizationReason.values().length];
+        int nonZero = in.readUnsignedByte();
+        for (int i = 0; i < nonZero; i++) {
+            int reason = in.readUnsignedByte();
+            int count = in.readInt();
+            if (reason < deoptimizationCounts.length) {
+                deoptimizationCounts[reason] = count;
+            }
+        }
+        TriState[] triStates = TriState.values();
+        BciProfile[] profiles = new BciProfile[in.readInt()];
+        for (int i = 0; i < profiles.length; i++) {
+            BciProfile profile = new BciProfile(in.readInt());
+            int flags = in.readUnsignedByte();
+            if ((flags & BRANCH) != 0) {
+                profile.branchTakenProbability = in.readDouble();
+            }
+            if ((flags & SWITCH) != 0) {
+                profile.switchProbabilities = readDoubles(in);
+            }
+            if ((flags & TYPES) != 0) {
+                profile.typesNullSeen = triStates[in.readUnsignedByte()];
+                profile.typesNotRecorded = in.readDouble();
+                profile.types = readStrings(in);
+                profile.typeProbabilities = readDoubles(in);
+            }
+            if ((flags & METHODS) != 0) {
+                profile.methodsNotRecorded = in.readDouble();
+                profile.methods = readStrings(in);
+                profile.methodProbabilities = readDoubles(in);
+            }
+            if ((flags & EXCEPTION_SEEN) != 0) {
+                profile.exceptionSeen = triStates[in.readUnsignedByte()];
+            }
+            if ((flags & NULL_SEEN) != 0) {
+                profile.nullSeen = triStates[in.readUnsignedByte()];
+            }
+            if ((flags & EXECUTION_COUNT) != 0) {
+                profile.executionCount = in.readInt();
+            }
+            profiles[i] = profile;
+        }
+        return new ProfileRecord(holder, name, descriptor, bytecodeHash, codeSize, mature, compilerIRSize, deoptimizationCounts, profiles);
+    }
+
+    private static void writeDoubles(DataOutputStream out, double[] values) throws IOException {
+        out.writeInt(values.length);
+        for (double value : values) {
+            out.writeDouble(value);
+        }
+    }
+
+    private static double[] readDoubles(DataInputStream in) throws IOException {
+        double[] values = new double[in.readInt()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.readDouble();
+        }
+        return values;
+    }
+
+    private static void writeStrings(DataOutputStream out, String[] values) throws IOException {
+        out.writeInt(values.length);
+        for (String value : values) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String[] readStrings(DataInputStream in) throws IOException {
+        String[] values = new String[in.readInt()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.readUTF();
+        }
+        return values;
+    }
+}
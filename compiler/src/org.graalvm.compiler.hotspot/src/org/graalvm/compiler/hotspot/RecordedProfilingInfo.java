@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.hotspot;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.graalvm.collections.EconomicMap;
+import org.graalvm.collections.Equivalence;
+import org.graalvm.compiler.hotspot.ProfileRecord.BciProfile;
+import org.graalvm.compiler.nodes.StructuredGraph;
+
+import jdk.vm.ci.hotspot.HotSpotJVMCIRuntime;
+import jdk.vm.ci.hotspot.HotSpotResolvedObjectType;
+import jdk.vm.ci.meta.DeoptimizationReason;
+import jdk.vm.ci.meta.JavaMethodProfile;
+import jdk.vm.ci.meta.JavaMethodProfile.ProfiledMethod;
+import jdk.vm.ci.meta.JavaType;
+import jdk.vm.ci.meta.JavaTypeProfile;
+import jdk.vm.ci.meta.JavaTypeProfile.ProfiledType;
+import jdk.vm.ci.meta.ProfilingInfo;
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+import jdk.vm.ci.meta.ResolvedJavaType;
+import jdk.vm.ci.meta.TriState;
+
+/**
+ * A {@link ProfilingInfo} that answers queries from a {@link ProfileRecord} captured by a previous
+ * run of the VM. Updates (e.g. {@link #setMature()}) are forwarded to the profile of the current
+ * VM and deoptimizations in the current VM are taken into account so that speculations that failed
+ * since the VM started are not repeated.
+ *
+ * Types and methods in type and method profiles that are not loaded in the current VM are dropped;
+ * their probability is added to the probability of not recorded types and methods.
+ */
+final class RecordedProfilingInfo implements ProfilingInfo {
+
+    private final ProfilingInfo delegate;
+    private final ProfileRecord record;
+    private final EconomicMap<Integer, BciProfile> profiles;
+    private final EconomicMap<Integer, JavaTypeProfile> typeProfiles;
+    private final EconomicMap<Integer, JavaMethodProfile> methodProfiles;
+
+    RecordedProfilingInfo(ResolvedJavaMethod method, ProfilingInfo delegate, ProfileRecord record) {
+        this.delegate = delegate;
+        this.record = record;
+        this.profiles = EconomicMap.create(Equivalence.DEFAULT);
+        this.typeProfiles = EconomicMap.create(Equivalence.DEFAULT);
+        this.methodProfiles = EconomicMap.create(Equivalence.DEFAULT);
+        HotSpotResolvedObjectType accessingClass = (HotSpotResolvedObjectType) method.getDeclaringClass();
+        for (BciProfile profile : record.profiles) {
+            profiles.put(profile.bci, profile);
+            if (profile.types != null) {
+                typeProfiles.put(profile.bci, resolveTypeProfile(profile, accessingClass));
+            }
+            if (profile.methods != null) {
+                methodProfiles.put(profile.bci, resolveMethodProfile(profile, accessingClass));
+            }
+        }
+    }
+
+    private RecordedProfilingInfo(RecordedProfilingInfo resolved, ProfilingInfo delegate) {
+        this.delegate = delegate;
+        this.record = resolved.record;
+        this.profiles = resolved.profiles;
+        this.typeProfiles = resolved.typeProfiles;
+        this.methodProfiles = resolved.methodProfiles;
+    }
+
+    /**
+     * Gets a profile that answers queries from the same record as this one but forwards updates
+     * and deoptimization counts to {@code newDelegate}. The types and methods in the record are not
+     * resolved again.
+     */
+    RecordedProfilingInfo withDelegate(ProfilingInfo newDelegate) {
+        return newDelegate == delegate ? this : new RecordedProfilingInfo(this, newDelegate);
+    }
+
+    private static ResolvedJavaType lookupType(String name, HotSpotResolvedObjectType accessingClass) {
+        JavaType type = HotSpotJVMCIRuntime.runtime().lookupType(name, accessingClass, false);
+        return type instanceof ResolvedJavaType ? (ResolvedJavaType) type : null;
+    }
+
+    private static JavaTypeProfile resolveTypeProfile(BciProfile profile, HotSpotResolvedObjectType accessingClass) {
+        List<ProfiledType> types = new ArrayList<>(profile.types.length);
+        double notRecorded = profile.typesNotRecorded;
+        for (int i = 0; i < profile.types.length; i++) {
+            ResolvedJavaType type = lookupType(profile.types[i], accessingClass);
+            if (type != null) {
+                types.add(new ProfiledType(type, profile.typeProbabilities[i]));
+            } else {
+                notRecorded += profile.typeProbabilities[i];
+            }
+        }
+        return new JavaTypeProfile(profile.typesNullSeen, Math.min(1.0, notRecorded), types.toArray(new ProfiledType[types.size()]));
+    }
+
+    private static JavaMethodProfile resolveMethodProfile(BciProfile profile, HotSpotResolvedObjectType accessingClass) {
+        List<ProfiledMethod> methods = new ArrayList<>(profile.methods.length);
+        double notRecorded = profile.methodsNotRecorded;
+        for (int i = 0; i < profile.methods.length; i++) {
+            ResolvedJavaMethod method = lookupMethod(profile.methods[i], accessingClass);
+            if (method != null) {
+                methods.add(new ProfiledMethod(method, profile.methodProbabilities[i]));
+            } else {
+                notRecorded += profile.methodProbabilities[i];
+            }
+        }
+        return new JavaMethodProfile(Math.min(1.0, notRecorded), methods.toArray(new ProfiledMethod[methods.size()]));
+    }
+
+    /**
+     * Resolves a method recorded as {@linkplain ProfileRecord#key(ResolvedJavaMethod) key}.
+     */
+    private static ResolvedJavaMethod lookupMethod(String key, HotSpotResolvedObjectType accessingClass) {
+        int nameStart = key.indexOf(';') + 2;
+        int descriptorStart = key.indexOf('(', nameStart);
+        if (nameStart < 2 || descriptorStart < 0) {
+            return null;
+        }
+        ResolvedJavaType holder = lookupType(key.substring(0, nameStart - 1), accessingClass);
+        if (holder == null) {
+            return null;
+        }
+        return HotSpotCompilationCache.findMethod(holder, key.substring(nameStart, descriptorStart), key.substring(descriptorStart));
+    }
+
+    @Override
+    public int getCodeSize() {
+        return record.codeSize;
+    }
+
+    @Override
+    public double getBranchTakenProbability(int bci) {
+        BciProfile profile = profiles.get(bci);
+        return profile == null ? -1 : profile.branchTakenProbability;
+    }
+
+    @Override
+    public double[] getSwitchProbabilities(int bci) {
+        BciProfile profile = profiles.get(bci);
+        return profile == null || profile.switchProbabilities == null ? null : profile.switchProbabilities.clone();
+    }
+
+    @Override
+    public JavaTypeProfile getTypeProfile(int bci) {
+        return typeProfiles.get(bci);
+    }
+
+    @Override
+    public JavaMethodProfile getMethodProfile(int bci) {
+        return methodProfiles.get(bci);
+    }
+
+    @Override
+    public TriState getExceptionSeen(int bci) {
+        BciProfile profile = profiles.get(bci);
+        return profile == null ? TriState.UNKNOWN : profile.exceptionSeen;
+    }
+
+    @Override
+    public TriState getNullSeen(int bci) {
+        BciProfile profile = profiles.get(bci);
+        return profile == null ? TriState.UNKNOWN : profile.nullSeen;
+    }
+
+    @Override
+    public int getExecutionCount(int bci) {
+        BciProfile profile = profiles.get(bci);
+        return profile == null ? -1 : profile.executionCount;
+    }
+
+    @Override
+    public int getDeoptimizationCount(DeoptimizationReason reason) {
+        return Math.max(record.deoptimizationCounts[reason.ordinal()], delegate.getDeoptimizationCount(reason));
+    }
+
+    @Override
+    public boolean setCompilerIRSize(Class<?> irType, int irSize) {
+        return delegate.setCompilerIRSize(irType, irSize);
+    }
+
+    @Override
+    public int getCompilerIRSize(Class<?> irType) {
+        int size = delegate.getCompilerIRSize(irType);
+        if (size < 0 && irType == StructuredGraph.class) {
+            return record.compilerIRSize;
+        }
+        return size;
+    }
+
+    @Override
+    public boolean isMature() {
+        return record.mature || delegate.isMature();
+    }
+
+    @Override
+    public void setMature() {
+        delegate.setMature();
+    }
+
+    @Override
+    public String toString() {
+        return "RecordedProfilingInfo<" + this.toString(null, "; ") + ">";
+    }
+}
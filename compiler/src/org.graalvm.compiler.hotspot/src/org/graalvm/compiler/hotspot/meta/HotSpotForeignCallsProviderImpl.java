@@ -204,6 +204,21 @@ public abstract class HotSpotForeignCallsProviderImpl implements HotSpotForeignC
         return callTarget;
     }
 
+    /**
+     * Gets the linkage registered for {@code signature}. Unlike
+     * {@link #lookupForeignCall(ForeignCallSignature)} this also finds calls for which no
+     * {@linkplain #getDescriptor(ForeignCallSignature) descriptor} was created by signature.
+     *
+     * @return {@code null} if there is no linkage for {@code signature}
+     */
+    public HotSpotForeignCallLinkage lookupRegisteredForeignCall(ForeignCallSignature signature) {
+        HotSpotForeignCallLinkage callTarget = foreignCalls.get(signature);
+        if (callTarget != null) {
+            callTarget.finalizeAddress(runtime.getHostBackend());
+        }
+        return callTarget;
+    }
+
     @Override
     public HotSpotForeignCallDescriptor getDescriptor(ForeignCallSignature signature) {
         HotSpotForeignCallDescriptor descriptor = signatureMap.get(signature);
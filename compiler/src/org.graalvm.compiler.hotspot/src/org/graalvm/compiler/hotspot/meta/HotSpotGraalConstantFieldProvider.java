@@ -34,6 +34,7 @@ import java.util.List;
 import org.graalvm.compiler.debug.GraalError;
 import org.graalvm.compiler.graph.NodeClass;
 import org.graalvm.compiler.hotspot.GraalHotSpotVMConfig;
+import org.graalvm.compiler.hotspot.HotSpotCompilationCache;
 import org.graalvm.compiler.options.OptionValues;
 import org.graalvm.compiler.replacements.SnippetCounter;
 
@@ -53,6 +54,15 @@ public class HotSpotGraalConstantFieldProvider extends HotSpotConstantFieldProvi
         this.metaAccess = metaAccess;
     }
 
+    @Override
+    public <T> T readConstantField(ResolvedJavaField field, ConstantFieldTool<T> tool) {
+        T result = super.readConstantField(field, tool);
+        if (result != null) {
+            HotSpotCompilationCache.recordFoldedField(field, tool.getReceiver(), tool.readValue());
+        }
+        return result;
+    }
+
     @Override
     protected boolean isStaticFieldConstant(ResolvedJavaField field, OptionValues options) {
         return super.isStaticFieldConstant(field, options) && (!ImmutableCode.getValue(options) || isEmbeddableField(field));
@@ -39,6 +39,7 @@ import org.graalvm.compiler.hotspot.HotSpotInstructionProfiling;
 import org.graalvm.compiler.hotspot.lir.VerifyMaxRegisterSizePhase;
 import org.graalvm.compiler.hotspot.phases.AheadOfTimeVerificationPhase;
 import org.graalvm.compiler.hotspot.phases.LoadJavaMirrorWithKlassPhase;
+import org.graalvm.compiler.hotspot.phases.StackAllocationPhase;
 import org.graalvm.compiler.hotspot.phases.aot.AOTInliningPolicy;
 import org.graalvm.compiler.hotspot.phases.aot.EliminateRedundantInitializationPhase;
 import org.graalvm.compiler.hotspot.phases.aot.ReplaceConstantNodesPhase;
@@ -56,6 +57,7 @@ import org.graalvm.compiler.options.OptionValues;
 import org.graalvm.compiler.phases.BasePhase;
 import org.graalvm.compiler.phases.PhaseSuite;
 import org.graalvm.compiler.phases.common.CanonicalizerPhase;
+import org.graalvm.compiler.phases.common.FrameStateAssignmentPhase;
 import org.graalvm.compiler.phases.common.LoweringPhase;
 import org.graalvm.compiler.phases.common.inlining.InliningPhase;
 import org.graalvm.compiler.phases.tiers.HighTierContext;
@@ -85,6 +87,12 @@ public class HotSpotSuitesProvider extends SuitesProviderBase {
     public Suites createSuites(OptionValues options) {
         Suites ret = defaultSuitesCreator.createSuites(options);
 
+        if (StackAllocationPhase.Options.StackAllocateArrays.getValue(options)) {
+            ListIterator<BasePhase<? super MidTierContext>> frameStateAssignment = ret.getMidTier().findPhase(FrameStateAssignmentPhase.class);
+            // stack allocation relies on frame states only being present at deoptimization points
+            frameStateAssignment.add(new StackAllocationPhase(config));
+        }
+
         if (ImmutableCode.getValue(options)) {
             ListIterator<BasePhase<? super MidTierContext>> midTierLowering = ret.getMidTier().findPhase(LoweringPhase.class);
 
@@ -37,6 +37,7 @@ import org.graalvm.compiler.nodes.spi.NodeLIRBuilderTool;
 import org.graalvm.compiler.word.Word;
 import org.graalvm.compiler.word.WordTypes;
 
+import jdk.vm.ci.meta.JavaKind;
 import jdk.vm.ci.meta.Value;
 
 /**
@@ -53,7 +54,11 @@ public final class AllocaNode extends FixedWithNextNode implements LIRLowerable
     protected final int slots;
 
     public AllocaNode(@InjectedNodeParameter WordTypes wordTypes, int slots) {
-        super(TYPE, StampFactory.forKind(wordTypes.getWordKind()));
+        this(wordTypes.getWordKind(), slots);
+    }
+
+    public AllocaNode(JavaKind wordKind, int slots) {
+        super(TYPE, StampFactory.forKind(wordKind));
         this.slots = slots;
     }
 
@@ -0,0 +1,325 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.hotspot.phases;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.graalvm.compiler.core.common.NumUtil;
+import org.graalvm.compiler.core.common.type.IntegerStamp;
+import org.graalvm.compiler.debug.CounterKey;
+import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.graph.Node;
+import org.graalvm.compiler.graph.NodeBitMap;
+import org.graalvm.compiler.hotspot.GraalHotSpotVMConfig;
+import org.graalvm.compiler.hotspot.nodes.AllocaNode;
+import org.graalvm.compiler.nodes.AbstractBeginNode;
+import org.graalvm.compiler.nodes.AbstractDeoptimizeNode;
+import org.graalvm.compiler.nodes.AbstractMergeNode;
+import org.graalvm.compiler.nodes.BeginNode;
+import org.graalvm.compiler.nodes.ConstantNode;
+import org.graalvm.compiler.nodes.DeoptimizeNode;
+import org.graalvm.compiler.nodes.FixedWithNextNode;
+import org.graalvm.compiler.nodes.FrameState;
+import org.graalvm.compiler.nodes.IfNode;
+import org.graalvm.compiler.nodes.LogicNode;
+import org.graalvm.compiler.nodes.LoopBeginNode;
+import org.graalvm.compiler.nodes.NodeView;
+import org.graalvm.compiler.nodes.StateSplit;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.calc.IntegerBelowNode;
+import org.graalvm.compiler.nodes.extended.BranchProbabilityNode;
+import org.graalvm.compiler.nodes.extended.FixedValueAnchorNode;
+import org.graalvm.compiler.nodes.java.NewArrayNode;
+import org.graalvm.compiler.nodes.memory.MemoryKill;
+import org.graalvm.compiler.nodes.memory.OnHeapMemoryAccess.BarrierType;
+import org.graalvm.compiler.nodes.memory.WriteNode;
+import org.graalvm.compiler.nodes.memory.address.OffsetAddressNode;
+import org.graalvm.compiler.nodes.util.GraphUtil;
+import org.graalvm.compiler.options.Option;
+import org.graalvm.compiler.options.OptionKey;
+import org.graalvm.compiler.options.OptionType;
+import org.graalvm.compiler.phases.BasePhase;
+import org.graalvm.compiler.phases.tiers.MidTierContext;
+import org.graalvm.compiler.serviceprovider.SpeculationReasonGroup;
+import org.graalvm.word.LocationIdentity;
+
+import jdk.vm.ci.meta.DeoptimizationAction;
+import jdk.vm.ci.meta.DeoptimizationReason;
+import jdk.vm.ci.meta.JavaKind;
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+import jdk.vm.ci.meta.SpeculationLog;
+
+/**
+ * Allocates primitive arrays that do not escape the compiled method in the stack frame instead of
+ * the heap. This complements partial escape analysis, which only virtualizes arrays of constant
+ * length, for temporary buffers whose length is only known at run time.
+ *
+ * The phase runs after frame state assignment so that only the frame states that are actually
+ * needed for deoptimization remain. An array is a candidate if it is only accessed through
+ * addresses based on it, i.e., if it is not stored, passed to a call, type checked or locked.
+ * HotSpot cannot rematerialize an array of dynamic length during deoptimization, so a
+ * deoptimization whose frame state references the array instead restarts at the allocation. This
+ * is only possible if the array is the only memory written since the allocation.
+ *
+ * The array is replaced by a word sized pointer into a block of {@linkplain AllocaNode stack
+ * slots}. The block is part of the frame map and, since neither the pointer nor the elements are
+ * references, never appears in a reference map. Only the length field and the elements are
+ * initialized because the header is never read.
+ *
+ * The block is sized for the largest length the array can have, which is limited to
+ * {@link Options#StackAllocationMaxArrayBytes}. If the stamp of the length does not guarantee this
+ * limit, the allocation is guarded by a speculative check that deoptimizes before the allocation.
+ * After the speculation failed, the method is recompiled with a heap allocation.
+ */
+public class StackAllocationPhase extends BasePhase<MidTierContext> {
+
+    public static class Options {
+        // @formatter:off
+        @Option(help = "Allocate non-escaping primitive arrays of variable length in the stack frame.", type = OptionType.Expert)
+        public static final OptionKey<Boolean> StackAllocateArrays = new OptionKey<>(false);
+        @Option(help = "Maximum size in bytes of an array allocated in the stack frame, including the array header.", type = OptionType.Expert)
+        public static final OptionKey<Integer> StackAllocationMaxArrayBytes = new OptionKey<>(256);
+        // @formatter:on
+    }
+
+    private static final SpeculationReasonGroup STACK_ALLOCATION_SPECULATIONS = new SpeculationReasonGroup("StackAllocation", ResolvedJavaMethod.class, int.class);
+
+    private static final CounterKey STACK_ALLOCATED = DebugContext.counter("StackAllocation_Arrays");
+    private static final CounterKey SPECULATION_FAILED = DebugContext.counter("StackAllocation_SpeculationFailed");
+
+    private final GraalHotSpotVMConfig config;
+
+    public StackAllocationPhase(GraalHotSpotVMConfig config) {
+        this.config = config;
+    }
+
+    @Override
+    protected void run(StructuredGraph graph, MidTierContext context) {
+        assert graph.getGuardsStage().areFrameStatesAtDeopts();
+        int maxBytes = Options.StackAllocationMaxArrayBytes.getValue(graph.getOptions());
+        for (NewArrayNode newArray : graph.getNodes().filter(NewArrayNode.class).snapshot()) {
+            JavaKind elementKind = newArray.elementType().getJavaKind();
+            List<AbstractDeoptimizeNode> deopts = new ArrayList<>();
+            if (!elementKind.isPrimitive() || !isStackAllocatable(newArray, deopts, context)) {
+                continue;
+            }
+            int baseOffset = context.getMetaAccess().getArrayBaseOffset(elementKind);
+            int maxLength = (maxBytes - baseOffset) / elementKind.getByteCount();
+            if (maxLength <= 0) {
+                continue;
+            }
+            IntegerStamp lengthStamp = (IntegerStamp) newArray.length().stamp(NodeView.DEFAULT);
+            int length;
+            if (lengthStamp.lowerBound() >= 0 && lengthStamp.upperBound() <= maxLength) {
+                length = (int) lengthStamp.upperBound();
+            } else if (insertLengthCheck(newArray, maxLength)) {
+                length = maxLength;
+            } else {
+                continue;
+            }
+            for (AbstractDeoptimizeNode deopt : deopts) {
+                FrameState state = deopt.stateBefore();
+                deopt.setStateBefore(newArray.stateBefore());
+                if (state.hasNoUsages()) {
+                    GraphUtil.killWithUnusedFloatingInputs(state);
+                }
+            }
+            stackAllocate(newArray, elementKind, baseOffset, length, context);
+        }
+    }
+
+    @Override
+    protected boolean isOptionalUnderMemoryPressure() {
+        return true;
+    }
+
+    /**
+     * Checks that the array is only used as the base of addresses that do not point into the
+     * header, except for the length field, and by the frame states of deoptimizations that can
+     * restart at the allocation. These deoptimizations are added to {@code deopts}.
+     */
+    private boolean isStackAllocatable(NewArrayNode newArray, List<AbstractDeoptimizeNode> deopts, MidTierContext context) {
+        int baseOffset = context.getMetaAccess().getArrayBaseOffset(newArray.elementType().getJavaKind());
+        for (Node usage : newArray.usages()) {
+            if (usage instanceof FrameState) {
+                if (!collectDeopts((FrameState) usage, deopts)) {
+                    return false;
+                }
+                continue;
+            }
+            if (!(usage instanceof OffsetAddressNode) || ((OffsetAddressNode) usage).getBase() != newArray) {
+                return false;
+            }
+            ValueNode offset = ((OffsetAddressNode) usage).getOffset();
+            if (offset.isJavaConstant()) {
+                long value = offset.asJavaConstant().asLong();
+                if (value != config.arrayOopDescLengthOffset() && value < baseOffset) {
+                    return false;
+                }
+            }
+        }
+        if (deopts.isEmpty()) {
+            return true;
+        }
+        if (newArray.stateBefore() == null) {
+            return false;
+        }
+        for (AbstractDeoptimizeNode deopt : deopts) {
+            if (!onlyArrayWrittenBefore(deopt, newArray)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adds the deoptimizations that use {@code state}, directly or as an outer state, to
+     * {@code deopts}. Returns {@code false} if the state is also used by another node.
+     */
+    private static boolean collectDeopts(FrameState state, List<AbstractDeoptimizeNode> deopts) {
+        for (Node usage : state.usages()) {
+            if (usage instanceof FrameState && ((FrameState) usage).outerFrameState() == state) {
+                if (!collectDeopts((FrameState) usage, deopts)) {
+                    return false;
+                }
+            } else if (usage instanceof AbstractDeoptimizeNode) {
+                if (!deopts.contains(usage)) {
+                    deopts.add((AbstractDeoptimizeNode) usage);
+                }
+            } else {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks that no memory other than the array is written on any path from the allocation to
+     * {@code deopt}. Restarting at the allocation then only repeats work whose effects are not
+     * visible outside of the compiled method.
+     */
+    private static boolean onlyArrayWrittenBefore(AbstractDeoptimizeNode deopt, NewArrayNode newArray) {
+        NodeBitMap visited = newArray.graph().createNodeBitMap();
+        ArrayDeque<Node> worklist = new ArrayDeque<>();
+        worklist.push(deopt);
+        while (!worklist.isEmpty()) {
+            Node node = worklist.pop();
+            if (node == newArray || visited.isMarked(node)) {
+                continue;
+            }
+            visited.mark(node);
+            if (writesMemory(node) && !isArrayWrite(node, newArray)) {
+                return false;
+            }
+            if (node instanceof AbstractMergeNode) {
+                worklist.addAll(((AbstractMergeNode) node).cfgPredecessors().snapshot());
+                if (node instanceof LoopBeginNode) {
+                    worklist.addAll(((LoopBeginNode) node).loopEnds().snapshot());
+                }
+            } else if (node.predecessor() != null) {
+                worklist.push(node.predecessor());
+            } else {
+                // the start of the graph is not dominated by the allocation
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean writesMemory(Node node) {
+        return node instanceof MemoryKill || node instanceof StateSplit && ((StateSplit) node).hasSideEffect();
+    }
+
+    private static boolean isArrayWrite(Node node, NewArrayNode newArray) {
+        return node instanceof WriteNode && ((WriteNode) node).getAddress() instanceof OffsetAddressNode && ((OffsetAddressNode) ((WriteNode) node).getAddress()).getBase() == newArray;
+    }
+
+    /**
+     * Guards the allocation with a check that the length is within {@code [0, maxLength]}. The
+     * guard deoptimizes with the state before the allocation, where the array does not exist yet.
+     */
+    private static boolean insertLengthCheck(NewArrayNode newArray, int maxLength) {
+        StructuredGraph graph = newArray.graph();
+        FrameState stateBefore = newArray.stateBefore();
+        SpeculationLog speculationLog = graph.getSpeculationLog();
+        if (stateBefore == null || stateBefore.getMethod() == null || speculationLog == null) {
+            return false;
+        }
+        SpeculationLog.SpeculationReason reason = STACK_ALLOCATION_SPECULATIONS.createSpeculationReason(stateBefore.getMethod(), stateBefore.bci);
+        if (!speculationLog.maySpeculate(reason)) {
+            SPECULATION_FAILED.increment(graph.getDebug());
+            return false;
+        }
+        LogicNode inBounds = graph.addOrUniqueWithInputs(IntegerBelowNode.create(newArray.length(), ConstantNode.forInt(maxLength + 1), NodeView.DEFAULT));
+        DeoptimizeNode deopt = graph.add(new DeoptimizeNode(DeoptimizationAction.InvalidateRecompile, DeoptimizationReason.RuntimeConstraint, speculationLog.speculate(reason)));
+        deopt.setStateBefore(stateBefore);
+        AbstractBeginNode deoptBegin = graph.add(new BeginNode());
+        deoptBegin.setNext(deopt);
+        AbstractBeginNode allocationBegin = graph.add(new BeginNode());
+        IfNode check = graph.add(new IfNode(inBounds, allocationBegin, deoptBegin, BranchProbabilityNode.VERY_FAST_PATH_PROBABILITY));
+        newArray.replaceAtPredecessor(check);
+        allocationBegin.setNext(newArray);
+        return true;
+    }
+
+    private void stackAllocate(NewArrayNode newArray, JavaKind elementKind, int baseOffset, int length, MidTierContext context) {
+        StructuredGraph graph = newArray.graph();
+        JavaKind wordKind = context.getTarget().wordJavaKind;
+        int wordSize = context.getTarget().wordSize;
+        int size = (int) NumUtil.roundUp(baseOffset + (long) length * elementKind.getByteCount(), wordSize);
+
+        AllocaNode block = graph.add(new AllocaNode(wordKind, size / wordSize));
+        graph.addBeforeFixed(newArray, block);
+        if (newArray.fillContents()) {
+            int offset = baseOffset;
+            if (offset % Long.BYTES != 0) {
+                initialize(newArray, block, offset, ConstantNode.forInt(0, graph));
+                offset += Integer.BYTES;
+            }
+            for (; offset < size; offset += Long.BYTES) {
+                initialize(newArray, block, offset, ConstantNode.forLong(0, graph));
+            }
+        }
+        initialize(newArray, block, config.arrayOopDescLengthOffset(), newArray.length());
+
+        // The pointer must not be used before the block is initialized.
+        FixedValueAnchorNode array = graph.add(new FixedValueAnchorNode(block));
+        graph.addBeforeFixed(newArray, array);
+        newArray.replaceAtUsages(array);
+        graph.removeFixed(newArray);
+        graph.getDebug().log("StackAllocation: allocated %s with %d bytes in the frame", newArray, size);
+        STACK_ALLOCATED.increment(graph.getDebug());
+    }
+
+    private static void initialize(NewArrayNode newArray, ValueNode block, int offset, ValueNode value) {
+        StructuredGraph graph = newArray.graph();
+        OffsetAddressNode address = graph.unique(new OffsetAddressNode(block, ConstantNode.forLong(offset, graph)));
+        WriteNode write = graph.add(new WriteNode(address, LocationIdentity.init(), value, BarrierType.NONE));
+        graph.addBeforeFixed(newArray, write);
+    }
+}
@@ -86,6 +86,7 @@ import org.graalvm.compiler.debug.GraalError;
 import org.graalvm.compiler.graph.Node.ConstantNodeParameter;
 import org.graalvm.compiler.graph.Node.NodeIntrinsic;
 import org.graalvm.compiler.hotspot.GraalHotSpotVMConfig;
+import org.graalvm.compiler.hotspot.HotSpotCompilationCache;
 import org.graalvm.compiler.hotspot.meta.HotSpotForeignCallDescriptor;
 import org.graalvm.compiler.hotspot.meta.HotSpotProviders;
 import org.graalvm.compiler.hotspot.meta.HotSpotRegistersProvider;
@@ -808,6 +809,7 @@ public class HotSpotAllocationSnippets extends AllocationSnippets {
         private static long instanceSize(HotSpotResolvedObjectType type) {
             long size = type.instanceSize();
             assert size >= 0;
+            HotSpotCompilationCache.recordLayout(type);
             return size;
         }
     }
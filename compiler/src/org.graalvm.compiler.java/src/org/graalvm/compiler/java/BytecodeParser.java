@@ -282,6 +282,7 @@ import org.graalvm.compiler.bytecode.BytecodeSwitch;
 import org.graalvm.compiler.bytecode.BytecodeTableSwitch;
 import org.graalvm.compiler.bytecode.Bytecodes;
 import org.graalvm.compiler.bytecode.Bytes;
+import org.graalvm.compiler.bytecode.ResolvedJavaMethodBytecode;
 import org.graalvm.compiler.bytecode.ResolvedJavaMethodBytecodeProvider;
 import org.graalvm.compiler.core.common.GraalOptions;
 import org.graalvm.compiler.core.common.PermanentBailoutException;
@@ -920,7 +921,7 @@ public class BytecodeParser implements GraphBuilderContext {
         this.providers = graphBuilderInstance.providers;
         assert code.getCode() != null : method;
         this.stream = new BytecodeStream(code.getCode());
-        this.profilingInfo = graph.useProfilingInfo() ? code.getProfilingInfo() : null;
+        this.profilingInfo = graph.useProfilingInfo() ? getProfilingInfo(graph, code) : null;
         this.constantPool = code.getConstantPool();
         this.intrinsicContext = intrinsicContext;
         this.entryBCI = entryBCI;
@@ -966,6 +967,18 @@ public class BytecodeParser implements GraphBuilderContext {
         return level;
     }
 
+    /**
+     * Gets the profile for {@code code} from the {@linkplain StructuredGraph#getProfileProvider()
+     * profile provider} of {@code graph}. Bytecode that does not come directly from a method (e.g.
+     * a substitution parsed from a class file) supplies its own profile.
+     */
+    private static ProfilingInfo getProfilingInfo(StructuredGraph graph, Bytecode code) {
+        if (code instanceof ResolvedJavaMethodBytecode) {
+            return graph.getProfileProvider().getProfilingInfo(code.getMethod());
+        }
+        return code.getProfilingInfo();
+    }
+
     protected GraphBuilderPhase.Instance getGraphBuilderInstance() {
         return graphBuilderInstance;
     }
@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.lir.aarch64;
+
+import static jdk.vm.ci.code.ValueUtil.asRegister;
+import static org.graalvm.compiler.lir.LIRInstruction.OperandFlag.REG;
+
+import org.graalvm.compiler.asm.Label;
+import org.graalvm.compiler.asm.aarch64.AArch64Address;
+import org.graalvm.compiler.asm.aarch64.AArch64Assembler.ConditionFlag;
+import org.graalvm.compiler.asm.aarch64.AArch64Assembler.SIMDElementSize;
+import org.graalvm.compiler.asm.aarch64.AArch64Assembler.ShiftType;
+import org.graalvm.compiler.asm.aarch64.AArch64MacroAssembler;
+import org.graalvm.compiler.core.common.LIRKind;
+import org.graalvm.compiler.core.common.NumUtil;
+import org.graalvm.compiler.lir.LIRInstructionClass;
+import org.graalvm.compiler.lir.Opcode;
+import org.graalvm.compiler.lir.asm.CompilationResultBuilder;
+import org.graalvm.compiler.lir.gen.LIRGeneratorTool;
+
+import jdk.vm.ci.aarch64.AArch64Kind;
+import jdk.vm.ci.code.Register;
+import jdk.vm.ci.meta.JavaKind;
+import jdk.vm.ci.meta.Value;
+
+/**
+ * Emits code that finds the index of the first occurrence of any of up to four search values in
+ * an array, starting at a given index. The array is processed in 16 byte chunks with NEON compares
+ * against broadcast copies of the search values; the remaining elements are checked one at a time.
+ */
+@Opcode("ARRAY_INDEX_OF")
+public final class AArch64ArrayIndexOfOp extends AArch64LIRInstruction {
+    public static final LIRInstructionClass<AArch64ArrayIndexOfOp> TYPE = LIRInstructionClass.create(AArch64ArrayIndexOfOp.class);
+
+    private static final int VECTOR_SIZE = 16;
+
+    private final JavaKind valueKind;
+    private final int arrayBaseOffset;
+
+    @Def({REG}) protected Value resultValue;
+    @Alive({REG}) protected Value arrayValue;
+    @Alive({REG}) protected Value lengthValue;
+    @Alive({REG}) protected Value fromIndexValue;
+    @Alive({REG}) protected Value[] searchValues;
+    @Temp({REG}) protected Value pointerTemp;
+    @Temp({REG}) protected Value indexTemp;
+    @Temp({REG}) protected Value remainingTemp;
+    @Temp({REG}) protected Value scalarTemp;
+    @Temp({REG}) protected Value[] needleTemps;
+    @Temp({REG}) protected Value[] vectorTemps;
+
+    public AArch64ArrayIndexOfOp(LIRGeneratorTool tool, JavaKind arrayKind, JavaKind valueKind, Value result, Value array, Value length, Value fromIndex, Value... searchValues) {
+        super(TYPE);
+        assert valueKind == JavaKind.Byte || valueKind == JavaKind.Char : valueKind;
+        assert searchValues.length >= 1 && searchValues.length <= 4 : searchValues.length;
+        this.valueKind = valueKind;
+        this.arrayBaseOffset = tool.getProviders().getMetaAccess().getArrayBaseOffset(arrayKind);
+
+        this.resultValue = result;
+        this.arrayValue = array;
+        this.lengthValue = length;
+        this.fromIndexValue = fromIndex;
+        this.searchValues = searchValues;
+
+        this.pointerTemp = tool.newVariable(LIRKind.unknownReference(tool.target().arch.getWordKind()));
+        this.indexTemp = tool.newVariable(LIRKind.value(tool.target().arch.getWordKind()));
+        this.remainingTemp = tool.newVariable(LIRKind.value(tool.target().arch.getWordKind()));
+        this.scalarTemp = tool.newVariable(LIRKind.value(tool.target().arch.getWordKind()));
+        this.needleTemps = new Value[searchValues.length];
+        for (int i = 0; i < searchValues.length; i++) {
+            needleTemps[i] = tool.newVariable(LIRKind.value(AArch64Kind.V128_BYTE));
+        }
+        // data, accumulated compare result and one more for combining several compares
+        this.vectorTemps = new Value[searchValues.length > 1 ? 3 : 2];
+        for (int i = 0; i < vectorTemps.length; i++) {
+            vectorTemps[i] = tool.newVariable(LIRKind.value(AArch64Kind.V128_BYTE));
+        }
+    }
+
+    @Override
+    public void emitCode(CompilationResultBuilder crb, AArch64MacroAssembler masm) {
+        Register result = asRegister(resultValue);
+        Register pointer = asRegister(pointerTemp);
+        Register index = asRegister(indexTemp);
+        Register remaining = asRegister(remainingTemp);
+        Register scalar = asRegister(scalarTemp);
+        Register data = asRegister(vectorTemps[0]);
+        Register acc = asRegister(vectorTemps[1]);
+
+        int elementBytes = valueKind.getByteCount();
+        int elementShift = NumUtil.log2Ceil(elementBytes);
+        int vectorElements = VECTOR_SIZE / elementBytes;
+        SIMDElementSize laneWidth = elementBytes == 1 ? SIMDElementSize.Byte : SIMDElementSize.HalfWord;
+
+        Label vectorLoop = new Label();
+        Label tail = new Label();
+        Label tailLoop = new Label();
+        Label foundInHighHalf = new Label();
+        Label foundInVector = new Label();
+        Label found = new Label();
+        Label notFound = new Label();
+        Label done = new Label();
+
+        // index = fromIndex, remaining = length - fromIndex
+        masm.sxt(64, 32, index, asRegister(fromIndexValue));
+        masm.sxt(64, 32, remaining, asRegister(lengthValue));
+        masm.subs(64, remaining, remaining, index);
+        masm.branchConditionally(ConditionFlag.LE, notFound);
+
+        // pointer = array + arrayBaseOffset + index * elementBytes
+        masm.add(64, pointer, asRegister(arrayValue), arrayBaseOffset);
+        masm.add(64, pointer, pointer, index, ShiftType.LSL, elementShift);
+
+        for (int i = 0; i < searchValues.length; i++) {
+            masm.dup(128, laneWidth, asRegister(needleTemps[i]), asRegister(searchValues[i]));
+        }
+
+        masm.cmp(64, remaining, vectorElements);
+        masm.branchConditionally(ConditionFlag.LT, tail);
+
+        masm.align(crb.target.wordSize * 2);
+        masm.bind(vectorLoop);
+        masm.ld1(128, laneWidth, data, pointer, true);
+        masm.cmeq(128, laneWidth, acc, data, asRegister(needleTemps[0]));
+        for (int i = 1; i < searchValues.length; i++) {
+            Register tmp = asRegister(vectorTemps[2]);
+            masm.cmeq(128, laneWidth, tmp, data, asRegister(needleTemps[i]));
+            masm.orrVector(128, acc, acc, tmp);
+        }
+        masm.umov(64, scalar, 0, acc);
+        masm.cbnz(64, scalar, foundInVector);
+        masm.umov(64, scalar, 1, acc);
+        masm.cbnz(64, scalar, foundInHighHalf);
+        masm.add(64, index, index, vectorElements);
+        masm.sub(64, remaining, remaining, vectorElements);
+        masm.cmp(64, remaining, vectorElements);
+        masm.branchConditionally(ConditionFlag.GE, vectorLoop);
+
+        masm.bind(tail);
+        masm.cbz(64, remaining, notFound);
+        masm.bind(tailLoop);
+        if (elementBytes == 1) {
+            // byte search values are sign extended
+            masm.ldrs(32, 8, scalar, AArch64Address.createImmediateAddress(8, AArch64Address.AddressingMode.IMMEDIATE_POST_INDEXED, pointer, 1));
+        } else {
+            masm.ldr(16, scalar, AArch64Address.createImmediateAddress(16, AArch64Address.AddressingMode.IMMEDIATE_POST_INDEXED, pointer, 2));
+        }
+        for (Value searchValue : searchValues) {
+            masm.cmp(32, scalar, asRegister(searchValue));
+            masm.branchConditionally(ConditionFlag.EQ, found);
+        }
+        masm.add(64, index, index, 1);
+        masm.subs(64, remaining, remaining, 1);
+        masm.branchConditionally(ConditionFlag.NE, tailLoop);
+
+        masm.bind(notFound);
+        masm.mov(result, -1);
+        masm.jmp(done);
+
+        masm.bind(foundInHighHalf);
+        masm.add(64, index, index, vectorElements / 2);
+        masm.bind(foundInVector);
+        // The lowest set bit of the compare mask identifies the first matching element.
+        masm.rbit(64, scalar, scalar);
+        masm.clz(64, scalar, scalar);
+        masm.lshr(64, scalar, scalar, NumUtil.log2Ceil(Byte.SIZE) + elementShift);
+        masm.add(64, index, index, scalar);
+        masm.bind(found);
+        masm.mov(32, result, index);
+        masm.bind(done);
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.lir.aarch64;
+
+import static jdk.vm.ci.aarch64.AArch64.zr;
+import static jdk.vm.ci.code.ValueUtil.asRegister;
+import static org.graalvm.compiler.lir.LIRInstruction.OperandFlag.REG;
+
+import org.graalvm.compiler.asm.Label;
+import org.graalvm.compiler.asm.aarch64.AArch64Address;
+import org.graalvm.compiler.asm.aarch64.AArch64Assembler.ConditionFlag;
+import org.graalvm.compiler.asm.aarch64.AArch64Assembler.SIMDElementSize;
+import org.graalvm.compiler.asm.aarch64.AArch64MacroAssembler;
+import org.graalvm.compiler.core.common.LIRKind;
+import org.graalvm.compiler.lir.LIRInstructionClass;
+import org.graalvm.compiler.lir.Opcode;
+import org.graalvm.compiler.lir.asm.CompilationResultBuilder;
+import org.graalvm.compiler.lir.gen.LIRGeneratorTool;
+
+import jdk.vm.ci.aarch64.AArch64Kind;
+import jdk.vm.ci.code.Register;
+import jdk.vm.ci.meta.Value;
+
+/**
+ * Emits code which compresses {@code len} UTF-16 chars at {@code src} to Latin-1 bytes at
+ * {@code dst}. The result is {@code len} on success and 0 if a char that does not fit into a byte
+ * was encountered. Eight chars at a time are checked with {@code UMAXV} and narrowed with
+ * {@code XTN}; the remainder is copied one element at a time.
+ */
+@Opcode("STRING_UTF16_COMPRESS")
+public final class AArch64StringUTF16CompressOp extends AArch64LIRInstruction {
+    public static final LIRInstructionClass<AArch64StringUTF16CompressOp> TYPE = LIRInstructionClass.create(AArch64StringUTF16CompressOp.class);
+
+    private static final int CHUNK_ELEMENTS = 8;
+
+    @Def({REG}) protected Value resultValue;
+    @Alive({REG}) protected Value srcValue;
+    @Alive({REG}) protected Value dstValue;
+    @Alive({REG}) protected Value lenValue;
+    @Temp({REG}) protected Value srcTemp;
+    @Temp({REG}) protected Value dstTemp;
+    @Temp({REG}) protected Value remainingTemp;
+    @Temp({REG}) protected Value scalarTemp;
+    @Temp({REG}) protected Value vectorTemp;
+    @Temp({REG}) protected Value maxTemp;
+
+    public AArch64StringUTF16CompressOp(LIRGeneratorTool tool, Value result, Value src, Value dst, Value len) {
+        super(TYPE);
+        this.resultValue = result;
+        this.srcValue = src;
+        this.dstValue = dst;
+        this.lenValue = len;
+
+        this.srcTemp = tool.newVariable(LIRKind.unknownReference(tool.target().arch.getWordKind()));
+        this.dstTemp = tool.newVariable(LIRKind.unknownReference(tool.target().arch.getWordKind()));
+        this.remainingTemp = tool.newVariable(LIRKind.value(tool.target().arch.getWordKind()));
+        this.scalarTemp = tool.newVariable(LIRKind.value(tool.target().arch.getWordKind()));
+        this.vectorTemp = tool.newVariable(LIRKind.value(AArch64Kind.V128_BYTE));
+        this.maxTemp = tool.newVariable(LIRKind.value(AArch64Kind.V128_BYTE));
+    }
+
+    @Override
+    public void emitCode(CompilationResultBuilder crb, AArch64MacroAssembler masm) {
+        Register result = asRegister(resultValue);
+        Register src = asRegister(srcTemp);
+        Register dst = asRegister(dstTemp);
+        Register remaining = asRegister(remainingTemp);
+        Register scalar = asRegister(scalarTemp);
+        Register vector = asRegister(vectorTemp);
+        Register max = asRegister(maxTemp);
+
+        Label vectorLoop = new Label();
+        Label tail = new Label();
+        Label tailLoop = new Label();
+        Label success = new Label();
+        Label fail = new Label();
+        Label done = new Label();
+
+        masm.mov(64, src, asRegister(srcValue));
+        masm.mov(64, dst, asRegister(dstValue));
+        masm.sxt(64, 32, remaining, asRegister(lenValue));
+
+        masm.cmp(64, remaining, CHUNK_ELEMENTS);
+        masm.branchConditionally(ConditionFlag.LT, tail);
+
+        masm.align(crb.target.wordSize * 2);
+        masm.bind(vectorLoop);
+        masm.ld1(128, SIMDElementSize.HalfWord, vector, src, true);
+        masm.umaxv(128, SIMDElementSize.HalfWord, max, vector);
+        masm.umov(16, scalar, 0, max);
+        masm.cmp(32, scalar, 0xFF);
+        masm.branchConditionally(ConditionFlag.HI, fail);
+        masm.xtn(SIMDElementSize.Byte, vector, vector);
+        masm.st1(64, SIMDElementSize.Byte, vector, dst, true);
+        masm.sub(64, remaining, remaining, CHUNK_ELEMENTS);
+        masm.cmp(64, remaining, CHUNK_ELEMENTS);
+        masm.branchConditionally(ConditionFlag.GE, vectorLoop);
+
+        masm.bind(tail);
+        masm.cbz(64, remaining, success);
+        masm.bind(tailLoop);
+        masm.ldr(16, scalar, AArch64Address.createImmediateAddress(16, AArch64Address.AddressingMode.IMMEDIATE_POST_INDEXED, src, 2));
+        masm.cmp(32, scalar, 0xFF);
+        masm.branchConditionally(ConditionFlag.HI, fail);
+        masm.str(8, scalar, AArch64Address.createImmediateAddress(8, AArch64Address.AddressingMode.IMMEDIATE_POST_INDEXED, dst, 1));
+        masm.subs(64, remaining, remaining, 1);
+        masm.branchConditionally(ConditionFlag.NE, tailLoop);
+
+        masm.bind(success);
+        masm.mov(32, result, asRegister(lenValue));
+        masm.jmp(done);
+
+        masm.bind(fail);
+        masm.mov(32, result, zr);
+        masm.bind(done);
+    }
+}
@@ -65,6 +65,12 @@ public final class LIR extends LIRGenerator.VariableProvider {
 
     private boolean hasArgInCallerFrame;
 
+    /**
+     * Index in {@link #codeEmittingOrder} of the first block of the cold region. Equal to the
+     * length of the order if the code is not split into a hot and a cold region.
+     */
+    private int firstColdBlockIndex;
+
     private final OptionValues options;
 
     private final DebugContext debug;
@@ -80,6 +86,7 @@ public final class LIR extends LIRGenerator.VariableProvider {
         this.cfg = cfg;
         this.codeEmittingOrder = codeEmittingOrder;
         this.linearScanOrder = linearScanOrder;
+        this.firstColdBlockIndex = codeEmittingOrder.length;
         this.lirInstructions = new BlockMap<>(cfg);
         this.options = options;
         this.debug = debug;
@@ -133,6 +140,19 @@ public final class LIR extends LIRGenerator.VariableProvider {
         return codeEmittingOrder;
     }
 
+    /**
+     * Gets the index in the {@linkplain #codeEmittingOrder() code emitting order} at which the
+     * out-of-line region of rarely executed blocks starts.
+     */
+    public int getFirstColdBlockIndex() {
+        return firstColdBlockIndex;
+    }
+
+    public void setFirstColdBlockIndex(int firstColdBlockIndex) {
+        assert firstColdBlockIndex >= 0 && firstColdBlockIndex <= codeEmittingOrder.length : firstColdBlockIndex;
+        this.firstColdBlockIndex = firstColdBlockIndex;
+    }
+
     public void setHasArgInCallerFrame() {
         hasArgInCallerFrame = true;
     }
@@ -0,0 +1,621 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.lir.alloc.trace;
+
+import static jdk.vm.ci.code.ValueUtil.asRegister;
+import static jdk.vm.ci.code.ValueUtil.isRegister;
+import static org.graalvm.compiler.lir.LIRInstruction.OperandFlag.REG;
+import static org.graalvm.compiler.lir.LIRInstruction.OperandFlag.STACK;
+import static org.graalvm.compiler.lir.LIRValueUtil.asVariable;
+import static org.graalvm.compiler.lir.LIRValueUtil.isStackSlotValue;
+import static org.graalvm.compiler.lir.LIRValueUtil.isVariable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+
+import org.graalvm.compiler.core.common.alloc.RegisterAllocationConfig;
+import org.graalvm.compiler.core.common.alloc.Trace;
+import org.graalvm.compiler.core.common.cfg.AbstractBlockBase;
+import org.graalvm.compiler.debug.CounterKey;
+import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.lir.InstructionValueConsumer;
+import org.graalvm.compiler.lir.LIR;
+import org.graalvm.compiler.lir.LIRInstruction;
+import org.graalvm.compiler.lir.LIRInstruction.OperandFlag;
+import org.graalvm.compiler.lir.StandardOp.JumpOp;
+import org.graalvm.compiler.lir.StandardOp.LabelOp;
+import org.graalvm.compiler.lir.StandardOp.LoadConstantOp;
+import org.graalvm.compiler.lir.StandardOp.ValueMoveOp;
+import org.graalvm.compiler.lir.ValueProcedure;
+import org.graalvm.compiler.lir.Variable;
+import org.graalvm.compiler.lir.alloc.OutOfRegistersException;
+import org.graalvm.compiler.lir.framemap.FrameMapBuilder;
+import org.graalvm.compiler.lir.gen.LIRGenerationResult;
+import org.graalvm.compiler.lir.gen.LIRGeneratorTool.MoveFactory;
+
+import jdk.vm.ci.code.Register;
+import jdk.vm.ci.code.TargetDescription;
+import jdk.vm.ci.meta.AllocatableValue;
+import jdk.vm.ci.meta.Value;
+
+/**
+ * Allocates the registers of a single {@link Trace} in one backward pass over its instructions.
+ *
+ * While walking up, the allocator maintains the current location of every live variable. A
+ * variable gets a location at its last use (the first one seen) and gives it up at its definition.
+ * If the instruction needs a variable in a location other than the one it has below the
+ * instruction, the variable changes its location above the instruction and a move from the new to
+ * the old location is inserted after the instruction. Registers are taken from the variable whose
+ * next use is farthest away when no register is free.
+ *
+ * The locations of the variables that are live at the block boundaries are recorded in the
+ * {@link GlobalLivenessInfo} and connected by the {@link TraceGlobalMoveResolver}. Moves that would
+ * have to be inserted after the last instruction of a block are left to the resolver as well.
+ */
+final class BottomUpAllocator {
+
+    private static final CounterKey SpillMoves = DebugContext.counter("TraceRA[SpillMoves]");
+    private static final CounterKey ReloadMoves = DebugContext.counter("TraceRA[ReloadMoves]");
+    private static final CounterKey EliminatedMoves = DebugContext.counter("TraceRA[EliminatedMoves]");
+    private static final EnumSet<OperandFlag> REGISTER_ONLY = EnumSet.of(REG);
+
+    private final LIR lir;
+    private final FrameMapBuilder frameMapBuilder;
+    private final MoveFactory moveFactory;
+    private final RegisterAllocationConfig registerAllocationConfig;
+    private final GlobalLivenessInfo liveness;
+    private final DebugContext debug;
+
+    /**
+     * Location of each variable at the current position, indexed by {@link Variable#index}.
+     */
+    private final AllocatableValue[] locations;
+    private final AllocatableValue[] spillSlots;
+    /**
+     * Position of the closest use below the current position, indexed by {@link Variable#index}.
+     */
+    private final int[] nextUse;
+    /**
+     * Variable held by each register at the current position, indexed by {@link Register#number}.
+     */
+    private final Variable[] registerContents;
+    /**
+     * Fixed registers that are defined above and used below the current position.
+     */
+    private final boolean[] reserved;
+    /**
+     * Registers that are used by an operand of the current instruction.
+     */
+    private final boolean[] blocked;
+    private final boolean[] callerSaved;
+    private final boolean[] allocatable;
+    private final ArrayList<Register> blockedRegisters = new ArrayList<>();
+
+    private final ArrayList<LIRInstruction> movesBefore = new ArrayList<>();
+    private final ArrayList<LIRInstruction> storesAfter = new ArrayList<>();
+    private final ArrayList<LIRInstruction> reloadsAfter = new ArrayList<>();
+
+    private LIRInstruction currentInstruction;
+    /**
+     * Set while allocating the instructions between an instruction with an exception edge and the
+     * end of the block. Keeping the values out of caller saved registers there avoids reload moves
+     * after the call, which would not be executed on the exception path.
+     */
+    private boolean avoidCallerSaved;
+    /**
+     * Set if the output or the input of the current instruction must be in a register although
+     * its operand flags allow a stack slot. Not every constant can be stored to memory directly and
+     * a move cannot copy a stack slot into another one.
+     */
+    private boolean outputNeedsRegister;
+    private boolean inputNeedsRegister;
+    private int position;
+
+    private final ValueProcedure outputProc = (value, mode, flags) -> allocateOutput(value, restrict(flags, outputNeedsRegister));
+    private final ValueProcedure tempProc = (value, mode, flags) -> allocateTemp(value, flags);
+    private final ValueProcedure aliveProc = (value, mode, flags) -> allocateUse(value, flags, true);
+    private final ValueProcedure inputProc = (value, mode, flags) -> allocateUse(value, restrict(flags, inputNeedsRegister), false);
+    private final InstructionValueConsumer blockFixedRegister = (op, value, mode, flags) -> {
+        if (isRegister(value)) {
+            block(asRegister(value));
+        }
+    };
+
+    BottomUpAllocator(TargetDescription target, LIRGenerationResult lirGenRes, MoveFactory moveFactory, RegisterAllocationConfig registerAllocationConfig, GlobalLivenessInfo liveness) {
+        this.lir = lirGenRes.getLIR();
+        this.frameMapBuilder = lirGenRes.getFrameMapBuilder();
+        this.moveFactory = moveFactory;
+        this.registerAllocationConfig = registerAllocationConfig;
+        this.liveness = liveness;
+        this.debug = lir.getDebug();
+
+        int numRegisters = target.arch.getRegisters().size();
+        this.registerContents = new Variable[numRegisters];
+        this.reserved = new boolean[numRegisters];
+        this.blocked = new boolean[numRegisters];
+        this.callerSaved = new boolean[numRegisters];
+        for (Register reg : registerAllocationConfig.getRegisterConfig().getCallerSaveRegisters()) {
+            callerSaved[reg.number] = true;
+        }
+        this.allocatable = new boolean[numRegisters];
+        for (Register reg : registerAllocationConfig.getAllocatableRegisters()) {
+            allocatable[reg.number] = true;
+        }
+        int numVariables = lir.numVariables();
+        this.locations = new AllocatableValue[numVariables];
+        this.spillSlots = new AllocatableValue[numVariables];
+        this.nextUse = new int[numVariables];
+    }
+
+    void allocate(Trace trace) {
+        AbstractBlockBase<?>[] blocks = trace.getBlocks();
+        for (int i = blocks.length - 1; i >= 0; i--) {
+            allocateBlock(blocks[i], i + 1 < blocks.length ? blocks[i + 1] : null);
+        }
+        for (int variable : liveness.getLiveIn(blocks[0])) {
+            removeLocation(liveness.getVariable(variable));
+        }
+        assert verifyEmptyState();
+    }
+
+    private boolean verifyEmptyState() {
+        for (int i = 0; i < registerContents.length; i++) {
+            assert registerContents[i] == null : "register " + i + " still holds " + registerContents[i];
+            assert !reserved[i] : "register " + i + " still reserved";
+        }
+        return true;
+    }
+
+    private void allocateBlock(AbstractBlockBase<?> block, AbstractBlockBase<?> traceSuccessor) {
+        ArrayList<LIRInstruction> instructions = lir.getLIRforBlock(block);
+        int last = instructions.size() - 1;
+        int exceptionIndex = exceptionEdgeIndex(instructions);
+        avoidCallerSaved = exceptionIndex >= 0;
+
+        position--;
+        int[] liveOut = liveness.getLiveOut(block);
+        for (int index : liveOut) {
+            if (locations[index] == null) {
+                Variable variable = liveness.getVariable(index);
+                setLocation(variable, locationAtBlockEnd(block, traceSuccessor, variable));
+                nextUse[index] = position;
+            }
+        }
+
+        ArrayList<LIRInstruction> reversed = new ArrayList<>(instructions.size() + 8);
+        for (int i = last; i >= 0; i--) {
+            LIRInstruction op = instructions.get(i);
+            if (i <= exceptionIndex) {
+                avoidCallerSaved = false;
+            }
+            position--;
+            if (i == last && traceSuccessor != null && op instanceof JumpOp) {
+                assignPhiHints((JumpOp) op, traceSuccessor);
+            }
+            boolean keep = allocateInstruction(op);
+            if (i == last) {
+                // The changes of locations at the block end are resolved on the outgoing edges.
+                liveness.setOutLocations(block, currentLocations(liveOut));
+            } else {
+                for (int k = reloadsAfter.size() - 1; k >= 0; k--) {
+                    reversed.add(reloadsAfter.get(k));
+                }
+                for (int k = storesAfter.size() - 1; k >= 0; k--) {
+                    reversed.add(storesAfter.get(k));
+                }
+            }
+            if (keep) {
+                reversed.add(op);
+            } else {
+                EliminatedMoves.increment(debug);
+            }
+            for (int k = movesBefore.size() - 1; k >= 0; k--) {
+                reversed.add(movesBefore.get(k));
+            }
+            if (i == exceptionIndex) {
+                AbstractBlockBase<?> handler = LIR.getExceptionEdge(op).getTargetBlock();
+                liveness.setExceptionOutLocations(block, currentLocations(liveness.getLiveIn(handler)));
+            }
+            finishInstruction();
+        }
+        Collections.reverse(reversed);
+        instructions.clear();
+        instructions.addAll(reversed);
+        liveness.setInLocations(block, currentLocations(liveness.getLiveIn(block)));
+    }
+
+    private static int exceptionEdgeIndex(ArrayList<LIRInstruction> instructions) {
+        int last = instructions.size() - 1;
+        for (int i = last - 1; i >= 0 && i >= last - LIR.MAX_EXCEPTION_EDGE_OP_DISTANCE_FROM_END; i--) {
+            if (LIR.getExceptionEdge(instructions.get(i)) != null) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private Value[] currentLocations(int[] liveSet) {
+        Value[] result = new Value[liveSet.length];
+        for (int i = 0; i < liveSet.length; i++) {
+            result[i] = locations[liveSet[i]];
+            assert result[i] != null : "no location for live variable " + liveness.getVariable(liveSet[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Chooses the location of a variable that is live at the end of {@code block} but not used
+     * further down in the trace. The location it has at the entry of an already allocated
+     * successor is preferred because no resolution move is needed on that edge.
+     */
+    private AllocatableValue locationAtBlockEnd(AbstractBlockBase<?> block, AbstractBlockBase<?> traceSuccessor, Variable variable) {
+        for (AbstractBlockBase<?> sux : block.getSuccessors()) {
+            if (sux != traceSuccessor && liveness.isAllocated(sux)) {
+                Value hint = GlobalLivenessInfo.locationOf(liveness.getLiveIn(sux), liveness.getInLocations(sux), variable.index);
+                if (hint != null && isRegister(hint)) {
+                    Register reg = asRegister(hint);
+                    if (isFree(reg) && !(avoidCallerSaved && callerSaved[reg.number]) && isAllocatable(variable, reg)) {
+                        return reg.asValue(variable.getValueKind());
+                    }
+                } else if (hint != null && isStackSlotValue(hint)) {
+                    return spillSlot(variable);
+                }
+            }
+        }
+        Register reg = findFreeRegister(variable, avoidCallerSaved);
+        return reg != null ? reg.asValue(variable.getValueKind()) : spillSlot(variable);
+    }
+
+    /**
+     * Moves the outgoing values of a jump into the registers of the corresponding phis of the
+     * trace successor if they are free.
+     */
+    private void assignPhiHints(JumpOp jump, AbstractBlockBase<?> successor) {
+        if (jump.getPhiSize() == 0) {
+            return;
+        }
+        LabelOp label = (LabelOp) lir.getLIRforBlock(successor).get(0);
+        for (int i = 0; i < jump.getPhiSize(); i++) {
+            Value outgoing = jump.getOutgoingValue(i);
+            Value incoming = label.getIncomingValue(i);
+            if (isVariable(outgoing) && locations[asVariable(outgoing).index] == null && isRegister(incoming)) {
+                Variable variable = asVariable(outgoing);
+                Register reg = asRegister(incoming);
+                if (isFree(reg) && isAllocatable(variable, reg)) {
+                    setLocation(variable, reg.asValue(variable.getValueKind()));
+                    nextUse[variable.index] = position;
+                }
+            }
+        }
+    }
+
+    /**
+     * Allocates the operands of {@code op} and returns {@code false} if the instruction became a
+     * redundant move.
+     */
+    private boolean allocateInstruction(LIRInstruction op) {
+        currentInstruction = op;
+        // Fixed registers used by the instruction are not available for variables.
+        op.visitEachOutput(blockFixedRegister);
+        op.visitEachTemp(blockFixedRegister);
+        op.visitEachAlive(blockFixedRegister);
+        op.visitEachInput(blockFixedRegister);
+        for (int i = 0; i < blockedRegisters.size(); i++) {
+            Register reg = blockedRegisters.get(i);
+            if (registerContents[reg.number] != null) {
+                evict(reg);
+            }
+        }
+        if (op.destroysCallerSavedRegisters()) {
+            for (Register reg : registerAllocationConfig.getRegisterConfig().getCallerSaveRegisters()) {
+                if (registerContents[reg.number] != null) {
+                    evict(reg);
+                }
+            }
+        }
+
+        boolean isMove = ValueMoveOp.isValueMoveOp(op);
+        outputNeedsRegister = LoadConstantOp.isLoadConstantOp(op) || isMove && isStackSlotValue(ValueMoveOp.asValueMoveOp(op).getInput());
+        op.forEachOutput(outputProc);
+        op.forEachTemp(tempProc);
+        if (isMove) {
+            coalesceMove(ValueMoveOp.asValueMoveOp(op));
+        }
+        op.forEachAlive(aliveProc);
+        op.forEachState(aliveProc);
+        // the result of the move is allocated at this point
+        inputNeedsRegister = isMove && isStackSlotValue(ValueMoveOp.asValueMoveOp(op).getResult());
+        op.forEachInput(inputProc);
+
+        if (isMove) {
+            // a move that changes the kind of the value, e.g., into a reference, is kept
+            ValueMoveOp move = ValueMoveOp.asValueMoveOp(op);
+            return !move.getResult().equals(move.getInput());
+        }
+        return true;
+    }
+
+    /**
+     * Places the input of a move whose last use is the move into the register of the result.
+     */
+    private void coalesceMove(ValueMoveOp move) {
+        Value input = move.getInput();
+        Value result = move.getResult();
+        if (isVariable(input) && locations[asVariable(input).index] == null && isRegister(result)) {
+            Variable variable = asVariable(input);
+            Register reg = asRegister(result);
+            if (registerContents[reg.number] == null && !reserved[reg.number] && isAllocatable(variable, reg)) {
+                setLocation(variable, reg.asValue(variable.getValueKind()));
+            }
+        }
+    }
+
+    private static EnumSet<OperandFlag> restrict(EnumSet<OperandFlag> flags, boolean needsRegister) {
+        return needsRegister && flags.contains(REG) ? REGISTER_ONLY : flags;
+    }
+
+    private void finishInstruction() {
+        for (Register reg : blockedRegisters) {
+            blocked[reg.number] = false;
+        }
+        blockedRegisters.clear();
+        movesBefore.clear();
+        storesAfter.clear();
+        reloadsAfter.clear();
+        currentInstruction = null;
+    }
+
+    private Value allocateOutput(Value value, EnumSet<OperandFlag> flags) {
+        if (isRegister(value)) {
+            // the fixed register is defined here and therefore free above
+            reserved[asRegister(value).number] = false;
+            return value;
+        }
+        if (!isVariable(value)) {
+            return value;
+        }
+        Variable variable = asVariable(value);
+        AllocatableValue location = locations[variable.index];
+        if (location == null) {
+            // the value is not used
+            return allocateUnusedValue(variable, flags);
+        }
+        removeLocation(variable);
+        if (isRegister(location) ? flags.contains(REG) : flags.contains(STACK)) {
+            if (isRegister(location)) {
+                block(asRegister(location));
+            }
+            return location;
+        }
+        AllocatableValue newLocation;
+        if (flags.contains(REG)) {
+            newLocation = allocateRegister(variable, false).asValue(variable.getValueKind());
+            block(asRegister(newLocation));
+        } else {
+            newLocation = spillSlot(variable);
+        }
+        moveAfter(location, newLocation);
+        return newLocation;
+    }
+
+    private Value allocateTemp(Value value, EnumSet<OperandFlag> flags) {
+        if (!isVariable(value)) {
+            return value;
+        }
+        return allocateUnusedValue(asVariable(value), flags);
+    }
+
+    private AllocatableValue allocateUnusedValue(Variable variable, EnumSet<OperandFlag> flags) {
+        if (flags.contains(REG)) {
+            Register reg = findRegister(variable, !flags.contains(STACK), false);
+            if (reg != null) {
+                block(reg);
+                return reg.asValue(variable.getValueKind());
+            }
+        }
+        if (flags.contains(STACK)) {
+            return spillSlot(variable);
+        }
+        throw outOfRegisters(variable);
+    }
+
+    /**
+     * Allocates an input, alive or state operand. The value of an alive or state operand has to
+     * survive the instruction.
+     */
+    private Value allocateUse(Value value, EnumSet<OperandFlag> flags, boolean survivesInstruction) {
+        if (isRegister(value)) {
+            // The fixed register is defined above and must not be used for variables until then.
+            // Registers that are never allocated, such as the thread register, are not defined.
+            Register reg = asRegister(value);
+            if (allocatable[reg.number]) {
+                reserved[reg.number] = true;
+            }
+            return value;
+        }
+        if (!isVariable(value)) {
+            return value;
+        }
+        Variable variable = asVariable(value);
+        nextUse[variable.index] = position;
+        AllocatableValue location = locations[variable.index];
+        if (location == null) {
+            // this is the last use of the variable
+            boolean acrossCall = survivesInstruction && currentInstruction.destroysCallerSavedRegisters();
+            if (flags.contains(REG) && !(acrossCall && flags.contains(STACK))) {
+                Register reg = findRegister(variable, !flags.contains(STACK), acrossCall || avoidCallerSaved && flags.contains(STACK));
+                if (reg != null) {
+                    AllocatableValue regValue = reg.asValue(variable.getValueKind());
+                    setLocation(variable, regValue);
+                    block(reg);
+                    return regValue;
+                }
+            }
+            if (flags.contains(STACK)) {
+                AllocatableValue slot = spillSlot(variable);
+                setLocation(variable, slot);
+                return slot;
+            }
+            throw outOfRegisters(variable);
+        }
+        if (isRegister(location)) {
+            if (flags.contains(REG)) {
+                block(asRegister(location));
+                return location;
+            }
+            // the operand must be on the stack
+            AllocatableValue slot = spillSlot(variable);
+            movesBefore.add(moveFactory.createMove(slot, location));
+            SpillMoves.increment(debug);
+            return slot;
+        }
+        if (flags.contains(STACK)) {
+            return location;
+        }
+        // The operand needs a register but the value stays on the stack: reload it for this
+        // instruction only.
+        Register reg = allocateRegister(variable, survivesInstruction && currentInstruction.destroysCallerSavedRegisters());
+        AllocatableValue regValue = reg.asValue(variable.getValueKind());
+        block(reg);
+        movesBefore.add(moveFactory.createMove(regValue, location));
+        ReloadMoves.increment(debug);
+        return regValue;
+    }
+
+    private void moveAfter(AllocatableValue to, AllocatableValue from) {
+        if (isRegister(to)) {
+            reloadsAfter.add(moveFactory.createMove(to, from));
+            ReloadMoves.increment(debug);
+        } else {
+            storesAfter.add(moveFactory.createMove(to, from));
+            SpillMoves.increment(debug);
+        }
+    }
+
+    /**
+     * Moves the variable held by {@code reg} to its spill slot above the current instruction and
+     * reloads it after the instruction.
+     */
+    private void evict(Register reg) {
+        Variable variable = registerContents[reg.number];
+        AllocatableValue slot = spillSlot(variable);
+        registerContents[reg.number] = null;
+        locations[variable.index] = slot;
+        moveAfter(reg.asValue(variable.getValueKind()), slot);
+    }
+
+    private Register allocateRegister(Variable variable, boolean excludeCallerSaved) {
+        Register reg = findRegister(variable, true, excludeCallerSaved);
+        if (reg == null) {
+            throw outOfRegisters(variable);
+        }
+        return reg;
+    }
+
+    /**
+     * Finds a register for {@code variable}, evicting the variable with the farthest next use if
+     * {@code allowEviction} is set and no register is free.
+     */
+    private Register findRegister(Variable variable, boolean allowEviction, boolean excludeCallerSaved) {
+        Register reg = findFreeRegister(variable, excludeCallerSaved);
+        if (reg != null || !allowEviction) {
+            return reg;
+        }
+        Register victim = null;
+        for (Register candidate : registerAllocationConfig.getAllocatableRegisters(variable.getPlatformKind()).allocatableRegisters) {
+            Variable occupant = registerContents[candidate.number];
+            if (occupant != null && !blocked[candidate.number] && !(excludeCallerSaved && callerSaved[candidate.number])) {
+                if (victim == null || nextUse[occupant.index] > nextUse[registerContents[victim.number].index]) {
+                    victim = candidate;
+                }
+            }
+        }
+        if (victim != null) {
+            evict(victim);
+        }
+        return victim;
+    }
+
+    private Register findFreeRegister(Variable variable, boolean excludeCallerSaved) {
+        for (Register reg : registerAllocationConfig.getAllocatableRegisters(variable.getPlatformKind()).allocatableRegisters) {
+            if (isFree(reg) && !(excludeCallerSaved && callerSaved[reg.number])) {
+                return reg;
+            }
+        }
+        return null;
+    }
+
+    private boolean isAllocatable(Variable variable, Register reg) {
+        for (Register candidate : registerAllocationConfig.getAllocatableRegisters(variable.getPlatformKind()).allocatableRegisters) {
+            if (candidate.equals(reg)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isFree(Register reg) {
+        return registerContents[reg.number] == null && !reserved[reg.number] && !blocked[reg.number];
+    }
+
+    private void block(Register reg) {
+        if (!blocked[reg.number]) {
+            blocked[reg.number] = true;
+            blockedRegisters.add(reg);
+        }
+    }
+
+    private void setLocation(Variable variable, AllocatableValue location) {
+        assert locations[variable.index] == null : variable + " already located in " + locations[variable.index];
+        locations[variable.index] = location;
+        if (isRegister(location)) {
+            Register reg = asRegister(location);
+            assert registerContents[reg.number] == null : reg + " already holds " + registerContents[reg.number];
+            registerContents[reg.number] = variable;
+        }
+    }
+
+    private void removeLocation(Variable variable) {
+        AllocatableValue location = locations[variable.index];
+        if (location != null && isRegister(location)) {
+            registerContents[asRegister(location).number] = null;
+        }
+        locations[variable.index] = null;
+    }
+
+    private AllocatableValue spillSlot(Variable variable) {
+        AllocatableValue slot = spillSlots[variable.index];
+        if (slot == null) {
+            slot = frameMapBuilder.allocateSpillSlot(variable.getValueKind());
+            spillSlots[variable.index] = slot;
+        }
+        return slot;
+    }
+
+    private OutOfRegistersException outOfRegisters(Variable variable) {
+        return new OutOfRegistersException("TraceRA: no register available for " + variable, "at instruction " + currentInstruction);
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.lir.alloc.trace;
+
+import static org.graalvm.compiler.lir.LIRValueUtil.asVariable;
+import static org.graalvm.compiler.lir.LIRValueUtil.isVariable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+
+import org.graalvm.compiler.core.common.cfg.AbstractBlockBase;
+import org.graalvm.compiler.lir.InstructionValueConsumer;
+import org.graalvm.compiler.lir.LIR;
+import org.graalvm.compiler.lir.LIRInstruction;
+import org.graalvm.compiler.lir.Variable;
+
+import jdk.vm.ci.meta.Value;
+
+/**
+ * Global liveness of {@link Variable variables} at block boundaries and the locations chosen for
+ * them by the trace allocators.
+ *
+ * The live sets are stored as sorted arrays of variable indices. The location arrays of a block
+ * are parallel to its live-in and live-out arrays, respectively.
+ */
+final class GlobalLivenessInfo {
+
+    private final Variable[] variables;
+    private final int[][] liveIns;
+    private final int[][] liveOuts;
+    private final Value[][] inLocations;
+    private final Value[][] outLocations;
+    /**
+     * Locations of the values that are live into the exception handler of a block, parallel to the
+     * live-in array of the handler. The values are recorded at the instruction with the exception
+     * edge, which is not the last instruction of the block.
+     */
+    private final Value[][] exceptionOutLocations;
+
+    private GlobalLivenessInfo(int numVariables, int numBlocks) {
+        this.variables = new Variable[numVariables];
+        this.liveIns = new int[numBlocks][];
+        this.liveOuts = new int[numBlocks][];
+        this.inLocations = new Value[numBlocks][];
+        this.outLocations = new Value[numBlocks][];
+        this.exceptionOutLocations = new Value[numBlocks][];
+    }
+
+    static GlobalLivenessInfo compute(LIR lir) {
+        AbstractBlockBase<?>[] blocks = lir.getControlFlowGraph().getBlocks();
+        GlobalLivenessInfo info = new GlobalLivenessInfo(lir.numVariables(), blocks.length);
+        BitSet[] gen = new BitSet[blocks.length];
+        BitSet[] kill = new BitSet[blocks.length];
+        for (AbstractBlockBase<?> block : blocks) {
+            BitSet blockGen = new BitSet();
+            BitSet blockKill = new BitSet();
+            InstructionValueConsumer defConsumer = (op, value, mode, flags) -> {
+                if (isVariable(value)) {
+                    int index = info.record(asVariable(value));
+                    blockKill.set(index);
+                    blockGen.clear(index);
+                }
+            };
+            InstructionValueConsumer useConsumer = (op, value, mode, flags) -> {
+                if (isVariable(value)) {
+                    blockGen.set(info.record(asVariable(value)));
+                }
+            };
+            InstructionValueConsumer tempConsumer = (op, value, mode, flags) -> {
+                if (isVariable(value)) {
+                    info.record(asVariable(value));
+                }
+            };
+            ArrayList<LIRInstruction> instructions = lir.getLIRforBlock(block);
+            for (int i = instructions.size() - 1; i >= 0; i--) {
+                LIRInstruction op = instructions.get(i);
+                op.visitEachOutput(defConsumer);
+                op.visitEachTemp(tempConsumer);
+                op.visitEachAlive(useConsumer);
+                op.visitEachState(useConsumer);
+                op.visitEachInput(useConsumer);
+            }
+            gen[block.getId()] = blockGen;
+            kill[block.getId()] = blockKill;
+        }
+
+        BitSet[] liveIn = new BitSet[blocks.length];
+        BitSet[] liveOut = new BitSet[blocks.length];
+        for (AbstractBlockBase<?> block : blocks) {
+            liveIn[block.getId()] = (BitSet) gen[block.getId()].clone();
+            liveOut[block.getId()] = new BitSet();
+        }
+        boolean changed;
+        do {
+            changed = false;
+            // blocks are in reverse post order, iterating backwards converges fast
+            for (int i = blocks.length - 1; i >= 0; i--) {
+                AbstractBlockBase<?> block = blocks[i];
+                BitSet out = liveOut[block.getId()];
+                for (AbstractBlockBase<?> sux : block.getSuccessors()) {
+                    out.or(liveIn[sux.getId()]);
+                }
+                BitSet in = (BitSet) out.clone();
+                in.andNot(kill[block.getId()]);
+                in.or(gen[block.getId()]);
+                if (!in.equals(liveIn[block.getId()])) {
+                    liveIn[block.getId()] = in;
+                    changed = true;
+                }
+            }
+        } while (changed);
+
+        for (AbstractBlockBase<?> block : blocks) {
+            info.liveIns[block.getId()] = liveIn[block.getId()].stream().toArray();
+            info.liveOuts[block.getId()] = liveOut[block.getId()].stream().toArray();
+        }
+        return info;
+    }
+
+    private int record(Variable variable) {
+        variables[variable.index] = variable;
+        return variable.index;
+    }
+
+    Variable getVariable(int index) {
+        return variables[index];
+    }
+
+    int[] getLiveIn(AbstractBlockBase<?> block) {
+        return liveIns[block.getId()];
+    }
+
+    int[] getLiveOut(AbstractBlockBase<?> block) {
+        return liveOuts[block.getId()];
+    }
+
+    Value[] getInLocations(AbstractBlockBase<?> block) {
+        return inLocations[block.getId()];
+    }
+
+    void setInLocations(AbstractBlockBase<?> block, Value[] locations) {
+        assert locations.length == liveIns[block.getId()].length;
+        inLocations[block.getId()] = locations;
+    }
+
+    Value[] getOutLocations(AbstractBlockBase<?> block) {
+        return outLocations[block.getId()];
+    }
+
+    void setOutLocations(AbstractBlockBase<?> block, Value[] locations) {
+        assert locations.length == liveOuts[block.getId()].length;
+        outLocations[block.getId()] = locations;
+    }
+
+    Value[] getExceptionOutLocations(AbstractBlockBase<?> block) {
+        return exceptionOutLocations[block.getId()];
+    }
+
+    void setExceptionOutLocations(AbstractBlockBase<?> block, Value[] locations) {
+        exceptionOutLocations[block.getId()] = locations;
+    }
+
+    boolean isAllocated(AbstractBlockBase<?> block) {
+        return inLocations[block.getId()] != null;
+    }
+
+    /**
+     * Returns the location of the variable with index {@code variable} in {@code locations}, which
+     * is parallel to {@code liveSet}, or {@code null} if the variable is not in the set.
+     */
+    static Value locationOf(int[] liveSet, Value[] locations, int variable) {
+        int index = Arrays.binarySearch(liveSet, variable);
+        return index < 0 ? null : locations[index];
+    }
+}
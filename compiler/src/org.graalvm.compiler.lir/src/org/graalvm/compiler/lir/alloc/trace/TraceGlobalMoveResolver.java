@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.lir.alloc.trace;
+
+import static jdk.vm.ci.code.ValueUtil.asRegister;
+import static jdk.vm.ci.code.ValueUtil.isRegister;
+import static org.graalvm.compiler.lir.LIRValueUtil.asConstant;
+import static org.graalvm.compiler.lir.LIRValueUtil.isConstantValue;
+import static org.graalvm.compiler.lir.LIRValueUtil.isStackSlotValue;
+
+import java.util.ArrayList;
+
+import org.graalvm.compiler.core.common.cfg.AbstractBlockBase;
+import org.graalvm.compiler.debug.CounterKey;
+import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.debug.GraalError;
+import org.graalvm.compiler.lir.LIR;
+import org.graalvm.compiler.lir.LIRInstruction;
+import org.graalvm.compiler.lir.framemap.FrameMapBuilder;
+import org.graalvm.compiler.lir.gen.LIRGeneratorTool.MoveFactory;
+import org.graalvm.compiler.lir.ssa.SSAUtil;
+
+import jdk.vm.ci.meta.AllocatableValue;
+import jdk.vm.ci.meta.Value;
+
+/**
+ * Connects the locations that the {@link BottomUpAllocator} assigned to the variables at the ends
+ * of the blocks with the locations expected at the beginning of their successors. The phi values
+ * are resolved in the same parallel move, so the LIR is no longer in SSA form afterwards.
+ */
+final class TraceGlobalMoveResolver {
+
+    private static final CounterKey ResolutionMoves = DebugContext.counter("TraceRA[ResolutionMoves]");
+
+    private final LIR lir;
+    private final FrameMapBuilder frameMapBuilder;
+    private final MoveFactory moveFactory;
+    private final GlobalLivenessInfo liveness;
+
+    private final ArrayList<AllocatableValue> destinations = new ArrayList<>();
+    private final ArrayList<Value> sources = new ArrayList<>();
+
+    TraceGlobalMoveResolver(LIR lir, FrameMapBuilder frameMapBuilder, MoveFactory moveFactory, GlobalLivenessInfo liveness) {
+        this.lir = lir;
+        this.frameMapBuilder = frameMapBuilder;
+        this.moveFactory = moveFactory;
+        this.liveness = liveness;
+    }
+
+    private static boolean sameLocation(Value a, Value b) {
+        if (isRegister(a) && isRegister(b)) {
+            return asRegister(a).equals(asRegister(b));
+        }
+        return a.equals(b);
+    }
+
+    void resolve() {
+        for (AbstractBlockBase<?> pred : lir.getControlFlowGraph().getBlocks()) {
+            for (AbstractBlockBase<?> sux : pred.getSuccessors()) {
+                resolveEdge(pred, sux);
+            }
+        }
+        for (AbstractBlockBase<?> block : lir.getControlFlowGraph().getBlocks()) {
+            if (block.getPredecessorCount() > 1) {
+                SSAUtil.removePhiIn(lir, block);
+                for (AbstractBlockBase<?> pred : block.getPredecessors()) {
+                    SSAUtil.removePhiOut(lir, pred);
+                }
+            }
+        }
+    }
+
+    private void resolveEdge(AbstractBlockBase<?> pred, AbstractBlockBase<?> sux) {
+        assert destinations.isEmpty() && sources.isEmpty();
+        int[] liveIn = liveness.getLiveIn(sux);
+        Value[] inLocations = liveness.getInLocations(sux);
+        int[] predLiveSet;
+        Value[] predLocations;
+        if (isExceptionEdge(pred, sux)) {
+            predLiveSet = liveness.getLiveIn(sux);
+            predLocations = liveness.getExceptionOutLocations(pred);
+        } else {
+            predLiveSet = liveness.getLiveOut(pred);
+            predLocations = liveness.getOutLocations(pred);
+        }
+        for (int i = 0; i < liveIn.length; i++) {
+            Value from = GlobalLivenessInfo.locationOf(predLiveSet, predLocations, liveIn[i]);
+            addMove((AllocatableValue) inLocations[i], from);
+        }
+        SSAUtil.forEachPhiValuePair(lir, sux, pred, (phiIn, phiOut) -> addMove((AllocatableValue) phiIn, phiOut));
+        if (!destinations.isEmpty()) {
+            insertMoves(pred, sux);
+        }
+    }
+
+    private boolean isExceptionEdge(AbstractBlockBase<?> pred, AbstractBlockBase<?> sux) {
+        ArrayList<LIRInstruction> instructions = lir.getLIRforBlock(pred);
+        int last = instructions.size() - 1;
+        for (int i = last - 1; i >= 0 && i >= last - LIR.MAX_EXCEPTION_EDGE_OP_DISTANCE_FROM_END; i--) {
+            if (LIR.getExceptionEdge(instructions.get(i)) != null) {
+                return LIR.getExceptionEdge(instructions.get(i)).getTargetBlock() == sux;
+            }
+        }
+        return false;
+    }
+
+    private void addMove(AllocatableValue to, Value from) {
+        assert from != null : "no location for " + to;
+        if (!to.equals(from)) {
+            destinations.add(to);
+            sources.add(from);
+        }
+    }
+
+    /**
+     * Inserts the moves of the edge before the block end of {@code pred} if it has a single
+     * successor and after the label of {@code sux} otherwise. Because there are no critical
+     * edges, {@code sux} has a single predecessor in the latter case.
+     */
+    private void insertMoves(AbstractBlockBase<?> pred, AbstractBlockBase<?> sux) {
+        ArrayList<LIRInstruction> instructions;
+        int insertIndex;
+        if (pred.getSuccessorCount() == 1) {
+            instructions = lir.getLIRforBlock(pred);
+            insertIndex = instructions.size() - 1;
+        } else {
+            assert sux.getPredecessorCount() == 1 : "critical edge " + pred + " -> " + sux;
+            instructions = lir.getLIRforBlock(sux);
+            insertIndex = 1;
+        }
+        ArrayList<LIRInstruction> moves = sequentializeMoves();
+        ResolutionMoves.add(lir.getDebug(), moves.size());
+        instructions.addAll(insertIndex, moves);
+    }
+
+    /**
+     * Orders the pending parallel moves such that no destination is written before it was read
+     * as a source. Cycles are broken through a temporary stack slot.
+     */
+    private ArrayList<LIRInstruction> sequentializeMoves() {
+        ArrayList<LIRInstruction> result = new ArrayList<>(destinations.size());
+        while (!destinations.isEmpty()) {
+            boolean progress = false;
+            for (int i = destinations.size() - 1; i >= 0; i--) {
+                if (!isSourceOfPendingMove(destinations.get(i), i)) {
+                    result.add(createMove(destinations.get(i), sources.get(i)));
+                    destinations.remove(i);
+                    sources.remove(i);
+                    progress = true;
+                }
+            }
+            if (!progress) {
+                // Every destination is still needed as a source: save the value of one of them.
+                // The value is saved with the kind it is read with, which can differ from the
+                // kind of the value that is moved into the location.
+                AllocatableValue blocked = pendingSource(destinations.get(0));
+                AllocatableValue temp = frameMapBuilder.allocateSpillSlot(blocked.getValueKind());
+                result.add(createMove(temp, blocked));
+                for (int i = 0; i < sources.size(); i++) {
+                    if (sameLocation(sources.get(i), blocked)) {
+                        sources.set(i, temp);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private boolean isSourceOfPendingMove(AllocatableValue location, int ignoredMove) {
+        for (int i = 0; i < sources.size(); i++) {
+            if (i != ignoredMove && sameLocation(sources.get(i), location)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private AllocatableValue pendingSource(AllocatableValue location) {
+        for (Value source : sources) {
+            if (sameLocation(source, location)) {
+                return (AllocatableValue) source;
+            }
+        }
+        throw GraalError.shouldNotReachHere("no pending move reads " + location);
+    }
+
+    private LIRInstruction createMove(AllocatableValue to, Value from) {
+        if (isConstantValue(from)) {
+            return isStackSlotValue(to) ? moveFactory.createStackLoad(to, asConstant(from)) : moveFactory.createLoad(to, asConstant(from));
+        }
+        if (isStackSlotValue(to) && isStackSlotValue(from)) {
+            return moveFactory.createStackMove(to, (AllocatableValue) from);
+        }
+        return moveFactory.createMove(to, from);
+    }
+}
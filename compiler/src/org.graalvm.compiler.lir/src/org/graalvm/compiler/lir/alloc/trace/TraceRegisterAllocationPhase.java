@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.lir.alloc.trace;
+
+import org.graalvm.compiler.core.common.alloc.BiDirectionalTraceBuilder;
+import org.graalvm.compiler.core.common.alloc.Trace;
+import org.graalvm.compiler.core.common.alloc.TraceBuilderResult;
+import org.graalvm.compiler.core.common.alloc.UniDirectionalTraceBuilder;
+import org.graalvm.compiler.core.common.cfg.AbstractBlockBase;
+import org.graalvm.compiler.debug.CounterKey;
+import org.graalvm.compiler.debug.DebugCloseable;
+import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.debug.TimerKey;
+import org.graalvm.compiler.lir.LIR;
+import org.graalvm.compiler.lir.alloc.RegisterAllocationPhase;
+import org.graalvm.compiler.lir.gen.LIRGenerationResult;
+import org.graalvm.compiler.options.Option;
+import org.graalvm.compiler.options.OptionKey;
+import org.graalvm.compiler.options.OptionType;
+
+import jdk.vm.ci.code.TargetDescription;
+
+/**
+ * Trace based register allocation.
+ *
+ * The blocks are partitioned into {@linkplain Trace traces}, i.e., sequences of blocks along the
+ * most frequently executed paths. Each trace is allocated independently by the
+ * {@link BottomUpAllocator}, starting with the hottest one. Since a trace has no internal merges, a
+ * single backward pass is sufficient and the allocator does not need to build lifetime intervals.
+ * Colder traces take over the locations that were chosen for the values at the boundaries of the
+ * traces that were allocated before them, so the moves needed to connect the traces end up on the
+ * colder edges. Finally, the {@link TraceGlobalMoveResolver} inserts these moves and destructs the
+ * SSA form.
+ *
+ * The allocator is enabled with {@link Options#TraceRA} and replaces the
+ * {@link org.graalvm.compiler.lir.alloc.lsra.LinearScanPhase linear scan} in the
+ * {@link org.graalvm.compiler.lir.phases.AllocationStage}.
+ */
+public final class TraceRegisterAllocationPhase extends RegisterAllocationPhase {
+
+    public static class Options {
+        // @formatter:off
+        @Option(help = "Use the trace register allocator instead of linear scan.", type = OptionType.Expert)
+        public static final OptionKey<Boolean> TraceRA = new OptionKey<>(false);
+        @Option(help = "Build the traces for the trace register allocator in both directions starting at the hottest block.", type = OptionType.Debug)
+        public static final OptionKey<Boolean> TraceRABiDirectional = new OptionKey<>(false);
+        // @formatter:on
+    }
+
+    private static final TimerKey TraceBuilderTimer = DebugContext.timer("TraceRA[TraceBuilder]");
+    private static final TimerKey LivenessTimer = DebugContext.timer("TraceRA[GlobalLiveness]");
+    private static final TimerKey AllocationTimer = DebugContext.timer("TraceRA[Allocation]");
+    private static final TimerKey ResolutionTimer = DebugContext.timer("TraceRA[Resolution]");
+    private static final CounterKey TracesCounter = DebugContext.counter("TraceRA[Traces]");
+
+    @Override
+    @SuppressWarnings("try")
+    protected void run(TargetDescription target, LIRGenerationResult lirGenRes, AllocationContext context) {
+        LIR lir = lirGenRes.getLIR();
+        DebugContext debug = lir.getDebug();
+        AbstractBlockBase<?>[] linearScanOrder = lir.linearScanOrder();
+        AbstractBlockBase<?> startBlock = lir.getControlFlowGraph().getStartBlock();
+
+        TraceBuilderResult traces;
+        try (DebugCloseable t = TraceBuilderTimer.start(debug)) {
+            if (Options.TraceRABiDirectional.getValue(lir.getOptions())) {
+                traces = BiDirectionalTraceBuilder.computeTraces(debug, startBlock, linearScanOrder, null);
+            } else {
+                traces = UniDirectionalTraceBuilder.computeTraces(debug, startBlock, linearScanOrder, null);
+            }
+            // the trace builders renumber the blocks
+            for (int i = 0; i < linearScanOrder.length; i++) {
+                linearScanOrder[i].setLinearScanNumber(i);
+            }
+        }
+        TracesCounter.add(debug, traces.getTraces().size());
+
+        GlobalLivenessInfo liveness;
+        try (DebugCloseable t = LivenessTimer.start(debug)) {
+            liveness = GlobalLivenessInfo.compute(lir);
+        }
+        try (DebugCloseable t = AllocationTimer.start(debug)) {
+            BottomUpAllocator allocator = new BottomUpAllocator(target, lirGenRes, context.spillMoveFactory, context.registerAllocationConfig, liveness);
+            for (Trace trace : traces.getTraces()) {
+                allocator.allocate(trace);
+            }
+        }
+        try (DebugCloseable t = ResolutionTimer.start(debug)) {
+            new TraceGlobalMoveResolver(lir, lirGenRes.getFrameMapBuilder(), context.spillMoveFactory, liveness).resolve();
+        }
+        debug.dump(DebugContext.VERBOSE_LEVEL, lir, "After TraceRA");
+    }
+}
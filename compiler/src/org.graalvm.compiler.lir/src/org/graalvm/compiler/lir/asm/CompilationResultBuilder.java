@@ -48,6 +48,7 @@ import org.graalvm.compiler.core.common.NumUtil;
 import org.graalvm.compiler.core.common.cfg.AbstractBlockBase;
 import org.graalvm.compiler.core.common.spi.ForeignCallsProvider;
 import org.graalvm.compiler.core.common.type.DataPointerConstant;
+import org.graalvm.compiler.debug.CounterKey;
 import org.graalvm.compiler.debug.DebugContext;
 import org.graalvm.compiler.debug.GraalError;
 import org.graalvm.compiler.graph.NodeSourcePosition;
@@ -91,6 +92,9 @@ public class CompilationResultBuilder {
 
     private static final List<LIRInstructionVerifier> LIR_INSTRUCTION_VERIFIERS = new ArrayList<>();
 
+    private static final CounterKey HotCodeBytes = DebugContext.counter("HotColdSplitting_HotBytes").doc("Bytes of code emitted before the cold region.");
+    private static final CounterKey ColdCodeBytes = DebugContext.counter("HotColdSplitting_ColdBytes").doc("Bytes of code emitted into the cold region.");
+
     static {
         for (LIRInstructionVerifier verifier : GraalServices.load(LIRInstructionVerifier.class)) {
             if (verifier.isEnabled()) {
@@ -166,6 +170,7 @@ public class CompilationResultBuilder {
 
     private final OptionValues options;
     private final DebugContext debug;
+
     private final EconomicMap<Constant, Data> dataCache;
 
     private Consumer<LIRInstruction> beforeOp;
@@ -542,11 +547,21 @@ public class CompilationResultBuilder {
         this.lir = lir;
         this.currentBlockIndex = 0;
         frameContext.enter(this);
+        int coldCodeStart = -1;
         for (AbstractBlockBase<?> b : lir.codeEmittingOrder()) {
             assert (b == null && lir.codeEmittingOrder()[currentBlockIndex] == null) || lir.codeEmittingOrder()[currentBlockIndex].equals(b);
+            if (currentBlockIndex == lir.getFirstColdBlockIndex()) {
+                coldCodeStart = asm.position();
+                blockComment("cold code");
+            }
             emitBlock(b);
             currentBlockIndex++;
         }
+        if (coldCodeStart >= 0) {
+            compilationResult.setColdCodeStart(coldCodeStart);
+            HotCodeBytes.add(debug, coldCodeStart);
+            ColdCodeBytes.add(debug, asm.position() - coldCodeStart);
+        }
         this.lir = null;
         this.currentBlockIndex = 0;
     }
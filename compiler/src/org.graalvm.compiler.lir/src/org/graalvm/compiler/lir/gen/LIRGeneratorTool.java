@@ -223,6 +223,19 @@ public interface LIRGeneratorTool extends DiagnosticLIRGeneratorTool, ValueKindF
 
     Variable emitConditionalMove(PlatformKind cmpKind, Value leftVal, Value right, Condition cond, boolean unorderedIsTrue, Value trueValue, Value falseValue);
 
+    /**
+     * Emits several conditional moves that depend on the same comparison. Platforms that can do so
+     * should emit the comparison only once followed by a chain of conditional moves.
+     */
+    default Variable[] emitConditionalMoves(PlatformKind cmpKind, Value leftVal, Value right, Condition cond, boolean unorderedIsTrue, Value[] trueValues, Value[] falseValues) {
+        assert trueValues.length == falseValues.length;
+        Variable[] results = new Variable[trueValues.length];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = emitConditionalMove(cmpKind, leftVal, right, cond, unorderedIsTrue, trueValues[i], falseValues[i]);
+        }
+        return results;
+    }
+
     Variable emitIntegerTestMove(Value leftVal, Value right, Value trueValue, Value falseValue);
 
     Variable emitByteSwap(Value operand);
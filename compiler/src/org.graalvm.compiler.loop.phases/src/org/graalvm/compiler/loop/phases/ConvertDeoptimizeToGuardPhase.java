@@ -82,6 +82,11 @@ import jdk.vm.ci.meta.DeoptimizationAction;
  */
 public class ConvertDeoptimizeToGuardPhase extends BasePhase<CoreProviders> {
 
+    @Override
+    protected boolean isOptionalUnderMemoryPressure() {
+        return true;
+    }
+
     @Override
     @SuppressWarnings("try")
     protected void run(final StructuredGraph graph, CoreProviders context) {
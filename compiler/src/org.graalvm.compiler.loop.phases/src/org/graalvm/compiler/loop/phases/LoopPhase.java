@@ -38,4 +38,9 @@ public abstract class LoopPhase<P extends LoopPolicies> extends BasePhase<CorePr
     protected P getPolicies() {
         return policies;
     }
+
+    @Override
+    protected boolean isOptionalUnderMemoryPressure() {
+        return true;
+    }
 }
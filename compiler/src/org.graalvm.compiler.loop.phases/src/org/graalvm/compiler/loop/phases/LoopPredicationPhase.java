@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.loop.phases;
+
+import static org.graalvm.compiler.loop.MathUtil.add;
+import static org.graalvm.compiler.loop.MathUtil.mul;
+import static org.graalvm.compiler.loop.MathUtil.sub;
+
+import org.graalvm.collections.EconomicMap;
+import org.graalvm.compiler.core.common.cfg.AbstractControlFlowGraph;
+import org.graalvm.compiler.core.common.cfg.Loop;
+import org.graalvm.compiler.core.common.type.IntegerStamp;
+import org.graalvm.compiler.debug.CounterKey;
+import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.loop.CountedLoopInfo;
+import org.graalvm.compiler.loop.InductionVariable;
+import org.graalvm.compiler.loop.InductionVariable.Direction;
+import org.graalvm.compiler.loop.LoopEx;
+import org.graalvm.compiler.loop.LoopsData;
+import org.graalvm.compiler.nodes.AbstractBeginNode;
+import org.graalvm.compiler.nodes.ConstantNode;
+import org.graalvm.compiler.nodes.FrameState;
+import org.graalvm.compiler.nodes.GuardNode;
+import org.graalvm.compiler.nodes.LogicNode;
+import org.graalvm.compiler.nodes.LoopBeginNode;
+import org.graalvm.compiler.nodes.NodeView;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.calc.IntegerBelowNode;
+import org.graalvm.compiler.nodes.calc.SignExtendNode;
+import org.graalvm.compiler.nodes.calc.ZeroExtendNode;
+import org.graalvm.compiler.nodes.cfg.Block;
+import org.graalvm.compiler.nodes.extended.BranchProbabilityNode;
+import org.graalvm.compiler.nodes.util.GraphUtil;
+import org.graalvm.compiler.phases.BasePhase;
+import org.graalvm.compiler.phases.tiers.MidTierContext;
+import org.graalvm.compiler.serviceprovider.SpeculationReasonGroup;
+
+import jdk.vm.ci.meta.DeoptimizationAction;
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+import jdk.vm.ci.meta.SpeculationLog;
+import jdk.vm.ci.meta.SpeculationLog.Speculation;
+
+/**
+ * Replaces range checks of the form {@code iv |<| length} inside counted loops, where {@code iv} is
+ * an induction variable of the loop and {@code length} is loop invariant, by a single guard in
+ * front of the loop that checks the first and the last value of the induction variable.
+ *
+ * The hoisted guard is speculative: it also fails if the loop would have been left through another
+ * exit before reaching an out of bounds index, or if the range check is on a path that is not
+ * executed in every iteration. The guard is therefore bound to a speculation so that a failing
+ * predicate disables predication of the loop in the next compilation, which then keeps the
+ * original range checks.
+ */
+public class LoopPredicationPhase extends BasePhase<MidTierContext> {
+
+    private static final SpeculationReasonGroup LOOP_PREDICATION_SPECULATIONS = new SpeculationReasonGroup("LoopPredication", ResolvedJavaMethod.class, int.class);
+
+    private static final CounterKey PREDICATED_GUARDS = DebugContext.counter("LoopPredication_PredicatedGuards");
+    private static final CounterKey SPECULATION_FAILED = DebugContext.counter("LoopPredication_SpeculationFailed");
+
+    @Override
+    protected void run(StructuredGraph graph, MidTierContext context) {
+        if (!graph.hasLoops() || !graph.getGuardsStage().allowsFloatingGuards() || graph.getSpeculationLog() == null) {
+            return;
+        }
+        LoopsData loops = new LoopsData(graph);
+        loops.detectedCountedLoops();
+        EconomicMap<LoopBeginNode, Speculation> speculations = EconomicMap.create();
+        for (GuardNode guard : graph.getNodes(GuardNode.TYPE).snapshot()) {
+            if (guard.isNegated() || !(guard.getCondition() instanceof IntegerBelowNode)) {
+                continue;
+            }
+            Block anchorBlock = loops.getCFG().blockFor(guard.getAnchor().asNode());
+            if (anchorBlock == null) {
+                continue;
+            }
+            IntegerBelowNode rangeCheck = (IntegerBelowNode) guard.getCondition();
+            for (Loop<Block> l = anchorBlock.getLoop(); l != null; l = l.getParent()) {
+                LoopEx loop = loops.loop(l);
+                InductionVariable iv = loop.isCounted() ? loop.getInductionVariables().get(rangeCheck.getX()) : null;
+                if (iv != null && loop.isOutsideLoop(rangeCheck.getY())) {
+                    if (canPredicate(loop, iv, anchorBlock, loops)) {
+                        Speculation speculation = speculations.get(loop.loopBegin());
+                        if (speculation == null && !speculations.containsKey(loop.loopBegin())) {
+                            speculation = speculationFor(loop, context);
+                            speculations.put(loop.loopBegin(), speculation);
+                        }
+                        if (speculation != null) {
+                            predicate(loop, iv, guard, speculation);
+                        }
+                    }
+                    break;
+                }
+            }
+        }
+        loops.deleteUnusedNodes();
+    }
+
+    private static boolean canPredicate(LoopEx loop, InductionVariable iv, Block anchorBlock, LoopsData loops) {
+        CountedLoopInfo counted = loop.counted();
+        if (counted.getStamp().getBits() != 32 || ((IntegerStamp) iv.valueNode().stamp(NodeView.DEFAULT)).getBits() != 32) {
+            return false;
+        }
+        // Guards that are evaluated before the limit test also see the value of the induction
+        // variable in the iteration that leaves the loop.
+        Block body = loops.getCFG().blockFor(counted.getBody());
+        return AbstractControlFlowGraph.dominates(body, anchorBlock);
+    }
+
+    /**
+     * Returns the speculation for the predicates of {@code loop} or {@code null} if the loop must
+     * not be predicated.
+     */
+    private static Speculation speculationFor(LoopEx loop, MidTierContext context) {
+        LoopBeginNode loopBegin = loop.loopBegin();
+        FrameState state = loopBegin.stateAfter();
+        if (state == null || state.getMethod() == null) {
+            return null;
+        }
+        SpeculationLog speculationLog = loopBegin.graph().getSpeculationLog();
+        SpeculationLog.SpeculationReason reason = LOOP_PREDICATION_SPECULATIONS.createSpeculationReason(state.getMethod(), state.bci);
+        if (!speculationLog.maySpeculate(reason)) {
+            SPECULATION_FAILED.increment(loopBegin.getDebug());
+            return null;
+        }
+        CountedLoopInfo counted = loop.counted();
+        if (!counted.counterNeverOverflows()) {
+            // The trip count is only valid if the counter does not overflow.
+            if (!context.getOptimisticOptimizations().useLoopLimitChecks(loopBegin.getOptions())) {
+                return null;
+            }
+            counted.createOverFlowGuard();
+        }
+        return speculationLog.speculate(reason);
+    }
+
+    /**
+     * Replaces {@code guard} by a guard in front of {@code loop} that checks that either the loop
+     * is not entered or both the initial and the extremal value of {@code iv} are in bounds. The
+     * values are computed with 64 bit arithmetic so that the check also fails if the 32 bit
+     * induction variable would wrap around, which makes all values in between the two bounds
+     * checked values.
+     */
+    private static void predicate(LoopEx loop, InductionVariable iv, GuardNode guard, Speculation speculation) {
+        StructuredGraph graph = guard.graph();
+        CountedLoopInfo counted = loop.counted();
+        IntegerBelowNode rangeCheck = (IntegerBelowNode) guard.getCondition();
+
+        ValueNode init = graph.addOrUniqueWithInputs(SignExtendNode.create(iv.initNode(), 64, NodeView.DEFAULT));
+        ValueNode stride = graph.addOrUniqueWithInputs(SignExtendNode.create(iv.strideNode(), 64, NodeView.DEFAULT));
+        ValueNode tripCount = graph.addOrUniqueWithInputs(ZeroExtendNode.create(counted.maxTripCountNode(true), 64, NodeView.DEFAULT));
+        ValueNode extremum = add(graph, init, mul(graph, stride, sub(graph, tripCount, ConstantNode.forLong(1, graph))));
+        ValueNode length = graph.addOrUniqueWithInputs(ZeroExtendNode.create(rangeCheck.getY(), 64, NodeView.DEFAULT));
+
+        LogicNode initInBounds = graph.addOrUniqueWithInputs(IntegerBelowNode.create(init, length, NodeView.DEFAULT));
+        LogicNode extremumInBounds = graph.addOrUniqueWithInputs(IntegerBelowNode.create(extremum, length, NodeView.DEFAULT));
+        LogicNode inBounds = LogicNode.and(initInBounds, extremumInBounds, BranchProbabilityNode.VERY_FAST_PATH_PROBABILITY);
+
+        // With an included limit the comparison is true if the loop is not entered, otherwise it
+        // is true if the loop is entered.
+        ValueNode start = counted.getStart();
+        ValueNode limit = counted.getLimit();
+        LogicNode entryCheck;
+        if (counted.getDirection() == Direction.Up) {
+            entryCheck = counted.isLimitIncluded() ? counted.getCounterIntegerHelper().createCompareNode(limit, start, NodeView.DEFAULT)
+                            : counted.getCounterIntegerHelper().createCompareNode(start, limit, NodeView.DEFAULT);
+        } else {
+            entryCheck = counted.isLimitIncluded() ? counted.getCounterIntegerHelper().createCompareNode(start, limit, NodeView.DEFAULT)
+                            : counted.getCounterIntegerHelper().createCompareNode(limit, start, NodeView.DEFAULT);
+        }
+        entryCheck = graph.addOrUniqueWithInputs(entryCheck);
+        LogicNode condition = LogicNode.or(entryCheck, !counted.isLimitIncluded(), inBounds, false, BranchProbabilityNode.NOT_FREQUENT_PROBABILITY);
+
+        GuardNode predicate = graph.unique(new GuardNode(condition, AbstractBeginNode.prevBegin(loop.entryPoint()), guard.getReason(), DeoptimizationAction.InvalidateRecompile, false, speculation,
+                        guard.getNoDeoptSuccessorPosition()));
+        graph.getDebug().log("LoopPredication %s: replaced %s by %s", loop, guard, predicate);
+        guard.replaceAtUsages(predicate);
+        GraphUtil.killWithUnusedFloatingInputs(guard, true);
+        PREDICATED_GUARDS.increment(graph.getDebug());
+    }
+}
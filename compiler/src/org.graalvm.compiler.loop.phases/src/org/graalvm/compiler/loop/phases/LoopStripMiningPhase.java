@@ -0,0 +1,271 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.loop.phases;
+
+import static org.graalvm.compiler.core.common.GraalOptions.GenLoopSafepoints;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.graalvm.collections.EconomicMap;
+import org.graalvm.collections.Equivalence;
+import org.graalvm.collections.MapCursor;
+import org.graalvm.compiler.debug.CounterKey;
+import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.graph.Node;
+import org.graalvm.compiler.loop.BasicInductionVariable;
+import org.graalvm.compiler.loop.CountedLoopInfo;
+import org.graalvm.compiler.loop.InductionVariable;
+import org.graalvm.compiler.loop.InductionVariable.Direction;
+import org.graalvm.compiler.loop.LoopEx;
+import org.graalvm.compiler.loop.LoopsData;
+import org.graalvm.compiler.nodes.BeginNode;
+import org.graalvm.compiler.nodes.ConstantNode;
+import org.graalvm.compiler.nodes.EndNode;
+import org.graalvm.compiler.nodes.FixedNode;
+import org.graalvm.compiler.nodes.FrameState;
+import org.graalvm.compiler.nodes.IfNode;
+import org.graalvm.compiler.nodes.Invoke;
+import org.graalvm.compiler.nodes.LogicNode;
+import org.graalvm.compiler.nodes.LoopBeginNode;
+import org.graalvm.compiler.nodes.LoopEndNode;
+import org.graalvm.compiler.nodes.LoopExitNode;
+import org.graalvm.compiler.nodes.NodeView;
+import org.graalvm.compiler.nodes.PhiNode;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.calc.AddNode;
+import org.graalvm.compiler.nodes.calc.CompareNode;
+import org.graalvm.compiler.nodes.calc.ConditionalNode;
+import org.graalvm.compiler.nodes.calc.IntegerLessThanNode;
+import org.graalvm.compiler.nodes.calc.SubNode;
+import org.graalvm.compiler.nodes.extended.BranchProbabilityNode;
+import org.graalvm.compiler.nodes.extended.ForeignCall;
+import org.graalvm.compiler.options.Option;
+import org.graalvm.compiler.options.OptionKey;
+import org.graalvm.compiler.options.OptionType;
+import org.graalvm.compiler.phases.Phase;
+
+/**
+ * Strip mines counted loops whose safepoint polls were removed by
+ * {@link LoopSafepointEliminationPhase}. A loop of the form
+ *
+ * <pre>
+ * for (int i = start; i &lt; limit; i += stride) {
+ *     body;
+ * }
+ * </pre>
+ *
+ * is transformed into an outer loop that polls for safepoints and a poll-free inner loop that
+ * executes at most {@link Options#LoopStripMiningIterations} iterations:
+ *
+ * <pre>
+ * int i = start;
+ * do {
+ *     int innerLimit = (i &lt; limit &amp;&amp; stride * iterations &lt; limit - i) ? i + stride * iterations : limit;
+ *     for (; i &lt; innerLimit; i += stride) {
+ *         body;
+ *     }
+ *     safepoint;
+ * } while (i &lt; limit);
+ * </pre>
+ *
+ * The inner loop remains a simple counted loop and is therefore still subject to the pre/main/post
+ * transformation and partial unrolling. The phase must run after value proxies have been removed
+ * and before {@link org.graalvm.compiler.phases.common.LoopSafepointInsertionPhase}, which inserts
+ * the safepoint on the back edge of the outer loop.
+ */
+public class LoopStripMiningPhase extends Phase {
+
+    public static class Options {
+        // @formatter:off
+        @Option(help = "Maximum number of iterations of the inner loop of a strip mined loop between two safepoint polls.", type = OptionType.Expert)
+        public static final OptionKey<Integer> LoopStripMiningIterations = new OptionKey<>(1000);
+        // @formatter:on
+    }
+
+    private static final CounterKey STRIP_MINED_LOOPS = DebugContext.counter("LoopStripMining_StripMined");
+
+    @Override
+    public boolean checkContract() {
+        return false;
+    }
+
+    @Override
+    protected void run(StructuredGraph graph) {
+        if (!graph.hasLoops() || graph.hasValueProxies() || !GenLoopSafepoints.getValue(graph.getOptions())) {
+            return;
+        }
+        int stripLength = Options.LoopStripMiningIterations.getValue(graph.getOptions());
+        if (stripLength <= 1) {
+            return;
+        }
+        LoopsData loops = new LoopsData(graph);
+        loops.detectedCountedLoops();
+        List<LoopEx> candidates = new ArrayList<>();
+        for (LoopEx loop : loops.countedLoops()) {
+            if (shouldStripMine(loop, stripLength)) {
+                candidates.add(loop);
+            }
+        }
+        for (LoopEx loop : candidates) {
+            stripMine(loop, stripLength);
+            STRIP_MINED_LOOPS.increment(graph.getDebug());
+        }
+        loops.deleteUnusedNodes();
+        if (!candidates.isEmpty()) {
+            graph.getDebug().dump(DebugContext.DETAILED_LEVEL, graph, "After strip mining %d loops", candidates.size());
+        }
+    }
+
+    private static boolean shouldStripMine(LoopEx loop, int stripLength) {
+        LoopBeginNode loopBegin = loop.loopBegin();
+        if (!loopBegin.isSimpleLoop() || loopBegin.isStripMinedInner() || loopBegin.canEndsSafepoint() || !loop.loop().getChildren().isEmpty() || loopBegin.loopExits().count() != 1) {
+            return false;
+        }
+        CountedLoopInfo counted = loop.counted();
+        InductionVariable counter = counted.getCounter();
+        if (counted.getStamp().getBits() != 32 || counted.getDirection() != Direction.Up || counted.isLimitIncluded() || counted.isUnsignedCheck()) {
+            return false;
+        }
+        if (!(counter instanceof BasicInductionVariable) || !counter.isConstantStride() || counter.constantStride() <= 0 || counter.constantStride() * stripLength > Integer.MAX_VALUE) {
+            return false;
+        }
+        if (!(counted.getCountedExit() instanceof LoopExitNode)) {
+            return false;
+        }
+        if (counted.isConstantMaxTripCount() && counted.constantMaxTripCount().isLessOrEqualTo(stripLength)) {
+            // The loop never runs long enough to delay a safepoint noticeably.
+            return false;
+        }
+        LogicNode condition = counted.getLimitTest().condition();
+        if (!(condition instanceof CompareNode)) {
+            return false;
+        }
+        CompareNode compare = (CompareNode) condition;
+        ValueNode counterValue = counter.valueNode();
+        ValueNode limit = counted.getLimit();
+        if (!(compare.getX() == counterValue && compare.getY() == limit) && !(compare.getX() == limit && compare.getY() == counterValue)) {
+            return false;
+        }
+        for (Node node : loop.inside().nodes()) {
+            if (node instanceof Invoke || node instanceof ForeignCall) {
+                // Calls already poll for safepoints.
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void stripMine(LoopEx loop, int stripLength) {
+        LoopBeginNode loopBegin = loop.loopBegin();
+        StructuredGraph graph = loopBegin.graph();
+        CountedLoopInfo counted = loop.counted();
+        IfNode limitTest = counted.getLimitTest();
+        CompareNode compare = (CompareNode) limitTest.condition();
+        ValueNode limit = counted.getLimit();
+        PhiNode counterPhi = (PhiNode) counted.getCounter().valueNode();
+        LoopExitNode exit = (LoopExitNode) counted.getCountedExit();
+        boolean continueOnTrue = limitTest.trueSuccessor() == counted.getBody();
+        long stride = counted.getCounter().constantStride();
+        double loopFrequency = loopBegin.loopFrequency();
+        NodeView view = NodeView.DEFAULT;
+        graph.getDebug().log("LoopStripMining %s: strip length %d", loop, stripLength);
+
+        // Create the outer loop header and let the inner loop be entered from it.
+        EndNode forwardEnd = (EndNode) loopBegin.forwardEnd();
+        LoopBeginNode outerBegin = graph.add(new LoopBeginNode());
+        EndNode innerEntry = graph.add(new EndNode());
+        outerBegin.setNext(innerEntry);
+        loopBegin.replaceFirstInput(forwardEnd, innerEntry);
+        outerBegin.addForwardEnd(forwardEnd);
+
+        EconomicMap<PhiNode, PhiNode> outerPhis = EconomicMap.create(Equivalence.IDENTITY);
+        for (PhiNode phi : loopBegin.phis().snapshot()) {
+            PhiNode outerPhi = phi.duplicateOn(outerBegin);
+            outerPhi.addInput(phi.valueAt(0));
+            phi.setValueAt(0, outerPhi);
+            outerPhis.put(phi, outerPhi);
+        }
+        FrameState loopState = loopBegin.stateAfter();
+        if (loopState != null) {
+            FrameState outerState = loopState.duplicateWithVirtualState();
+            outerState.applyToVirtual(state -> {
+                MapCursor<PhiNode, PhiNode> cursor = outerPhis.getEntries();
+                while (cursor.advance()) {
+                    state.replaceAllInputs(cursor.getKey(), cursor.getValue());
+                }
+            });
+            outerBegin.setStateAfter(outerState);
+        }
+
+        // Bound the trip count of the inner loop by the strip length without overflowing.
+        ValueNode outerCounter = outerPhis.get(counterPhi);
+        ValueNode stripSpan = ConstantNode.forIntegerStamp(counterPhi.stamp(view), stride * stripLength, graph);
+        LogicNode entered = IntegerLessThanNode.create(outerCounter, limit, view);
+        LogicNode fullStrip = IntegerLessThanNode.create(stripSpan, SubNode.create(limit, outerCounter, view), view);
+        ValueNode stripEnd = AddNode.create(outerCounter, stripSpan, view);
+        ValueNode innerLimit = graph.addOrUniqueWithInputs(ConditionalNode.create(entered, ConditionalNode.create(fullStrip, stripEnd, limit, view), limit, view));
+        ValueNode innerX = compare.getX() == limit ? innerLimit : compare.getX();
+        ValueNode innerY = compare.getY() == limit ? innerLimit : compare.getY();
+        limitTest.setCondition(CompareNode.createCompareNode(graph, compare.condition(), innerX, innerY, null, view));
+
+        // Leaving the inner loop either continues the outer loop or leaves both loops.
+        FixedNode continuation = exit.next();
+        exit.setNext(null);
+        BeginNode continueBegin = graph.add(new BeginNode());
+        LoopExitNode outerExit = graph.add(new LoopExitNode(outerBegin));
+        double outerFrequency = Math.max(1.0, loopFrequency / stripLength);
+        double continueProbability = Math.max(BranchProbabilityNode.VERY_SLOW_PATH_PROBABILITY, 1.0 - 1.0 / outerFrequency);
+        IfNode outerTest;
+        if (continueOnTrue) {
+            outerTest = graph.add(new IfNode(compare, continueBegin, outerExit, continueProbability));
+        } else {
+            outerTest = graph.add(new IfNode(compare, outerExit, continueBegin, 1.0 - continueProbability));
+        }
+        exit.setNext(outerTest);
+        outerExit.setNext(continuation);
+        if (exit.stateAfter() != null) {
+            /*
+             * The state after the inner exit describes the code after the original loop, so it
+             * moves to the outer exit. Within the outer loop, the state of the inner loop header
+             * stays valid, which is what the safepoint of the outer loop uses.
+             */
+            FrameState exitState = exit.stateAfter();
+            exit.setStateAfter(null);
+            outerExit.setStateAfter(exitState);
+        }
+        LoopEndNode outerEnd = graph.add(new LoopEndNode(outerBegin));
+        continueBegin.setNext(outerEnd);
+        MapCursor<PhiNode, PhiNode> cursor = outerPhis.getEntries();
+        while (cursor.advance()) {
+            cursor.getValue().addInput(cursor.getKey());
+        }
+
+        outerBegin.setLoopFrequency(outerFrequency);
+        loopBegin.setLoopFrequency(Math.max(1.0, Math.min(loopFrequency, stripLength)));
+        loopBegin.setStripMinedInner();
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.loop.phases;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.graalvm.compiler.debug.CounterKey;
+import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.graph.Node;
+import org.graalvm.compiler.loop.InductionVariable;
+import org.graalvm.compiler.loop.LoopEx;
+import org.graalvm.compiler.loop.LoopsData;
+import org.graalvm.compiler.nodes.AbstractBeginNode;
+import org.graalvm.compiler.nodes.FixedGuardNode;
+import org.graalvm.compiler.nodes.FixedNode;
+import org.graalvm.compiler.nodes.LogicNode;
+import org.graalvm.compiler.nodes.LoopBeginNode;
+import org.graalvm.compiler.nodes.LoopEndNode;
+import org.graalvm.compiler.nodes.PhiNode;
+import org.graalvm.compiler.nodes.PiNode;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.ValueProxyNode;
+import org.graalvm.compiler.nodes.VirtualState;
+import org.graalvm.compiler.nodes.calc.AddNode;
+import org.graalvm.compiler.nodes.calc.AndNode;
+import org.graalvm.compiler.nodes.calc.BinaryArithmeticNode;
+import org.graalvm.compiler.nodes.calc.IntegerConvertNode;
+import org.graalvm.compiler.nodes.calc.MulNode;
+import org.graalvm.compiler.nodes.calc.NegateNode;
+import org.graalvm.compiler.nodes.calc.NotNode;
+import org.graalvm.compiler.nodes.calc.OrNode;
+import org.graalvm.compiler.nodes.calc.ShiftNode;
+import org.graalvm.compiler.nodes.calc.SubNode;
+import org.graalvm.compiler.nodes.calc.XorNode;
+import org.graalvm.compiler.nodes.java.AccessIndexedNode;
+import org.graalvm.compiler.nodes.java.LoadIndexedNode;
+import org.graalvm.compiler.nodes.java.StoreIndexedNode;
+import org.graalvm.compiler.nodes.spi.CoreProviders;
+import org.graalvm.compiler.options.Option;
+import org.graalvm.compiler.options.OptionKey;
+import org.graalvm.compiler.options.OptionType;
+import org.graalvm.compiler.phases.BasePhase;
+
+import jdk.vm.ci.meta.JavaKind;
+
+/**
+ * Finds counted loops whose bodies consist of isomorphic operations on consecutive elements of
+ * primitive arrays (SuperWord candidates) and records the number of iterations that fit into one
+ * vector register as the {@linkplain LoopBeginNode#getVectorWidthUnrollFactor() vector width unroll
+ * factor} of the loop.
+ *
+ * This is an analysis only: no vector nodes or vector LIR are emitted. The recorded factor is
+ * consumed by the partial unrolling policy, which unrolls the main loop created by the
+ * pre/main/post transformation until the factor is reached, so that the scalar operations of
+ * consecutive iterations end up next to each other in one loop body.
+ *
+ * The analysis runs while array accesses are still {@link AccessIndexedNode}s so that unit stride
+ * and dependences can be checked directly on the induction variables. Floating-point reductions
+ * are only accepted with {@link Options#VectorWidthUnrollFloatReductions}. Since nothing packs
+ * the unrolled iterations, unrolling such loops keeps the order of their floating-point operations.
+ */
+public class VectorWidthUnrollAnalysisPhase extends BasePhase<CoreProviders> {
+
+    public static class Options {
+        // @formatter:off
+        @Option(help = "Width in bytes of the vector registers assumed when computing the vector width unroll factor of a loop.", type = OptionType.Expert)
+        public static final OptionKey<Integer> VectorWidthUnrollVectorBytes = new OptionKey<>(32);
+        @Option(help = "Also unroll loops with floating-point reductions up to the vector width. The unrolled " +
+                       "iterations are not packed, so the order of the floating-point operations and the results are unchanged.", type = OptionType.Expert)
+        public static final OptionKey<Boolean> VectorWidthUnrollFloatReductions = new OptionKey<>(false);
+        // @formatter:on
+    }
+
+    private static final CounterKey CANDIDATE_LOOPS = DebugContext.counter("VectorWidthUnroll_Candidates");
+    private static final CounterKey REJECTED_LOOPS = DebugContext.counter("VectorWidthUnroll_Rejected");
+
+    @Override
+    protected void run(StructuredGraph graph, CoreProviders context) {
+        if (!graph.hasLoops()) {
+            return;
+        }
+        DebugContext debug = graph.getDebug();
+        int vectorBytes = Options.VectorWidthUnrollVectorBytes.getValue(graph.getOptions());
+        boolean floatReductions = Options.VectorWidthUnrollFloatReductions.getValue(graph.getOptions());
+        LoopsData dataCounted = new LoopsData(graph);
+        dataCounted.detectedCountedLoops();
+        for (LoopEx loop : dataCounted.countedLoops()) {
+            if (!LoopTransformations.isUnrollableLoop(loop) || !loop.loopBegin().isSimpleLoop()) {
+                continue;
+            }
+            int elementBytes = widestElementBytes(loop, floatReductions);
+            if (elementBytes <= 0 || elementBytes > vectorBytes) {
+                REJECTED_LOOPS.increment(debug);
+                continue;
+            }
+            int factor = Integer.highestOneBit(vectorBytes / elementBytes);
+            if (factor > 1) {
+                debug.log("VectorWidthUnroll %s: unroll factor %d", loop, factor);
+                loop.loopBegin().setVectorWidthUnrollFactor(factor);
+                CANDIDATE_LOOPS.increment(debug);
+            }
+        }
+        dataCounted.deleteUnusedNodes();
+    }
+
+    @Override
+    protected boolean isOptionalUnderMemoryPressure() {
+        return true;
+    }
+
+    /**
+     * Checks whether {@code loop} is a candidate for vector width unrolling and returns the size in bytes
+     * of the widest value that has to be packed, or -1 if the loop is not a candidate.
+     */
+    private static int widestElementBytes(LoopEx loop, boolean floatReductions) {
+        DebugContext debug = loop.loopBegin().getDebug();
+        InductionVariable counter = loop.counted().getCounter();
+        if (Math.abs(counter.constantStride()) != 1) {
+            debug.log(DebugContext.VERBOSE_LEVEL, "VectorWidthUnroll %s: non-unit stride %d", loop, counter.constantStride());
+            return -1;
+        }
+        LoopBeginNode loopBegin = loop.loopBegin();
+        List<AccessIndexedNode> accesses = new ArrayList<>();
+        List<StoreIndexedNode> stores = new ArrayList<>();
+        int widest = 0;
+        for (Node node : loop.inside().nodes()) {
+            if (node instanceof AccessIndexedNode) {
+                AccessIndexedNode access = (AccessIndexedNode) node;
+                if (!(access instanceof LoadIndexedNode || access instanceof StoreIndexedNode) || !isContiguousAccess(loop, access)) {
+                    debug.log(DebugContext.VERBOSE_LEVEL, "VectorWidthUnroll %s: unsupported access %s", loop, access);
+                    return -1;
+                }
+                accesses.add(access);
+                if (access instanceof StoreIndexedNode) {
+                    stores.add((StoreIndexedNode) access);
+                }
+                widest = Math.max(widest, access.elementKind().getByteCount());
+            } else if (node instanceof FixedNode) {
+                if (!(node instanceof AbstractBeginNode || node instanceof LoopEndNode || node instanceof FixedGuardNode || node == loop.counted().getLimitTest())) {
+                    debug.log(DebugContext.VERBOSE_LEVEL, "VectorWidthUnroll %s: unsupported fixed node %s", loop, node);
+                    return -1;
+                }
+            } else if (node instanceof PhiNode) {
+                PhiNode phi = (PhiNode) node;
+                if (phi.merge() != loopBegin || !phi.getStackKind().isPrimitive()) {
+                    return -1;
+                }
+                if (!loop.getInductionVariables().containsKey(phi)) {
+                    if (!isReduction(loop, phi)) {
+                        debug.log(DebugContext.VERBOSE_LEVEL, "VectorWidthUnroll %s: loop carried value %s is not a reduction", loop, phi);
+                        return -1;
+                    }
+                    if (phi.getStackKind().isNumericFloat() && !floatReductions) {
+                        debug.log(DebugContext.VERBOSE_LEVEL, "VectorWidthUnroll %s: floating-point reduction %s", loop, phi);
+                        return -1;
+                    }
+                    widest = Math.max(widest, phi.getStackKind().getByteCount());
+                }
+            } else if (!isPackableFloatingNode(loop, node)) {
+                debug.log(DebugContext.VERBOSE_LEVEL, "VectorWidthUnroll %s: unsupported node %s", loop, node);
+                return -1;
+            }
+        }
+        if (accesses.isEmpty()) {
+            return -1;
+        }
+        for (StoreIndexedNode store : stores) {
+            for (AccessIndexedNode access : accesses) {
+                if (access != store && mayAlias(store, access) && access.index() != store.index()) {
+                    // A store and another access to the same array at a different offset form a
+                    // loop carried dependence that prevents packing.
+                    debug.log(DebugContext.VERBOSE_LEVEL, "VectorWidthUnroll %s: dependence between %s and %s", loop, store, access);
+                    return -1;
+                }
+            }
+        }
+        return widest;
+    }
+
+    private static boolean isContiguousAccess(LoopEx loop, AccessIndexedNode access) {
+        if (!access.elementKind().isPrimitive() || !loop.isOutsideLoop(access.array())) {
+            return false;
+        }
+        InductionVariable iv = loop.getInductionVariables().get(access.index());
+        return iv != null && iv.isConstantStride() && iv.constantStride() == loop.counted().getCounter().constantStride();
+    }
+
+    private static boolean mayAlias(AccessIndexedNode a, AccessIndexedNode b) {
+        return a.elementKind() == b.elementKind() || a.elementKind().getByteCount() == 1 && b.elementKind().getByteCount() == 1;
+    }
+
+    /**
+     * A reduction is a loop phi whose back edge value combines the phi with a value computed in
+     * the current iteration and which has no other use inside the loop.
+     */
+    private static boolean isReduction(LoopEx loop, PhiNode phi) {
+        ValueNode backValue = phi.singleBackValueOrThis();
+        if (!(backValue instanceof BinaryArithmeticNode<?>) || !isPackableFloatingNode(loop, backValue)) {
+            return false;
+        }
+        BinaryArithmeticNode<?> op = (BinaryArithmeticNode<?>) backValue;
+        if (!op.getArithmeticOp().isCommutative() || (op.getX() == phi) == (op.getY() == phi)) {
+            return false;
+        }
+        for (Node usage : phi.usages()) {
+            if (usage != op && !(usage instanceof VirtualState) && !(usage instanceof ValueProxyNode)) {
+                return false;
+            }
+        }
+        for (Node usage : op.usages()) {
+            if (usage != phi && !(usage instanceof VirtualState) && !(usage instanceof ValueProxyNode)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isPackableFloatingNode(LoopEx loop, Node node) {
+        if (node instanceof VirtualState || node instanceof ValueProxyNode || node instanceof PiNode || node instanceof LogicNode) {
+            return true;
+        }
+        if (node instanceof AddNode || node instanceof SubNode || node instanceof MulNode || node instanceof AndNode || node instanceof OrNode || node instanceof XorNode) {
+            return true;
+        }
+        if (node instanceof ShiftNode<?>) {
+            return loop.isOutsideLoop(((ShiftNode<?>) node).getY());
+        }
+        if (node instanceof IntegerConvertNode<?, ?> || node instanceof NegateNode || node instanceof NotNode) {
+            ValueNode value = (ValueNode) node;
+            return value.getStackKind() != JavaKind.Object;
+        }
+        return false;
+    }
+}
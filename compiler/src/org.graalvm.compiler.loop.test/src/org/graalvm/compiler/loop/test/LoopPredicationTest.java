@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.loop.test;
+
+import org.graalvm.compiler.core.common.GraalOptions;
+import org.graalvm.compiler.core.test.GraalCompilerTest;
+import org.graalvm.compiler.nodes.DeoptimizeNode;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.cfg.Block;
+import org.graalvm.compiler.nodes.cfg.ControlFlowGraph;
+import org.graalvm.compiler.options.OptionValues;
+import org.junit.Test;
+
+import jdk.vm.ci.meta.DeoptimizationReason;
+import jdk.vm.ci.meta.SpeculationLog;
+
+public class LoopPredicationTest extends GraalCompilerTest {
+
+    @Override
+    protected void checkMidTierGraph(StructuredGraph graph) {
+        ControlFlowGraph cfg = ControlFlowGraph.compute(graph, true, true, true, false);
+        for (DeoptimizeNode deopt : graph.getNodes().filter(DeoptimizeNode.class)) {
+            // Only range checks in loops are predicated. A deoptimization is not part of the loop
+            // but the range check that branches to it is.
+            Block check = cfg.blockFor(deopt).getDominator();
+            if (deopt.getReason() == DeoptimizationReason.BoundsCheckException && check != null && check.getLoop() != null) {
+                assertTrue(!deopt.getSpeculation().equals(SpeculationLog.NO_SPECULATION), "range check %s was not predicated", deopt);
+            }
+        }
+    }
+
+    @Override
+    protected SpeculationLog getSpeculationLog() {
+        return getCodeCache().createSpeculationLog();
+    }
+
+    private void testPredication(String name, Object... args) {
+        OptionValues options = new OptionValues(getInitialOptions(), GraalOptions.LoopPredication, true, GraalOptions.OptDeoptimizationGrouping, false);
+        test(options, name, args);
+    }
+
+    private static int[] intArray(int length) {
+        int[] result = new int[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = i * 17 - 5;
+        }
+        return result;
+    }
+
+    public static int sumSnippet(int[] a) {
+        int sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i];
+        }
+        return sum;
+    }
+
+    @Test
+    public void testSum() {
+        for (int length : new int[]{0, 1, 10}) {
+            testPredication("sumSnippet", intArray(length));
+        }
+    }
+
+    public static int[] copySnippet(int[] a, int[] b, int start, int end) {
+        for (int i = start; i < end; i++) {
+            b[i] = a[i];
+        }
+        return b;
+    }
+
+    @Test
+    public void testCopy() {
+        testPredication("copySnippet", intArray(10), new int[10], 0, 10);
+        testPredication("copySnippet", intArray(10), new int[10], 3, 7);
+        testPredication("copySnippet", intArray(10), new int[10], 7, 3);
+        testPredication("copySnippet", intArray(10), new int[5], 0, 10);
+        testPredication("copySnippet", intArray(10), new int[10], -1, 5);
+        testPredication("copySnippet", intArray(0), new int[0], 0, 0);
+    }
+
+    public static int differenceSnippet(int[] a) {
+        int result = 0;
+        for (int i = 0; i < a.length - 1; i++) {
+            result += a[i + 1] - a[i];
+        }
+        return result;
+    }
+
+    @Test
+    public void testDifference() {
+        for (int length : new int[]{0, 1, 2, 10}) {
+            testPredication("differenceSnippet", intArray(length));
+        }
+    }
+
+    public static int reverseSnippet(int[] a, int from) {
+        int sum = 0;
+        for (int i = from; i >= 0; i--) {
+            sum = sum * 31 + a[i];
+        }
+        return sum;
+    }
+
+    @Test
+    public void testReverse() {
+        testPredication("reverseSnippet", intArray(10), 9);
+        testPredication("reverseSnippet", intArray(10), -1);
+        testPredication("reverseSnippet", intArray(10), 10);
+    }
+
+    public static int conditionalSnippet(int[] a, int n) {
+        int sum = 0;
+        for (int i = 0; i < n; i++) {
+            if ((i & 1) == 0) {
+                sum += a[i * 2];
+            }
+        }
+        return sum;
+    }
+
+    @Test
+    public void testConditional() {
+        testPredication("conditionalSnippet", intArray(20), 10);
+        testPredication("conditionalSnippet", intArray(20), 0);
+        testPredication("conditionalSnippet", intArray(19), 10);
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.loop.test;
+
+import org.graalvm.compiler.core.common.GraalOptions;
+import org.graalvm.compiler.core.test.GraalCompilerTest;
+import org.graalvm.compiler.loop.phases.LoopStripMiningPhase;
+import org.graalvm.compiler.nodes.LoopBeginNode;
+import org.graalvm.compiler.nodes.SafepointNode;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.options.OptionValues;
+import org.junit.Test;
+
+public class LoopStripMiningTest extends GraalCompilerTest {
+
+    @Override
+    protected void checkMidTierGraph(StructuredGraph graph) {
+        boolean stripMined = false;
+        for (LoopBeginNode loopBegin : graph.getNodes(LoopBeginNode.TYPE)) {
+            stripMined |= loopBegin.isStripMinedInner();
+        }
+        assertTrue(stripMined, "expected a strip mined loop");
+        assertTrue(graph.getNodes().filter(SafepointNode.class).isNotEmpty(), "expected a safepoint in the outer loop");
+    }
+
+    private void testStripMining(String name, Object... args) {
+        OptionValues options = new OptionValues(getInitialOptions(), GraalOptions.LoopStripMining, true, LoopStripMiningPhase.Options.LoopStripMiningIterations, 4);
+        test(options, name, args);
+    }
+
+    private static final int[][] BOUNDS = {
+                    {0, 0}, {0, 1}, {0, 3}, {0, 4}, {0, 5}, {0, 8}, {0, 9}, {0, 100}, {-10, 10}, {10, 0},
+                    {Integer.MAX_VALUE - 10, Integer.MAX_VALUE}, {Integer.MIN_VALUE, Integer.MIN_VALUE + 20},
+                    {Integer.MAX_VALUE - 2, Integer.MIN_VALUE}, {Integer.MIN_VALUE + 5, Integer.MIN_VALUE + 1}};
+
+    public static int sumSnippet(int start, int end) {
+        int sum = 0;
+        for (int i = start; i < end; i++) {
+            sum += i * 3 + (sum >>> 7);
+        }
+        return sum;
+    }
+
+    @Test
+    public void testSum() {
+        for (int[] bounds : BOUNDS) {
+            testStripMining("sumSnippet", bounds[0], bounds[1]);
+        }
+    }
+
+    public static int stridedSnippet(int start, int end) {
+        int sum = 0;
+        for (int i = start; i < end; i += 3) {
+            sum = sum * 31 + i;
+        }
+        return sum;
+    }
+
+    @Test
+    public void testStrided() {
+        for (int[] bounds : BOUNDS) {
+            if (bounds[1] <= Integer.MAX_VALUE - 3) {
+                testStripMining("stridedSnippet", bounds[0], bounds[1]);
+            }
+        }
+    }
+
+    public static int[] arraySnippet(int[] array) {
+        for (int i = 0; i < array.length; i++) {
+            array[i] += i;
+        }
+        return array;
+    }
+
+    @Test
+    public void testArray() {
+        for (int length : new int[]{0, 1, 4, 5, 17, 100}) {
+            testStripMining("arraySnippet", new int[length]);
+        }
+    }
+}
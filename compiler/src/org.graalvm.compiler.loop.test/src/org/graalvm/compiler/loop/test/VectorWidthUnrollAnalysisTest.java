@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.loop.test;
+
+import static org.graalvm.compiler.api.directives.GraalDirectives.injectBranchProbability;
+
+import org.graalvm.compiler.core.common.GraalOptions;
+import org.graalvm.compiler.core.test.GraalCompilerTest;
+import org.graalvm.compiler.loop.DefaultLoopPolicies;
+import org.graalvm.compiler.loop.LoopEx;
+import org.graalvm.compiler.loop.LoopsData;
+import org.graalvm.compiler.loop.phases.VectorWidthUnrollAnalysisPhase;
+import org.graalvm.compiler.nodes.LoopBeginNode;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.options.OptionValues;
+import org.junit.Test;
+
+import jdk.vm.ci.meta.SpeculationLog;
+
+public class VectorWidthUnrollAnalysisTest extends GraalCompilerTest {
+
+    private boolean expectCandidate;
+    private int minUnrollFactor;
+    private int maxUnrollFactor;
+
+    @Override
+    protected void checkHighTierGraph(StructuredGraph graph) {
+        int factor = 1;
+        for (LoopBeginNode loopBegin : graph.getNodes(LoopBeginNode.TYPE)) {
+            factor = Math.max(factor, loopBegin.getVectorWidthUnrollFactor());
+        }
+        if (expectCandidate) {
+            assertTrue(factor > 1, "expected a vector width unroll candidate in %s", graph);
+        } else {
+            assertTrue(factor == 1, "unexpected vector width unroll factor %d in %s", factor, graph);
+        }
+    }
+
+    @Override
+    protected void checkMidTierGraph(StructuredGraph graph) {
+        if (minUnrollFactor == 0) {
+            return;
+        }
+        int maxNodes = DefaultLoopPolicies.Options.ExactPartialUnrollMaxNodes.getValue(graph.getOptions());
+        LoopsData loops = new LoopsData(graph);
+        for (LoopEx loop : loops.loops()) {
+            LoopBeginNode loopBegin = loop.loopBegin();
+            if (loopBegin.isMainLoop()) {
+                int unrollFactor = loopBegin.getUnrollFactor();
+                assertTrue(minUnrollFactor <= unrollFactor && unrollFactor <= maxUnrollFactor, "expected unroll factor in [%d, %d] but was %d in %s", minUnrollFactor, maxUnrollFactor, unrollFactor, graph);
+                int size = loop.size() - 1 - loopBegin.phis().count();
+                assertTrue(size <= maxNodes, "unrolled loop of size %d exceeds the limit of %d nodes in %s", size, maxNodes, graph);
+                return;
+            }
+        }
+        fail("expected a main loop in " + graph);
+    }
+
+    @Override
+    protected SpeculationLog getSpeculationLog() {
+        // Needed by LoopPredication, which removes the range checks from the unrolled loops.
+        return getCodeCache().createSpeculationLog();
+    }
+
+    private void testCandidate(boolean candidate, String name, Object... args) {
+        testCandidate(candidate, new OptionValues(getInitialOptions(), GraalOptions.VectorWidthUnroll, true), name, args);
+    }
+
+    private void testCandidate(boolean candidate, OptionValues options, String name, Object... args) {
+        expectCandidate = candidate;
+        test(options, name, args);
+    }
+
+    private static int[] intArray(int length) {
+        int[] result = new int[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = i * 31 + 7;
+        }
+        return result;
+    }
+
+    private static float[] floatArray(int length) {
+        float[] result = new float[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = i * 0.5f - 3;
+        }
+        return result;
+    }
+
+    public static int[] addSnippet(int[] a, int[] b) {
+        int[] c = new int[a.length];
+        for (int i = 0; i < a.length; i++) {
+            c[i] = a[i] + b[i];
+        }
+        return c;
+    }
+
+    @Test
+    public void testAdd() {
+        for (int length : new int[]{0, 1, 7, 8, 9, 63, 100}) {
+            testCandidate(true, "addSnippet", intArray(length), intArray(length));
+        }
+    }
+
+    public static int[] scaleSnippet(int[] a) {
+        for (int i = 0; injectBranchProbability(0.99, i < a.length); i++) {
+            a[i] = a[i] * 3 + 1;
+        }
+        return a;
+    }
+
+    // A copy of scaleSnippet so that its compiled code is not reused across tests.
+    public static int[] scaleSnippet2(int[] a) {
+        for (int i = 0; injectBranchProbability(0.99, i < a.length); i++) {
+            a[i] = a[i] * 3 + 1;
+        }
+        return a;
+    }
+
+    /**
+     * With 32 byte vectors the int loop is unrolled 8 times although the regular partial unrolling
+     * would stop after 2 iterations.
+     */
+    @Test
+    public void testUnrolledToVectorWidth() {
+        OptionValues options = new OptionValues(getInitialOptions(), GraalOptions.VectorWidthUnroll, true, GraalOptions.LoopPredication, true, DefaultLoopPolicies.Options.UnrollMaxIterations, 2);
+        minUnrollFactor = 8;
+        maxUnrollFactor = 8;
+        testCandidate(true, options, "scaleSnippet", intArray(100));
+    }
+
+    /**
+     * The vector width unroll factor does not lift the limit on the size of the unrolled loop.
+     */
+    @Test
+    public void testUnrollLimitedByMaxNodes() {
+        OptionValues options = new OptionValues(getInitialOptions(), GraalOptions.VectorWidthUnroll, true, GraalOptions.LoopPredication, true, DefaultLoopPolicies.Options.UnrollMaxIterations, 2,
+                        DefaultLoopPolicies.Options.ExactPartialUnrollMaxNodes, 60);
+        minUnrollFactor = 2;
+        maxUnrollFactor = 4;
+        testCandidate(true, options, "scaleSnippet2", intArray(100));
+    }
+
+    public static int checksumSnippet(byte[] data) {
+        int sum = 0;
+        for (int i = 0; i < data.length; i++) {
+            sum ^= data[i] & 0xff;
+        }
+        return sum;
+    }
+
+    @Test
+    public void testByteChecksum() {
+        for (int length : new int[]{0, 3, 32, 33, 257}) {
+            byte[] data = new byte[length];
+            for (int i = 0; i < length; i++) {
+                data[i] = (byte) (i * 13);
+            }
+            testCandidate(true, "checksumSnippet", data);
+        }
+    }
+
+    public static float dotSnippet(float[] a, float[] b) {
+        float sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    @Test
+    public void testDotProduct() {
+        for (int length : new int[]{0, 5, 16, 17, 100}) {
+            testCandidate(false, "dotSnippet", floatArray(length), floatArray(length));
+        }
+    }
+
+    @Test
+    public void testDotProductFloatReductions() {
+        OptionValues options = new OptionValues(getInitialOptions(), GraalOptions.VectorWidthUnroll, true, VectorWidthUnrollAnalysisPhase.Options.VectorWidthUnrollFloatReductions, true);
+        for (int length : new int[]{0, 5, 16, 17, 100}) {
+            testCandidate(true, options, "dotSnippet", floatArray(length), floatArray(length));
+        }
+    }
+
+    public static int[] carriedDependenceSnippet(int[] a) {
+        for (int i = 0; i < a.length - 1; i++) {
+            a[i + 1] = a[i] + 1;
+        }
+        return a;
+    }
+
+    @Test
+    public void testCarriedDependence() {
+        testCandidate(false, "carriedDependenceSnippet", intArray(50));
+    }
+
+    public static long[] stridedSnippet(long[] a) {
+        for (int i = 0; i < a.length; i += 2) {
+            a[i] = a[i] * 3;
+        }
+        return a;
+    }
+
+    @Test
+    public void testStrided() {
+        testCandidate(false, "stridedSnippet", new long[]{1, 2, 3, 4, 5, 6, 7});
+    }
+}
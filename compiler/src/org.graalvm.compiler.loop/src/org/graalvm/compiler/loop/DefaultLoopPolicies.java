@@ -172,6 +172,14 @@ public class DefaultLoopPolicies implements LoopPolicies {
             loopBegin.setLoopOrigFrequency(loopFrequency);
         }
         int maxUnroll = Options.UnrollMaxIterations.getValue(options);
+        int vectorWidthUnrollFactor = loopBegin.getVectorWidthUnrollFactor();
+        if (unrollFactor < vectorWidthUnrollFactor) {
+            // SuperWord candidate loops are unrolled up to the number of iterations that fit in a
+            // vector register so that the isomorphic operations of consecutive iterations end up
+            // in the same loop body, but only as far as the unrolled body fits in maxNodes.
+            int iterationSize = Math.max(1, size / unrollFactor);
+            maxUnroll = Math.max(maxUnroll, Math.min(vectorWidthUnrollFactor, maxNodes / iterationSize));
+        }
         // Now correct size for the next unroll. UnrollMaxIterations == 1 means perform the
         // pre/main/post transformation but don't actually unroll the main loop.
         size += size;
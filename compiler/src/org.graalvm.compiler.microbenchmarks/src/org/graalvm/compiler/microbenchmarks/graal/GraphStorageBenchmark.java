@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.microbenchmarks.graal;
+
+import java.util.HashMap;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.graalvm.compiler.graph.Graph;
+import org.graalvm.compiler.graph.Node;
+import org.graalvm.compiler.microbenchmarks.graal.util.GraalState;
+import org.graalvm.compiler.microbenchmarks.graal.util.GraalUtil;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.options.OptionValues;
+
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+
+/**
+ * Compares graphs with and without {@link Graph.Options#CompactGraphStorage}. Run with
+ * {@code -prof gc} to see the difference in allocation when copying graphs.
+ */
+public class GraphStorageBenchmark extends GraalBenchmark {
+
+    /**
+     * Provides a frozen graph for {@link HashMap}{@code .putVal}, mirroring the graphs kept in the
+     * graph caches of the compiler.
+     */
+    @State(Scope.Thread)
+    public static class Storage {
+        @Param({"false", "true"}) public boolean compactGraphStorage;
+
+        public StructuredGraph graph;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            GraalState graal = new GraalState();
+            OptionValues options = new OptionValues(graal.options, Graph.Options.CompactGraphStorage, compactGraphStorage);
+            ResolvedJavaMethod method = graal.metaAccess.lookupJavaMethod(GraalUtil.getMethod(HashMap.class, "putVal", (Class<?>[]) null));
+            StructuredGraph parsed = GraalUtil.getGraph(graal, options, method, StructuredGraph.USE_PROFILING_INFO);
+            graph = (StructuredGraph) parsed.copy(graal.debug);
+            graph.freeze();
+        }
+    }
+
+    @Benchmark
+    public StructuredGraph copy(Storage s, GraalState g) {
+        return (StructuredGraph) s.graph.copy(g.debug);
+    }
+
+    @Benchmark
+    public void traverseUsages(Storage s, Blackhole bh) {
+        for (Node n : s.graph.getNodes()) {
+            for (Node usage : n.usages()) {
+                bh.consume(usage);
+            }
+        }
+    }
+
+    @Benchmark
+    public int traverseInputs(Storage s) {
+        int sum = 0;
+        for (Node n : s.graph.getNodes()) {
+            for (Node input : n.inputs()) {
+                sum += input.getUsageCount();
+            }
+        }
+        return sum;
+    }
+}
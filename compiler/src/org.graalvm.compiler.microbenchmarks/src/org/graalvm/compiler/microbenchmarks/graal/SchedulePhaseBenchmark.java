@@ -32,6 +32,7 @@ import org.openjdk.jmh.annotations.Benchmark;
 import org.graalvm.compiler.microbenchmarks.graal.util.MethodSpec;
 import org.graalvm.compiler.microbenchmarks.graal.util.ScheduleState;
 import org.graalvm.compiler.nodes.cfg.ControlFlowGraph;
+import org.graalvm.compiler.options.OptionValues;
 import org.graalvm.compiler.phases.schedule.SchedulePhase.SchedulingStrategy;
 
 public class SchedulePhaseBenchmark extends GraalBenchmark {
@@ -132,6 +133,43 @@ public class SchedulePhaseBenchmark extends GraalBenchmark {
     }
     // Checkstyle: resume method name check
 
+    /**
+     * Schedules a graph repeatedly without changing it in between, which is what happens when
+     * several phases request a schedule in a row. Compare with {@link IncrementalIntersection}.
+     */
+    @MethodSpec(declaringClass = SchedulePhaseBenchmark.class, name = "intersectionSnippet")
+    public static class RepeatedIntersection extends ScheduleState {
+        public RepeatedIntersection() {
+            super(SchedulingStrategy.LATEST_OUT_OF_LOOPS);
+        }
+    }
+
+    @MethodSpec(declaringClass = SchedulePhaseBenchmark.class, name = "intersectionSnippet")
+    public static class IncrementalIntersection extends ScheduleState {
+        public IncrementalIntersection() {
+            super(SchedulingStrategy.LATEST_OUT_OF_LOOPS);
+        }
+
+        @Override
+        protected OptionValues getGraphOptions(OptionValues options) {
+            return new OptionValues(options, SchedulePhase.Options.IncrementalScheduling, true);
+        }
+    }
+
+    @Benchmark
+    public void repeatedSchedule(RepeatedIntersection s) {
+        for (int i = 0; i < 4; i++) {
+            s.schedule.apply(s.graph);
+        }
+    }
+
+    @Benchmark
+    public void incrementalSchedule(IncrementalIntersection s) {
+        for (int i = 0; i < 4; i++) {
+            s.schedule.apply(s.graph);
+        }
+    }
+
     // Checkstyle: stop method name check
     @MethodSpec(declaringClass = SchedulePhase.Instance.class, name = "scheduleEarliestIterative")
     public static class ScheduleEarliestIterative_LATEST_OPTIMAL extends ScheduleState {
@@ -29,6 +29,7 @@ import static org.graalvm.compiler.microbenchmarks.graal.util.GraalUtil.getMetho
 
 import org.graalvm.compiler.debug.DebugContext;
 import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.options.OptionValues;
 import org.openjdk.jmh.annotations.Level;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
@@ -51,7 +52,7 @@ public abstract class GraphState {
         ResolvedJavaMethod method = graal.metaAccess.lookupJavaMethod(getMethodFromMethodSpec(getClass()));
         StructuredGraph structuredGraph = null;
         try (DebugContext.Scope s = debug.scope("GraphState", method)) {
-            structuredGraph = preprocessOriginal(getGraph(graal, method));
+            structuredGraph = preprocessOriginal(getGraph(graal, getGraphOptions(graal.options), method, StructuredGraph.USE_PROFILING_INFO));
         } catch (Throwable t) {
             debug.handle(t);
         }
@@ -62,6 +63,14 @@ public abstract class GraphState {
         return structuredGraph;
     }
 
+    /**
+     * Gets the options of the original graph. This is called from the constructor, so overriding
+     * methods must not depend on the state of the subclass.
+     */
+    protected OptionValues getGraphOptions(OptionValues options) {
+        return options;
+    }
+
     /**
      * Original graph from which the per-benchmark invocation {@link #graph} is cloned.
      */
@@ -30,6 +30,8 @@ import org.openjdk.jmh.annotations.Param;
 import org.graalvm.compiler.code.CompilationResult;
 import org.graalvm.compiler.microbenchmarks.graal.GraalBenchmark;
 import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.options.OptionValues;
+import org.graalvm.compiler.phases.common.inlining.InliningPhase;
 
 public class CompileTimeBenchmark extends GraalBenchmark {
 
@@ -57,6 +59,30 @@ public class CompileTimeBenchmark extends GraalBenchmark {
         return s.compile();
     }
 
+    public static class ParallelInliningState extends GraalCompilerState.FrontEndOnly {
+        @MethodDescString @Param({
+                        "java.lang.String#equals",
+                        "java.util.HashMap#computeIfAbsent"
+        }) public String method;
+
+        @Param({"false", "true"}) public boolean parallelInliningGraphs;
+
+        private OptionValues options;
+
+        @Override
+        protected OptionValues getOptions() {
+            if (options == null) {
+                options = new OptionValues(super.getOptions(), InliningPhase.Options.ParallelInliningGraphs, parallelInliningGraphs);
+            }
+            return options;
+        }
+    }
+
+    @Benchmark
+    public StructuredGraph frontendParallelInlining(ParallelInliningState s) {
+        return s.compile();
+    }
+
     public static class BackEndEndState extends GraalCompilerState.BackEndOnly {
         @MethodDescString @Param({
                         "java.lang.String#equals",
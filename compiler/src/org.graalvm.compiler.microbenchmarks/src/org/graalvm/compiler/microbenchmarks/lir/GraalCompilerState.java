@@ -136,7 +136,7 @@ public abstract class GraalCompilerState {
         ResolvedJavaMethod method = graal.metaAccess.lookupJavaMethod(getMethod());
         StructuredGraph structuredGraph = null;
         try (DebugContext.Scope s = debug.scope("GraphState", method)) {
-            structuredGraph = preprocessOriginal(getGraph(graal, method, useProfilingInfo()));
+            structuredGraph = preprocessOriginal(getGraph(graal, getOptions(), method, useProfilingInfo()));
         } catch (Throwable t) {
             debug.handle(t);
         }
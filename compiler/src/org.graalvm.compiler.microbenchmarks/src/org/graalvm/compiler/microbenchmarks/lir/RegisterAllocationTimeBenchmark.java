@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2016, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2016, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -24,22 +24,83 @@
  */
 package org.graalvm.compiler.microbenchmarks.lir;
 
+import org.graalvm.compiler.code.CompilationResult;
+import org.graalvm.compiler.lir.alloc.trace.TraceRegisterAllocationPhase;
 import org.graalvm.compiler.lir.gen.LIRGenerationResult;
+import org.graalvm.compiler.lir.phases.LIRSuites;
 import org.graalvm.compiler.microbenchmarks.graal.GraalBenchmark;
+import org.graalvm.compiler.options.OptionValues;
+import org.openjdk.jmh.annotations.AuxCounters;
 import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
 import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
 
+/**
+ * Compares the linear scan and the trace register allocator. {@link #allocateRegisters} measures
+ * the time spent in the allocation stage. {@link #emitBackEnd} compiles the whole back end and
+ * reports the size of the generated code in the {@code codeBytes} and {@code compilations}
+ * counters, the ratio of which is the code size per compilation.
+ */
 public class RegisterAllocationTimeBenchmark extends GraalBenchmark {
 
+    private static final String LINEAR_SCAN = "lsra";
+    private static final String TRACE = "trace";
+
+    private static OptionValues withAllocator(OptionValues options, String allocator) {
+        return new OptionValues(options, TraceRegisterAllocationPhase.Options.TraceRA, TRACE.equals(allocator));
+    }
+
     public static class State extends GraalCompilerState.AllocationStage {
         @MethodDescString @Param({
                         "java.lang.String#equals",
                         "java.util.HashMap#computeIfAbsent"
         }) public String method;
+
+        @Param({LINEAR_SCAN, TRACE}) public String allocator;
+
+        @Override
+        protected LIRSuites createLIRSuites(OptionValues options) {
+            return super.createLIRSuites(withAllocator(options, allocator));
+        }
+    }
+
+    @org.openjdk.jmh.annotations.State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class CodeQualityState extends GraalCompilerState.BackEndOnly {
+        @MethodDescString @Param({
+                        "java.lang.String#equals",
+                        "java.util.HashMap#computeIfAbsent"
+        }) public String method;
+
+        @Param({LINEAR_SCAN, TRACE}) public String allocator;
+
+        public long codeBytes;
+        public long compilations;
+
+        @Setup(Level.Iteration)
+        public void resetCounters() {
+            codeBytes = 0;
+            compilations = 0;
+        }
+
+        @Override
+        protected LIRSuites createLIRSuites(OptionValues options) {
+            return super.createLIRSuites(withAllocator(options, allocator));
+        }
     }
 
     @Benchmark
     public LIRGenerationResult allocateRegisters(State s) {
         return s.compile();
     }
+
+    @Benchmark
+    public CompilationResult emitBackEnd(CodeQualityState s) {
+        CompilationResult result = s.compile();
+        s.codeBytes += result.getTargetCodeSize();
+        s.compilations++;
+        return result;
+    }
 }
@@ -55,6 +55,8 @@ public final class LoopBeginNode extends AbstractMergeNode implements IterableNo
     protected int inversionCount;
     protected LoopType loopType;
     protected int unrollFactor;
+    protected int vectorWidthUnrollFactor;
+    protected boolean stripMinedInner;
     protected boolean osrLoop;
 
     public enum LoopType {
@@ -78,6 +80,7 @@ public final class LoopBeginNode extends AbstractMergeNode implements IterableNo
         this.canEndsSafepoint = true;
         loopType = LoopType.SIMPLE_LOOP;
         unrollFactor = 1;
+        vectorWidthUnrollFactor = 1;
     }
 
     public boolean isSimpleLoop() {
@@ -119,6 +122,38 @@ public final class LoopBeginNode extends AbstractMergeNode implements IterableNo
         unrollFactor = currentUnrollFactor;
     }
 
+    /**
+     * Determines whether this loop is the safepoint-free inner loop of a strip mined counted loop.
+     * Its trip count is bounded by the strip length and the enclosing loop polls for safepoints.
+     */
+    public boolean isStripMinedInner() {
+        return stripMinedInner;
+    }
+
+    public void setStripMinedInner() {
+        assert !canEndsSafepoint : "inner loop of a strip mined loop must not safepoint";
+        stripMinedInner = true;
+    }
+
+    /**
+     * Returns the number of consecutive iterations whose array operations fit into a single vector
+     * register and up to which the main loop should be unrolled, or 1 if this loop is not a
+     * SuperWord candidate.
+     */
+    public int getVectorWidthUnrollFactor() {
+        return vectorWidthUnrollFactor;
+    }
+
+    public void setVectorWidthUnrollFactor(int vectorWidthUnrollFactor) {
+        assert vectorWidthUnrollFactor >= 1 && Integer.bitCount(vectorWidthUnrollFactor) == 1 : vectorWidthUnrollFactor;
+        this.vectorWidthUnrollFactor = vectorWidthUnrollFactor;
+    }
+
+    /** Returns {@code false} if safepoints have been disabled for the whole loop. */
+    public boolean canEndsSafepoint() {
+        return canEndsSafepoint;
+    }
+
     /** Disables safepoint for the whole loop, i.e., for all {@link LoopEndNode loop ends}. */
     public void disableSafepoint() {
         /* Store flag locally in case new loop ends are created later on. */
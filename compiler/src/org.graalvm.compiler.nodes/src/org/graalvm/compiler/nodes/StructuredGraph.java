@@ -59,6 +59,7 @@ import org.graalvm.compiler.nodes.calc.FloatingNode;
 import org.graalvm.compiler.nodes.cfg.Block;
 import org.graalvm.compiler.nodes.cfg.ControlFlowGraph;
 import org.graalvm.compiler.nodes.java.MethodCallTargetNode;
+import org.graalvm.compiler.nodes.spi.ProfileProvider;
 import org.graalvm.compiler.nodes.spi.VirtualizableAllocation;
 import org.graalvm.compiler.nodes.util.GraphUtil;
 import org.graalvm.compiler.options.OptionValues;
@@ -195,6 +196,7 @@ public final class StructuredGraph extends Graph implements JavaMethodContext {
         private final DebugContext debug;
         private NodeSourcePosition callerContext;
         private boolean isSubstitution;
+        private ProfileProvider profileProvider = ProfileProvider.DEFAULT;
 
         /**
          * Creates a builder for a graph.
@@ -291,6 +293,15 @@ public final class StructuredGraph extends Graph implements JavaMethodContext {
             return this;
         }
 
+        public ProfileProvider getProfileProvider() {
+            return profileProvider;
+        }
+
+        public Builder profileProvider(ProfileProvider provider) {
+            this.profileProvider = provider;
+            return this;
+        }
+
         public boolean getRecordInlinedMethods() {
             return recordInlinedMethods;
         }
@@ -321,6 +332,7 @@ public final class StructuredGraph extends Graph implements JavaMethodContext {
                             assumptions,
                             speculationLog,
                             useProfilingInfo,
+                            profileProvider,
                             isSubstitution,
                             inlinedMethods,
                             trackNodeSourcePosition,
@@ -417,6 +429,7 @@ public final class StructuredGraph extends Graph implements JavaMethodContext {
     }
 
     private final boolean useProfilingInfo;
+    private final ProfileProvider profileProvider;
     private final Cancellable cancellable;
     private final boolean isSubstitution;
 
@@ -466,6 +479,7 @@ public final class StructuredGraph extends Graph implements JavaMethodContext {
                     Assumptions assumptions,
                     SpeculationLog speculationLog,
                     boolean useProfilingInfo,
+                    ProfileProvider profileProvider,
                     boolean isSubstitution,
                     List<ResolvedJavaMethod> methods,
                     boolean trackNodeSourcePosition,
@@ -484,6 +498,7 @@ public final class StructuredGraph extends Graph implements JavaMethodContext {
         this.methods = methods;
         this.speculationLog = speculationLog;
         this.useProfilingInfo = useProfilingInfo;
+        this.profileProvider = profileProvider;
         this.isSubstitution = isSubstitution;
         assert checkIsSubstitutionInvariants(method, isSubstitution);
         this.cancellable = cancellable;
@@ -530,6 +545,15 @@ public final class StructuredGraph extends Graph implements JavaMethodContext {
         return false;
     }
 
+    @Override
+    public void trimToSize() {
+        int compressionsBefore = getCompressions();
+        super.trimToSize();
+        if (getCompressions() != compressionsBefore) {
+            clearLastSchedule();
+        }
+    }
+
     public Stamp getReturnStamp() {
         Stamp returnStamp = null;
         for (ReturnNode returnNode : getNodes(ReturnNode.TYPE)) {
@@ -650,6 +674,7 @@ public final class StructuredGraph extends Graph implements JavaMethodContext {
                         assumptions == null ? null : new Assumptions(),
                         speculationLog,
                         useProfilingInfo,
+                        profileProvider,
                         isSubstitution,
                         methods != null ? new ArrayList<>(methods) : null,
                         trackNodeSourcePosition,
@@ -1001,13 +1026,20 @@ public final class StructuredGraph extends Graph implements JavaMethodContext {
         return getProfilingInfo(method());
     }
 
+    /**
+     * Gets the provider of the profiles used while compiling this graph.
+     */
+    public ProfileProvider getProfileProvider() {
+        return profileProvider;
+    }
+
     /**
      * Gets the profiling info for a given method that is or will be part of this graph, taking into
      * account {@link #useProfilingInfo()}.
      */
     public ProfilingInfo getProfilingInfo(ResolvedJavaMethod m) {
         if (useProfilingInfo && m != null) {
-            return m.getProfilingInfo();
+            return profileProvider.getProfilingInfo(m);
         } else {
             return DefaultProfilingInfo.get(TriState.UNKNOWN);
         }
@@ -570,7 +570,7 @@ public final class ControlFlowGraph implements AbstractControlFlowGraph<Block> {
      * information attached to control flow splits to calculate the frequency of a block based on
      * the frequency of its predecessor and the probability of its incoming control flow branch.
      */
-    private void computeFrequencies() {
+    public void computeFrequencies() {
 
         for (Block block : reversePostOrder) {
             Block[] predecessors = block.getPredecessors();
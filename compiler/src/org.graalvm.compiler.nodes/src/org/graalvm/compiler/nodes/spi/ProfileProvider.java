@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.nodes.spi;
+
+import jdk.vm.ci.meta.ProfilingInfo;
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+
+/**
+ * Provides the {@link ProfilingInfo} used while compiling a graph. This allows a compiler to
+ * substitute the profiles collected by the VM, for example with profiles recorded by a previous run
+ * of the application.
+ */
+public interface ProfileProvider {
+
+    /**
+     * The provider returning the profiles collected by the VM.
+     */
+    ProfileProvider DEFAULT = (method, includeNormal, includeOSR) -> method.getProfilingInfo(includeNormal, includeOSR);
+
+    /**
+     * Gets the profiling information for {@code method}.
+     *
+     * @see ResolvedJavaMethod#getProfilingInfo(boolean, boolean)
+     */
+    ProfilingInfo getProfilingInfo(ResolvedJavaMethod method, boolean includeNormal, boolean includeOSR);
+
+    /**
+     * Gets the profiling information for both normal and OSR executions of {@code method}.
+     *
+     * @see ResolvedJavaMethod#getProfilingInfo()
+     */
+    default ProfilingInfo getProfilingInfo(ResolvedJavaMethod method) {
+        return getProfilingInfo(method, true, true);
+    }
+}
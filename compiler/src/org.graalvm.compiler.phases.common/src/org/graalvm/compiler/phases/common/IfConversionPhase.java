@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.phases.common;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.graalvm.compiler.debug.CounterKey;
+import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.graph.Node;
+import org.graalvm.compiler.graph.NodeBitMap;
+import org.graalvm.compiler.nodeinfo.NodeCycles;
+import org.graalvm.compiler.nodes.AbstractBeginNode;
+import org.graalvm.compiler.nodes.AbstractEndNode;
+import org.graalvm.compiler.nodes.AbstractMergeNode;
+import org.graalvm.compiler.nodes.BeginNode;
+import org.graalvm.compiler.nodes.ConstantNode;
+import org.graalvm.compiler.nodes.FixedNode;
+import org.graalvm.compiler.nodes.IfNode;
+import org.graalvm.compiler.nodes.LogicNode;
+import org.graalvm.compiler.nodes.ParameterNode;
+import org.graalvm.compiler.nodes.PhiNode;
+import org.graalvm.compiler.nodes.ProxyNode;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.ValuePhiNode;
+import org.graalvm.compiler.nodes.calc.CompareNode;
+import org.graalvm.compiler.nodes.calc.ConditionalNode;
+import org.graalvm.compiler.nodes.calc.IntegerTestNode;
+import org.graalvm.compiler.nodes.calc.IsNullNode;
+import org.graalvm.compiler.options.Option;
+import org.graalvm.compiler.options.OptionKey;
+import org.graalvm.compiler.options.OptionType;
+import org.graalvm.compiler.phases.Phase;
+
+import jdk.vm.ci.meta.JavaKind;
+
+/**
+ * Converts diamonds whose branch profile shows that they are hard to predict into
+ * {@link ConditionalNode}s. A diamond qualifies if both successors of the {@link IfNode} are empty
+ * and directly merge again, and if both successors are taken with at least
+ * {@link Options#IfConversionMinProbability} probability.
+ *
+ * The values merged by the diamond may be computed by arbitrary side-effect free floating nodes.
+ * Since both values are evaluated unconditionally after the conversion, the cycles of the nodes that
+ * are only used by one arm are bounded by {@link Options#IfConversionMaxCycles}. All phis of the
+ * merge are converted, which results in several {@link ConditionalNode}s sharing one condition;
+ * the LIR generator emits those as a chain of conditional moves after a single compare.
+ *
+ * The phase only rewrites the phi inputs. The now redundant {@link IfNode} is removed by a
+ * subsequent run of the {@link CanonicalizerPhase}.
+ */
+public class IfConversionPhase extends Phase {
+
+    public static class Options {
+        // @formatter:off
+        @Option(help = "Minimum probability of both successors of an if for the if to be converted into conditional moves.", type = OptionType.Expert)
+        public static final OptionKey<Double> IfConversionMinProbability = new OptionKey<>(0.2D);
+        @Option(help = "Maximum number of estimated cycles that if conversion may add to the execution of one arm of an if.", type = OptionType.Expert)
+        public static final OptionKey<Integer> IfConversionMaxCycles = new OptionKey<>(8);
+        // @formatter:on
+    }
+
+    private static final CounterKey CONVERTED = DebugContext.counter("IfConversion_Converted");
+    private static final CounterKey CONDITIONALS = DebugContext.counter("IfConversion_Conditionals");
+
+    @Override
+    protected void run(StructuredGraph graph) {
+        double minProbability = Options.IfConversionMinProbability.getValue(graph.getOptions());
+        int maxCycles = Options.IfConversionMaxCycles.getValue(graph.getOptions());
+        for (IfNode ifNode : graph.getNodes(IfNode.TYPE).snapshot()) {
+            if (ifNode.isAlive()) {
+                tryConvert(ifNode, minProbability, maxCycles);
+            }
+        }
+    }
+
+    private static void tryConvert(IfNode ifNode, double minProbability, int maxCycles) {
+        double probability = ifNode.getTrueSuccessorProbability();
+        if (probability < minProbability || 1 - probability < minProbability) {
+            return;
+        }
+        LogicNode condition = ifNode.condition();
+        if (!(condition instanceof CompareNode || condition instanceof IsNullNode || condition instanceof IntegerTestNode)) {
+            return;
+        }
+        AbstractEndNode trueEnd = emptyArmEnd(ifNode.trueSuccessor());
+        AbstractEndNode falseEnd = emptyArmEnd(ifNode.falseSuccessor());
+        if (trueEnd == null || falseEnd == null || trueEnd.merge() != falseEnd.merge()) {
+            return;
+        }
+        AbstractMergeNode merge = trueEnd.merge();
+        List<PhiNode> phis = new ArrayList<>();
+        int trueCycles = 0;
+        int falseCycles = 0;
+        for (PhiNode phi : merge.phis()) {
+            ValueNode trueValue = phi.valueAt(trueEnd);
+            ValueNode falseValue = phi.valueAt(falseEnd);
+            if (trueValue == falseValue) {
+                continue;
+            }
+            if (!(phi instanceof ValuePhiNode) || !isSupportedKind(trueValue.getStackKind()) || trueValue.getStackKind() != falseValue.getStackKind()) {
+                return;
+            }
+            int cycles = armCycles(trueValue, phi);
+            if (cycles < 0) {
+                return;
+            }
+            trueCycles += cycles;
+            cycles = armCycles(falseValue, phi);
+            if (cycles < 0) {
+                return;
+            }
+            falseCycles += cycles;
+            phis.add(phi);
+        }
+        if (phis.isEmpty() || trueCycles > maxCycles || falseCycles > maxCycles) {
+            return;
+        }
+
+        StructuredGraph graph = ifNode.graph();
+        DebugContext debug = graph.getDebug();
+        for (PhiNode phi : phis) {
+            ConditionalNode conditional = graph.unique(new ConditionalNode(condition, phi.valueAt(trueEnd), phi.valueAt(falseEnd)));
+            phi.setValueAt(trueEnd, conditional);
+            phi.setValueAt(falseEnd, conditional);
+            CONDITIONALS.increment(debug);
+        }
+        debug.log("IfConversion: converted %s with %d phis (true probability %f)", ifNode, phis.size(), probability);
+        CONVERTED.increment(debug);
+    }
+
+    private static boolean isSupportedKind(JavaKind kind) {
+        return kind == JavaKind.Int || kind == JavaKind.Long;
+    }
+
+    /**
+     * Returns the end of an arm of a diamond that does not contain any fixed nodes and has no
+     * anchored nodes, or {@code null}.
+     */
+    private static AbstractEndNode emptyArmEnd(AbstractBeginNode successor) {
+        if (successor.getClass() != BeginNode.class || successor.hasUsages() || !(successor.next() instanceof AbstractEndNode)) {
+            return null;
+        }
+        return (AbstractEndNode) successor.next();
+    }
+
+    /**
+     * Estimates the cycles of the floating nodes that are only needed to compute {@code value} for
+     * {@code phi} and would therefore be evaluated unconditionally after the conversion. Returns -1
+     * if one of these nodes has no known cycle estimate.
+     */
+    private static int armCycles(ValueNode value, PhiNode phi) {
+        NodeBitMap arm = phi.graph().createNodeBitMap();
+        ArrayDeque<ValueNode> worklist = new ArrayDeque<>();
+        worklist.push(value);
+        int cycles = 0;
+        while (!worklist.isEmpty()) {
+            ValueNode node = worklist.pop();
+            if (arm.isMarked(node) || isAvailable(node) || !onlyUsedBy(node, arm, phi)) {
+                continue;
+            }
+            arm.mark(node);
+            NodeCycles nodeCycles = node.estimatedNodeCycles();
+            if (!nodeCycles.isValueKnown()) {
+                return -1;
+            }
+            cycles += nodeCycles.value;
+            for (Node input : node.inputs()) {
+                if (input instanceof ValueNode) {
+                    worklist.push((ValueNode) input);
+                }
+            }
+        }
+        return cycles;
+    }
+
+    /**
+     * Nodes that are computed before the diamond anyway.
+     */
+    private static boolean isAvailable(ValueNode node) {
+        return node instanceof FixedNode || node instanceof PhiNode || node instanceof ProxyNode || node instanceof ConstantNode || node instanceof ParameterNode;
+    }
+
+    private static boolean onlyUsedBy(ValueNode node, NodeBitMap arm, PhiNode phi) {
+        for (Node usage : node.usages()) {
+            if (usage != phi && !arm.isMarked(usage)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -48,6 +48,11 @@ public class IterativeConditionalEliminationPhase extends BasePhase<CoreProvider
         this.fullSchedule = fullSchedule;
     }
 
+    @Override
+    protected boolean isOptionalUnderMemoryPressure() {
+        return true;
+    }
+
     @Override
     @SuppressWarnings("try")
     protected void run(StructuredGraph graph, CoreProviders context) {
@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.phases.common.inlining;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.graalvm.compiler.debug.CounterKey;
+import org.graalvm.compiler.debug.DebugCloseable;
+import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.debug.DebugContext.Description;
+import org.graalvm.compiler.debug.GlobalMetrics;
+import org.graalvm.compiler.debug.TimerKey;
+import org.graalvm.compiler.nodes.CallTargetNode.InvokeKind;
+import org.graalvm.compiler.nodes.Invoke;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.java.MethodCallTargetNode;
+import org.graalvm.compiler.phases.common.CanonicalizerPhase;
+import org.graalvm.compiler.phases.common.inlining.info.elem.InlineableGraph;
+import org.graalvm.compiler.phases.common.inlining.policy.InliningPolicy;
+import org.graalvm.compiler.phases.tiers.HighTierContext;
+
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+
+/**
+ * Parses the graphs of likely inlining candidates on a {@link ForkJoinPool} while the inliner is
+ * still busy with other callsites of the same compilation.
+ *
+ * Only the callees of {@linkplain InvokeKind#isDirect() direct} or statically bound invokes are
+ * parsed ahead of time since those are the targets the inliner will certainly look at, and only if
+ * the {@link InliningPolicy#isWorthPrefetching inlining policy} expects to inline them. Each
+ * graph is parsed with a {@link DebugContext} of its own and is copied into the debug context of
+ * the compilation before it is handed out, so the cached graph is never modified. The
+ * {@link jdk.vm.ci.meta.SpeculationLog} of the compilation is not thread safe, so prefetched graphs
+ * are parsed without speculation. If the inliner asks for a graph whose task has not started yet,
+ * the task is claimed and the graph is parsed on the compiling thread with the speculation log of
+ * the compilation, as if no prefetching had happened.
+ */
+public final class CalleeGraphPrefetcher {
+
+    private static final CounterKey PrefetchedGraphs = DebugContext.counter("InliningPrefetchedGraphs");
+    public static final CounterKey PrefetchedGraphsUsed = DebugContext.counter("InliningPrefetchedGraphsUsed");
+    private static final TimerKey PrefetchWaitTime = DebugContext.timer("InliningPrefetchWait");
+
+    private final StructuredGraph rootGraph;
+    private final HighTierContext context;
+    private final CanonicalizerPhase canonicalizer;
+    private final InliningPolicy policy;
+    private final ForkJoinPool pool;
+    private final GlobalMetrics globalMetrics;
+    private final Description description;
+    private final ConcurrentHashMap<ResolvedJavaMethod, ParseTask> tasks = new ConcurrentHashMap<>();
+
+    /**
+     * The pool shared by all compilations that prefetch callee graphs. It is separate from the
+     * {@linkplain ForkJoinPool#commonPool() common pool} so that compilations neither wait for nor
+     * delay the tasks of the application.
+     */
+    private static final class PrefetchPool {
+        static final ForkJoinPool INSTANCE = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1), pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("InliningGraphPrefetcher-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+
+    public CalleeGraphPrefetcher(StructuredGraph rootGraph, HighTierContext context, CanonicalizerPhase canonicalizer, InliningPolicy policy) {
+        this(rootGraph, context, canonicalizer, policy, PrefetchPool.INSTANCE);
+    }
+
+    public CalleeGraphPrefetcher(StructuredGraph rootGraph, HighTierContext context, CanonicalizerPhase canonicalizer, InliningPolicy policy, ForkJoinPool pool) {
+        this.rootGraph = rootGraph;
+        this.context = context;
+        this.canonicalizer = canonicalizer;
+        this.policy = policy;
+        this.pool = pool;
+        this.globalMetrics = rootGraph.getDebug().getGlobalMetrics();
+        this.description = rootGraph.getDebug().getDescription();
+    }
+
+    /**
+     * Starts parsing the callees of {@code invokes} that are not being parsed already.
+     */
+    public void prefetch(Iterable<Invoke> invokes) {
+        for (Invoke invoke : invokes) {
+            ResolvedJavaMethod method = prefetchTarget(invoke);
+            if (method != null && !tasks.containsKey(method)) {
+                ParseTask task = new ParseTask(method);
+                if (tasks.putIfAbsent(method, task) == null) {
+                    PrefetchedGraphs.increment(rootGraph.getDebug());
+                    pool.execute(task);
+                }
+            }
+        }
+    }
+
+    private ResolvedJavaMethod prefetchTarget(Invoke invoke) {
+        if (!(invoke.callTarget() instanceof MethodCallTargetNode) || !invoke.useForInlining()) {
+            return null;
+        }
+        MethodCallTargetNode callTarget = (MethodCallTargetNode) invoke.callTarget();
+        ResolvedJavaMethod method = callTarget.targetMethod();
+        if (method == null || !(callTarget.invokeKind().isDirect() || method.canBeStaticallyBound())) {
+            return null;
+        }
+        if (!method.hasBytecodes() || !method.canBeInlined() || !method.getDeclaringClass().isInitialized() || context.getReplacements().hasSubstitution(method)) {
+            return null;
+        }
+        if (!policy.isWorthPrefetching(context.getReplacements(), invoke, method)) {
+            return null;
+        }
+        return method;
+    }
+
+    /**
+     * Gets a private copy of the graph prefetched for {@code method}, waiting for it if it is
+     * currently being parsed.
+     *
+     * @return {@code null} if no graph was prefetched for {@code method}, if its parsing has not
+     *         started yet or if it failed, in which case the caller parses the graph itself
+     */
+    @SuppressWarnings("try")
+    public StructuredGraph getGraph(ResolvedJavaMethod method, DebugContext debug) {
+        ParseTask task = tasks.get(method);
+        if (task == null || task.claim()) {
+            return null;
+        }
+        try (DebugCloseable t = PrefetchWaitTime.start(debug)) {
+            task.quietlyJoin();
+        }
+        if (!task.isCompletedNormally() || task.getRawResult() == null) {
+            return null;
+        }
+        PrefetchedGraphsUsed.increment(debug);
+        return (StructuredGraph) task.getRawResult().copy(debug);
+    }
+
+    /**
+     * Prevents all tasks that have not started yet from running. Tasks that are already running
+     * are not interrupted, their results are simply dropped.
+     */
+    public void cancel() {
+        for (ParseTask task : tasks.values()) {
+            task.claim();
+        }
+        tasks.clear();
+    }
+
+    @SuppressWarnings("serial")
+    private final class ParseTask extends RecursiveTask<StructuredGraph> {
+
+        private final ResolvedJavaMethod method;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        ParseTask(ResolvedJavaMethod method) {
+            this.method = method;
+        }
+
+        /**
+         * @return {@code true} if the caller claimed this task before it started running
+         */
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+
+        @Override
+        @SuppressWarnings("try")
+        protected StructuredGraph compute() {
+            if (!claim()) {
+                return null;
+            }
+            try (DebugContext debug = new DebugContext.Builder(rootGraph.getOptions()).globalMetrics(globalMetrics).description(description).build()) {
+                return InlineableGraph.parseBytecodes(method, context, canonicalizer, rootGraph, rootGraph.trackNodeSourcePosition(), null, debug);
+            }
+        }
+    }
+}
@@ -51,6 +51,9 @@ public class InliningPhase extends AbstractInliningPhase {
          */
         @Option(help = "Per-compilation method inlining exploration limit before giving up (use 0 to disable)", type = OptionType.Debug)//
         public static final OptionKey<Integer> MethodInlineBailoutLimit = new OptionKey<>(5000);
+
+        @Option(help = "Parse the graphs of direct callees that the inlining policy expects to inline on a separate thread pool while the inliner explores other callsites.", type = OptionType.Expert)//
+        public static final OptionKey<Boolean> ParallelInliningGraphs = new OptionKey<>(false);
     }
 
     private final InliningPolicy inliningPolicy;
@@ -81,6 +84,18 @@ public class InliningPhase extends AbstractInliningPhase {
         this.rootInvokes = rootInvokes;
     }
 
+    /**
+     * Creates the object that parses callee graphs ahead of time for one application of this phase.
+     *
+     * @return {@code null} if callee graphs are only parsed when the inliner needs them
+     */
+    protected CalleeGraphPrefetcher createPrefetcher(StructuredGraph graph, HighTierContext context) {
+        if (Options.ParallelInliningGraphs.getValue(graph.getOptions())) {
+            return new CalleeGraphPrefetcher(graph, context, canonicalizer, inliningPolicy);
+        }
+        return null;
+    }
+
     /**
      *
      * This method sets in motion the inlining machinery.
@@ -91,25 +106,32 @@ public class InliningPhase extends AbstractInliningPhase {
      */
     @Override
     protected void run(final StructuredGraph graph, final HighTierContext context) {
-        final InliningData data = new InliningData(graph, context, maxMethodPerInlining, canonicalizer, inliningPolicy, rootInvokes);
+        CalleeGraphPrefetcher prefetcher = createPrefetcher(graph, context);
+        try {
+            final InliningData data = new InliningData(graph, context, maxMethodPerInlining, canonicalizer, inliningPolicy, rootInvokes, prefetcher);
 
-        int count = 0;
-        assert data.repOK();
-        int limit = Options.MethodInlineBailoutLimit.getValue(graph.getOptions());
-        while (data.hasUnprocessedGraphs()) {
-            boolean wasInlined = data.moveForward();
+            int count = 0;
             assert data.repOK();
-            count++;
-            if (!wasInlined) {
-                if (limit > 0 && count == limit) {
-                    // Limit the amount of exploration which is done
-                    break;
+            int limit = Options.MethodInlineBailoutLimit.getValue(graph.getOptions());
+            while (data.hasUnprocessedGraphs()) {
+                boolean wasInlined = data.moveForward();
+                assert data.repOK();
+                count++;
+                if (!wasInlined) {
+                    if (limit > 0 && count == limit) {
+                        // Limit the amount of exploration which is done
+                        break;
+                    }
                 }
             }
-        }
 
-        assert data.inliningDepth() == 0 || count == limit;
-        assert data.graphCount() == 0 || count == limit;
+            assert data.inliningDepth() == 0 || count == limit;
+            assert data.graphCount() == 0 || count == limit;
+        } finally {
+            if (prefetcher != null) {
+                prefetcher.cancel();
+            }
+        }
     }
 
 }
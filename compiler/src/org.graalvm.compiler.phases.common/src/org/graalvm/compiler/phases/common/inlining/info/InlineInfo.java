@@ -31,6 +31,7 @@ import org.graalvm.compiler.nodes.StructuredGraph;
 import org.graalvm.compiler.nodes.spi.CoreProviders;
 import org.graalvm.compiler.options.OptionValues;
 import org.graalvm.compiler.phases.common.CanonicalizerPhase;
+import org.graalvm.compiler.phases.common.inlining.CalleeGraphPrefetcher;
 import org.graalvm.compiler.phases.common.inlining.info.elem.Inlineable;
 import org.graalvm.compiler.phases.tiers.HighTierContext;
 import org.graalvm.compiler.phases.util.Providers;
@@ -89,5 +90,11 @@ public interface InlineInfo {
 
     void populateInlinableElements(HighTierContext context, StructuredGraph caller, CanonicalizerPhase canonicalizer, OptionValues optionValues);
 
+    /**
+     * Same as {@link #populateInlinableElements(HighTierContext, StructuredGraph, CanonicalizerPhase, OptionValues)}
+     * but takes the graphs of the inlineable elements from {@code prefetcher} where possible.
+     */
+    void populateInlinableElements(HighTierContext context, StructuredGraph caller, CanonicalizerPhase canonicalizer, OptionValues optionValues, CalleeGraphPrefetcher prefetcher);
+
     int determineNodeCount();
 }
@@ -26,6 +26,7 @@ package org.graalvm.compiler.phases.common.inlining.info.elem;
 
 import org.graalvm.compiler.nodes.Invoke;
 import org.graalvm.compiler.phases.common.CanonicalizerPhase;
+import org.graalvm.compiler.phases.common.inlining.CalleeGraphPrefetcher;
 import org.graalvm.compiler.phases.tiers.HighTierContext;
 
 import jdk.vm.ci.meta.ResolvedJavaMethod;
@@ -33,9 +34,14 @@ import jdk.vm.ci.meta.ResolvedJavaMethod;
 public interface Inlineable {
 
     static Inlineable getInlineableElement(final ResolvedJavaMethod method, Invoke invoke, HighTierContext context, CanonicalizerPhase canonicalizer, boolean trackNodeSourcePosition) {
+        return getInlineableElement(method, invoke, context, canonicalizer, trackNodeSourcePosition, null);
+    }
+
+    static Inlineable getInlineableElement(final ResolvedJavaMethod method, Invoke invoke, HighTierContext context, CanonicalizerPhase canonicalizer, boolean trackNodeSourcePosition,
+                    CalleeGraphPrefetcher prefetcher) {
         assert method != null;
         assert invoke != null;
-        return new InlineableGraph(method, invoke, context, canonicalizer, trackNodeSourcePosition);
+        return new InlineableGraph(method, invoke, context, canonicalizer, trackNodeSourcePosition, prefetcher);
     }
 
     int getNodeCount();
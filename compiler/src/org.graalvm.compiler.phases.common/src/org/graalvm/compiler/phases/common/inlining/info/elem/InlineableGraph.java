@@ -41,11 +41,13 @@ import org.graalvm.compiler.nodes.StructuredGraph;
 import org.graalvm.compiler.nodes.ValueNode;
 import org.graalvm.compiler.phases.common.CanonicalizerPhase;
 import org.graalvm.compiler.phases.common.DeadCodeEliminationPhase;
+import org.graalvm.compiler.phases.common.inlining.CalleeGraphPrefetcher;
 import org.graalvm.compiler.phases.common.inlining.InliningUtil;
 import org.graalvm.compiler.phases.graph.FixedNodeRelativeFrequencyCache;
 import org.graalvm.compiler.phases.tiers.HighTierContext;
 
 import jdk.vm.ci.meta.ResolvedJavaMethod;
+import jdk.vm.ci.meta.SpeculationLog;
 
 /**
  * <p>
@@ -68,10 +70,25 @@ public class InlineableGraph implements Inlineable {
     private FixedNodeRelativeFrequencyCache probabilites = new FixedNodeRelativeFrequencyCache();
 
     public InlineableGraph(final ResolvedJavaMethod method, final Invoke invoke, final HighTierContext context, CanonicalizerPhase canonicalizer, boolean trackNodeSourcePosition) {
+        this(method, invoke, context, canonicalizer, trackNodeSourcePosition, null);
+    }
+
+    /**
+     * @param prefetcher if non-null, a graph already parsed for {@code method} by this prefetcher
+     *            is used instead of parsing the bytecodes again
+     */
+    public InlineableGraph(final ResolvedJavaMethod method, final Invoke invoke, final HighTierContext context, CanonicalizerPhase canonicalizer, boolean trackNodeSourcePosition,
+                    CalleeGraphPrefetcher prefetcher) {
         StructuredGraph original = context.getReplacements().getInlineSubstitution(method, invoke.bci(), invoke.getInlineControl(), trackNodeSourcePosition, null,
                         invoke.asNode().graph().allowAssumptions(), invoke.asNode().getOptions());
         if (original == null) {
-            original = parseBytecodes(method, context, canonicalizer, invoke.asNode().graph(), trackNodeSourcePosition);
+            StructuredGraph caller = invoke.asNode().graph();
+            if (prefetcher != null) {
+                original = prefetcher.getGraph(method, caller.getDebug());
+            }
+            if (original == null) {
+                original = parseBytecodes(method, context, canonicalizer, caller, trackNodeSourcePosition, caller.getSpeculationLog(), caller.getDebug());
+            }
         } else if (original.isFrozen()) {
             // Graph may be modified by specializeGraphToArguments so defensively
             // make a copy. We rely on the frozen state of a graph to denote
@@ -187,12 +204,22 @@ public class InlineableGraph implements Inlineable {
      * Provided profiling info is mature, the resulting graph is cached. The caller is responsible
      * for cloning before modification.
      * </p>
+     *
+     * <p>
+     * The new graph takes its properties from {@code caller} but is built in {@code debug}, which
+     * allows it to be parsed on a thread other than the one compiling {@code caller}. A
+     * {@link SpeculationLog} is generally not thread safe, so a graph parsed on another thread must
+     * not use the speculation log of {@code caller}.
+     * </p>
+     *
+     * @param speculationLog the speculation log of the new graph, either the one of {@code caller}
+     *            or {@code null} to parse the graph without speculation
      */
     @SuppressWarnings("try")
-    private static StructuredGraph parseBytecodes(ResolvedJavaMethod method, HighTierContext context, CanonicalizerPhase canonicalizer, StructuredGraph caller, boolean trackNodeSourcePosition) {
-        DebugContext debug = caller.getDebug();
+    public static StructuredGraph parseBytecodes(ResolvedJavaMethod method, HighTierContext context, CanonicalizerPhase canonicalizer, StructuredGraph caller, boolean trackNodeSourcePosition,
+                    SpeculationLog speculationLog, DebugContext debug) {
         StructuredGraph newGraph = new StructuredGraph.Builder(caller.getOptions(), debug, caller.allowAssumptions()).method(method).trackNodeSourcePosition(trackNodeSourcePosition).useProfilingInfo(
-                        caller.useProfilingInfo()).speculationLog(caller.getSpeculationLog()).build();
+                        caller.useProfilingInfo()).profileProvider(caller.getProfileProvider()).speculationLog(speculationLog).build();
         try (DebugContext.Scope s = debug.scope("InlineGraph", newGraph)) {
             if (!caller.isUnsafeAccessTrackingEnabled()) {
                 newGraph.disableUnsafeAccessTracking();
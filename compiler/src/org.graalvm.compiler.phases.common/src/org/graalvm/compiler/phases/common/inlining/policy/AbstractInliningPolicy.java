@@ -52,8 +52,12 @@ public abstract class AbstractInliningPolicy implements InliningPolicy {
     }
 
     protected double getInliningBonus(InlineInfo info) {
-        if (hints != null && hints.containsKey(info.invoke())) {
-            return hints.get(info.invoke());
+        return getInliningBonus(info.invoke());
+    }
+
+    protected double getInliningBonus(Invoke invoke) {
+        if (hints != null && hints.containsKey(invoke)) {
+            return hints.get(invoke);
         }
         return 1;
     }
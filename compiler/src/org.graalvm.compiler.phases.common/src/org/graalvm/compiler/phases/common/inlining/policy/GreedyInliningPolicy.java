@@ -44,9 +44,12 @@ import org.graalvm.compiler.phases.common.inlining.InliningUtil;
 import org.graalvm.compiler.phases.common.inlining.info.InlineInfo;
 import org.graalvm.compiler.phases.common.inlining.walker.MethodInvocation;
 
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+
 public class GreedyInliningPolicy extends AbstractInliningPolicy {
 
     private static final CounterKey inliningStoppedByMaxDesiredSizeCounter = DebugContext.counter("InliningStoppedByMaxDesiredSize");
+    private static final CounterKey inliningStoppedByMemoryBudgetCounter = DebugContext.counter("InliningStoppedByMemoryBudget");
 
     public GreedyInliningPolicy(Map<Invoke, Double> hints) {
         super(hints);
@@ -60,6 +63,12 @@ public class GreedyInliningPolicy extends AbstractInliningPolicy {
             inliningStoppedByMaxDesiredSizeCounter.increment(debug);
             return false;
         }
+        DebugContext debug = currentGraph.getDebug();
+        if (debug.isMemoryBudgetExceeded()) {
+            InliningUtil.logInliningDecision(debug, "inlining is cut off by CompilationMemoryBudget");
+            inliningStoppedByMemoryBudgetCounter.increment(debug);
+            return false;
+        }
         return true;
     }
 
@@ -136,4 +145,26 @@ public class GreedyInliningPolicy extends AbstractInliningPolicy {
         InliningUtil.traceNotInlinedMethod(info, inliningDepth, "relevance-based (relevance=%f, probability=%f, bonus=%f, nodes=%d > %f)", relevance, probability, inliningBonus, nodes, maximumNodes);
         return InliningPolicy.Decision.NO.withReason(isTracing, "relevance-based (relevance=%f, probability=%f, bonus=%f, nodes=%d > %f)", relevance, probability, inliningBonus, nodes, maximumNodes);
     }
+
+    @Override
+    public boolean isWorthPrefetching(Replacements replacements, Invoke invoke, ResolvedJavaMethod callee) {
+        StructuredGraph graph = invoke.asNode().graph();
+        OptionValues options = graph.getOptions();
+        if (InlineEverything.getValue(options)) {
+            return true;
+        }
+        if (InliningUtil.getNodeCount(graph) >= MaximumDesiredSize.getValue(options)) {
+            return false;
+        }
+        double inliningBonus = getInliningBonus(invoke);
+        int lowLevelGraphSize = graph.getProfilingInfo(callee).getCompilerIRSize(StructuredGraph.class);
+        if (SmallCompiledLowLevelGraphSize.getValue(options) > 0 && lowLevelGraphSize > SmallCompiledLowLevelGraphSize.getValue(options) * inliningBonus && !replacements.hasSubstitution(callee)) {
+            return false;
+        }
+        /*
+         * The relevance of a callsite is at most 1, so isWorthInlining never accepts more than
+         * MaximumInliningSize nodes. The bytecode size is used as an estimate of the node count.
+         */
+        return callee.getCodeSize() <= MaximumInliningSize.getValue(options) * inliningBonus;
+    }
 }
@@ -28,12 +28,15 @@ import static org.graalvm.compiler.core.common.GraalOptions.MaximumDesiredSize;
 
 import org.graalvm.compiler.core.common.GraalOptions;
 import org.graalvm.compiler.core.common.PermanentBailoutException;
+import org.graalvm.compiler.nodes.Invoke;
 import org.graalvm.compiler.nodes.StructuredGraph;
 import org.graalvm.compiler.nodes.spi.Replacements;
 import org.graalvm.compiler.phases.common.inlining.InliningUtil;
 import org.graalvm.compiler.phases.common.inlining.info.InlineInfo;
 import org.graalvm.compiler.phases.common.inlining.walker.MethodInvocation;
 
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+
 public class InlineEverythingPolicy implements InliningPolicy {
 
     @Override
@@ -49,4 +52,9 @@ public class InlineEverythingPolicy implements InliningPolicy {
         boolean isTracing = GraalOptions.TraceInlining.getValue(calleeInfo.graph().getOptions()) || calleeInfo.graph().getDebug().hasCompilationListener();
         return Decision.YES.withReason(isTracing, "inline everything");
     }
+
+    @Override
+    public boolean isWorthPrefetching(Replacements replacements, Invoke invoke, ResolvedJavaMethod callee) {
+        return true;
+    }
 }
@@ -26,6 +26,7 @@ package org.graalvm.compiler.phases.common.inlining.policy;
 
 import org.graalvm.compiler.core.common.GraalOptions;
 import org.graalvm.compiler.nodes.CallTargetNode;
+import org.graalvm.compiler.nodes.Invoke;
 import org.graalvm.compiler.nodes.java.MethodCallTargetNode;
 import org.graalvm.compiler.nodes.spi.Replacements;
 import org.graalvm.compiler.phases.common.inlining.info.InlineInfo;
@@ -50,4 +51,9 @@ public final class InlineMethodSubstitutionsPolicy extends InlineEverythingPolic
         }
         return Decision.NO.withReason(isTracing, "does not have a method substitution");
     }
+
+    @Override
+    public boolean isWorthPrefetching(Replacements replacements, Invoke invoke, ResolvedJavaMethod callee) {
+        return false;
+    }
 }
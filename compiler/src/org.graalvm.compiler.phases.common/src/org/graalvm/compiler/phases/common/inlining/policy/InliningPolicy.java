@@ -24,11 +24,14 @@
  */
 package org.graalvm.compiler.phases.common.inlining.policy;
 
+import org.graalvm.compiler.nodes.Invoke;
 import org.graalvm.compiler.nodes.StructuredGraph;
 import org.graalvm.compiler.nodes.spi.Replacements;
 import org.graalvm.compiler.phases.common.inlining.info.InlineInfo;
 import org.graalvm.compiler.phases.common.inlining.walker.MethodInvocation;
 
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+
 public interface InliningPolicy {
     class Decision {
         public static final Decision YES = new Decision(true, "(unknown reason)");
@@ -73,4 +76,15 @@ public interface InliningPolicy {
     boolean continueInlining(StructuredGraph graph);
 
     Decision isWorthInlining(Replacements replacements, MethodInvocation invocation, InlineInfo calleeInfo, int inliningDepth, boolean fullyProcessed);
+
+    /**
+     * Determines if the graph of {@code callee} should be parsed ahead of time, before the inliner
+     * has looked at {@code invoke} (see {@code InliningPhase.Options.ParallelInliningGraphs}). Only
+     * the information available without a callee graph can be used, so this is an estimate of
+     * what {@link #isWorthInlining} will decide. Parsing a graph that is then not inlined is
+     * wasted work, which is why the default is to prefetch nothing.
+     */
+    default boolean isWorthPrefetching(Replacements replacements, Invoke invoke, ResolvedJavaMethod callee) {
+        return false;
+    }
 }
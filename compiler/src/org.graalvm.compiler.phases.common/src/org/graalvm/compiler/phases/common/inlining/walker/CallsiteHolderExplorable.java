@@ -131,6 +131,13 @@ public final class CallsiteHolderExplorable extends CallsiteHolder {
         return fixedParams;
     }
 
+    /**
+     * The callsites of this graph that have not been explored yet.
+     */
+    Iterable<Invoke> remainingInvokes() {
+        return remainingInvokes;
+    }
+
     public boolean repOK() {
         for (Invoke invoke : remainingInvokes) {
             if (!invoke.asNode().isAlive() || !containsInvoke(invoke)) {
@@ -59,6 +59,7 @@ import org.graalvm.compiler.nodes.virtual.VirtualObjectNode;
 import org.graalvm.compiler.options.OptionValues;
 import org.graalvm.compiler.phases.OptimisticOptimizations;
 import org.graalvm.compiler.phases.common.CanonicalizerPhase;
+import org.graalvm.compiler.phases.common.inlining.CalleeGraphPrefetcher;
 import org.graalvm.compiler.phases.common.inlining.InliningUtil;
 import org.graalvm.compiler.phases.common.inlining.info.AssumptionInlineInfo;
 import org.graalvm.compiler.phases.common.inlining.info.ExactInlineInfo;
@@ -122,9 +123,20 @@ public class InliningData {
     private final StructuredGraph rootGraph;
     private final DebugContext debug;
 
+    /**
+     * Parses the callees of explored graphs ahead of time, or {@code null} if callee graphs are
+     * only parsed on demand.
+     */
+    private final CalleeGraphPrefetcher prefetcher;
+
     private int maxGraphs;
 
     public InliningData(StructuredGraph rootGraph, HighTierContext context, int maxMethodPerInlining, CanonicalizerPhase canonicalizer, InliningPolicy inliningPolicy, LinkedList<Invoke> rootInvokes) {
+        this(rootGraph, context, maxMethodPerInlining, canonicalizer, inliningPolicy, rootInvokes, null);
+    }
+
+    public InliningData(StructuredGraph rootGraph, HighTierContext context, int maxMethodPerInlining, CanonicalizerPhase canonicalizer, InliningPolicy inliningPolicy, LinkedList<Invoke> rootInvokes,
+                    CalleeGraphPrefetcher prefetcher) {
         assert rootGraph != null;
         this.context = context;
         this.maxMethodPerInlining = maxMethodPerInlining;
@@ -133,9 +145,17 @@ public class InliningData {
         this.maxGraphs = 1;
         this.rootGraph = rootGraph;
         this.debug = rootGraph.getDebug();
+        this.prefetcher = prefetcher;
 
         invocationQueue.push(new MethodInvocation(null, 1.0, 1.0, null));
-        graphQueue.push(new CallsiteHolderExplorable(rootGraph, 1.0, 1.0, null, rootInvokes));
+        pushGraph(new CallsiteHolderExplorable(rootGraph, 1.0, 1.0, null, rootInvokes));
+    }
+
+    private void pushGraph(CallsiteHolder ch) {
+        graphQueue.push(ch);
+        if (prefetcher != null && ch instanceof CallsiteHolderExplorable) {
+            prefetcher.prefetch(((CallsiteHolderExplorable) ch).remainingInvokes());
+        }
     }
 
     public static boolean isFreshInstantiation(ValueNode arg) {
@@ -525,7 +545,7 @@ public class InliningData {
         InlineInfo info = getInlineInfo(invoke);
 
         if (info != null) {
-            info.populateInlinableElements(context, currentGraph().graph(), canonicalizer, rootGraph.getOptions());
+            info.populateInlinableElements(context, currentGraph().graph(), canonicalizer, rootGraph.getOptions(), prefetcher);
             double invokeProbability = callsiteHolder.invokeProbability(invoke);
             double invokeRelevance = callsiteHolder.invokeRelevance(invoke);
             MethodInvocation methodInvocation = new MethodInvocation(info, invokeProbability, invokeRelevance, freshlyInstantiatedArguments(invoke, callsiteHolder.getFixedParams()));
@@ -629,7 +649,7 @@ public class InliningData {
         for (int i = 0; i < info.numberOfMethods(); i++) {
             CallsiteHolder ch = methodInvocation.buildCallsiteHolderForElement(i);
             assert !contains(ch.graph());
-            graphQueue.push(ch);
+            pushGraph(ch);
             assert graphQueue.size() <= maxGraphs;
         }
     }
@@ -183,6 +183,15 @@ public abstract class BasePhase<C> implements PhaseSizeContract {
         return false;
     }
 
+    /**
+     * Determines if this phase only improves the quality of the generated code and may be omitted
+     * by an enclosing {@link PhaseSuite} once the compilation has
+     * {@linkplain DebugContext#isMemoryBudgetExceeded() exceeded its memory budget}.
+     */
+    protected boolean isOptionalUnderMemoryPressure() {
+        return false;
+    }
+
     @SuppressWarnings("try")
     protected final void apply(final StructuredGraph graph, final C context, final boolean dumpGraph) {
         if (ExcludePhaseFilter.exclude(graph.getOptions(), this, graph.asJavaMethod())) {
@@ -29,6 +29,8 @@ import java.util.Collections;
 import java.util.List;
 import java.util.ListIterator;
 
+import org.graalvm.compiler.debug.CounterKey;
+import org.graalvm.compiler.debug.DebugContext;
 import org.graalvm.compiler.nodes.StructuredGraph;
 
 /**
@@ -36,6 +38,8 @@ import org.graalvm.compiler.nodes.StructuredGraph;
  */
 public class PhaseSuite<C> extends BasePhase<C> {
 
+    private static final CounterKey SkippedUnderMemoryPressure = DebugContext.counter("PhasesSkippedUnderMemoryPressure");
+
     private List<BasePhase<? super C>> phases;
     private boolean immutable;
 
@@ -205,7 +209,13 @@ public class PhaseSuite<C> extends BasePhase<C> {
 
     @Override
     protected void run(StructuredGraph graph, C context) {
+        DebugContext debug = graph.getDebug();
         for (BasePhase<? super C> phase : phases) {
+            if (phase.isOptionalUnderMemoryPressure() && debug.isMemoryBudgetExceeded()) {
+                debug.log("Skipping %s: memory budget exceeded", phase.getName());
+                SkippedUnderMemoryPressure.increment(debug);
+                continue;
+            }
             phase.apply(graph, context);
         }
     }
@@ -45,6 +45,8 @@ import org.graalvm.compiler.core.common.SuppressFBWarnings;
 import org.graalvm.compiler.core.common.cfg.AbstractControlFlowGraph;
 import org.graalvm.compiler.core.common.cfg.BlockMap;
 import org.graalvm.compiler.debug.Assertions;
+import org.graalvm.compiler.debug.CounterKey;
+import org.graalvm.compiler.debug.DebugContext;
 import org.graalvm.compiler.graph.Graph.NodeEvent;
 import org.graalvm.compiler.graph.Graph.NodeEventListener;
 import org.graalvm.compiler.graph.Graph.NodeEventScope;
@@ -85,12 +87,27 @@ import org.graalvm.compiler.nodes.memory.FloatingReadNode;
 import org.graalvm.compiler.nodes.memory.MultiMemoryKill;
 import org.graalvm.compiler.nodes.memory.SingleMemoryKill;
 import org.graalvm.compiler.nodes.spi.ValueProxy;
+import org.graalvm.compiler.options.Option;
+import org.graalvm.compiler.options.OptionKey;
+import org.graalvm.compiler.options.OptionType;
 import org.graalvm.compiler.options.OptionValues;
 import org.graalvm.compiler.phases.Phase;
 import org.graalvm.word.LocationIdentity;
 
 public final class SchedulePhase extends Phase {
 
+    public static class Options {
+        // @formatter:off
+        @Option(help = "Reuse the previous schedule of a graph if the graph did not change since and reuse its " +
+                       "control flow graph if only floating nodes changed.", type = OptionType.Expert)
+        public static final OptionKey<Boolean> IncrementalScheduling = new OptionKey<>(false);
+        // @formatter:on
+    }
+
+    private static final CounterKey ReusedSchedules = DebugContext.counter("IncrementalSchedule_Reused");
+    private static final CounterKey ReusedControlFlowGraphs = DebugContext.counter("IncrementalSchedule_ReusedCFG");
+    private static final CounterKey FullSchedules = DebugContext.counter("IncrementalSchedule_Full");
+
     public enum SchedulingStrategy {
         EARLIEST_WITH_GUARD_ORDER,
         EARLIEST,
@@ -153,9 +170,98 @@ public final class SchedulePhase extends Phase {
     @SuppressWarnings("try")
     protected void run(StructuredGraph graph) {
         try (NodeEventScope scope = verifyImmutableGraph(graph)) {
-            Instance inst = new Instance();
-            inst.run(graph, selectedStrategy, immutableGraph);
+            if (Options.IncrementalScheduling.getValue(graph.getOptions())) {
+                runIncremental(graph, selectedStrategy, immutableGraph);
+            } else {
+                Instance inst = new Instance();
+                inst.run(graph, selectedStrategy, immutableGraph);
+            }
+        }
+    }
+
+    /**
+     * A schedule together with the state of the graph it was computed for.
+     */
+    private static final class IncrementalScheduleResult extends ScheduleResult {
+        private final SchedulingStrategy strategy;
+        private final GuardsStage guardsStage;
+        private final int modificationCount;
+        private final int controlFlowModificationCount;
+
+        IncrementalScheduleResult(ScheduleResult result, SchedulingStrategy strategy, StructuredGraph graph) {
+            super(result.getCFG(), result.getNodeToBlockMap(), result.getBlockToNodesMap());
+            this.strategy = strategy;
+            this.guardsStage = graph.getGuardsStage();
+            this.modificationCount = graph.getModificationCount();
+            this.controlFlowModificationCount = graph.getControlFlowModificationCount();
+        }
+
+        boolean hasSameControlFlow(StructuredGraph graph) {
+            return guardsStage == graph.getGuardsStage() && controlFlowModificationCount == graph.getControlFlowModificationCount();
+        }
+
+        boolean isUpToDate(StructuredGraph graph, SchedulingStrategy s) {
+            return strategy == s && hasSameControlFlow(graph) && modificationCount == graph.getModificationCount();
+        }
+    }
+
+    /**
+     * Schedules {@code graph} reusing as much of its {@linkplain StructuredGraph#getLastSchedule()
+     * last schedule} as the modifications since then allow. The modifications are detected with
+     * the {@linkplain org.graalvm.compiler.graph.Graph#getModificationCount() modification counts}
+     * maintained alongside the node events of the graph:
+     * <ul>
+     * <li>If the graph did not change, the last schedule is kept.</li>
+     * <li>If only floating nodes were added, removed or rewired, the fixed nodes and therefore the
+     * blocks are unchanged, so the {@link ControlFlowGraph} including its dominator tree and loops
+     * is reused and only the nodes are placed again. Branch probabilities and loop frequencies are
+     * node data that the modification counts do not cover, so the block frequencies are computed
+     * again.</li>
+     * <li>Otherwise the graph is scheduled from scratch.</li>
+     * </ul>
+     */
+    private static void runIncremental(StructuredGraph graph, SchedulingStrategy strategy, boolean immutableGraph) {
+        DebugContext debug = graph.getDebug();
+        graph.trackModifications();
+        ScheduleResult last = graph.getLastSchedule();
+        ControlFlowGraph cfg = null;
+        if (last instanceof IncrementalScheduleResult) {
+            IncrementalScheduleResult previous = (IncrementalScheduleResult) last;
+            if (previous.isUpToDate(graph, strategy)) {
+                ReusedSchedules.increment(debug);
+                assert verifyIncrementalSchedule(graph, strategy, previous);
+                return;
+            }
+            if (previous.hasSameControlFlow(graph)) {
+                ReusedControlFlowGraphs.increment(debug);
+                cfg = previous.getCFG();
+                cfg.computeFrequencies();
+            }
+        }
+        if (cfg == null) {
+            FullSchedules.increment(debug);
+        }
+        new Instance(cfg).run(graph, strategy, immutableGraph);
+        IncrementalScheduleResult result = new IncrementalScheduleResult(graph.getLastSchedule(), strategy, graph);
+        graph.setLastSchedule(result);
+        assert cfg == null || verifyIncrementalSchedule(graph, strategy, result);
+    }
+
+    /**
+     * Checks that {@code schedule} assigns every node to the same block as a schedule computed from
+     * scratch.
+     */
+    private static boolean verifyIncrementalSchedule(StructuredGraph graph, SchedulingStrategy strategy, ScheduleResult schedule) {
+        new Instance().run(graph, strategy, true);
+        ScheduleResult full = graph.getLastSchedule();
+        graph.setLastSchedule(schedule);
+        for (Node node : graph.getNodes()) {
+            Block expected = full.getNodeToBlockMap().get(node);
+            Block actual = schedule.getNodeToBlockMap().get(node);
+            assert (expected == null) == (actual == null) && (expected == null || expected.getId() == actual.getId()) : "incremental schedule placed " + node + " in " + actual +
+                            " instead of " + expected;
         }
+        return true;
     }
 
     public static void run(StructuredGraph graph, SchedulingStrategy strategy, ControlFlowGraph cfg) {
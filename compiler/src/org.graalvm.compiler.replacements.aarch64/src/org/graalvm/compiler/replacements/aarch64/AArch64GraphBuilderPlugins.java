@@ -278,6 +278,9 @@ public class AArch64GraphBuilderPlugins implements TargetGraphBuilderPlugins {
             r.setAllowOverwrite(true);
             r.register2("compareTo", byte[].class, byte[].class, new ArrayCompareToPlugin(JavaKind.Byte, JavaKind.Byte));
             r.register2("compareToUTF16", byte[].class, byte[].class, new ArrayCompareToPlugin(JavaKind.Byte, JavaKind.Char));
+            r.registerMethodSubstitution(AArch64StringLatin1Substitutions.class, "inflate", byte[].class, int.class, char[].class, int.class, int.class);
+            r.registerMethodSubstitution(AArch64StringLatin1Substitutions.class, "inflate", byte[].class, int.class, byte[].class, int.class, int.class);
+            r.registerMethodSubstitution(AArch64StringLatin1Substitutions.class, "indexOf", byte[].class, int.class, int.class);
         }
     }
 
@@ -287,6 +290,9 @@ public class AArch64GraphBuilderPlugins implements TargetGraphBuilderPlugins {
             r.setAllowOverwrite(true);
             r.register2("compareTo", byte[].class, byte[].class, new ArrayCompareToPlugin(JavaKind.Char, JavaKind.Char));
             r.register2("compareToLatin1", byte[].class, byte[].class, new ArrayCompareToPlugin(JavaKind.Char, JavaKind.Byte, true));
+            r.registerMethodSubstitution(AArch64StringUTF16Substitutions.class, "compress", char[].class, int.class, byte[].class, int.class, int.class);
+            r.registerMethodSubstitution(AArch64StringUTF16Substitutions.class, "compress", byte[].class, int.class, byte[].class, int.class, int.class);
+            r.registerMethodSubstitution(AArch64StringUTF16Substitutions.class, "indexOfCharUnsafe", byte[].class, int.class, int.class, int.class);
         }
     }
 
@@ -42,9 +42,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Formattable;
 import java.util.Formatter;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Predicate;
@@ -64,6 +62,7 @@ import org.graalvm.compiler.core.common.type.Stamp;
 import org.graalvm.compiler.core.common.type.StampFactory;
 import org.graalvm.compiler.core.common.type.StampPair;
 import org.graalvm.compiler.core.common.type.TypeReference;
+import org.graalvm.compiler.core.common.util.ConcurrentLRUCache;
 import org.graalvm.compiler.debug.Assertions;
 import org.graalvm.compiler.debug.CounterKey;
 import org.graalvm.compiler.debug.DebugCloseable;
@@ -548,17 +547,55 @@ public class SnippetTemplate {
 
     private static final TimerKey SnippetTemplateCreationTime = DebugContext.timer("SnippetTemplateCreationTime");
     private static final CounterKey SnippetTemplates = DebugContext.counter("SnippetTemplateCount");
+    private static final CounterKey SnippetTemplateCacheHits = DebugContext.counter("SnippetTemplateCacheHits");
+    private static final CounterKey SnippetTemplateCacheMisses = DebugContext.counter("SnippetTemplateCacheMisses");
+    private static final CounterKey SnippetTemplateCacheEvictions = DebugContext.counter("SnippetTemplateCacheEvictions");
 
     static class Options {
         @Option(help = "Use a LRU cache for snippet templates.")//
         public static final OptionKey<Boolean> UseSnippetTemplateCache = new OptionKey<>(true);
 
-        @Option(help = "")//
+        @Option(help = "Maximum number of templates cached for the snippets of one snippet class.")//
         static final OptionKey<Integer> MaxTemplatesPerSnippet = new OptionKey<>(50);
     }
 
     /**
-     * Base class for snippet classes. It provides a cache for {@link SnippetTemplate}s.
+     * Counts the {@linkplain AbstractTemplates#template template} cache lookups performed by the
+     * current thread. Since a compilation runs on a single thread, differences between two
+     * snapshots of these counts can be attributed to the compilation running in between.
+     */
+    public static final class CacheStatistics {
+
+        private static final int HITS = 0;
+        private static final int MISSES = 1;
+        private static final int EVICTIONS = 2;
+
+        private static final ThreadLocal<long[]> threadCounts = ThreadLocal.withInitial(() -> new long[3]);
+
+        private CacheStatistics() {
+        }
+
+        static void add(int index, long value) {
+            threadCounts.get()[index] += value;
+        }
+
+        public static long getThreadHits() {
+            return threadCounts.get()[HITS];
+        }
+
+        public static long getThreadMisses() {
+            return threadCounts.get()[MISSES];
+        }
+
+        public static long getThreadEvictions() {
+            return threadCounts.get()[EVICTIONS];
+        }
+    }
+
+    /**
+     * Base class for snippet classes. It provides a cache for {@link SnippetTemplate}s that is
+     * shared by all compiler threads. Looking up a template in the cache does not block; when the
+     * cache is full, the least recently used templates are evicted.
      */
     public abstract static class AbstractTemplates implements org.graalvm.compiler.api.replacements.SnippetTemplateCache {
 
@@ -567,7 +604,7 @@ public class SnippetTemplate {
         protected final SnippetReflectionProvider snippetReflection;
         protected final Iterable<DebugHandlersFactory> factories;
         protected final TargetDescription target;
-        private final Map<CacheKey, SnippetTemplate> templates;
+        private final ConcurrentLRUCache<CacheKey, SnippetTemplate> templates;
 
         protected AbstractTemplates(OptionValues options, Iterable<DebugHandlersFactory> factories, Providers providers, SnippetReflectionProvider snippetReflection, TargetDescription target) {
             this.options = options;
@@ -577,7 +614,7 @@ public class SnippetTemplate {
             this.factories = factories;
             if (Options.UseSnippetTemplateCache.getValue(options)) {
                 int size = Options.MaxTemplatesPerSnippet.getValue(options);
-                this.templates = Collections.synchronizedMap(new LRUCache<>(size, size));
+                this.templates = new ConcurrentLRUCache<>(size);
             } else {
                 this.templates = null;
             }
@@ -656,24 +693,55 @@ public class SnippetTemplate {
         public SnippetTemplate template(ValueNode replacee, final Arguments args) {
             StructuredGraph graph = replacee.graph();
             DebugContext outer = graph.getDebug();
-            SnippetTemplate template = Options.UseSnippetTemplateCache.getValue(options) && args.cacheable ? templates.get(args.cacheKey) : null;
+            boolean useCache = Options.UseSnippetTemplateCache.getValue(options) && args.cacheable;
+            SnippetTemplate template = useCache ? templates.get(args.cacheKey) : null;
             if (template == null || (graph.trackNodeSourcePosition() && !template.snippet.trackNodeSourcePosition())) {
+                if (useCache) {
+                    SnippetTemplateCacheMisses.increment(outer);
+                    CacheStatistics.add(CacheStatistics.MISSES, 1);
+                }
                 try (DebugContext debug = openDebugContext(outer, args)) {
                     try (DebugCloseable a = SnippetTemplateCreationTime.start(debug); DebugContext.Scope s = debug.scope("SnippetSpecialization", args.info.method)) {
                         SnippetTemplates.increment(debug);
                         OptionValues snippetOptions = new OptionValues(options, GraalOptions.TraceInlining, GraalOptions.TraceInliningForStubsAndSnippets.getValue(options));
                         template = new SnippetTemplate(snippetOptions, debug, providers, snippetReflection, args, graph.trackNodeSourcePosition(), replacee, createMidTierPhases());
-                        if (Options.UseSnippetTemplateCache.getValue(snippetOptions) && args.cacheable) {
-                            templates.put(args.cacheKey, template);
-                        }
                     } catch (Throwable e) {
                         throw debug.handle(e);
                     }
                 }
+                if (useCache) {
+                    template = cacheTemplate(outer, args.cacheKey, template);
+                }
+            } else {
+                SnippetTemplateCacheHits.increment(outer);
+                CacheStatistics.add(CacheStatistics.HITS, 1);
             }
             return template;
         }
 
+        /**
+         * Adds {@code template} to the cache. If another thread created a template for the same
+         * key concurrently, its template is returned instead so that all threads share one
+         * instance, unless only {@code template} tracks node source positions.
+         */
+        private SnippetTemplate cacheTemplate(DebugContext debug, CacheKey key, SnippetTemplate template) {
+            SnippetTemplate result = template;
+            SnippetTemplate existing = templates.putIfAbsent(key, template);
+            if (existing != null) {
+                if (existing.snippet.trackNodeSourcePosition() || !template.snippet.trackNodeSourcePosition()) {
+                    result = existing;
+                } else {
+                    templates.put(key, template);
+                }
+            }
+            int evicted = templates.evict();
+            if (evicted > 0) {
+                SnippetTemplateCacheEvictions.add(debug, evicted);
+                CacheStatistics.add(CacheStatistics.EVICTIONS, evicted);
+            }
+            return result;
+        }
+
         /**
          * Additional mid-tier optimization phases to run on the snippet graph during
          * {@link #template} creation. These phases are only run for snippets lowered in the
@@ -684,21 +752,6 @@ public class SnippetTemplate {
         }
     }
 
-    private static final class LRUCache<K, V> extends LinkedHashMap<K, V> {
-        private static final long serialVersionUID = 1L;
-        private final int maxCacheSize;
-
-        LRUCache(int initialCapacity, int maxCacheSize) {
-            super(initialCapacity, 0.75F, true);
-            this.maxCacheSize = maxCacheSize;
-        }
-
-        @Override
-        protected boolean removeEldestEntry(java.util.Map.Entry<K, V> eldest) {
-            return size() > maxCacheSize;
-        }
-    }
-
     // These values must be compared with equals() not '==' to support replay compilation.
     private static final Object UNUSED_PARAMETER = "UNUSED_PARAMETER";
     private static final Object CONSTANT_PARAMETER = "CONSTANT_PARAMETER";
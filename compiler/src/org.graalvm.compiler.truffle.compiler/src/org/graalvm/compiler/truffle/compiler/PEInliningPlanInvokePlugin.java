@@ -79,7 +79,7 @@ final class PEInliningPlanInvokePlugin implements InlineInvokePlugin {
             if (!arg0.isConstant()) {
                 GraalError.shouldNotReachHere("The direct call node does not resolve to a constant!");
             }
-            if (graph.getNodeCount() > inliningNodeLimit) {
+            if (graph.getNodeCount() > inliningNodeLimit || graph.getDebug().isMemoryBudgetExceeded()) {
                 logGraphTooBig();
                 return inlineInfo;
             }
@@ -116,6 +116,7 @@ final class PEInliningPlanInvokePlugin implements InlineInvokePlugin {
             final HashMap<String, Object> properties = new HashMap<>();
             properties.put("graph node count", graph.getNodeCount());
             properties.put("graph node limit", inliningNodeLimit);
+            properties.put("memory budget exceeded", graph.getDebug().isMemoryBudgetExceeded());
             TruffleCompilerRuntime.getRuntime().logEvent(compilable, 0, "Truffle inlining caused graal node count to be too big during partial evaluation.", properties);
         }
     }
@@ -86,6 +86,7 @@ public final class NewFrameNode extends FixedWithNextNode implements IterableNod
     private final boolean intrinsifyAccessors;
     private final JavaKind[] frameSlotKinds;
     private final int frameSize;
+    private final JavaKind[] indexedSlotKinds;
 
     private final SpeculationReason intrinsifyAccessorsSpeculation;
 
@@ -188,6 +189,18 @@ public final class NewFrameNode extends FixedWithNextNode implements IterableNod
         this.frameSlotKinds = frameSlotKindsCandidate;
         this.frameSize = limit + 1;
 
+        /*
+         * The kinds of indexed slots are fixed when the FrameDescriptor is built, so they can be
+         * copied out without any synchronization or version check.
+         */
+        JavaConstant indexedSlotKindArray = constantReflection.readFieldValue(types.fieldFrameDescriptorIndexedSlotKinds, frameDescriptor);
+        final int indexedSize = constantReflection.readArrayLength(indexedSlotKindArray);
+        this.indexedSlotKinds = new JavaKind[indexedSize];
+        for (int i = 0; i < indexedSize; i++) {
+            JavaConstant slotKind = constantReflection.readArrayElement(indexedSlotKindArray, i);
+            indexedSlotKinds[i] = asJavaKind(constantReflection.readFieldValue(types.fieldFrameSlotKindTag, slotKind));
+        }
+
         ResolvedJavaType frameType = types.classFrameClass;
         ResolvedJavaField[] frameFields = frameType.getInstanceFields(true);
         ResolvedJavaField localsField = findField(frameFields, "locals");
@@ -247,6 +260,8 @@ public final class NewFrameNode extends FixedWithNextNode implements IterableNod
         ResolvedJavaField localsField = findField(frameFields, "locals");
         ResolvedJavaField primitiveLocalsField = findField(frameFields, "primitiveLocals");
         ResolvedJavaField tagsField = findField(frameFields, "tags");
+        ResolvedJavaField indexedLocalsField = findField(frameFields, "indexedLocals");
+        ResolvedJavaField indexedPrimitiveLocalsField = findField(frameFields, "indexedPrimitiveLocals");
 
         ValueNode[] objectArrayEntryState = new ValueNode[frameSize];
         ValueNode[] primitiveArrayEntryState = new ValueNode[frameSize];
@@ -275,8 +290,26 @@ public final class NewFrameNode extends FixedWithNextNode implements IterableNod
         if (virtualFrameTagArray != null) {
             tool.createVirtualObject(virtualFrameTagArray, tagArrayEntryState, Collections.<MonitorIdNode> emptyList(), false);
         }
+        /*
+         * The indexed slot arrays are only accessed through the frame fields, so unlike the arrays
+         * above they are not inputs of this node (which would exceed the maximum number of edges).
+         */
+        VirtualArrayNode indexedObjectArray = null;
+        VirtualArrayNode indexedPrimitiveArray = null;
+        if (indexedLocalsField != null) {
+            indexedObjectArray = new VirtualArrayNode((ResolvedJavaType) indexedLocalsField.getType().getComponentType(), indexedSlotKinds.length);
+            indexedPrimitiveArray = new VirtualArrayNode((ResolvedJavaType) indexedPrimitiveLocalsField.getType().getComponentType(), indexedSlotKinds.length);
+            ValueNode[] indexedObjectArrayEntryState = new ValueNode[indexedSlotKinds.length];
+            ValueNode[] indexedPrimitiveArrayEntryState = new ValueNode[indexedSlotKinds.length];
+            Arrays.fill(indexedObjectArrayEntryState, frameDefaultValue);
+            for (int i = 0; i < indexedSlotKinds.length; i++) {
+                indexedPrimitiveArrayEntryState[i] = ConstantNode.defaultForKind(indexedSlotKinds[i], graph());
+            }
+            tool.createVirtualObject(indexedObjectArray, indexedObjectArrayEntryState, Collections.<MonitorIdNode> emptyList(), false);
+            tool.createVirtualObject(indexedPrimitiveArray, indexedPrimitiveArrayEntryState, Collections.<MonitorIdNode> emptyList(), false);
+        }
 
-        assert frameFields.length == 5 || frameFields.length == 3;
+        assert frameFields.length == 7 || frameFields.length == 5 || frameFields.length == 3;
         ValueNode[] frameEntryState = new ValueNode[frameFields.length];
         List<ResolvedJavaField> frameFieldList = Arrays.asList(frameFields);
         frameEntryState[frameFieldList.indexOf(descriptorField)] = getDescriptor();
@@ -288,6 +321,10 @@ public final class NewFrameNode extends FixedWithNextNode implements IterableNod
         if (tagsField != null) {
             frameEntryState[frameFieldList.indexOf(tagsField)] = virtualFrameTagArray;
         }
+        if (indexedLocalsField != null) {
+            frameEntryState[frameFieldList.indexOf(indexedLocalsField)] = indexedObjectArray;
+            frameEntryState[frameFieldList.indexOf(indexedPrimitiveLocalsField)] = indexedPrimitiveArray;
+        }
         /*
          * The new frame is created with "ensureVirtualized" enabled, so that it cannot be
          * materialized. This can only be lifted by a AllowMaterializeNode, which corresponds to a
@@ -245,6 +245,18 @@ public final class PolyglotCompilerOptions {
     @Option(help = "Manually set the number of compiler threads", category = OptionCategory.EXPERT)
     public static final OptionKey<Integer> CompilerThreads = new OptionKey<>(-1);
 
+    @Option(help = "Adapt the number of compiler threads to the compilation load, between MinCompilerThreads and the number of threads selected by CompilerThreads. " +
+            "Threads are added while requests wait in the compilation queue for longer than AdaptiveCompilerThreadsQueueWait milliseconds and idle cores are available, " +
+            "and removed once the queue is empty.",
+            category = OptionCategory.EXPERT)
+    public static final OptionKey<Boolean> AdaptiveCompilerThreads = new OptionKey<>(false);
+
+    @Option(help = "Minimum number of compiler threads if AdaptiveCompilerThreads is enabled.", category = OptionCategory.EXPERT)
+    public static final OptionKey<Integer> MinCompilerThreads = new OptionKey<>(1);
+
+    @Option(help = "Time in milliseconds requests may wait in the compilation queue before AdaptiveCompilerThreads adds compiler threads.", category = OptionCategory.EXPERT)
+    public static final OptionKey<Long> AdaptiveCompilerThreadsQueueWait = new OptionKey<>(50L);
+
     @Option(help = "Set the time in milliseconds an idle Truffle compiler thread will wait for new tasks before terminating. " +
             "New compiler threads will be started once new compilation tasks are submitted. " +
             "Select '0' to never terminate the Truffle compiler thread. " +
@@ -252,6 +264,16 @@ public final class PolyglotCompilerOptions {
             category = OptionCategory.EXPERT)
     public static final OptionKey<Long> CompilerIdleDelay = new OptionKey<>(1000L);
 
+    @Option(help = "Use a compilation queue that, whenever a compiler thread takes a request, traverses the queue and selects the call target " +
+            "of the highest tier with the highest rate of calls and loop iterations since it was queued, instead of the oldest one.",
+            category = OptionCategory.EXPERT)
+    public static final OptionKey<Boolean> TraversingCompilationQueue = new OptionKey<>(false);
+
+    @Option(help = "Time in milliseconds after which a call target waiting in the traversing compilation queue that was neither called nor looped is considered cold " +
+            "and its compilation request is dropped. Select '0' to never drop requests.",
+            category = OptionCategory.EXPERT)
+    public static final OptionKey<Long> TraversingQueueColdDelay = new OptionKey<>(10_000L);
+
     @Option(help = "Minimum number of invocations or loop iterations needed to compile a guest language root.",
                     category = OptionCategory.EXPERT)
     public static final OptionKey<Integer> CompilationThreshold = new OptionKey<>(1000);
@@ -259,6 +281,14 @@ public final class PolyglotCompilerOptions {
     @Option(help = "Minimum number of calls before a call target is compiled", category = OptionCategory.EXPERT)
     public static final OptionKey<Integer> MinInvokeThreshold = new OptionKey<>(3);
 
+    @Option(help = "File in which the AST fingerprints of compiled call targets are recorded across runs. Call targets whose fingerprint was recorded by an earlier run " +
+            "are compiled after CompilationHintsReprofileCount calls and loop iterations instead of waiting for the compilation thresholds.",
+            category = OptionCategory.EXPERT)
+    public static final OptionKey<String> CompilationHintsFile = new OptionKey<>("");
+
+    @Option(help = "Number of calls and loop iterations a call target found in the CompilationHintsFile is profiled in the interpreter before it is compiled.", category = OptionCategory.EXPERT)
+    public static final OptionKey<Integer> CompilationHintsReprofileCount = new OptionKey<>(10);
+
     @Option(help = "Delay compilation after an invalidation to allow for reprofiling. Deprecated: no longer has any effect.", category = OptionCategory.EXPERT, deprecated =  true)
     public static final OptionKey<Integer> InvalidationReprofileCount = new OptionKey<>(3);
 
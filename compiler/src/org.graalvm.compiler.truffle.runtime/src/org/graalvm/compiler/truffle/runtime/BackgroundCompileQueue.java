@@ -39,6 +39,7 @@ import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
 
 import org.graalvm.compiler.truffle.options.PolyglotCompilerOptions;
 
@@ -51,6 +52,17 @@ import org.graalvm.compiler.truffle.options.PolyglotCompilerOptions;
  * (first-in-first-out).
  *
  * Note that all the compilation requests are second tier when the multi-tier option is turned off.
+ *
+ * With {@link PolyglotCompilerOptions#TraversingCompilationQueue}, the queue is traversed whenever a
+ * compiler thread takes a request and the request of the highest tier whose call target has the
+ * highest rate of calls and loop iterations since it was queued is selected instead of the oldest
+ * one. Requests for call targets that were neither called nor looped for
+ * {@link PolyglotCompilerOptions#TraversingQueueColdDelay} are dropped.
+ *
+ * With {@link PolyglotCompilerOptions#AdaptiveCompilerThreads}, the number of compiler threads is
+ * periodically adapted to the queue length, the time requests wait in the queue and the number of
+ * cores not used by compiler threads. Each change is reported to
+ * {@link GraalTruffleRuntimeListener#onCompilerThreadCountChanged}.
  */
 public class BackgroundCompileQueue {
 
@@ -60,6 +72,31 @@ public class BackgroundCompileQueue {
     private boolean shutdown = false;
     protected final GraalTruffleRuntime runtime;
     private long delayMillis;
+    private boolean traversing;
+    private long coldDelayNanos;
+
+    /**
+     * Minimum time in nanoseconds between two adjustments of the number of compiler threads.
+     */
+    private static final long ADJUST_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    /**
+     * Number of queued requests per compiler thread above which compiler threads are added even if
+     * the requests did not wait for long yet.
+     */
+    private static final int QUEUED_REQUESTS_PER_THREAD = 8;
+
+    private boolean adaptive;
+    private int minThreads;
+    private int maxThreads;
+    private long targetQueueWaitNanos;
+    private volatile long lastAdjustTime;
+    private long lastAdjustDequeuedCount;
+    private long lastAdjustTotalQueueWaitNanos;
+
+    private final AtomicLong dequeuedCount = new AtomicLong();
+    private final AtomicLong totalQueueWaitNanos = new AtomicLong();
+    private final LongAccumulator maxQueueWaitNanos = new LongAccumulator(Math::max, 0L);
 
     public BackgroundCompileQueue(GraalTruffleRuntime runtime) {
         this.runtime = runtime;
@@ -86,6 +123,8 @@ public class BackgroundCompileQueue {
 
             // NOTE: The value from the first Engine compiling wins for now
             this.delayMillis = callTarget.getOptionValue(PolyglotCompilerOptions.EncodedGraphCachePurgeDelay);
+            this.traversing = callTarget.getOptionValue(PolyglotCompilerOptions.TraversingCompilationQueue);
+            this.coldDelayNanos = TimeUnit.MILLISECONDS.toNanos(callTarget.getOptionValue(PolyglotCompilerOptions.TraversingQueueColdDelay));
 
             // NOTE: the value from the first Engine compiling wins for now
             int threads = callTarget.getOptionValue(PolyglotCompilerOptions.CompilerThreads);
@@ -121,13 +160,20 @@ public class BackgroundCompileQueue {
             }
             threads = Math.max(1, threads);
 
+            this.adaptive = callTarget.getOptionValue(PolyglotCompilerOptions.AdaptiveCompilerThreads);
+            this.maxThreads = threads;
+            this.minThreads = Math.max(1, Math.min(threads, callTarget.getOptionValue(PolyglotCompilerOptions.MinCompilerThreads)));
+            this.targetQueueWaitNanos = TimeUnit.MILLISECONDS.toNanos(callTarget.getOptionValue(PolyglotCompilerOptions.AdaptiveCompilerThreadsQueueWait));
+            this.lastAdjustTime = System.nanoTime();
+            int coreThreads = adaptive ? minThreads : threads;
+
             ThreadFactory factory = newThreadFactory("TruffleCompilerThread", callTarget);
 
             long compilerIdleDelay = runtime.getCompilerIdleDelay(callTarget);
             long keepAliveTime = compilerIdleDelay >= 0 ? compilerIdleDelay : 0;
 
             this.compilationQueue = new IdlingPriorityBlockingQueue<>();
-            ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(threads, threads,
+            ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(coreThreads, threads,
                             keepAliveTime, TimeUnit.MILLISECONDS,
                             compilationQueue, factory) {
                 @Override
@@ -155,11 +201,61 @@ public class BackgroundCompileQueue {
     public CancellableCompileTask submitTask(Priority priority, OptimizedCallTarget target, Request request) {
         final WeakReference<OptimizedCallTarget> targetReference = new WeakReference<>(target);
         CancellableCompileTask cancellable = new CancellableCompileTask(targetReference, priority == Priority.LAST_TIER);
-        RequestImpl<Void> requestImpl = new RequestImpl<>(nextId(), priority, targetReference, cancellable, request);
+        RequestImpl<Void> requestImpl = new RequestImpl<>(nextId(), priority, target, targetReference, cancellable, request);
         cancellable.setFuture(getExecutorService(target).submit(requestImpl));
+        adjustCompilerThreads();
         return cancellable;
     }
 
+    /**
+     * Adapts the number of compiler threads to the current load if
+     * {@link PolyglotCompilerOptions#AdaptiveCompilerThreads} is enabled and the last adjustment
+     * was long enough ago. Threads are added if requests waited in the queue for longer than
+     * {@link PolyglotCompilerOptions#AdaptiveCompilerThreadsQueueWait} since the last adjustment
+     * or if the queue is long, but only while there are cores not used by compiler threads. A
+     * thread is removed when the queue is empty and the requests did not wait.
+     */
+    private void adjustCompilerThreads() {
+        ThreadPoolExecutor executor = compilationExecutorService;
+        if (!adaptive || executor == null || System.nanoTime() - lastAdjustTime < ADJUST_INTERVAL_NANOS) {
+            return;
+        }
+        int oldThreads;
+        int newThreads;
+        int queueSize;
+        String reason;
+        synchronized (this) {
+            long now = System.nanoTime();
+            if (now - lastAdjustTime < ADJUST_INTERVAL_NANOS || shutdown || executor.isShutdown()) {
+                return;
+            }
+            lastAdjustTime = now;
+            long dequeued = dequeuedCount.get();
+            long totalWait = totalQueueWaitNanos.get();
+            long recentDequeued = dequeued - lastAdjustDequeuedCount;
+            long recentWait = recentDequeued == 0 ? 0 : (totalWait - lastAdjustTotalQueueWaitNanos) / recentDequeued;
+            lastAdjustDequeuedCount = dequeued;
+            lastAdjustTotalQueueWaitNanos = totalWait;
+
+            queueSize = compilationQueue.size();
+            oldThreads = executor.getCorePoolSize();
+            int idleCores = Runtime.getRuntime().availableProcessors() - executor.getActiveCount();
+            if (oldThreads < maxThreads && idleCores > 1 && (recentWait > targetQueueWaitNanos || queueSize > oldThreads * QUEUED_REQUESTS_PER_THREAD)) {
+                // Grow quickly to absorb warmup bursts.
+                newThreads = Math.min(Math.min(maxThreads, oldThreads + idleCores - 1), oldThreads + Math.max(1, oldThreads / 2));
+                reason = String.format("queue size %d, mean queue wait %d ms, idle cores %d", queueSize, TimeUnit.NANOSECONDS.toMillis(recentWait), idleCores);
+            } else if (oldThreads > minThreads && queueSize == 0 && recentWait <= targetQueueWaitNanos / 4) {
+                // Shrink slowly, one thread per interval.
+                newThreads = oldThreads - 1;
+                reason = String.format("queue empty, mean queue wait %d ms", TimeUnit.NANOSECONDS.toMillis(recentWait));
+            } else {
+                return;
+            }
+            executor.setCorePoolSize(newThreads);
+        }
+        runtime.getListener().onCompilerThreadCountChanged(oldThreads, newThreads, queueSize, reason);
+    }
+
     private long nextId() {
         return idCounter.getAndIncrement();
     }
@@ -173,6 +269,34 @@ public class BackgroundCompileQueue {
         }
     }
 
+    /**
+     * Returns the number of requests that have been taken from the queue by a compiler thread.
+     */
+    public long getDequeuedCount() {
+        return dequeuedCount.get();
+    }
+
+    /**
+     * Returns the mean time in nanoseconds the requests taken from the queue waited in the queue.
+     */
+    public long getMeanQueueWaitNanos() {
+        long count = dequeuedCount.get();
+        return count == 0 ? 0 : totalQueueWaitNanos.get() / count;
+    }
+
+    /**
+     * Returns the longest time in nanoseconds a request taken from the queue waited in the queue.
+     */
+    public long getMaxQueueWaitNanos() {
+        return maxQueueWaitNanos.get();
+    }
+
+    private void recordQueueWait(long waitNanos) {
+        dequeuedCount.incrementAndGet();
+        totalQueueWaitNanos.addAndGet(waitNanos);
+        maxQueueWaitNanos.accumulate(waitNanos);
+    }
+
     /**
      * Return call targets waiting in queue. This does not include call targets currently being
      * compiled.
@@ -232,20 +356,75 @@ public class BackgroundCompileQueue {
 
     }
 
-    private static final class RequestImpl<V> implements Callable<V>, Comparable<RequestImpl<?>> {
+    private final class RequestImpl<V> implements Callable<V>, Comparable<RequestImpl<?>> {
 
         private final long id;
         private final Priority priority;
         private final CancellableCompileTask task;
         private final WeakReference<OptimizedCallTarget> targetRef;
         private final Request request;
+        private final long queuedTime;
+        private final int queuedCallAndLoopCount;
 
-        RequestImpl(long id, Priority priority, WeakReference<OptimizedCallTarget> targetRef, CancellableCompileTask task, Request request) {
+        /*
+         * The call and loop count of the target when the queue was last traversed and the last time
+         * it was seen to change. Only accessed by the thread traversing the queue.
+         */
+        private int lastCallAndLoopCount;
+        private long lastActiveTime;
+
+        RequestImpl(long id, Priority priority, OptimizedCallTarget target, WeakReference<OptimizedCallTarget> targetRef, CancellableCompileTask task, Request request) {
             this.id = id;
             this.priority = priority;
             this.targetRef = targetRef;
             this.task = task;
             this.request = request;
+            this.queuedTime = System.nanoTime();
+            this.queuedCallAndLoopCount = target.getCallAndLoopCount();
+            this.lastCallAndLoopCount = queuedCallAndLoopCount;
+            this.lastActiveTime = queuedTime;
+        }
+
+        /**
+         * Determines if executing this request is a no-op and it can thus be taken from the queue
+         * without considering other requests.
+         */
+        boolean isObsolete() {
+            return task.isCancelled() || targetRef.get() == null;
+        }
+
+        /**
+         * Updates the activity of the call target of this request and returns whether it has been
+         * cold for longer than {@link PolyglotCompilerOptions#TraversingQueueColdDelay}.
+         */
+        boolean updateAndCheckCold(long now) {
+            OptimizedCallTarget target = targetRef.get();
+            if (target == null || priority == Priority.INITIALIZATION) {
+                return false;
+            }
+            int count = target.getCallAndLoopCount();
+            if (count != lastCallAndLoopCount) {
+                lastCallAndLoopCount = count;
+                lastActiveTime = now;
+                return false;
+            }
+            return coldDelayNanos > 0 && now - lastActiveTime > coldDelayNanos;
+        }
+
+        /**
+         * Gets the number of calls and loop iterations per millisecond of the call target since
+         * this request was queued.
+         */
+        double rate(long now) {
+            long elapsedMillis = Math.max(1L, TimeUnit.NANOSECONDS.toMillis(now - queuedTime));
+            return (lastCallAndLoopCount - (long) queuedCallAndLoopCount) / (double) elapsedMillis;
+        }
+
+        boolean isHotterThan(RequestImpl<?> that, long now) {
+            if (priority != that.priority) {
+                return priority.value < that.priority.value;
+            }
+            return rate(now) > that.rate(now);
         }
 
         @Override
@@ -260,6 +439,7 @@ public class BackgroundCompileQueue {
         @SuppressWarnings("try")
         @Override
         public V call() {
+            recordQueueWait(System.nanoTime() - queuedTime);
             request.execute(task, targetRef);
             return null;
         }
@@ -342,13 +522,88 @@ public class BackgroundCompileQueue {
             while (!compilationExecutorService.allowsCoreThreadTimeOut()) {
                 E elem = poll(delayMillis, TimeUnit.MILLISECONDS);
                 if (elem == null) {
+                    adjustCompilerThreads();
                     compilerThreadIdled();
                 } else {
                     return elem;
                 }
             }
             // Fallback to blocking version.
-            return super.take();
+            return selectNext(super.take());
+        }
+
+        @Override
+        public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+            return selectNext(super.poll(timeout, unit));
+        }
+
+        @Override
+        public E poll() {
+            return selectNext(super.poll());
+        }
+
+        /**
+         * Selects the element to hand out to a compiler thread given the {@code head} of the
+         * queue, which has already been removed from the queue. If the queue is not
+         * {@linkplain BackgroundCompileQueue#traversing traversing}, this is {@code head}.
+         * Otherwise the hottest request is selected and {@code head} is put back into the queue if
+         * it was not selected. Requests whose call targets went cold are cancelled.
+         */
+        private E selectNext(E head) {
+            if (!traversing || head == null) {
+                return head;
+            }
+            E selected = head;
+            List<OptimizedCallTarget> coldTargets = null;
+            synchronized (this) {
+                long now = System.nanoTime();
+                RequestImpl<?> best = requestOf(head);
+                if (best.updateAndCheckCold(now)) {
+                    coldTargets = addColdTarget(coldTargets, best);
+                }
+                if (!best.isObsolete() && coldTargets == null) {
+                    for (E element : this) {
+                        RequestImpl<?> candidate = requestOf(element);
+                        if (candidate.updateAndCheckCold(now)) {
+                            coldTargets = addColdTarget(coldTargets, candidate);
+                        } else if (candidate.isObsolete()) {
+                            // Drain no-op requests first.
+                            selected = element;
+                            break;
+                        } else if (candidate.isHotterThan(best, now)) {
+                            selected = element;
+                            best = candidate;
+                        }
+                    }
+                }
+                if (selected != head) {
+                    if (remove(selected)) {
+                        offer(head);
+                    } else {
+                        // Taken by another thread in the meantime.
+                        selected = head;
+                    }
+                }
+            }
+            if (coldTargets != null) {
+                for (OptimizedCallTarget target : coldTargets) {
+                    target.cancelCompilation("Call target became cold while waiting in the compilation queue.");
+                }
+            }
+            return selected;
+        }
+
+        private RequestImpl<?> requestOf(E element) {
+            return ((RequestFutureTask<?>) element).request;
+        }
+
+        private List<OptimizedCallTarget> addColdTarget(List<OptimizedCallTarget> coldTargets, RequestImpl<?> request) {
+            OptimizedCallTarget target = request.targetRef.get();
+            List<OptimizedCallTarget> result = coldTargets == null ? new ArrayList<>() : coldTargets;
+            if (target != null) {
+                result.add(target);
+            }
+            return result;
         }
     }
 
@@ -0,0 +1,392 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.runtime;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.graalvm.compiler.truffle.options.PolyglotCompilerOptions;
+import org.graalvm.options.OptionValues;
+
+import com.oracle.truffle.api.Assumption;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.frame.FrameDescriptor;
+import com.oracle.truffle.api.frame.FrameSlot;
+import com.oracle.truffle.api.frame.FrameSlotKind;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.BytecodeOSRNode;
+import com.oracle.truffle.api.nodes.ExplodeLoop;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.RootNode;
+import com.oracle.truffle.api.source.SourceSection;
+
+import jdk.vm.ci.meta.SpeculationLog;
+
+/**
+ * Runtime state of a {@link BytecodeOSRNode}: counts the back-edges of the node and keeps the OSR
+ * call targets compiled for the bytecode indices that back-edges jump to.
+ */
+final class BytecodeOSRMetadata {
+
+    /**
+     * Used for nodes of engines that have OSR disabled.
+     */
+    static final BytecodeOSRMetadata DISABLED = new BytecodeOSRMetadata(null, Integer.MAX_VALUE);
+
+    /**
+     * Upper bound of the factor by which the OSR threshold is raised after OSR compilations that
+     * were cancelled or bailed out non-permanently.
+     */
+    private static final int MAX_BACKOFF_FACTOR = 16;
+
+    private final BytecodeOSRNode osrNode;
+    private final int initialOSRThreshold;
+
+    private int osrThreshold;
+    private int backEdgeCount;
+
+    /**
+     * Shared by all OSR compilations of the node so that failed speculations are propagated between
+     * compilations.
+     */
+    private SpeculationLog speculationLog;
+
+    /**
+     * OSR call targets by the bytecode index they enter at. Guarded by {@code this}.
+     */
+    private final Map<Integer, OptimizedCallTarget> osrCompilations = new HashMap<>();
+
+    /**
+     * Bytecode indices whose OSR compilation failed permanently and is not retried. Guarded by
+     * {@code this}.
+     */
+    private final Set<Integer> failedTargets = new HashSet<>();
+
+    private BytecodeOSRMetadata(BytecodeOSRNode osrNode, int osrThreshold) {
+        this.osrNode = osrNode;
+        this.initialOSRThreshold = osrThreshold;
+        this.osrThreshold = osrThreshold;
+    }
+
+    static BytecodeOSRMetadata get(BytecodeOSRNode osrNode) {
+        Object metadata = osrNode.getOSRMetadata();
+        if (metadata == null) {
+            Node node = (Node) osrNode;
+            node.atomic(new Runnable() {
+                @Override
+                public void run() {
+                    if (osrNode.getOSRMetadata() == null) {
+                        osrNode.setOSRMetadata(create(osrNode, node));
+                    }
+                }
+            });
+            metadata = osrNode.getOSRMetadata();
+        }
+        return (BytecodeOSRMetadata) metadata;
+    }
+
+    private static BytecodeOSRMetadata create(BytecodeOSRNode osrNode, Node node) {
+        OptionValues engineOptions = GraalTVMCI.getEngineData(node.getRootNode()).engineOptions;
+        if (!TruffleRuntimeOptions.getPolyglotOptionValue(engineOptions, PolyglotCompilerOptions.OSR)) {
+            return DISABLED;
+        }
+        return new BytecodeOSRMetadata(osrNode, TruffleRuntimeOptions.getPolyglotOptionValue(engineOptions, PolyglotCompilerOptions.OSRCompilationThreshold));
+    }
+
+    boolean pollBackEdge() {
+        if (this == DISABLED) {
+            return false;
+        }
+        if (backEdgeCount >= osrThreshold) {
+            return true;
+        }
+        return ++backEdgeCount >= osrThreshold;
+    }
+
+    Object tryOSR(int target, Object interpreterState, VirtualFrame parentFrame) {
+        if (this == DISABLED) {
+            return null;
+        }
+        OptimizedCallTarget osrTarget;
+        synchronized (this) {
+            if (failedTargets.contains(target)) {
+                backEdgeCount = 0;
+                return null;
+            }
+            osrTarget = osrCompilations.get(target);
+            if (osrTarget == null) {
+                osrCompilations.put(target, compile(target, (FrameWithoutBoxing) parentFrame));
+                return null;
+            }
+        }
+        if (osrTarget.isSubmittedForCompilation()) {
+            return null;
+        }
+        if (!osrTarget.isValid()) {
+            compilationFailed(target, osrTarget);
+            return null;
+        }
+        Object result = osrTarget.callOSR(parentFrame, interpreterState);
+        if (!osrTarget.isValid()) {
+            invalidateOSRTarget(target, osrTarget, "OSR compilation got invalidated");
+        }
+        return result;
+    }
+
+    private OptimizedCallTarget compile(int target, FrameWithoutBoxing parentFrame) {
+        GraalTruffleRuntime runtime = GraalTruffleRuntime.getRuntime();
+        if (speculationLog == null) {
+            speculationLog = runtime.createSpeculationLog();
+        }
+        OptimizedCallTarget osrTarget = runtime.createOSRCallTarget(new BytecodeOSRRootNode(osrNode, target, parentFrame));
+        osrTarget.setSpeculationLog(speculationLog);
+        osrTarget.compile(true);
+        return osrTarget;
+    }
+
+    /**
+     * Handles an OSR compilation that finished without producing code. As for regular call targets,
+     * permanent failures are not retried, whereas after cancelled compilations and non-permanent
+     * bailouts the threshold is raised before the next attempt.
+     */
+    private void compilationFailed(int target, OptimizedCallTarget osrTarget) {
+        synchronized (this) {
+            if (osrCompilations.get(target) != osrTarget) {
+                return;
+            }
+            osrCompilations.remove(target);
+            if (osrTarget.isCompilationFailed()) {
+                failedTargets.add(target);
+            } else {
+                osrThreshold = (int) Math.min((long) osrThreshold * 2, (long) initialOSRThreshold * MAX_BACKOFF_FACTOR);
+            }
+            backEdgeCount = 0;
+        }
+    }
+
+    private void invalidateOSRTarget(int target, OptimizedCallTarget osrTarget, CharSequence reason) {
+        synchronized (this) {
+            if (osrCompilations.get(target) == osrTarget) {
+                osrCompilations.remove(target);
+                // back off before the next compilation attempt
+                backEdgeCount = 0;
+            }
+        }
+        osrTarget.invalidate(this, reason);
+    }
+
+    void nodeReplaced(Node oldNode, Node newNode, CharSequence reason) {
+        if (this == DISABLED) {
+            return;
+        }
+        List<OptimizedCallTarget> targets;
+        synchronized (this) {
+            if (osrCompilations.isEmpty()) {
+                return;
+            }
+            targets = new ArrayList<>(osrCompilations.values());
+            osrCompilations.clear();
+        }
+        for (OptimizedCallTarget target : targets) {
+            target.nodeReplaced(oldNode, newNode, reason);
+        }
+    }
+
+    /**
+     * Root node of an OSR compilation of a {@link BytecodeOSRNode} for one bytecode index. Executes
+     * the node in a new frame with the frame descriptor of the interpreter frame. The frame slots
+     * are copied with the tags seen when the compilation was requested, which keeps the new frame
+     * virtual in compiled code.
+     */
+    static final class BytecodeOSRRootNode extends RootNode {
+
+        /** Not adopted; belongs to another RootNode. */
+        private final BytecodeOSRNode osrNode;
+        private final int target;
+
+        private final FrameDescriptor parentFrameDescriptor;
+        private final Assumption parentFrameVersion;
+        @CompilationFinal(dimensions = 1) private final FrameSlot[] frameSlots;
+        @CompilationFinal(dimensions = 1) private final byte[] speculatedTags;
+
+        BytecodeOSRRootNode(BytecodeOSRNode osrNode, int target, FrameWithoutBoxing parentFrame) {
+            super(null, new FrameDescriptor());
+            this.osrNode = osrNode;
+            this.target = target;
+            this.parentFrameDescriptor = parentFrame.getFrameDescriptor();
+            this.parentFrameVersion = parentFrameDescriptor.getVersion();
+            this.frameSlots = parentFrameDescriptor.getSlots().toArray(new FrameSlot[0]);
+            this.speculatedTags = new byte[frameSlots.length];
+            byte[] tags = parentFrame.getTags();
+            for (int i = 0; i < frameSlots.length; i++) {
+                speculatedTags[i] = getTag(tags, getFrameSlotIndex(frameSlots[i]));
+            }
+        }
+
+        @Override
+        public SourceSection getSourceSection() {
+            return ((Node) osrNode).getSourceSection();
+        }
+
+        public static Object callProxy(BytecodeOSRRootNode target, VirtualFrame frame) {
+            return target.executeImpl(frame);
+        }
+
+        private Object executeImpl(VirtualFrame frame) {
+            Object[] arguments = frame.getArguments();
+            FrameWithoutBoxing parentFrame = (FrameWithoutBoxing) arguments[0];
+            FrameWithoutBoxing osrFrame = (FrameWithoutBoxing) OptimizedCallTarget.createFrame(parentFrameDescriptor, parentFrame.getArguments());
+            transfer(parentFrame, osrFrame);
+            try {
+                return osrNode.executeOSR(osrFrame, target, arguments[1]);
+            } finally {
+                transfer(osrFrame, parentFrame);
+            }
+        }
+
+        private void transfer(FrameWithoutBoxing source, FrameWithoutBoxing destination) {
+            transferIndexed(source, destination);
+            if (!parentFrameVersion.isValid()) {
+                // slots were added or changed since the compilation was requested
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                transferAll(source, destination);
+                return;
+            }
+            transferSpeculated(source, destination);
+        }
+
+        @ExplodeLoop
+        private void transferSpeculated(FrameWithoutBoxing source, FrameWithoutBoxing destination) {
+            byte[] sourceTags = source.getTags();
+            for (int i = 0; i < frameSlots.length; i++) {
+                FrameSlot slot = frameSlots[i];
+                int index = getFrameSlotIndex(slot);
+                byte speculatedTag = speculatedTags[i];
+                byte sourceTag = getTag(sourceTags, index);
+                boolean tagsCondition = speculatedTag == sourceTag;
+                if (!tagsCondition) {
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    speculatedTags[i] = sourceTag;
+                    speculatedTag = sourceTag;
+                }
+                transferSlot(source, destination, slot, index, speculatedTag, tagsCondition);
+            }
+        }
+
+        /**
+         * Indexed slots have a fixed kind, so they are copied without any speculation.
+         */
+        @ExplodeLoop
+        private void transferIndexed(FrameWithoutBoxing source, FrameWithoutBoxing destination) {
+            for (int i = 0; i < parentFrameDescriptor.getNumberOfIndexedSlots(); i++) {
+                FrameSlotKind kind = parentFrameDescriptor.getIndexedSlotKind(i);
+                if (kind == FrameSlotKind.Boolean) {
+                    destination.setBoolean(i, source.getBoolean(i));
+                } else if (kind == FrameSlotKind.Byte) {
+                    destination.setByte(i, source.getByte(i));
+                } else if (kind == FrameSlotKind.Int) {
+                    destination.setInt(i, source.getInt(i));
+                } else if (kind == FrameSlotKind.Double) {
+                    destination.setDouble(i, source.getDouble(i));
+                } else if (kind == FrameSlotKind.Long) {
+                    destination.setLong(i, source.getLong(i));
+                } else if (kind == FrameSlotKind.Float) {
+                    destination.setFloat(i, source.getFloat(i));
+                } else {
+                    destination.setObject(i, source.getObject(i));
+                }
+            }
+        }
+
+        private void transferAll(FrameWithoutBoxing source, FrameWithoutBoxing destination) {
+            byte[] sourceTags = source.getTags();
+            for (FrameSlot slot : parentFrameDescriptor.getSlots()) {
+                int index = getFrameSlotIndex(slot);
+                transferSlot(source, destination, slot, index, getTag(sourceTags, index), true);
+            }
+        }
+
+        private static void transferSlot(FrameWithoutBoxing source, FrameWithoutBoxing destination, FrameSlot slot, int index, byte tag, boolean condition) {
+            switch (tag) {
+                case FrameWithoutBoxing.BOOLEAN_TAG:
+                    destination.setBoolean(slot, source.getBooleanUnsafe(index, slot, condition));
+                    break;
+                case FrameWithoutBoxing.BYTE_TAG:
+                    destination.setByte(slot, source.getByteUnsafe(index, slot, condition));
+                    break;
+                case FrameWithoutBoxing.DOUBLE_TAG:
+                    destination.setDouble(slot, source.getDoubleUnsafe(index, slot, condition));
+                    break;
+                case FrameWithoutBoxing.FLOAT_TAG:
+                    destination.setFloat(slot, source.getFloatUnsafe(index, slot, condition));
+                    break;
+                case FrameWithoutBoxing.INT_TAG:
+                    destination.setInt(slot, source.getIntUnsafe(index, slot, condition));
+                    break;
+                case FrameWithoutBoxing.LONG_TAG:
+                    destination.setLong(slot, source.getLongUnsafe(index, slot, condition));
+                    break;
+                case FrameWithoutBoxing.OBJECT_TAG:
+                    destination.setObject(slot, source.getObjectUnsafe(index, slot, condition));
+                    break;
+                case FrameWithoutBoxing.ILLEGAL_TAG:
+                    // never written, nothing to transfer
+                    break;
+                default:
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    throw new AssertionError("Unexpected tag " + tag + " of frame slot " + slot);
+            }
+        }
+
+        private static byte getTag(byte[] tags, int index) {
+            return index < tags.length ? tags[index] : FrameWithoutBoxing.ILLEGAL_TAG;
+        }
+
+        @SuppressWarnings("deprecation")
+        private static int getFrameSlotIndex(FrameSlot slot) {
+            return slot.getIndex();
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            return callProxy(this, frame);
+        }
+
+        @Override
+        public boolean isCloningAllowed() {
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            return osrNode.toString() + "<OSR@" + target + ">";
+        }
+    }
+}
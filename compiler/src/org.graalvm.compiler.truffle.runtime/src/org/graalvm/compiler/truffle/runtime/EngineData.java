@@ -27,6 +27,8 @@ package org.graalvm.compiler.truffle.runtime;
 import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.ArgumentTypeSpeculation;
 import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.BackgroundCompilation;
 import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.Compilation;
+import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.CompilationHintsFile;
+import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.CompilationHintsReprofileCount;
 import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.CompilationExceptionsAreFatal;
 import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.CompilationExceptionsArePrinted;
 import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.CompilationExceptionsAreThrown;
@@ -132,6 +134,8 @@ public final class EngineData {
     @CompilationFinal public boolean callTargetStatisticDetails;
     @CompilationFinal public boolean profilingEnabled;
     @CompilationFinal public boolean traceTransferToInterpreter;
+    @CompilationFinal TruffleCompilationHints compilationHints;
+    @CompilationFinal int compilationHintsReprofileCount;
 
     // computed fields.
     @CompilationFinal public int callThresholdInInterpreter;
@@ -195,6 +199,13 @@ public final class EngineData {
         this.profilingEnabled = getPolyglotOptionValue(options, Profiling);
         this.traceTransferToInterpreter = getPolyglotOptionValue(options, TraceTransferToInterpreter);
         this.compilationFailureAction = computeCompilationFailureAction(options);
+        TruffleCompilationHints previousCompilationHints = this.compilationHints;
+        this.compilationHints = TruffleCompilationHints.forFile(getPolyglotOptionValue(options, CompilationHintsFile));
+        if (previousCompilationHints != null) {
+            // options are reloaded when a pre-initialized engine is patched
+            previousCompilationHints.release(getEngineLogger());
+        }
+        this.compilationHintsReprofileCount = getPolyglotOptionValue(options, CompilationHintsReprofileCount);
         validateOptions();
         parsedCompileOnly = null;
     }
@@ -49,6 +49,8 @@ public final class FrameWithoutBoxing implements VirtualFrame, MaterializedFrame
     private Object[] locals;
     private long[] primitiveLocals;
     private byte[] tags;
+    private final Object[] indexedLocals;
+    private final long[] indexedPrimitiveLocals;
 
     public static final byte OBJECT_TAG = 0;
     public static final byte ILLEGAL_TAG = 1;
@@ -109,6 +111,18 @@ public final class FrameWithoutBoxing implements VirtualFrame, MaterializedFrame
             this.primitiveLocals = new long[size];
             this.tags = new byte[size];
         }
+        int indexedSize = descriptor.getNumberOfIndexedSlots();
+        if (indexedSize == 0) {
+            this.indexedLocals = EMPTY_OBJECT_ARRAY;
+            this.indexedPrimitiveLocals = EMPTY_LONG_ARRAY;
+        } else {
+            this.indexedLocals = new Object[indexedSize];
+            Object defaultValue = descriptor.getDefaultValue();
+            if (defaultValue != null) {
+                Arrays.fill(indexedLocals, defaultValue);
+            }
+            this.indexedPrimitiveLocals = new long[indexedSize];
+        }
     }
 
     @Override
@@ -430,6 +444,164 @@ public final class FrameWithoutBoxing implements VirtualFrame, MaterializedFrame
         return getTag(slot) == DOUBLE_TAG;
     }
 
+    /*
+     * Indexed slots have a kind that is fixed when the frame descriptor is built. Accesses
+     * therefore neither check nor update tags and do not depend on the frame descriptor version.
+     * The kind is only verified when assertions are enabled.
+     */
+
+    private Object[] getIndexedLocals() {
+        return unsafeCast(indexedLocals, Object[].class, true, true, true);
+    }
+
+    private long[] getIndexedPrimitiveLocals() {
+        return unsafeCast(indexedPrimitiveLocals, long[].class, true, true, true);
+    }
+
+    private static long getObjectOffset(int index) {
+        return Unsafe.ARRAY_OBJECT_BASE_OFFSET + index * (long) Unsafe.ARRAY_OBJECT_INDEX_SCALE;
+    }
+
+    private boolean verifyIndexed(int index, FrameSlotKind accessKind) {
+        FrameSlotKind slotKind = getFrameDescriptor().getIndexedSlotKind(index);
+        if (slotKind != accessKind) {
+            CompilerDirectives.transferToInterpreter();
+            throw new IllegalArgumentException(String.format("Indexed frame slot %d has kind %s and cannot be accessed as %s.", index, slotKind, accessKind));
+        }
+        return true;
+    }
+
+    /**
+     * Bounds check for the unsafe accesses of indexed slots. Done in all modes, since an out of
+     * range index would otherwise read or write outside of the arrays. In compiled code the frame
+     * is virtual, so the check folds away for the constant indices of partially evaluated accesses.
+     */
+    private void checkIndexedSlot(int index) {
+        if (index < 0 || index >= indexedPrimitiveLocals.length) {
+            CompilerDirectives.transferToInterpreter();
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+    }
+
+    @Override
+    public Object getObject(int index) {
+        checkIndexedSlot(index);
+        assert verifyIndexed(index, FrameSlotKind.Object);
+        return unsafeGetObject(getIndexedLocals(), getObjectOffset(index), true, null);
+    }
+
+    @Override
+    public void setObject(int index, Object value) {
+        checkIndexedSlot(index);
+        assert verifyIndexed(index, FrameSlotKind.Object);
+        unsafePutObject(getIndexedLocals(), getObjectOffset(index), value, null);
+    }
+
+    @Override
+    public byte getByte(int index) {
+        checkIndexedSlot(index);
+        assert verifyIndexed(index, FrameSlotKind.Byte);
+        return (byte) unsafeGetInt(getIndexedPrimitiveLocals(), getPrimitiveOffset(index), true, null);
+    }
+
+    @Override
+    public void setByte(int index, byte value) {
+        checkIndexedSlot(index);
+        assert verifyIndexed(index, FrameSlotKind.Byte);
+        unsafePutInt(getIndexedPrimitiveLocals(), getPrimitiveOffset(index), value, null);
+    }
+
+    @Override
+    public boolean getBoolean(int index) {
+        checkIndexedSlot(index);
+        assert verifyIndexed(index, FrameSlotKind.Boolean);
+        return unsafeGetInt(getIndexedPrimitiveLocals(), getPrimitiveOffset(index), true, null) != 0;
+    }
+
+    @Override
+    public void setBoolean(int index, boolean value) {
+        checkIndexedSlot(index);
+        assert verifyIndexed(index, FrameSlotKind.Boolean);
+        unsafePutInt(getIndexedPrimitiveLocals(), getPrimitiveOffset(index), value ? 1 : 0, null);
+    }
+
+    @Override
+    public int getInt(int index) {
+        checkIndexedSlot(index);
+        assert verifyIndexed(index, FrameSlotKind.Int);
+        return unsafeGetInt(getIndexedPrimitiveLocals(), getPrimitiveOffset(index), true, null);
+    }
+
+    @Override
+    public void setInt(int index, int value) {
+        checkIndexedSlot(index);
+        assert verifyIndexed(index, FrameSlotKind.Int);
+        unsafePutInt(getIndexedPrimitiveLocals(), getPrimitiveOffset(index), value, null);
+    }
+
+    @Override
+    public long getLong(int index) {
+        checkIndexedSlot(index);
+        assert verifyIndexed(index, FrameSlotKind.Long);
+        return unsafeGetLong(getIndexedPrimitiveLocals(), getPrimitiveOffset(index), true, null);
+    }
+
+    @Override
+    public void setLong(int index, long value) {
+        checkIndexedSlot(index);
+        assert verifyIndexed(index, FrameSlotKind.Long);
+        unsafePutLong(getIndexedPrimitiveLocals(), getPrimitiveOffset(index), value, null);
+    }
+
+    @Override
+    public float getFloat(int index) {
+        checkIndexedSlot(index);
+        assert verifyIndexed(index, FrameSlotKind.Float);
+        return unsafeGetFloat(getIndexedPrimitiveLocals(), getPrimitiveOffset(index), true, null);
+    }
+
+    @Override
+    public void setFloat(int index, float value) {
+        checkIndexedSlot(index);
+        assert verifyIndexed(index, FrameSlotKind.Float);
+        unsafePutFloat(getIndexedPrimitiveLocals(), getPrimitiveOffset(index), value, null);
+    }
+
+    @Override
+    public double getDouble(int index) {
+        checkIndexedSlot(index);
+        assert verifyIndexed(index, FrameSlotKind.Double);
+        return unsafeGetDouble(getIndexedPrimitiveLocals(), getPrimitiveOffset(index), true, null);
+    }
+
+    @Override
+    public void setDouble(int index, double value) {
+        checkIndexedSlot(index);
+        assert verifyIndexed(index, FrameSlotKind.Double);
+        unsafePutDouble(getIndexedPrimitiveLocals(), getPrimitiveOffset(index), value, null);
+    }
+
+    @Override
+    public Object getValue(int index) {
+        FrameSlotKind kind = getFrameDescriptor().getIndexedSlotKind(index);
+        if (kind == FrameSlotKind.Boolean) {
+            return getBoolean(index);
+        } else if (kind == FrameSlotKind.Byte) {
+            return getByte(index);
+        } else if (kind == FrameSlotKind.Int) {
+            return getInt(index);
+        } else if (kind == FrameSlotKind.Double) {
+            return getDouble(index);
+        } else if (kind == FrameSlotKind.Long) {
+            return getLong(index);
+        } else if (kind == FrameSlotKind.Float) {
+            return getFloat(index);
+        } else {
+            assert kind == FrameSlotKind.Object;
+            return getObject(index);
+        }
+    }
+
     @SuppressWarnings({"unchecked", "unused"})
     private static <T> T unsafeCast(Object value, Class<T> type, boolean condition, boolean nonNull, boolean exact) {
         return (T) value;
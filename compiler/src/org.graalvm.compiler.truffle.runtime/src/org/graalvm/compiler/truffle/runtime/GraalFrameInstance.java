@@ -50,6 +50,7 @@ public final class GraalFrameInstance implements FrameInstance {
     public static final Method CALL_INLINED_CALL;
     public static final Method CALL_INDIRECT;
     public static final Method CALL_OSR_METHOD;
+    public static final Method CALL_BYTECODE_OSR_METHOD;
 
     static {
         try {
@@ -60,6 +61,7 @@ public final class GraalFrameInstance implements FrameInstance {
 
             CALL_TARGET_METHOD = OptimizedCallTarget.class.getDeclaredMethod("executeRootNode", VirtualFrame.class);
             CALL_OSR_METHOD = OptimizedOSRLoopNode.OSRRootNode.class.getDeclaredMethod("callProxy", OSRRootNode.class, VirtualFrame.class);
+            CALL_BYTECODE_OSR_METHOD = BytecodeOSRMetadata.BytecodeOSRRootNode.class.getDeclaredMethod("callProxy", BytecodeOSRMetadata.BytecodeOSRRootNode.class, VirtualFrame.class);
         } catch (NoSuchMethodException | SecurityException e) {
             throw new InternalError(e);
         }
@@ -30,9 +30,11 @@ import org.graalvm.options.OptionValues;
 
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.impl.Accessor.RuntimeSupport;
 import com.oracle.truffle.api.nodes.BlockNode;
 import com.oracle.truffle.api.nodes.BlockNode.ElementExecutor;
+import com.oracle.truffle.api.nodes.BytecodeOSRNode;
 import com.oracle.truffle.api.nodes.ExplodeLoop;
 import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.nodes.RootNode;
@@ -175,4 +177,22 @@ final class GraalRuntimeSupport extends RuntimeSupport {
 
     }
 
+    @Override
+    public boolean pollBytecodeOSRBackEdge(BytecodeOSRNode osrNode) {
+        return BytecodeOSRMetadata.get(osrNode).pollBackEdge();
+    }
+
+    @Override
+    public Object tryBytecodeOSR(BytecodeOSRNode osrNode, int target, Object interpreterState, VirtualFrame parentFrame) {
+        return BytecodeOSRMetadata.get(osrNode).tryOSR(target, interpreterState, parentFrame);
+    }
+
+    @Override
+    public void onOSRNodeReplaced(BytecodeOSRNode osrNode, Node oldNode, Node newNode, CharSequence reason) {
+        Object metadata = osrNode.getOSRMetadata();
+        if (metadata != null) {
+            ((BytecodeOSRMetadata) metadata).nodeReplaced(oldNode, newNode, reason);
+        }
+    }
+
 }
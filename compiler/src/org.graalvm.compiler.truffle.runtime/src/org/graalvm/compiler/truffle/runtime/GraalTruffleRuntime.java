@@ -421,6 +421,7 @@ public abstract class GraalTruffleRuntime implements TruffleRuntime, TruffleComp
         TraceASTCompilationListener.install(this);
         JFRListener.install(this);
         TruffleSplittingStrategy.installListener(this);
+        TruffleCompilationHints.install(this);
         installShutdownHooks();
     }
 
@@ -531,7 +532,7 @@ public abstract class GraalTruffleRuntime implements TruffleRuntime, TruffleComp
 
         @Override
         public T visitFrame(InspectedFrame frame) {
-            if (frame.isMethod(methods.callOSRMethod)) {
+            if (frame.isMethod(methods.callOSRMethod) || frame.isMethod(methods.callBytecodeOSRMethod)) {
                 // we ignore OSR frames.
                 skipFrames++;
                 return null;
@@ -823,6 +824,30 @@ public abstract class GraalTruffleRuntime implements TruffleRuntime, TruffleComp
         return getCompileQueue().getQueueSize();
     }
 
+    /**
+     * Returns the number of compilation requests of all engines that have been taken from the
+     * compilation queue by a compiler thread.
+     */
+    public long getCompilationQueueDequeuedCount() {
+        return getCompileQueue().getDequeuedCount();
+    }
+
+    /**
+     * Returns the mean time in nanoseconds the compilation requests of all engines waited in the
+     * compilation queue.
+     */
+    public long getCompilationQueueMeanWaitNanos() {
+        return getCompileQueue().getMeanQueueWaitNanos();
+    }
+
+    /**
+     * Returns the longest time in nanoseconds a compilation request of any engine waited in the
+     * compilation queue.
+     */
+    public long getCompilationQueueMaxWaitNanos() {
+        return getCompileQueue().getMaxQueueWaitNanos();
+    }
+
     /**
      * Notifies this runtime when a Truffle AST is being executed in the Truffle interpreter even
      * though compiled code is available for the AST.
@@ -904,6 +929,7 @@ public abstract class GraalTruffleRuntime implements TruffleRuntime, TruffleComp
         public final ResolvedJavaMethod callIndirectMethod;
         public final ResolvedJavaMethod callTargetMethod;
         public final ResolvedJavaMethod callOSRMethod;
+        public final ResolvedJavaMethod callBytecodeOSRMethod;
         public final ResolvedJavaMethod callInlinedCallMethod;
         public final ResolvedJavaMethod[] anyFrameMethod;
 
@@ -914,7 +940,8 @@ public abstract class GraalTruffleRuntime implements TruffleRuntime, TruffleComp
             this.callInlinedCallMethod = metaAccess.lookupJavaMethod(GraalFrameInstance.CALL_INLINED_CALL);
             this.callTargetMethod = metaAccess.lookupJavaMethod(GraalFrameInstance.CALL_TARGET_METHOD);
             this.callOSRMethod = metaAccess.lookupJavaMethod(GraalFrameInstance.CALL_OSR_METHOD);
-            this.anyFrameMethod = new ResolvedJavaMethod[]{callDirectMethod, callIndirectMethod, callInlinedMethod, callTargetMethod, callOSRMethod, callInlinedCallMethod};
+            this.callBytecodeOSRMethod = metaAccess.lookupJavaMethod(GraalFrameInstance.CALL_BYTECODE_OSR_METHOD);
+            this.anyFrameMethod = new ResolvedJavaMethod[]{callDirectMethod, callIndirectMethod, callInlinedMethod, callTargetMethod, callOSRMethod, callBytecodeOSRMethod, callInlinedCallMethod};
         }
 
         public static CallMethods lookup(MetaAccessProvider metaAccess) {
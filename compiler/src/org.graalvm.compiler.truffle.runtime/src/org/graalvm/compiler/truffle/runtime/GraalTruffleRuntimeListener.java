@@ -170,6 +170,19 @@ public interface GraalTruffleRuntimeListener {
     default void onCompilationDeoptimized(OptimizedCallTarget target, Frame frame) {
     }
 
+    /**
+     * Notifies this object when the number of compiler threads has been changed by
+     * {@link org.graalvm.compiler.truffle.options.PolyglotCompilerOptions#AdaptiveCompilerThreads
+     * adaptive compiler thread sizing}.
+     *
+     * @param oldThreadCount the previous number of compiler threads
+     * @param newThreadCount the new number of compiler threads
+     * @param queueSize the number of requests waiting in the compilation queue
+     * @param reason a textual description of the reason for the change
+     */
+    default void onCompilerThreadCountChanged(int oldThreadCount, int newThreadCount, int queueSize, CharSequence reason) {
+    }
+
     /**
      * Notifies this object the {@link GraalTruffleRuntime} is being shut down.
      */
@@ -103,6 +103,11 @@ final class GraalTruffleRuntimeListenerDispatcher extends CopyOnWriteArrayList<G
         invokeListeners((l) -> l.onCompilationDeoptimized(target, frame));
     }
 
+    @Override
+    public void onCompilerThreadCountChanged(int oldThreadCount, int newThreadCount, int queueSize, CharSequence reason) {
+        invokeListeners((l) -> l.onCompilerThreadCountChanged(oldThreadCount, newThreadCount, queueSize, reason));
+    }
+
     @Override
     public void onShutdown() {
         invokeListeners((l) -> l.onShutdown());
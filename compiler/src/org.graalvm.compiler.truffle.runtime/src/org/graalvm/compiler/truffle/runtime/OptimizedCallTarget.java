@@ -294,6 +294,13 @@ public abstract class OptimizedCallTarget implements CompilableTruffleAST, RootC
      */
     private volatile int callSitesKnown;
 
+    /**
+     * Fingerprint of the AST when this call target was first executed if the
+     * {@link PolyglotCompilerOptions#CompilationHintsFile compilation hints} are enabled, otherwise
+     * 0.
+     */
+    private volatile long compilationHintsFingerprint;
+
     private volatile String nameCache;
     private final int uninitializedNodeCount;
 
@@ -555,6 +562,9 @@ public abstract class OptimizedCallTarget implements CompilableTruffleAST, RootC
                 // We are the source CallTarget, so make a copy.
                 this.uninitializedRootNode = NodeUtil.cloneNode(rootNode);
             }
+            if (engine.compilationHints != null && sourceCallTarget == null) {
+                initializeFromCompilationHints(engine.compilationHints);
+            }
             GraalRuntimeAccessor.INSTRUMENT.onFirstExecution(getRootNode());
             if (engine.callTargetStatistics) {
                 this.initializedTimestamp = System.nanoTime();
@@ -565,6 +575,21 @@ public abstract class OptimizedCallTarget implements CompilableTruffleAST, RootC
         }
     }
 
+    private void initializeFromCompilationHints(TruffleCompilationHints hints) {
+        long fingerprint = TruffleCompilationHints.fingerprint(rootNode);
+        this.compilationHintsFingerprint = fingerprint;
+        if (hints.isCompiled(fingerprint)) {
+            // compiled by an earlier run, reprofile briefly instead of waiting for the thresholds
+            int reprofileCount = engine.compilationHintsReprofileCount;
+            this.callCount = Math.max(callCount, engine.callThresholdInInterpreter - reprofileCount);
+            this.callAndLoopCount = Math.max(callAndLoopCount, engine.callAndLoopThresholdInInterpreter - reprofileCount);
+        }
+    }
+
+    final long getCompilationHintsFingerprint() {
+        return compilationHintsFingerprint;
+    }
+
     public final OptionValues getOptionValues() {
         return engine.engineOptions;
     }
@@ -626,6 +651,14 @@ public abstract class OptimizedCallTarget implements CompilableTruffleAST, RootC
         return !isValid() || (engine.multiTier && isLastTierCompilation && !isValidLastTier());
     }
 
+    /**
+     * Returns <code>true</code> if compilation of this call target failed permanently or was not
+     * accepted by the engine, so it is not compiled again.
+     */
+    final boolean isCompilationFailed() {
+        return compilationFailed;
+    }
+
     public final boolean isSubmittedForCompilation() {
         return compilationTask != null;
     }
@@ -0,0 +1,320 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.runtime;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+
+import org.graalvm.compiler.truffle.common.TruffleCompilerListener.CompilationResultInfo;
+import org.graalvm.compiler.truffle.common.TruffleCompilerListener.GraphInfo;
+import org.graalvm.compiler.truffle.options.PolyglotCompilerOptions;
+
+import com.oracle.truffle.api.TruffleLogger;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.NodeVisitor;
+import com.oracle.truffle.api.nodes.RootNode;
+import com.oracle.truffle.api.source.SourceSection;
+
+/**
+ * Records the fingerprints of the ASTs of compiled call targets in the
+ * {@link PolyglotCompilerOptions#CompilationHintsFile compilation hints file}, so that later runs
+ * can compile call targets with the same AST after a short reprofiling phase instead of
+ * interpreting them until the compilation thresholds are reached.
+ * <p>
+ * Neither the ASTs nor the compiled code are persisted: Truffle compilations embed the nodes and
+ * other heap objects of the run that compiled them, so they can not be reused by another process.
+ * Only the hint that an AST was worth compiling carries over. The fingerprint of a call target
+ * is computed from the classes of the nodes in its AST and from its source section when it is
+ * executed for the first time. A recorded fingerprint is only used while the call target was
+ * compiled more often than its compiled code was invalidated, so ASTs whose speculations keep
+ * failing fall back to the regular thresholds.
+ */
+final class TruffleCompilationHints {
+
+    private static final String HEADER = "# Truffle compilation hints v1";
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /**
+     * Hints by normalized file name, shared by the open engines of the process. Guarded by itself.
+     */
+    private static final Map<Path, TruffleCompilationHints> hintsByFile = new HashMap<>();
+
+    private final Path file;
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private volatile boolean modified;
+
+    /**
+     * Number of engines using these hints. Guarded by {@link #hintsByFile}.
+     */
+    private int references;
+
+    private TruffleCompilationHints(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Returns the hints for the given file name or {@code null} if the name is empty. The hints
+     * are loaded from the file unless another open engine uses the same file. Every engine that
+     * gets hints must {@link #release(TruffleLogger) release} them when it is closed.
+     */
+    static TruffleCompilationHints forFile(String fileName) {
+        if (fileName == null || fileName.isEmpty()) {
+            return null;
+        }
+        Path path = Paths.get(fileName).toAbsolutePath().normalize();
+        synchronized (hintsByFile) {
+            TruffleCompilationHints hints = hintsByFile.get(path);
+            if (hints == null) {
+                hints = new TruffleCompilationHints(path);
+                hints.load();
+                hintsByFile.put(path, hints);
+            }
+            hints.references++;
+            return hints;
+        }
+    }
+
+    /**
+     * Writes the hints to the file and drops them once the last engine using them is released, so
+     * that the next engine loads the hints from the file again.
+     */
+    void release(TruffleLogger logger) {
+        save(logger);
+        synchronized (hintsByFile) {
+            if (--references == 0) {
+                hintsByFile.remove(file);
+            }
+        }
+    }
+
+    static void install(GraalTruffleRuntime runtime) {
+        runtime.addListener(new CompilationHintsListener(runtime));
+    }
+
+    boolean isCompiled(long fingerprint) {
+        Entry entry = entries.get(fingerprint);
+        return entry != null && entry.compilations > entry.invalidations;
+    }
+
+    private void recordCompilation(long fingerprint) {
+        entries.merge(fingerprint, new Entry(1, 0), Entry::add);
+        modified = true;
+    }
+
+    private void recordInvalidation(long fingerprint) {
+        entries.merge(fingerprint, new Entry(0, 1), Entry::add);
+        modified = true;
+    }
+
+    /**
+     * Computes the fingerprint of an AST from its root node, its source section and the classes of
+     * all of its nodes. Never returns 0.
+     */
+    static long fingerprint(RootNode rootNode) {
+        FingerprintVisitor visitor = new FingerprintVisitor();
+        visitor.add(rootNode.getName());
+        SourceSection section = rootNode.getSourceSection();
+        if (section != null && section.isAvailable()) {
+            visitor.add(section.getSource().getName());
+            visitor.add(section.getCharIndex());
+            visitor.add(section.getCharacters());
+        }
+        rootNode.accept(visitor);
+        return visitor.hash == 0 ? 1 : visitor.hash;
+    }
+
+    private void load() {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            if (!HEADER.equals(reader.readLine())) {
+                // written by an incompatible version, start from scratch
+                return;
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(" ");
+                if (parts.length != 3) {
+                    continue;
+                }
+                try {
+                    entries.merge(Long.parseUnsignedLong(parts[0], 16), new Entry(Integer.parseInt(parts[1]), Integer.parseInt(parts[2])), Entry::max);
+                } catch (NumberFormatException e) {
+                    // skip malformed entries
+                }
+            }
+        } catch (NoSuchFileException e) {
+            // nothing recorded yet
+        } catch (IOException e) {
+            // keep what is recorded so far
+        }
+    }
+
+    /**
+     * Writes the recorded entries to the hints file. Entries written by other processes since the
+     * file was loaded are merged in.
+     */
+    synchronized void save(TruffleLogger logger) {
+        if (!modified) {
+            return;
+        }
+        modified = false;
+        load();
+        Path tempFile = null;
+        try {
+            Path parent = file.getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            // unique in the target directory, so that concurrent writers do not clobber each other
+            tempFile = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+                writer.write(HEADER);
+                writer.newLine();
+                for (Map.Entry<Long, Entry> e : entries.entrySet()) {
+                    writer.write(Long.toHexString(e.getKey()) + " " + e.getValue().compilations + " " + e.getValue().invalidations);
+                    writer.newLine();
+                }
+            }
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            tempFile = null;
+        } catch (IOException e) {
+            if (logger != null) {
+                logger.log(Level.WARNING, "Failed to write the compilation hints file " + file + ": " + e);
+            }
+        } finally {
+            if (tempFile != null) {
+                try {
+                    Files.deleteIfExists(tempFile);
+                } catch (IOException e) {
+                    // nothing more to do
+                }
+            }
+        }
+    }
+
+    private static final class Entry {
+
+        final int compilations;
+        final int invalidations;
+
+        Entry(int compilations, int invalidations) {
+            this.compilations = compilations;
+            this.invalidations = invalidations;
+        }
+
+        static Entry add(Entry a, Entry b) {
+            return new Entry(saturatedAdd(a.compilations, b.compilations), saturatedAdd(a.invalidations, b.invalidations));
+        }
+
+        static Entry max(Entry a, Entry b) {
+            return new Entry(Math.max(a.compilations, b.compilations), Math.max(a.invalidations, b.invalidations));
+        }
+
+        private static int saturatedAdd(int a, int b) {
+            int sum = a + b;
+            return sum < 0 ? Integer.MAX_VALUE : sum;
+        }
+    }
+
+    private static final class FingerprintVisitor implements NodeVisitor {
+
+        long hash = FNV_OFFSET_BASIS;
+
+        void add(long value) {
+            hash = (hash ^ value) * FNV_PRIME;
+        }
+
+        void add(CharSequence value) {
+            if (value == null) {
+                add(0);
+                return;
+            }
+            for (int i = 0; i < value.length(); i++) {
+                add(value.charAt(i));
+            }
+            add(value.length());
+        }
+
+        @Override
+        public boolean visit(Node node) {
+            add(node.getClass().getName());
+            return true;
+        }
+    }
+
+    private static final class CompilationHintsListener extends AbstractGraalTruffleRuntimeListener {
+
+        private CompilationHintsListener(GraalTruffleRuntime runtime) {
+            super(runtime);
+        }
+
+        @Override
+        public void onCompilationSuccess(OptimizedCallTarget target, TruffleInlining inliningDecision, GraphInfo graph, CompilationResultInfo result) {
+            TruffleCompilationHints hints = target.engine.compilationHints;
+            long fingerprint = target.getCompilationHintsFingerprint();
+            if (hints != null && fingerprint != 0) {
+                hints.recordCompilation(fingerprint);
+            }
+        }
+
+        @Override
+        public void onCompilationInvalidated(OptimizedCallTarget target, Object source, CharSequence reason) {
+            TruffleCompilationHints hints = target.engine.compilationHints;
+            long fingerprint = target.getCompilationHintsFingerprint();
+            if (hints != null && fingerprint != 0) {
+                hints.recordInvalidation(fingerprint);
+            }
+        }
+
+        @Override
+        public void onEngineClosed(EngineData runtimeData) {
+            TruffleCompilationHints hints = runtimeData.compilationHints;
+            if (hints != null) {
+                hints.release(runtimeData.getEngineLogger());
+            }
+        }
+
+        @Override
+        public void onShutdown() {
+            synchronized (hintsByFile) {
+                for (TruffleCompilationHints hints : hintsByFile.values()) {
+                    hints.save(null);
+                }
+            }
+        }
+    }
+}
@@ -299,6 +299,7 @@ public final class StatisticsListener extends AbstractGraalTruffleRuntimeListene
             printStatistic(out, "Queue Accuracy", 1.0 - dequeues / (double) queues);
             printStatistic(out, "Compilation Utilization", compilationTime.getSum() / (double) (endTime - firstCompilation));
             printStatistic(out, "Remaining Compilation Queue", rt.getCompilationQueueSize());
+            printStatisticQueueWait(out, "Compilation Queue Wait (all engines)", rt.getCompilationQueueDequeuedCount(), rt.getCompilationQueueMeanWaitNanos(), rt.getCompilationQueueMaxWaitNanos());
             printStatisticTime(out, "Time to queue", timeToQueue);
             printStatisticTime(out, "Time waiting in queue", timeInQueue);
             printStatisticTime(out, "Time for compilation", compilationTime);
@@ -376,6 +377,10 @@ public final class StatisticsListener extends AbstractGraalTruffleRuntimeListene
                         value.getAverage() / 1e6, value.getMax() / 1000000, value.getMaxName());
     }
 
+    private static void printStatisticQueueWait(PrintWriter out, String label, long count, long meanNanos, long maxNanos) {
+        out.printf("%n  %-50s: count=%4d, average=%12.2f, max=%8d (milliseconds)", label, count, meanNanos / 1e6, maxNanos / 1000000);
+    }
+
     private static final class TargetIntStatistics extends IntSummaryStatistics {
 
         private String maxName;
@@ -0,0 +1,276 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.test;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.graalvm.compiler.core.common.util.Util;
+import org.graalvm.compiler.truffle.runtime.BackgroundCompileQueue;
+import org.graalvm.compiler.truffle.runtime.BackgroundCompileQueue.Priority;
+import org.graalvm.compiler.truffle.runtime.CancellableCompileTask;
+import org.graalvm.compiler.truffle.runtime.GraalTruffleRuntime;
+import org.graalvm.compiler.truffle.runtime.GraalTruffleRuntimeListener;
+import org.graalvm.compiler.truffle.runtime.OptimizedCallTarget;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.RootNode;
+
+/**
+ * Tests the scheduling of a {@link BackgroundCompileQueue}. In most tests the single compiler
+ * thread is kept busy by a blocking request while the queue is filled so that the order in which
+ * the other requests are taken from the queue is deterministic.
+ */
+public class BackgroundCompileQueueTest extends TestWithPolyglotOptions {
+
+    private static final Field compilationTaskField;
+    static {
+        try {
+            compilationTaskField = OptimizedCallTarget.class.getDeclaredField("compilationTask");
+            Util.setAccessible(compilationTaskField, true);
+        } catch (NoSuchFieldException | SecurityException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private BackgroundCompileQueue queue;
+    private final List<OptimizedCallTarget> compiled = Collections.synchronizedList(new ArrayList<>());
+    private final CountDownLatch blocking = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @After
+    public void shutdownQueue() {
+        release.countDown();
+        if (queue != null) {
+            queue.shutdownAndAwaitTermination(TimeUnit.SECONDS.toMillis(10));
+            queue = null;
+        }
+    }
+
+    @Test
+    public void testHotterTargetDequeuedFirst() throws Exception {
+        setupContext("engine.TraversingCompilationQueue", "true", "engine.CompilerThreads", "1");
+        queue = new BackgroundCompileQueue(GraalTruffleRuntime.getRuntime());
+        OptimizedCallTarget blocker = createTarget("blocker");
+        OptimizedCallTarget lukewarm = createTarget("lukewarm");
+        OptimizedCallTarget hot = createTarget("hot");
+
+        CancellableCompileTask blockerTask = submitBlocker(blocker);
+        CancellableCompileTask lukewarmTask = submit(lukewarm);
+        CancellableCompileTask hotTask = submit(hot);
+        for (int i = 0; i < 100; i++) {
+            hot.call();
+        }
+        release.countDown();
+        awaitCompletion(blockerTask, lukewarmTask, hotTask);
+
+        Assert.assertEquals(Arrays.asList(blocker, hot, lukewarm), compiled);
+    }
+
+    @Test
+    public void testColdTargetCancelled() throws Exception {
+        setupContext("engine.TraversingCompilationQueue", "true", "engine.CompilerThreads", "1", "engine.TraversingQueueColdDelay", "100");
+        queue = new BackgroundCompileQueue(GraalTruffleRuntime.getRuntime());
+        OptimizedCallTarget blocker = createTarget("blocker");
+        OptimizedCallTarget cold = createTarget("cold");
+        OptimizedCallTarget hot = createTarget("hot");
+
+        CancellableCompileTask blockerTask = submitBlocker(blocker);
+        CancellableCompileTask coldTask = submit(cold);
+        CancellableCompileTask hotTask = submit(hot);
+        Thread.sleep(300);
+        hot.call();
+        release.countDown();
+        awaitCompletion(blockerTask, coldTask, hotTask);
+
+        Assert.assertTrue(coldTask.isCancelled());
+        Assert.assertFalse(hotTask.isCancelled());
+        Assert.assertEquals(Arrays.asList(blocker, hot), compiled);
+    }
+
+    @Test
+    public void testQueueWaitStatistics() throws Exception {
+        setupContext("engine.CompilerThreads", "1");
+        queue = new BackgroundCompileQueue(GraalTruffleRuntime.getRuntime());
+        Assert.assertEquals(0, queue.getDequeuedCount());
+        Assert.assertEquals(0, queue.getMeanQueueWaitNanos());
+
+        CancellableCompileTask blockerTask = submitBlocker(createTarget("blocker"));
+        CancellableCompileTask waitingTask = submit(createTarget("waiting"));
+        long waitMillis = 200;
+        Thread.sleep(waitMillis);
+        release.countDown();
+        awaitCompletion(blockerTask, waitingTask);
+
+        Assert.assertEquals(2, queue.getDequeuedCount());
+        Assert.assertTrue(queue.getMaxQueueWaitNanos() >= TimeUnit.MILLISECONDS.toNanos(waitMillis));
+        Assert.assertTrue(queue.getMeanQueueWaitNanos() >= TimeUnit.MILLISECONDS.toNanos(waitMillis) / 2);
+        Assert.assertTrue(queue.getMeanQueueWaitNanos() <= queue.getMaxQueueWaitNanos());
+    }
+
+    @Test
+    public void testAdaptiveCompilerThreads() throws Exception {
+        int maxThreads = 3;
+        // Threads are only added while there are cores not used by compiler threads.
+        Assume.assumeTrue(Runtime.getRuntime().availableProcessors() > maxThreads);
+        // Idle compiler threads re-evaluate the thread count every 10 ms.
+        setupContext("engine.AdaptiveCompilerThreads", "true", "engine.MinCompilerThreads", "1", "engine.CompilerThreads", String.valueOf(maxThreads),
+                        "engine.AdaptiveCompilerThreadsQueueWait", "1", "engine.CompilerIdleDelay", "0", "engine.EncodedGraphCachePurgeDelay", "10");
+        List<int[]> changes = Collections.synchronizedList(new ArrayList<>());
+        GraalTruffleRuntimeListener listener = new GraalTruffleRuntimeListener() {
+            @Override
+            public void onCompilerThreadCountChanged(int oldThreadCount, int newThreadCount, int queueSize, CharSequence reason) {
+                changes.add(new int[]{oldThreadCount, newThreadCount, queueSize});
+            }
+        };
+        GraalTruffleRuntime runtime = GraalTruffleRuntime.getRuntime();
+        runtime.addListener(listener);
+        try {
+            queue = new BackgroundCompileQueue(runtime);
+            List<CancellableCompileTask> tasks = new ArrayList<>();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (lastThreadCount(changes) < maxThreads && System.nanoTime() < deadline) {
+                tasks.add(submit(createTarget("flood" + tasks.size()), () -> sleep(20)));
+                Thread.sleep(2);
+            }
+            int growthCount = changes.size();
+            Assert.assertEquals(maxThreads, lastThreadCount(changes));
+            for (int i = 0; i < growthCount; i++) {
+                int[] change = changes.get(i);
+                Assert.assertEquals(i == 0 ? 1 : changes.get(i - 1)[1], change[0]);
+                Assert.assertTrue(change[1] > change[0]);
+                Assert.assertTrue(change[2] > 0);
+            }
+
+            awaitCompletion(tasks.toArray(new CancellableCompileTask[0]));
+            deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (lastThreadCount(changes) > 1 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            Assert.assertEquals(1, lastThreadCount(changes));
+            for (int i = growthCount; i < changes.size(); i++) {
+                int[] change = changes.get(i);
+                Assert.assertEquals(changes.get(i - 1)[1], change[0]);
+                Assert.assertEquals(change[0] - 1, change[1]);
+                Assert.assertEquals(0, change[2]);
+            }
+        } finally {
+            runtime.removeListener(listener);
+        }
+    }
+
+    private static int lastThreadCount(List<int[]> changes) {
+        synchronized (changes) {
+            return changes.isEmpty() ? 1 : changes.get(changes.size() - 1)[1];
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    /**
+     * Submits a request that occupies the compiler thread until {@link #release} is counted down.
+     */
+    private CancellableCompileTask submitBlocker(OptimizedCallTarget target) throws Exception {
+        CancellableCompileTask task = submit(target, () -> {
+            blocking.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+        });
+        Assert.assertTrue(blocking.await(10, TimeUnit.SECONDS));
+        return task;
+    }
+
+    private CancellableCompileTask submit(OptimizedCallTarget target) throws Exception {
+        return submit(target, () -> {
+        });
+    }
+
+    private CancellableCompileTask submit(OptimizedCallTarget target, Runnable compilation) throws Exception {
+        // cancelCompilation ignores targets that are not initialized
+        target.call();
+        CancellableCompileTask task = queue.submitTask(Priority.LAST_TIER, target, new BackgroundCompileQueue.Request() {
+            @Override
+            protected void execute(CancellableCompileTask t, WeakReference<OptimizedCallTarget> targetRef) {
+                // Same protocol as GraalTruffleRuntime.submitForCompilation.
+                OptimizedCallTarget callTarget = targetRef.get();
+                if (callTarget != null && t.start()) {
+                    try {
+                        compiled.add(callTarget);
+                        compilation.run();
+                    } finally {
+                        t.finished();
+                    }
+                }
+            }
+        });
+        // Same as OptimizedCallTarget.compile so that the target can cancel the request.
+        compilationTaskField.set(target, task);
+        return task;
+    }
+
+    private static void awaitCompletion(CancellableCompileTask... tasks) throws Exception {
+        for (CancellableCompileTask task : tasks) {
+            task.awaitCompletion(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private static OptimizedCallTarget createTarget(String name) {
+        return (OptimizedCallTarget) GraalTruffleRuntime.getRuntime().createCallTarget(new RootNode(null) {
+            @Override
+            public Object execute(VirtualFrame frame) {
+                return name;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public String toString() {
+                return getName();
+            }
+        });
+    }
+}
@@ -0,0 +1,330 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.test;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.FrameDescriptor;
+import com.oracle.truffle.api.frame.FrameSlot;
+import com.oracle.truffle.api.frame.FrameSlotKind;
+import com.oracle.truffle.api.frame.FrameUtil;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.BytecodeOSRNode;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.RootNode;
+
+public class BytecodeOSRNodeTest extends TestWithSynchronousCompiling {
+
+    private static final int OSR_THRESHOLD = 100;
+
+    /*
+     * Test that a long running loop is transferred to the compiled OSR entry and that the frame
+     * state of the OSR entry is transferred back to the interpreter frame.
+     */
+    @Test
+    public void testOSR() {
+        setupContext("engine.OSRCompilationThreshold", String.valueOf(OSR_THRESHOLD));
+        TestRootNode rootNode = new TestRootNode();
+        CallTarget target = Truffle.getRuntime().createCallTarget(rootNode);
+        int iterations = OSR_THRESHOLD * 10;
+        Assert.assertEquals(sum(iterations), target.call(iterations));
+        Assert.assertEquals(iterations, rootNode.finalCounter);
+        Assert.assertTrue(rootNode.loop.executedCompiledOSR);
+    }
+
+    /*
+     * Test that loops that do not reach the threshold stay in the interpreter.
+     */
+    @Test
+    public void testNoOSRBelowThreshold() {
+        setupContext("engine.OSRCompilationThreshold", String.valueOf(OSR_THRESHOLD));
+        TestRootNode rootNode = new TestRootNode();
+        CallTarget target = Truffle.getRuntime().createCallTarget(rootNode);
+        int iterations = OSR_THRESHOLD / 2;
+        Assert.assertEquals(sum(iterations), target.call(iterations));
+        Assert.assertEquals(iterations, rootNode.finalCounter);
+        Assert.assertFalse(rootNode.loop.executedCompiledOSR);
+    }
+
+    @Test
+    public void testOSRDisabled() {
+        setupContext("engine.OSR", "false", "engine.OSRCompilationThreshold", String.valueOf(OSR_THRESHOLD));
+        TestRootNode rootNode = new TestRootNode();
+        CallTarget target = Truffle.getRuntime().createCallTarget(rootNode);
+        int iterations = OSR_THRESHOLD * 10;
+        Assert.assertEquals(sum(iterations), target.call(iterations));
+        Assert.assertEquals(iterations, rootNode.finalCounter);
+        Assert.assertFalse(rootNode.loop.executedCompiledOSR);
+    }
+
+    /*
+     * Test that indexed frame slots are transferred to the OSR frame and back to the interpreter
+     * frame.
+     */
+    @Test
+    public void testOSRIndexedSlots() {
+        setupContext("engine.OSRCompilationThreshold", String.valueOf(OSR_THRESHOLD));
+        IndexedTestRootNode rootNode = new IndexedTestRootNode();
+        CallTarget target = Truffle.getRuntime().createCallTarget(rootNode);
+        int iterations = OSR_THRESHOLD * 10;
+        Assert.assertEquals(sum(iterations), target.call(iterations));
+        Assert.assertEquals(iterations, rootNode.finalCounter);
+        Assert.assertEquals("done", rootNode.finalState);
+        Assert.assertTrue(rootNode.loop.executedCompiledOSR);
+    }
+
+    private static long sum(int iterations) {
+        return iterations * (iterations - 1L) / 2;
+    }
+
+    private static final class TestRootNode extends RootNode {
+
+        @Child private BytecodeLoopNode loop;
+
+        private final FrameSlot limit;
+        private final FrameSlot counter;
+
+        int finalCounter;
+
+        TestRootNode() {
+            super(null, new FrameDescriptor());
+            this.limit = getFrameDescriptor().addFrameSlot("limit", FrameSlotKind.Int);
+            this.counter = getFrameDescriptor().addFrameSlot("counter", FrameSlotKind.Int);
+            FrameSlot sum = getFrameDescriptor().addFrameSlot("sum", FrameSlotKind.Long);
+            this.loop = new BytecodeLoopNode(limit, counter, sum);
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            frame.setInt(limit, (Integer) frame.getArguments()[0]);
+            frame.setInt(counter, 0);
+            Object result = loop.execute(frame);
+            finalCounter = FrameUtil.getIntSafe(frame, counter);
+            return result;
+        }
+    }
+
+    private static final class IndexedTestRootNode extends RootNode {
+
+        @Child private IndexedBytecodeLoopNode loop;
+
+        private final int limit;
+        private final int counter;
+        private final int state;
+
+        int finalCounter;
+        Object finalState;
+
+        IndexedTestRootNode() {
+            this(FrameDescriptor.newBuilder());
+        }
+
+        private IndexedTestRootNode(FrameDescriptor.Builder builder) {
+            this(builder, builder.addSlot(FrameSlotKind.Int), builder.addSlot(FrameSlotKind.Int), builder.addSlot(FrameSlotKind.Long), builder.addSlot(FrameSlotKind.Object));
+        }
+
+        private IndexedTestRootNode(FrameDescriptor.Builder builder, int limit, int counter, int sum, int state) {
+            super(null, builder.build());
+            this.limit = limit;
+            this.counter = counter;
+            this.state = state;
+            this.loop = new IndexedBytecodeLoopNode(limit, counter, sum, state);
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            frame.setInt(limit, (Integer) frame.getArguments()[0]);
+            frame.setInt(counter, 0);
+            frame.setObject(state, "running");
+            Object result = loop.execute(frame);
+            finalCounter = frame.getInt(counter);
+            finalState = frame.getObject(state);
+            return result;
+        }
+    }
+
+    /**
+     * The program of {@link BytecodeLoopNode} on indexed frame slots. Additionally checks that an
+     * object slot is transferred to the OSR frame and sets it to {@code "done"} at the end.
+     */
+    private static final class IndexedBytecodeLoopNode extends Node implements BytecodeOSRNode {
+
+        private final int limit;
+        private final int counter;
+        private final int sum;
+        private final int state;
+
+        private Object osrMetadata;
+
+        boolean executedCompiledOSR;
+
+        IndexedBytecodeLoopNode(int limit, int counter, int sum, int state) {
+            this.limit = limit;
+            this.counter = counter;
+            this.sum = sum;
+            this.state = state;
+        }
+
+        Object execute(VirtualFrame frame) {
+            frame.setLong(sum, 0);
+            return executeFrom(frame, 0);
+        }
+
+        private Object executeFrom(VirtualFrame frame, int startBci) {
+            int bci = startBci;
+            while (true) {
+                switch (bci) {
+                    case 0:
+                        bci = frame.getInt(counter) >= frame.getInt(limit) ? 3 : 1;
+                        break;
+                    case 1:
+                        frame.setLong(sum, frame.getLong(sum) + frame.getInt(counter));
+                        bci = 2;
+                        break;
+                    case 2:
+                        frame.setInt(counter, frame.getInt(counter) + 1);
+                        bci = 0;
+                        if (BytecodeOSRNode.pollOSRBackEdge(this)) {
+                            Object result = BytecodeOSRNode.tryOSR(this, bci, null, frame);
+                            if (result != null) {
+                                return result;
+                            }
+                        }
+                        break;
+                    case 3:
+                        if (CompilerDirectives.inCompiledCode()) {
+                            executedCompiledOSR = true;
+                        }
+                        if (!"running".equals(frame.getObject(state))) {
+                            CompilerDirectives.transferToInterpreter();
+                            throw new AssertionError("object slot not transferred");
+                        }
+                        frame.setObject(state, "done");
+                        return frame.getLong(sum);
+                    default:
+                        throw CompilerDirectives.shouldNotReachHere();
+                }
+            }
+        }
+
+        @Override
+        public Object executeOSR(VirtualFrame osrFrame, int target, Object interpreterState) {
+            return executeFrom(osrFrame, target);
+        }
+
+        @Override
+        public Object getOSRMetadata() {
+            return osrMetadata;
+        }
+
+        @Override
+        public void setOSRMetadata(Object osrMetadata) {
+            this.osrMetadata = osrMetadata;
+        }
+    }
+
+    /**
+     * Interprets a fixed bytecode program that sums up the integers below a limit:
+     *
+     * <pre>
+     * 0: if counter >= limit goto 3
+     * 1: sum += counter
+     * 2: counter++; goto 0
+     * 3: return sum
+     * </pre>
+     */
+    private static final class BytecodeLoopNode extends Node implements BytecodeOSRNode {
+
+        private final FrameSlot limit;
+        private final FrameSlot counter;
+        private final FrameSlot sum;
+
+        private Object osrMetadata;
+
+        boolean executedCompiledOSR;
+
+        BytecodeLoopNode(FrameSlot limit, FrameSlot counter, FrameSlot sum) {
+            this.limit = limit;
+            this.counter = counter;
+            this.sum = sum;
+        }
+
+        Object execute(VirtualFrame frame) {
+            frame.setLong(sum, 0);
+            return executeFrom(frame, 0);
+        }
+
+        private Object executeFrom(VirtualFrame frame, int startBci) {
+            int bci = startBci;
+            while (true) {
+                switch (bci) {
+                    case 0:
+                        bci = FrameUtil.getIntSafe(frame, counter) >= FrameUtil.getIntSafe(frame, limit) ? 3 : 1;
+                        break;
+                    case 1:
+                        frame.setLong(sum, FrameUtil.getLongSafe(frame, sum) + FrameUtil.getIntSafe(frame, counter));
+                        bci = 2;
+                        break;
+                    case 2:
+                        frame.setInt(counter, FrameUtil.getIntSafe(frame, counter) + 1);
+                        bci = 0;
+                        if (BytecodeOSRNode.pollOSRBackEdge(this)) {
+                            Object result = BytecodeOSRNode.tryOSR(this, bci, null, frame);
+                            if (result != null) {
+                                return result;
+                            }
+                        }
+                        break;
+                    case 3:
+                        if (CompilerDirectives.inCompiledCode()) {
+                            executedCompiledOSR = true;
+                        }
+                        return FrameUtil.getLongSafe(frame, sum);
+                    default:
+                        throw CompilerDirectives.shouldNotReachHere();
+                }
+            }
+        }
+
+        @Override
+        public Object executeOSR(VirtualFrame osrFrame, int target, Object interpreterState) {
+            return executeFrom(osrFrame, target);
+        }
+
+        @Override
+        public Object getOSRMetadata() {
+            return osrMetadata;
+        }
+
+        @Override
+        public void setOSRMetadata(Object osrMetadata) {
+            this.osrMetadata = osrMetadata;
+        }
+    }
+}
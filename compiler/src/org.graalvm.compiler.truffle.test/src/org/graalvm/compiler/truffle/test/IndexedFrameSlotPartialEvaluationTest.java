@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.test;
+
+import org.graalvm.compiler.truffle.runtime.OptimizedCallTarget;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.oracle.truffle.api.frame.FrameDescriptor;
+import com.oracle.truffle.api.frame.FrameSlotKind;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.RootNode;
+
+/**
+ * Tests that frames with indexed slots are virtualized by partial evaluation and that indexed
+ * accesses are bounds checked in compiled code.
+ */
+public class IndexedFrameSlotPartialEvaluationTest extends PartialEvaluationTest {
+
+    public static Object constant42() {
+        return 42;
+    }
+
+    @Test
+    public void allKinds() {
+        FrameDescriptor.Builder builder = FrameDescriptor.newBuilder();
+        int o = builder.addSlot(FrameSlotKind.Object);
+        int z = builder.addSlot(FrameSlotKind.Boolean);
+        int b = builder.addSlot(FrameSlotKind.Byte);
+        int i = builder.addSlot(FrameSlotKind.Int);
+        int l = builder.addSlot(FrameSlotKind.Long);
+        int f = builder.addSlot(FrameSlotKind.Float);
+        int d = builder.addSlot(FrameSlotKind.Double);
+        RootNode rootNode = new RootNode(null, builder.build()) {
+            @Override
+            public Object execute(VirtualFrame frame) {
+                frame.setBoolean(z, true);
+                frame.setByte(b, (byte) 2);
+                frame.setInt(i, 10);
+                frame.setLong(l, 20L);
+                frame.setFloat(f, 4.5f);
+                frame.setDouble(d, 4.5);
+                int sum = frame.getByte(b) + frame.getInt(i) + (int) frame.getLong(l) + (int) (frame.getFloat(f) + frame.getDouble(d));
+                frame.setObject(o, frame.getBoolean(z) ? sum + 1 : 0);
+                return frame.getObject(o);
+            }
+        };
+        OptimizedCallTarget target = assertPartialEvalEquals("constant42", rootNode);
+        Assert.assertEquals(42, target.call());
+    }
+
+    @Test
+    public void defaultValues() {
+        FrameDescriptor.Builder builder = FrameDescriptor.newBuilder().defaultValue(40);
+        int o = builder.addSlot(FrameSlotKind.Object);
+        int i = builder.addSlot(FrameSlotKind.Int);
+        int d = builder.addSlot(FrameSlotKind.Double);
+        RootNode rootNode = new RootNode(null, builder.build()) {
+            @Override
+            public Object execute(VirtualFrame frame) {
+                return (Integer) frame.getObject(o) + frame.getInt(i) + (int) frame.getDouble(d) + 2;
+            }
+        };
+        assertPartialEvalEquals("constant42", rootNode);
+    }
+
+    @Test
+    public void outOfRange() {
+        for (int index : new int[]{-1, 2}) {
+            FrameDescriptor.Builder builder = FrameDescriptor.newBuilder();
+            builder.addSlots(2, FrameSlotKind.Int);
+            RootNode rootNode = new RootNode(null, builder.build()) {
+                @Override
+                public Object execute(VirtualFrame frame) {
+                    if (frame.getArguments().length == 0) {
+                        // the calls made before partial evaluation pass no arguments
+                        throw new IgnoreError();
+                    }
+                    frame.setInt(index, 42);
+                    return frame.getInt(index);
+                }
+            };
+            OptimizedCallTarget target = compileHelper("outOfRange", rootNode, new Object[0]);
+            Assert.assertTrue(target.isValid());
+            try {
+                target.call(index);
+                Assert.fail("expected an ArrayIndexOutOfBoundsException for index " + index);
+            } catch (ArrayIndexOutOfBoundsException e) {
+                // expected
+            }
+        }
+    }
+}
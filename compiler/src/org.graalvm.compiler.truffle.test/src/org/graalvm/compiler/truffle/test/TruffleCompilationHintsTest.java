@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.graalvm.compiler.truffle.runtime.OptimizedCallTarget;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.RootNode;
+
+public class TruffleCompilationHintsTest extends TestWithSynchronousCompiling {
+
+    private static final int COMPILATION_THRESHOLD = 100;
+    private static final int REPROFILE_COUNT = 5;
+
+    private Path hintsDirectory;
+    private Path hintsFile;
+
+    @Before
+    public void createHintsDirectory() throws IOException {
+        hintsDirectory = Files.createTempDirectory("truffle-compilation-hints");
+        hintsFile = hintsDirectory.resolve("hints.txt");
+    }
+
+    @After
+    public void deleteHintsDirectory() throws IOException {
+        cleanup();
+        Files.deleteIfExists(hintsFile);
+        Files.delete(hintsDirectory);
+    }
+
+    private void setupHintsContext() {
+        setupContext("engine.MultiTier", "false",
+                        "engine.CompilationThreshold", String.valueOf(COMPILATION_THRESHOLD),
+                        "engine.CompilationHintsFile", hintsFile.toString(),
+                        "engine.CompilationHintsReprofileCount", String.valueOf(REPROFILE_COUNT));
+    }
+
+    @Test
+    public void testHintedTargetIsCompiledAfterReprofiling() throws IOException {
+        setupHintsContext();
+        OptimizedCallTarget first = (OptimizedCallTarget) Truffle.getRuntime().createCallTarget(new TestRootNode(new ConstantNode()));
+        for (int i = 0; i < COMPILATION_THRESHOLD; i++) {
+            first.call();
+        }
+        assertCompiled(first);
+
+        // closes the last engine using the hints, which writes the hints file and drops the hints,
+        // so the next engine loads them from the file
+        cleanup();
+        List<String> lines = Files.readAllLines(hintsFile);
+        Assert.assertEquals("expected the header and one entry", 2, lines.size());
+        try (Stream<Path> files = Files.list(hintsDirectory)) {
+            Assert.assertEquals("temporary file left behind", Collections.singletonList(hintsFile), files.collect(Collectors.toList()));
+        }
+
+        setupHintsContext();
+        OptimizedCallTarget second = (OptimizedCallTarget) Truffle.getRuntime().createCallTarget(new TestRootNode(new ConstantNode()));
+        for (int i = 0; i < REPROFILE_COUNT; i++) {
+            second.call();
+        }
+        assertCompiled(second);
+    }
+
+    @Test
+    public void testHintsAreLoadedFromFile() throws IOException {
+        setupHintsContext();
+        OptimizedCallTarget first = (OptimizedCallTarget) Truffle.getRuntime().createCallTarget(new TestRootNode(new ConstantNode()));
+        for (int i = 0; i < COMPILATION_THRESHOLD; i++) {
+            first.call();
+        }
+        assertCompiled(first);
+        cleanup();
+        List<String> lines = Files.readAllLines(hintsFile);
+
+        // without the file there is no hint
+        Files.delete(hintsFile);
+        setupHintsContext();
+        OptimizedCallTarget second = (OptimizedCallTarget) Truffle.getRuntime().createCallTarget(new TestRootNode(new ConstantNode()));
+        for (int i = 0; i < REPROFILE_COUNT; i++) {
+            second.call();
+        }
+        assertNotCompiled(second);
+        cleanup();
+
+        // the hint comes back with the file
+        Files.write(hintsFile, lines);
+        setupHintsContext();
+        OptimizedCallTarget third = (OptimizedCallTarget) Truffle.getRuntime().createCallTarget(new TestRootNode(new ConstantNode()));
+        for (int i = 0; i < REPROFILE_COUNT; i++) {
+            third.call();
+        }
+        assertCompiled(third);
+    }
+
+    @Test
+    public void testDifferentASTIsNotHinted() {
+        setupHintsContext();
+        OptimizedCallTarget first = (OptimizedCallTarget) Truffle.getRuntime().createCallTarget(new TestRootNode(new ConstantNode()));
+        for (int i = 0; i < COMPILATION_THRESHOLD; i++) {
+            first.call();
+        }
+        assertCompiled(first);
+
+        setupHintsContext();
+        OptimizedCallTarget second = (OptimizedCallTarget) Truffle.getRuntime().createCallTarget(new TestRootNode(new OtherConstantNode()));
+        for (int i = 0; i < REPROFILE_COUNT; i++) {
+            second.call();
+        }
+        assertNotCompiled(second);
+    }
+
+    private static final class TestRootNode extends RootNode {
+
+        @Child private Node child;
+
+        TestRootNode(Node child) {
+            super(null);
+            this.child = child;
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            return child instanceof ConstantNode ? ((ConstantNode) child).execute() : ((OtherConstantNode) child).execute();
+        }
+
+        @Override
+        public String getName() {
+            return "compilationHintsTest";
+        }
+    }
+
+    private static final class ConstantNode extends Node {
+
+        Object execute() {
+            return 42;
+        }
+    }
+
+    private static final class OtherConstantNode extends Node {
+
+        Object execute() {
+            return 43;
+        }
+    }
+}
@@ -79,6 +79,11 @@ public abstract class EffectsPhase<CoreProvidersT extends CoreProviders> extends
         runAnalysis(graph, context);
     }
 
+    @Override
+    protected boolean isOptionalUnderMemoryPressure() {
+        return true;
+    }
+
     @SuppressWarnings("try")
     public boolean runAnalysis(StructuredGraph graph, CoreProvidersT context) {
         assert unscheduled || strategy != null;
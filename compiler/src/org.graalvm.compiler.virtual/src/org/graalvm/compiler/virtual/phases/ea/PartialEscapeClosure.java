@@ -35,6 +35,7 @@ import org.graalvm.collections.EconomicSet;
 import org.graalvm.collections.Equivalence;
 import org.graalvm.compiler.core.common.GraalOptions;
 import org.graalvm.compiler.core.common.RetryableBailoutException;
+import org.graalvm.compiler.core.common.cfg.AbstractControlFlowGraph;
 import org.graalvm.compiler.core.common.cfg.Loop;
 import org.graalvm.compiler.core.common.type.Stamp;
 import org.graalvm.compiler.core.common.type.StampFactory;
@@ -67,6 +68,7 @@ import org.graalvm.compiler.nodes.ValueProxyNode;
 import org.graalvm.compiler.nodes.VirtualState;
 import org.graalvm.compiler.nodes.cfg.Block;
 import org.graalvm.compiler.nodes.spi.CoreProviders;
+import org.graalvm.compiler.nodes.spi.LimitedValueProxy;
 import org.graalvm.compiler.nodes.spi.NodeWithState;
 import org.graalvm.compiler.nodes.spi.Virtualizable;
 import org.graalvm.compiler.nodes.spi.VirtualizableAllocation;
@@ -1221,7 +1223,7 @@ public abstract class PartialEscapeClosure<BlockT extends PartialEscapeBlockStat
                              * check whether we trivially see that this is the only reference to
                              * this allocation
                              */
-                            if (virtual.hasIdentity() && !isSingleUsageAllocation(getPhiValueAt(phi, i), virtualObjs, states[i])) {
+                            if (virtual.hasIdentity() && !isSingleUsageAllocation(phi, i, virtualObjs, states[i])) {
                                 compatible = false;
                                 break;
                             }
@@ -1273,14 +1275,15 @@ public abstract class PartialEscapeClosure<BlockT extends PartialEscapeBlockStat
             return materialized;
         }
 
-        private boolean isSingleUsageAllocation(ValueNode value, VirtualObjectNode[] virtualObjs, PartialEscapeBlockState<?> state) {
+        private boolean isSingleUsageAllocation(ValuePhiNode phi, int index, VirtualObjectNode[] virtualObjs, PartialEscapeBlockState<?> state) {
             /*
              * If the phi input is an allocation, we know that it is a "fresh" value, i.e., that
              * this is a value that will only appear through this source, and cannot appear anywhere
              * else. If the phi is also the only usage of this input, we know that no other place
              * can check object identity against it, so it is safe to lose the object identity here.
              */
-            if (!(value instanceof AllocatedObjectNode && value.hasExactlyOneUsage())) {
+            ValueNode value = getPhiValueAt(phi, index);
+            if (!(value instanceof AllocatedObjectNode && value.hasExactlyOneUsage()) && !isLoopCarriedAllocation(phi, index, value)) {
                 return false;
             }
 
@@ -1302,6 +1305,92 @@ public abstract class PartialEscapeClosure<BlockT extends PartialEscapeBlockStat
             }
             return true;
         }
+
+        /**
+         * Determines whether {@code value} is an allocation that flows into the loop phi
+         * {@code phi} and whose identity cannot be observed apart from the phi. In this case, the
+         * allocations of all iterations can be represented by one virtual object, which keeps the
+         * object virtual across iterations and moves its materialization to the point after the
+         * loop where it escapes.
+         *
+         * An allocation on a back edge is in the loop body, so it cannot be referenced in the next
+         * iteration without going through the phi, provided it flows into no other phi. The
+         * allocation on the loop entry must not be used at all once the loop has been entered,
+         * because writes to the phi in the first iteration are writes to this object.
+         */
+        private boolean isLoopCarriedAllocation(ValuePhiNode phi, int index, ValueNode value) {
+            if (!mergeBlock.isLoopHeader() || !GraalOptions.EscapeAnalysisLoopCarriedAllocations.getValue(cfg.graph.getOptions())) {
+                return false;
+            }
+            FixedNode allocation;
+            if (value instanceof AllocatedObjectNode) {
+                allocation = ((AllocatedObjectNode) value).getCommit();
+            } else if (value instanceof VirtualizableAllocation && value instanceof FixedNode) {
+                allocation = (FixedNode) value;
+            } else {
+                return false;
+            }
+            if (getPredecessor(index).getEndNode() != ((LoopBeginNode) merge).forwardEnd()) {
+                return isInLoop(cfg.blockFor(allocation)) && phiInputCount(value, phi) == 1;
+            }
+            for (Node usage : value.usages()) {
+                if (usage != phi && !isBeforeLoop(usage)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Counts the inputs of {@code phi} that are {@code value}, looking through value proxies.
+         * If {@code value} also flows into another phi, the allocations of different iterations
+         * could be compared through the two phis, so they cannot share one virtual object.
+         *
+         * @return the number of inputs, or -1 if {@code value} also flows into another phi
+         */
+        private int phiInputCount(Node value, ValuePhiNode phi) {
+            int count = 0;
+            for (Node usage : value.usages()) {
+                if (usage instanceof PhiNode) {
+                    if (usage != phi) {
+                        return -1;
+                    }
+                    count++;
+                } else if (usage instanceof LimitedValueProxy && ((LimitedValueProxy) usage).getOriginalNode() == value) {
+                    int proxied = phiInputCount(usage, phi);
+                    if (proxied < 0) {
+                        return -1;
+                    }
+                    count += proxied;
+                }
+            }
+            return count;
+        }
+
+        private boolean isInLoop(Block block) {
+            for (Loop<Block> loop = block == null ? null : block.getLoop(); loop != null; loop = loop.getParent()) {
+                if (loop == mergeBlock.getLoop()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean isBeforeLoop(Node usage) {
+            if (usage instanceof FrameState) {
+                for (Node stateUsage : usage.usages()) {
+                    if (!isBeforeLoop(stateUsage)) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            if (!(usage instanceof FixedNode)) {
+                return false;
+            }
+            Block block = cfg.blockFor(usage);
+            return block != null && block != mergeBlock && AbstractControlFlowGraph.dominates(block, mergeBlock);
+        }
     }
 
     public ObjectState getObjectState(PartialEscapeBlockState<?> state, ValueNode value) {
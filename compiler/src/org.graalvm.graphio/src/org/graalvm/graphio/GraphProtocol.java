@@ -872,6 +872,13 @@ abstract class GraphProtocol<Graph, Node, NodeClass, Edges, Block, ResolvedJavaM
         return true;
     }
 
+    /**
+     * Pool of objects already sent to the reader. The pool is kept in access order so that entries
+     * used by every graph of a compilation (node classes, methods, common strings) stay in the pool
+     * across graphs and only rarely used entries are evicted once the pool is full. The reader
+     * simply maps an id to the object of the most recent {@link #POOL_NEW} record, so the eviction
+     * order does not need to be known on the reading side.
+     */
     private static final class ConstantPool extends LinkedHashMap<Object, Character> {
 
         private final LinkedList<Character> availableIds;
@@ -879,7 +886,7 @@ abstract class GraphProtocol<Graph, Node, NodeClass, Edges, Block, ResolvedJavaM
         private static final long serialVersionUID = -2676889957907285681L;
 
         ConstantPool() {
-            super(50, 0.65f);
+            super(50, 0.65f, true);
             availableIds = new LinkedList<>();
         }
 
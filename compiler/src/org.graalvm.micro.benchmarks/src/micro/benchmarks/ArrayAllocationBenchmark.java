@@ -27,6 +27,7 @@ package micro.benchmarks;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.Threads;
 
@@ -46,4 +47,37 @@ public class ArrayAllocationBenchmark extends BenchmarkBase {
     public void arrayAllocate(ThreadState state) {
         state.result = new byte[state.size];
     }
+
+    @State(Scope.Benchmark)
+    public static class BufferState {
+        @Param({"16", "64", "200"}) int size;
+        byte[] input;
+
+        @Setup
+        public void setup() {
+            input = new byte[size];
+            for (int i = 0; i < size; i++) {
+                input[i] = (byte) i;
+            }
+        }
+    }
+
+    /**
+     * Uses a temporary buffer that does not escape. Run with
+     * {@code -Dgraal.StackAllocateArrays=true} to allocate the buffer in the stack frame.
+     */
+    @Benchmark
+    @Threads(Threads.MAX)
+    public long temporaryBuffer(BufferState state) {
+        byte[] input = state.input;
+        byte[] buffer = new byte[input.length];
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i] = (byte) (input[i] ^ 0x5a);
+        }
+        long checksum = 0;
+        for (int i = 0; i < buffer.length; i++) {
+            checksum = checksum * 31 + buffer[i];
+        }
+        return checksum;
+    }
 }
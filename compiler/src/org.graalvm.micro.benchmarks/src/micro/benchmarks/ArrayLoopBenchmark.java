@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package micro.benchmarks;
+
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks counted loops over primitive arrays that are SuperWord candidates. Run with
+ * {@code -Dgraal.VectorWidthUnroll=true} to compare unrolling to the vector width against the
+ * default unrolling.
+ */
+public class ArrayLoopBenchmark extends BenchmarkBase {
+
+    @State(Scope.Benchmark)
+    public static class ArrayState {
+        @Param({"64", "1024", "65536"}) int size;
+
+        byte[] bytes;
+        int[] ints1;
+        int[] ints2;
+        int[] intsResult;
+        float[] floats1;
+        float[] floats2;
+
+        @Setup
+        public void setup() {
+            Random random = new Random(42);
+            bytes = new byte[size];
+            random.nextBytes(bytes);
+            ints1 = new int[size];
+            ints2 = new int[size];
+            intsResult = new int[size];
+            floats1 = new float[size];
+            floats2 = new float[size];
+            for (int i = 0; i < size; i++) {
+                ints1[i] = random.nextInt();
+                ints2[i] = random.nextInt();
+                floats1[i] = random.nextFloat();
+                floats2[i] = random.nextFloat();
+            }
+        }
+    }
+
+    @Benchmark
+    public int byteChecksum(ArrayState state) {
+        byte[] bytes = state.bytes;
+        int sum = 0;
+        for (int i = 0; i < bytes.length; i++) {
+            sum += bytes[i] & 0xff;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int intReduction(ArrayState state) {
+        int[] ints = state.ints1;
+        int result = 0;
+        for (int i = 0; i < ints.length; i++) {
+            result ^= ints[i];
+        }
+        return result;
+    }
+
+    @Benchmark
+    public int[] intAdd(ArrayState state) {
+        int[] a = state.ints1;
+        int[] b = state.ints2;
+        int[] c = state.intsResult;
+        for (int i = 0; i < c.length; i++) {
+            c[i] = a[i] + b[i];
+        }
+        return c;
+    }
+
+    @Benchmark
+    public float floatDotProduct(ArrayState state) {
+        float[] a = state.floats1;
+        float[] b = state.floats2;
+        float sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package micro.benchmarks;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Base64;
+import java.util.Random;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Checksum;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/*
+ * Benchmarks the checksum and encoding intrinsics. Each operation processes one byte of input so
+ * that the reported throughput is per byte:
+ *
+ *      CRC32.updateBytes, CRC32C.updateBytes, Adler32.updateBytes, Base64.Encoder.encodeBlock
+ *
+ * Adler32 is only intrinsified on AArch64, where HotSpot provides the stub.
+ */
+public class ChecksumBenchmark extends BenchmarkBase {
+
+    static final int SIZE = 8192;
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        byte[] data = new byte[SIZE];
+        byte[] encoded;
+        byte[] decoded = new byte[SIZE];
+        byte[] encodeBuffer;
+        CRC32 crc32 = new CRC32();
+        Adler32 adler32 = new Adler32();
+        Checksum crc32c;
+
+        @Setup
+        public void setup() throws Throwable {
+            new Random(17).nextBytes(data);
+            encoded = Base64.getEncoder().encode(data);
+            encodeBuffer = new byte[encoded.length];
+            try {
+                Class<?> crc32cClass = Class.forName("java.util.zip.CRC32C");
+                crc32c = (Checksum) MethodHandles.publicLookup().findConstructor(crc32cClass, MethodType.methodType(void.class)).invoke();
+            } catch (ClassNotFoundException e) {
+                // CRC32C is only available since JDK 9.
+                crc32c = new CRC32();
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public long crc32(ThreadState state) {
+        state.crc32.reset();
+        state.crc32.update(state.data, 0, SIZE);
+        return state.crc32.getValue();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public long crc32c(ThreadState state) {
+        state.crc32c.reset();
+        state.crc32c.update(state.data, 0, SIZE);
+        return state.crc32c.getValue();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public long adler32(ThreadState state) {
+        state.adler32.reset();
+        state.adler32.update(state.data, 0, SIZE);
+        return state.adler32.getValue();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public int base64Encode(ThreadState state) {
+        return Base64.getEncoder().encode(state.data, state.encodeBuffer);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public int base64Decode(ThreadState state) {
+        return Base64.getDecoder().decode(state.encoded, state.decoded);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package micro.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Executes a loop whose body contains many rarely taken error and slow paths. Run with
+ * {@code -Dgraal.HotColdSplitting=true} to compare against code where the cold blocks are emitted
+ * inline. The size of the hot and cold regions is reported with
+ * {@code -Dgraal.Counters=HotColdSplitting_HotBytes,HotColdSplitting_ColdBytes}.
+ */
+@State(Scope.Benchmark)
+public class HotColdSplittingBenchmark extends BenchmarkBase {
+
+    @Param({"4096"}) int length;
+
+    byte[] input;
+    int[] histogram;
+
+    @Setup
+    public void setup() {
+        input = new byte[length];
+        for (int i = 0; i < length; i++) {
+            // printable ASCII only, so that none of the error paths is taken
+            input[i] = (byte) (' ' + (i * 31) % 95);
+        }
+        histogram = new int[128];
+    }
+
+    @Benchmark
+    public int decode() {
+        byte[] bytes = input;
+        int[] counts = histogram;
+        int state = 0;
+        for (int i = 0; i < bytes.length; i++) {
+            int b = bytes[i];
+            if (b < 0) {
+                throw new IllegalArgumentException("non-ASCII byte " + b + " at " + i);
+            }
+            if (b < ' ') {
+                if (b == '\t' || b == '\n' || b == '\r') {
+                    state = 0;
+                    continue;
+                }
+                throw new IllegalArgumentException("control character " + b + " at " + i);
+            }
+            if (b >= '0' && b <= '9') {
+                state = state * 10 + (b - '0');
+            } else if (b >= 'a' && b <= 'z') {
+                state ^= b << 3;
+            } else if (b >= 'A' && b <= 'Z') {
+                state += b;
+            } else {
+                state = (state >>> 1) | (b << 24);
+            }
+            counts[b]++;
+            if (counts[b] == Integer.MAX_VALUE) {
+                throw new IllegalStateException("counter overflow for " + b);
+            }
+        }
+        return state;
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package micro.benchmarks;
+
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Executes loops whose bodies contain a diamond that depends on random data, so that the branch is
+ * taken about half of the time and cannot be predicted. Run with {@code -Dgraal.IfConversion=true}
+ * to compare against code where the diamonds are converted into conditional moves. The number of
+ * converted diamonds is reported with {@code -Dgraal.Counters=IfConversion_Converted}.
+ */
+@State(Scope.Benchmark)
+public class IfConversionBenchmark extends BenchmarkBase {
+
+    @Param({"4096"}) int length;
+
+    int[] values;
+    long[] keys;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        values = new int[length];
+        keys = new long[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = random.nextInt();
+            keys[i] = random.nextLong();
+        }
+    }
+
+    @Benchmark
+    public int minMaxSum() {
+        int[] a = values;
+        int sum = 0;
+        for (int i = 1; i < a.length; i++) {
+            int lo;
+            int hi;
+            if (a[i - 1] < a[i]) {
+                lo = a[i - 1];
+                hi = a[i];
+            } else {
+                lo = a[i];
+                hi = a[i - 1];
+            }
+            sum += (hi - lo) ^ lo;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long hashMix() {
+        long[] k = keys;
+        long hash = 0;
+        for (int i = 0; i < k.length; i++) {
+            long key = k[i];
+            long mixed;
+            if ((key & 1) == 0) {
+                mixed = (key >>> 7) + hash;
+            } else {
+                mixed = (key << 3) ^ hash;
+            }
+            hash = mixed * 31;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package micro.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the time to reach a safepoint while another thread executes long running counted
+ * loops whose safepoint polls were eliminated. Run with {@code -Dgraal.LoopStripMining=true} to
+ * compare against loops without strip mining.
+ */
+@State(Scope.Group)
+public class SafepointLatencyBenchmark extends BenchmarkBase {
+
+    @Param({"1000000", "100000000"}) int iterations;
+
+    int[] data;
+
+    @Setup
+    public void setup() {
+        data = new int[1024];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = i * 7;
+        }
+    }
+
+    @Benchmark
+    @Group("timeToSafepoint")
+    @GroupThreads(1)
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int safepoint() {
+        // Collecting the stack traces of all threads requires a global safepoint.
+        return Thread.getAllStackTraces().size();
+    }
+
+    @Benchmark
+    @Group("timeToSafepoint")
+    @GroupThreads(1)
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int countedLoop() {
+        int[] array = data;
+        int mask = array.length - 1;
+        int sum = 0;
+        for (int i = 0; i < iterations; i++) {
+            sum += array[i & mask] ^ i;
+        }
+        return sum;
+    }
+}
@@ -65,6 +65,8 @@ public class StringBenchmark extends BenchmarkBase {
 
         char[] smallCharArray = lorem.substring(0, 13).toCharArray();
         char[] largeCharArray = lorem.concat(lorem).toCharArray();
+        char[] largeNonLatin1CharArray = lorem.concat("\u20ac").toCharArray();
+        String utf16Lorem = "\u20ac" + lorem;
     }
 
     @Benchmark
@@ -92,6 +94,11 @@ public class StringBenchmark extends BenchmarkBase {
         return state.lorem.indexOf(state.ch2);
     }
 
+    @Benchmark
+    public int indexOfCharUTF16(BenchState state) {
+        return state.utf16Lorem.indexOf(state.ch2);
+    }
+
     @Benchmark
     public int indexOfString(BenchState state) {
         return state.lorem.indexOf(state.s1);
@@ -117,6 +124,11 @@ public class StringBenchmark extends BenchmarkBase {
         return new String(state.largeCharArray);
     }
 
+    @Benchmark
+    public String compressNonLatin1String(BenchState state) {
+        return new String(state.largeNonLatin1CharArray);
+    }
+
     @Benchmark
     public char[] inflateSmallString(BenchState state) {
         return state.smallLorem.toCharArray();
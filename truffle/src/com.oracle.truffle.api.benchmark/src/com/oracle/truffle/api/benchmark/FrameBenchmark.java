@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.api.benchmark;
+
+import org.graalvm.polyglot.Context;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.FrameDescriptor;
+import com.oracle.truffle.api.frame.FrameSlot;
+import com.oracle.truffle.api.frame.FrameSlotKind;
+import com.oracle.truffle.api.frame.FrameUtil;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.impl.DefaultTruffleRuntime;
+import com.oracle.truffle.api.nodes.RootNode;
+
+/**
+ * Compares local variable accesses through {@link FrameSlot}s with accesses to indexed slots of a
+ * {@link FrameDescriptor#newBuilder() frame descriptor builder}, both in the interpreter and in
+ * compiled code.
+ */
+public class FrameBenchmark extends TruffleBenchmark {
+
+    private static final int ITERATIONS = 1000;
+
+    public abstract static class FrameState {
+
+        final Context context;
+        final CallTarget slotLoop;
+        final CallTarget indexedLoop;
+
+        FrameState(boolean compile) {
+            if (Truffle.getRuntime() instanceof DefaultTruffleRuntime) {
+                context = Context.newBuilder().build();
+            } else if (compile) {
+                context = Context.newBuilder().allowExperimentalOptions(true).option("engine.BackgroundCompilation", "false").option("engine.CompileImmediately", "true").build();
+            } else {
+                context = Context.newBuilder().allowExperimentalOptions(true).option("engine.Compilation", "false").build();
+            }
+            context.enter();
+            slotLoop = Truffle.getRuntime().createCallTarget(new SlotLoopRootNode());
+            indexedLoop = Truffle.getRuntime().createCallTarget(new IndexedLoopRootNode());
+        }
+
+        @TearDown
+        public void tearDown() {
+            context.leave();
+            context.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class InterpreterState extends FrameState {
+        public InterpreterState() {
+            super(false);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class CompiledState extends FrameState {
+        public CompiledState() {
+            super(true);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITERATIONS)
+    public Object interpreterFrameSlot(InterpreterState state) {
+        return state.slotLoop.call();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITERATIONS)
+    public Object interpreterIndexed(InterpreterState state) {
+        return state.indexedLoop.call();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITERATIONS)
+    public Object compiledFrameSlot(CompiledState state) {
+        return state.slotLoop.call();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITERATIONS)
+    public Object compiledIndexed(CompiledState state) {
+        return state.indexedLoop.call();
+    }
+
+    static final class SlotLoopRootNode extends RootNode {
+
+        private final FrameSlot counter;
+        private final FrameSlot sum;
+
+        SlotLoopRootNode() {
+            super(null, new FrameDescriptor());
+            this.counter = getFrameDescriptor().addFrameSlot("counter", FrameSlotKind.Int);
+            this.sum = getFrameDescriptor().addFrameSlot("sum", FrameSlotKind.Long);
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            frame.setInt(counter, 0);
+            frame.setLong(sum, 0);
+            while (FrameUtil.getIntSafe(frame, counter) < ITERATIONS) {
+                int i = FrameUtil.getIntSafe(frame, counter);
+                frame.setLong(sum, FrameUtil.getLongSafe(frame, sum) + i);
+                frame.setInt(counter, i + 1);
+            }
+            return FrameUtil.getLongSafe(frame, sum);
+        }
+    }
+
+    static final class IndexedLoopRootNode extends RootNode {
+
+        private final int counter;
+        private final int sum;
+
+        IndexedLoopRootNode() {
+            this(FrameDescriptor.newBuilder());
+        }
+
+        private IndexedLoopRootNode(FrameDescriptor.Builder builder) {
+            this(builder, builder.addSlot(FrameSlotKind.Int), builder.addSlot(FrameSlotKind.Long));
+        }
+
+        private IndexedLoopRootNode(FrameDescriptor.Builder builder, int counter, int sum) {
+            super(null, builder.build());
+            this.counter = counter;
+            this.sum = sum;
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            frame.setInt(counter, 0);
+            frame.setLong(sum, 0);
+            while (frame.getInt(counter) < ITERATIONS) {
+                int i = frame.getInt(counter);
+                frame.setLong(sum, frame.getLong(sum) + i);
+                frame.setInt(counter, i + 1);
+            }
+            return frame.getLong(sum);
+        }
+    }
+}
@@ -49,6 +49,7 @@ import com.oracle.truffle.api.frame.FrameSlot;
 import com.oracle.truffle.api.frame.FrameSlotKind;
 import com.oracle.truffle.api.frame.FrameSlotTypeException;
 import com.oracle.truffle.api.frame.VirtualFrame;
+import org.junit.Assume;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
@@ -207,4 +208,109 @@ public class FrameDescriptorTest {
         assertEquals("c", frame.getObject(slot3));
         assertEquals("d", frame.getObject(slot4));
     }
+
+    @Test
+    public void indexedSlots() {
+        FrameDescriptor.Builder builder = FrameDescriptor.newBuilder().defaultValue("default");
+        int o = builder.addSlot(FrameSlotKind.Object);
+        int b = builder.addSlot(FrameSlotKind.Boolean);
+        int i = builder.addSlot(FrameSlotKind.Int);
+        int l = builder.addSlot(FrameSlotKind.Long);
+        int d = builder.addSlots(2, FrameSlotKind.Double);
+        FrameDescriptor descriptor = builder.build();
+
+        assertEquals(6, descriptor.getNumberOfIndexedSlots());
+        assertEquals(0, descriptor.getSize());
+        assertEquals(FrameSlotKind.Long, descriptor.getIndexedSlotKind(l));
+        assertEquals(FrameSlotKind.Double, descriptor.getIndexedSlotKind(d + 1));
+        assertEquals(6, descriptor.copy().getNumberOfIndexedSlots());
+
+        VirtualFrame f = Truffle.getRuntime().createVirtualFrame(new Object[0], descriptor);
+        assertEquals("default", f.getObject(o));
+        assertEquals(0, f.getInt(i));
+        assertEquals(0d, f.getValue(d));
+
+        f.setObject(o, "value");
+        f.setBoolean(b, true);
+        f.setInt(i, 42);
+        f.setLong(l, Long.MAX_VALUE);
+        f.setDouble(d + 1, 4.2);
+
+        Frame m = f.materialize();
+        assertEquals("value", m.getObject(o));
+        assertTrue(m.getBoolean(b));
+        assertEquals(42, m.getInt(i));
+        assertEquals(Long.MAX_VALUE, m.getLong(l));
+        assertEquals(4.2, m.getDouble(d + 1), 0d);
+        assertEquals(42, m.getValue(i));
+        assertEquals(true, m.getValue(b));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void illegalIndexedSlot() {
+        FrameDescriptor.newBuilder().addSlot(FrameSlotKind.Illegal);
+    }
+
+    @Test
+    public void indexedSlotWrongKind() {
+        Assume.assumeTrue("kinds of indexed slots are only verified with assertions", assertionsEnabled());
+        FrameDescriptor.Builder builder = FrameDescriptor.newBuilder();
+        int i = builder.addSlot(FrameSlotKind.Int);
+        int o = builder.addSlot(FrameSlotKind.Object);
+        VirtualFrame f = Truffle.getRuntime().createVirtualFrame(new Object[0], builder.build());
+        try {
+            f.getLong(i);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            f.setInt(o, 42);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            f.materialize().getObject(i);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void indexedSlotOutOfRange() {
+        FrameDescriptor.Builder builder = FrameDescriptor.newBuilder();
+        builder.addSlots(2, FrameSlotKind.Int);
+        VirtualFrame f = Truffle.getRuntime().createVirtualFrame(new Object[0], builder.build());
+        for (int index : new int[]{-1, 2, Integer.MAX_VALUE, Integer.MIN_VALUE}) {
+            try {
+                f.getInt(index);
+                fail();
+            } catch (ArrayIndexOutOfBoundsException e) {
+                // expected
+            }
+            try {
+                f.setInt(index, 42);
+                fail();
+            } catch (ArrayIndexOutOfBoundsException e) {
+                // expected
+            }
+        }
+        // a descriptor without indexed slots
+        VirtualFrame empty = Truffle.getRuntime().createVirtualFrame(new Object[0], new FrameDescriptor());
+        try {
+            empty.getObject(0);
+            fail();
+        } catch (ArrayIndexOutOfBoundsException e) {
+            // expected
+        }
+    }
+
+    @SuppressWarnings("all")
+    private static boolean assertionsEnabled() {
+        boolean assertionsEnabled = false;
+        assert assertionsEnabled = true;
+        return assertionsEnabled;
+    }
 }
@@ -199,6 +199,185 @@ public interface Frame {
      */
     Object getValue(FrameSlot slot);
 
+    /**
+     * Read access to an {@link Object} indexed slot. The slot must have been created with
+     * {@link FrameSlotKind#Object} by {@link FrameDescriptor.Builder#addSlot(FrameSlotKind)}.
+     *
+     * @param index the index of the slot
+     * @return the current value of the slot
+     * @since 20.3
+     */
+    default Object getObject(int index) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Write access to an {@link Object} indexed slot. The slot must have been created with
+     * {@link FrameSlotKind#Object} by {@link FrameDescriptor.Builder#addSlot(FrameSlotKind)}.
+     *
+     * @param index the index of the slot
+     * @param value the new value of the slot
+     * @since 20.3
+     */
+    default void setObject(int index, Object value) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Read access to a byte indexed slot. The slot must have been created with
+     * {@link FrameSlotKind#Byte} by {@link FrameDescriptor.Builder#addSlot(FrameSlotKind)}.
+     *
+     * @param index the index of the slot
+     * @return the current value of the slot
+     * @since 20.3
+     */
+    default byte getByte(int index) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Write access to a byte indexed slot. The slot must have been created with
+     * {@link FrameSlotKind#Byte} by {@link FrameDescriptor.Builder#addSlot(FrameSlotKind)}.
+     *
+     * @param index the index of the slot
+     * @param value the new value of the slot
+     * @since 20.3
+     */
+    default void setByte(int index, byte value) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Read access to a boolean indexed slot. The slot must have been created with
+     * {@link FrameSlotKind#Boolean} by {@link FrameDescriptor.Builder#addSlot(FrameSlotKind)}.
+     *
+     * @param index the index of the slot
+     * @return the current value of the slot
+     * @since 20.3
+     */
+    default boolean getBoolean(int index) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Write access to a boolean indexed slot. The slot must have been created with
+     * {@link FrameSlotKind#Boolean} by {@link FrameDescriptor.Builder#addSlot(FrameSlotKind)}.
+     *
+     * @param index the index of the slot
+     * @param value the new value of the slot
+     * @since 20.3
+     */
+    default void setBoolean(int index, boolean value) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Read access to an int indexed slot. The slot must have been created with
+     * {@link FrameSlotKind#Int} by {@link FrameDescriptor.Builder#addSlot(FrameSlotKind)}.
+     *
+     * @param index the index of the slot
+     * @return the current value of the slot
+     * @since 20.3
+     */
+    default int getInt(int index) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Write access to an int indexed slot. The slot must have been created with
+     * {@link FrameSlotKind#Int} by {@link FrameDescriptor.Builder#addSlot(FrameSlotKind)}.
+     *
+     * @param index the index of the slot
+     * @param value the new value of the slot
+     * @since 20.3
+     */
+    default void setInt(int index, int value) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Read access to a long indexed slot. The slot must have been created with
+     * {@link FrameSlotKind#Long} by {@link FrameDescriptor.Builder#addSlot(FrameSlotKind)}.
+     *
+     * @param index the index of the slot
+     * @return the current value of the slot
+     * @since 20.3
+     */
+    default long getLong(int index) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Write access to a long indexed slot. The slot must have been created with
+     * {@link FrameSlotKind#Long} by {@link FrameDescriptor.Builder#addSlot(FrameSlotKind)}.
+     *
+     * @param index the index of the slot
+     * @param value the new value of the slot
+     * @since 20.3
+     */
+    default void setLong(int index, long value) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Read access to a float indexed slot. The slot must have been created with
+     * {@link FrameSlotKind#Float} by {@link FrameDescriptor.Builder#addSlot(FrameSlotKind)}.
+     *
+     * @param index the index of the slot
+     * @return the current value of the slot
+     * @since 20.3
+     */
+    default float getFloat(int index) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Write access to a float indexed slot. The slot must have been created with
+     * {@link FrameSlotKind#Float} by {@link FrameDescriptor.Builder#addSlot(FrameSlotKind)}.
+     *
+     * @param index the index of the slot
+     * @param value the new value of the slot
+     * @since 20.3
+     */
+    default void setFloat(int index, float value) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Read access to a double indexed slot. The slot must have been created with
+     * {@link FrameSlotKind#Double} by {@link FrameDescriptor.Builder#addSlot(FrameSlotKind)}.
+     *
+     * @param index the index of the slot
+     * @return the current value of the slot
+     * @since 20.3
+     */
+    default double getDouble(int index) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Write access to a double indexed slot. The slot must have been created with
+     * {@link FrameSlotKind#Double} by {@link FrameDescriptor.Builder#addSlot(FrameSlotKind)}.
+     *
+     * @param index the index of the slot
+     * @param value the new value of the slot
+     * @since 20.3
+     */
+    default void setDouble(int index, double value) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Read access to an indexed slot of any kind. Primitive values are boxed.
+     *
+     * @param index the index of the slot
+     * @return the current value of the slot
+     * @since 20.3
+     */
+    default Object getValue(int index) {
+        throw new UnsupportedOperationException();
+    }
+
     /**
      * Materializes this frame, which allows it to be stored in a field or cast to
      * {@link java.lang.Object}.
@@ -42,6 +42,7 @@ package com.oracle.truffle.api.frame;
 
 import java.util.AbstractSet;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
@@ -74,6 +75,9 @@ public final class FrameDescriptor implements Cloneable {
     private EconomicMap<Object, Assumption> identifierToNotInFrameAssumptionMap;
     @CompilationFinal private volatile int size;
     private final Object lock;
+    @CompilationFinal(dimensions = 1) private final FrameSlotKind[] indexedSlotKinds;
+
+    private static final FrameSlotKind[] EMPTY_KIND_ARRAY = {};
 
     /**
      * Flag that can be used by the runtime to track that {@link Frame#materialize()} was called on
@@ -106,14 +110,32 @@ public final class FrameDescriptor implements Cloneable {
     }
 
     private FrameDescriptor(Object defaultValue, Object lock) {
+        this(defaultValue, lock, EMPTY_KIND_ARRAY);
+    }
+
+    private FrameDescriptor(Object defaultValue, Object lock, FrameSlotKind[] indexedSlotKinds) {
         CompilerAsserts.neverPartOfCompilation("do not create a FrameDescriptor from compiled code");
         this.defaultValue = defaultValue;
         this.slots = new ArrayList<>();
         this.identifierToSlotMap = EconomicMap.create();
         this.lock = lock == null ? this : lock;
+        this.indexedSlotKinds = indexedSlotKinds;
         newVersion(this);
     }
 
+    /**
+     * Creates a builder for a frame descriptor with indexed slots. Indexed slots are accessed with
+     * the index returned by {@link Builder#addSlot(FrameSlotKind)}, for example
+     * {@link Frame#getInt(int)}, instead of a {@link FrameSlot}. Their kind is fixed when the
+     * descriptor is built, so accessing them requires neither a slot lookup, a tag check nor a
+     * {@link #getVersion() version} assumption.
+     *
+     * @since 20.3
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
     /**
      * Adds frame slot. Delegates to
      * {@link #addFrameSlot(java.lang.Object, java.lang.Object, FrameSlotKind) addFrameSlot}
@@ -369,6 +391,29 @@ public final class FrameDescriptor implements Cloneable {
         return this.size;
     }
 
+    /**
+     * Returns the number of indexed slots of frames with this descriptor. Indexed slots are
+     * independent of the slots returned by {@link #getSlots()}.
+     *
+     * @see #newBuilder()
+     * @since 20.3
+     */
+    public int getNumberOfIndexedSlots() {
+        return indexedSlotKinds.length;
+    }
+
+    /**
+     * Returns the kind of the indexed slot with the given index. The kind of an indexed slot never
+     * changes.
+     *
+     * @param index the index of the slot as returned by {@link Builder#addSlot(FrameSlotKind)}
+     * @throws ArrayIndexOutOfBoundsException if the descriptor has no indexed slot with this index
+     * @since 20.3
+     */
+    public FrameSlotKind getIndexedSlotKind(int index) {
+        return indexedSlotKinds[index];
+    }
+
     /**
      * Retrieve the current list of slots in the descriptor. Further changes are not reflected in
      * the returned collection.
@@ -475,7 +520,7 @@ public final class FrameDescriptor implements Cloneable {
     public FrameDescriptor copy() {
         CompilerAsserts.neverPartOfCompilation(NEVER_PART_OF_COMPILATION_MESSAGE);
         synchronized (lock) {
-            FrameDescriptor clonedFrameDescriptor = new FrameDescriptor(this.defaultValue);
+            FrameDescriptor clonedFrameDescriptor = new FrameDescriptor(this.defaultValue, null, this.indexedSlotKinds);
             for (int i = 0; i < slots.size(); i++) {
                 FrameSlot slot = slots.get(i);
                 clonedFrameDescriptor.addFrameSlot(slot.getIdentifier(), slot.getInfo(), FrameSlotKind.Illegal);
@@ -583,4 +628,81 @@ public final class FrameDescriptor implements Cloneable {
             return sb.toString();
         }
     }
+
+    /**
+     * Builder for frame descriptors with indexed slots.
+     *
+     * @see FrameDescriptor#newBuilder()
+     * @since 20.3
+     */
+    public static final class Builder {
+
+        private Object defaultValue;
+        private FrameSlotKind[] kinds = EMPTY_KIND_ARRAY;
+        private int count;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the {@link FrameDescriptor#getDefaultValue() default value} of the object slots of
+         * the descriptor. The default value is <code>null</code> if not set.
+         *
+         * @since 20.3
+         */
+        public Builder defaultValue(Object value) {
+            this.defaultValue = value;
+            return this;
+        }
+
+        /**
+         * Adds an indexed slot of the given kind and returns its index. Indexes are assigned
+         * consecutively starting at zero.
+         *
+         * @param kind the kind of the slot, must not be {@link FrameSlotKind#Illegal}
+         * @return the index of the new slot
+         * @throws IllegalArgumentException if {@code kind} is {@link FrameSlotKind#Illegal}
+         * @throws NullPointerException if {@code kind} is {@code null}
+         * @since 20.3
+         */
+        public int addSlot(FrameSlotKind kind) {
+            Objects.requireNonNull(kind, "kind");
+            if (kind == FrameSlotKind.Illegal) {
+                throw new IllegalArgumentException("Indexed frame slots must have a legal kind.");
+            }
+            if (count == kinds.length) {
+                kinds = Arrays.copyOf(kinds, Math.max(8, count * 2));
+            }
+            kinds[count] = kind;
+            return count++;
+        }
+
+        /**
+         * Adds {@code number} indexed slots of the given kind and returns the index of the first
+         * one.
+         *
+         * @see #addSlot(FrameSlotKind)
+         * @since 20.3
+         */
+        public int addSlots(int number, FrameSlotKind kind) {
+            if (number < 0) {
+                throw new IllegalArgumentException("The number of slots must not be negative.");
+            }
+            int first = count;
+            for (int i = 0; i < number; i++) {
+                addSlot(kind);
+            }
+            return first;
+        }
+
+        /**
+         * Builds the frame descriptor. The builder may be reused afterwards, slots added later are
+         * not visible in previously built descriptors.
+         *
+         * @since 20.3
+         */
+        public FrameDescriptor build() {
+            return new FrameDescriptor(defaultValue, null, count == 0 ? EMPTY_KIND_ARRAY : Arrays.copyOf(kinds, count));
+        }
+    }
 }
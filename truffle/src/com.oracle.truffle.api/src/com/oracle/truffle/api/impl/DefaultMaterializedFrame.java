@@ -140,6 +140,81 @@ final class DefaultMaterializedFrame implements MaterializedFrame {
         return wrapped.getValue(slot);
     }
 
+    @Override
+    public Object getObject(int index) {
+        return wrapped.getObject(index);
+    }
+
+    @Override
+    public void setObject(int index, Object value) {
+        wrapped.setObject(index, value);
+    }
+
+    @Override
+    public byte getByte(int index) {
+        return wrapped.getByte(index);
+    }
+
+    @Override
+    public void setByte(int index, byte value) {
+        wrapped.setByte(index, value);
+    }
+
+    @Override
+    public boolean getBoolean(int index) {
+        return wrapped.getBoolean(index);
+    }
+
+    @Override
+    public void setBoolean(int index, boolean value) {
+        wrapped.setBoolean(index, value);
+    }
+
+    @Override
+    public int getInt(int index) {
+        return wrapped.getInt(index);
+    }
+
+    @Override
+    public void setInt(int index, int value) {
+        wrapped.setInt(index, value);
+    }
+
+    @Override
+    public long getLong(int index) {
+        return wrapped.getLong(index);
+    }
+
+    @Override
+    public void setLong(int index, long value) {
+        wrapped.setLong(index, value);
+    }
+
+    @Override
+    public float getFloat(int index) {
+        return wrapped.getFloat(index);
+    }
+
+    @Override
+    public void setFloat(int index, float value) {
+        wrapped.setFloat(index, value);
+    }
+
+    @Override
+    public double getDouble(int index) {
+        return wrapped.getDouble(index);
+    }
+
+    @Override
+    public void setDouble(int index, double value) {
+        wrapped.setDouble(index, value);
+    }
+
+    @Override
+    public Object getValue(int index) {
+        return wrapped.getValue(index);
+    }
+
     @Override
     public MaterializedFrame materialize() {
         return this;
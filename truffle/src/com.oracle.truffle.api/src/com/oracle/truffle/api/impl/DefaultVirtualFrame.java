@@ -61,6 +61,7 @@ final class DefaultVirtualFrame implements VirtualFrame {
     private final Object[] arguments;
     private Object[] locals;
     private byte[] tags;
+    private final Object[] indexedLocals;
 
     DefaultVirtualFrame(FrameDescriptor descriptor, Object[] arguments) {
         this.descriptor = descriptor;
@@ -73,6 +74,37 @@ final class DefaultVirtualFrame implements VirtualFrame {
             Arrays.fill(locals, defaultValue);
         }
         this.tags = new byte[size];
+        this.indexedLocals = createIndexedLocals(descriptor);
+    }
+
+    private static Object[] createIndexedLocals(FrameDescriptor descriptor) {
+        Object[] values = new Object[descriptor.getNumberOfIndexedSlots()];
+        for (int i = 0; i < values.length; i++) {
+            switch (descriptor.getIndexedSlotKind(i)) {
+                case Byte:
+                    values[i] = (byte) 0;
+                    break;
+                case Boolean:
+                    values[i] = false;
+                    break;
+                case Int:
+                    values[i] = 0;
+                    break;
+                case Long:
+                    values[i] = 0L;
+                    break;
+                case Float:
+                    values[i] = 0f;
+                    break;
+                case Double:
+                    values[i] = 0d;
+                    break;
+                default:
+                    values[i] = descriptor.getDefaultValue();
+                    break;
+            }
+        }
+        return values;
     }
 
     @Override
@@ -180,6 +212,103 @@ final class DefaultVirtualFrame implements VirtualFrame {
         return locals[slotIndex];
     }
 
+    @Override
+    public Object getObject(int index) {
+        assert verifyIndexed(index, FrameSlotKind.Object);
+        return indexedLocals[index];
+    }
+
+    @Override
+    public void setObject(int index, Object value) {
+        assert verifyIndexed(index, FrameSlotKind.Object);
+        indexedLocals[index] = value;
+    }
+
+    @Override
+    public byte getByte(int index) {
+        assert verifyIndexed(index, FrameSlotKind.Byte);
+        return (byte) indexedLocals[index];
+    }
+
+    @Override
+    public void setByte(int index, byte value) {
+        assert verifyIndexed(index, FrameSlotKind.Byte);
+        indexedLocals[index] = value;
+    }
+
+    @Override
+    public boolean getBoolean(int index) {
+        assert verifyIndexed(index, FrameSlotKind.Boolean);
+        return (boolean) indexedLocals[index];
+    }
+
+    @Override
+    public void setBoolean(int index, boolean value) {
+        assert verifyIndexed(index, FrameSlotKind.Boolean);
+        indexedLocals[index] = value;
+    }
+
+    @Override
+    public int getInt(int index) {
+        assert verifyIndexed(index, FrameSlotKind.Int);
+        return (int) indexedLocals[index];
+    }
+
+    @Override
+    public void setInt(int index, int value) {
+        assert verifyIndexed(index, FrameSlotKind.Int);
+        indexedLocals[index] = value;
+    }
+
+    @Override
+    public long getLong(int index) {
+        assert verifyIndexed(index, FrameSlotKind.Long);
+        return (long) indexedLocals[index];
+    }
+
+    @Override
+    public void setLong(int index, long value) {
+        assert verifyIndexed(index, FrameSlotKind.Long);
+        indexedLocals[index] = value;
+    }
+
+    @Override
+    public float getFloat(int index) {
+        assert verifyIndexed(index, FrameSlotKind.Float);
+        return (float) indexedLocals[index];
+    }
+
+    @Override
+    public void setFloat(int index, float value) {
+        assert verifyIndexed(index, FrameSlotKind.Float);
+        indexedLocals[index] = value;
+    }
+
+    @Override
+    public double getDouble(int index) {
+        assert verifyIndexed(index, FrameSlotKind.Double);
+        return (double) indexedLocals[index];
+    }
+
+    @Override
+    public void setDouble(int index, double value) {
+        assert verifyIndexed(index, FrameSlotKind.Double);
+        indexedLocals[index] = value;
+    }
+
+    @Override
+    public Object getValue(int index) {
+        return indexedLocals[index];
+    }
+
+    private boolean verifyIndexed(int index, FrameSlotKind accessKind) {
+        FrameSlotKind slotKind = descriptor.getIndexedSlotKind(index);
+        if (slotKind != accessKind) {
+            throw new IllegalArgumentException(String.format("Indexed frame slot %d has kind %s and cannot be accessed as %s.", index, slotKind, accessKind));
+        }
+        return true;
+    }
+
     private int getSlotIndexChecked(FrameSlot slot) {
         int slotIndex = getFrameSlotIndex(slot);
         if (slotIndex >= tags.length) {
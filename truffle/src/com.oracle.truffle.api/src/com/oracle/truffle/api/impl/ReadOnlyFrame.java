@@ -160,6 +160,96 @@ class ReadOnlyFrame implements Frame {
         return delegate.getValue(slot);
     }
 
+    @Override
+    @TruffleBoundary
+    public Object getObject(int index) {
+        return delegate.getObject(index);
+    }
+
+    @Override
+    @TruffleBoundary
+    public void setObject(int index, Object value) {
+        throw newReadonlyAssertionError();
+    }
+
+    @Override
+    @TruffleBoundary
+    public byte getByte(int index) {
+        return delegate.getByte(index);
+    }
+
+    @Override
+    @TruffleBoundary
+    public void setByte(int index, byte value) {
+        throw newReadonlyAssertionError();
+    }
+
+    @Override
+    @TruffleBoundary
+    public boolean getBoolean(int index) {
+        return delegate.getBoolean(index);
+    }
+
+    @Override
+    @TruffleBoundary
+    public void setBoolean(int index, boolean value) {
+        throw newReadonlyAssertionError();
+    }
+
+    @Override
+    @TruffleBoundary
+    public int getInt(int index) {
+        return delegate.getInt(index);
+    }
+
+    @Override
+    @TruffleBoundary
+    public void setInt(int index, int value) {
+        throw newReadonlyAssertionError();
+    }
+
+    @Override
+    @TruffleBoundary
+    public long getLong(int index) {
+        return delegate.getLong(index);
+    }
+
+    @Override
+    @TruffleBoundary
+    public void setLong(int index, long value) {
+        throw newReadonlyAssertionError();
+    }
+
+    @Override
+    @TruffleBoundary
+    public float getFloat(int index) {
+        return delegate.getFloat(index);
+    }
+
+    @Override
+    @TruffleBoundary
+    public void setFloat(int index, float value) {
+        throw newReadonlyAssertionError();
+    }
+
+    @Override
+    @TruffleBoundary
+    public double getDouble(int index) {
+        return delegate.getDouble(index);
+    }
+
+    @Override
+    @TruffleBoundary
+    public void setDouble(int index, double value) {
+        throw newReadonlyAssertionError();
+    }
+
+    @Override
+    @TruffleBoundary
+    public Object getValue(int index) {
+        return delegate.getValue(index);
+    }
+
     @Override
     @TruffleBoundary
     public MaterializedFrame materialize() {
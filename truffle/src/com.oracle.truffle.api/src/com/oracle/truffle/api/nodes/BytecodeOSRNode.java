@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.api.nodes;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+/**
+ * Interface for nodes of bytecode interpreters that support on-stack replacement (OSR) at the
+ * level of bytecode indices. Unlike {@link LoopNode}, which replaces an AST loop, a bytecode OSR
+ * node dispatches over bytecodes in a loop of its own and reports each back-edge together with the
+ * bytecode index it jumps to. Once a back-edge has been taken often enough, the runtime compiles
+ * an OSR entry that is specialized to the target bytecode index and transfers the execution of the
+ * interpreter to it.
+ * <p>
+ * The typical usage in the dispatch loop of an interpreter is:
+ *
+ * <pre>
+ * if (nextBci &lt;= bci) { // back-edge
+ *     if (BytecodeOSRNode.pollOSRBackEdge(this)) {
+ *         Object result = BytecodeOSRNode.tryOSR(this, nextBci, interpreterState, frame);
+ *         if (result != null) {
+ *             return result;
+ *         }
+ *     }
+ * }
+ * </pre>
+ *
+ * The OSR entry is executed with a new frame that has the frame descriptor and the arguments of
+ * the frame passed to {@link #tryOSR}. The values of all frame slots are copied into the new frame
+ * before {@link #executeOSR} is called and copied back into the parent frame once it returns, so
+ * that compiled code can keep the frame virtual. OSR is a no-op on runtimes that do not support it.
+ * <p>
+ * Implementations must be subclasses of {@link Node}. Polling back-edges does not count loop
+ * iterations for the enclosing call target; use {@link LoopNode#reportLoopCount(Node, int)} for
+ * that as usual.
+ *
+ * @since 20.3
+ */
+public interface BytecodeOSRNode extends NodeInterface {
+
+    /**
+     * Continues the execution of the interpreter at the bytecode index {@code target} in
+     * {@code osrFrame}. The {@code target} is a partial evaluation constant in the compiled OSR
+     * entry. The returned value is returned from {@link #tryOSR} and must not be {@code null}.
+     *
+     * @param osrFrame the frame to execute in. It has the same frame descriptor and slot values as
+     *            the frame passed to {@link #tryOSR}.
+     * @param target the bytecode index to continue at
+     * @param interpreterState additional interpreter state passed to {@link #tryOSR}, such as the
+     *            stack pointer, or {@code null}
+     * @since 20.3
+     */
+    Object executeOSR(VirtualFrame osrFrame, int target, Object interpreterState);
+
+    /**
+     * Returns the OSR metadata previously set with {@link #setOSRMetadata}. Implementations should
+     * store the metadata in a field of the node and must not interpret it.
+     *
+     * @since 20.3
+     */
+    Object getOSRMetadata();
+
+    /**
+     * Stores OSR metadata that is created and used by the runtime.
+     *
+     * @since 20.3
+     */
+    void setOSRMetadata(Object osrMetadata);
+
+    /**
+     * Reports a back-edge of {@code osrNode} to the runtime. Returns {@code true} if the back-edge
+     * was taken often enough that {@link #tryOSR} should be called. Always returns {@code false}
+     * in compiled code.
+     *
+     * @since 20.3
+     */
+    static boolean pollOSRBackEdge(BytecodeOSRNode osrNode) {
+        if (CompilerDirectives.inInterpreter()) {
+            return NodeAccessor.RUNTIME.pollBytecodeOSRBackEdge(osrNode);
+        }
+        return false;
+    }
+
+    /**
+     * Tries to transfer the execution of {@code osrNode} to the compiled OSR entry for the
+     * bytecode index {@code target}, requesting its compilation if necessary. Returns the result of
+     * {@link #executeOSR} if the OSR entry was executed, or {@code null} if the interpreter should
+     * continue, for example because the OSR entry is still being compiled.
+     *
+     * @param osrNode the node reporting the back-edge
+     * @param target the bytecode index the back-edge jumps to
+     * @param interpreterState additional interpreter state passed to {@link #executeOSR}
+     * @param parentFrame the frame of the interpreter
+     * @since 20.3
+     */
+    static Object tryOSR(BytecodeOSRNode osrNode, int target, Object interpreterState, VirtualFrame parentFrame) {
+        if (CompilerDirectives.inInterpreter()) {
+            return NodeAccessor.RUNTIME.tryBytecodeOSR(osrNode, target, interpreterState, parentFrame);
+        }
+        return null;
+    }
+}
@@ -416,6 +416,9 @@ public abstract class Node implements NodeInterface, Cloneable {
         Node node = this;
         while (node != null) {
             boolean consumed = false;
+            if (node instanceof BytecodeOSRNode) {
+                NodeAccessor.RUNTIME.onOSRNodeReplaced((BytecodeOSRNode) node, oldNode, newNode, reason);
+            }
             if (node instanceof ReplaceObserver) {
                 consumed = ((ReplaceObserver) node).nodeReplaced(oldNode, newNode, reason);
             } else if (node instanceof RootNode) {
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.wasm.test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Source;
+import org.graalvm.polyglot.Value;
+import org.graalvm.polyglot.io.ByteSequence;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import com.oracle.truffle.api.Truffle;
+
+/**
+ * Runs a hot loop in a function that is called once, so it can only be compiled through
+ * bytecode-level OSR of the {@link org.graalvm.wasm.nodes.WasmLoopNode}.
+ */
+public class WasmLoopOSRTestSuite {
+    private static final int ITERATIONS = 1_000_000;
+
+    @Test
+    public void test() throws IOException {
+        Assume.assumeFalse("OSR requires an optimizing runtime", "Interpreted".equals(Truffle.getRuntime().getName()));
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        Source source = Source.newBuilder("wasm", ByteSequence.create(binary), "main").build();
+        try (Context context = Context.newBuilder("wasm").allowExperimentalOptions(true).logHandler(log).option("engine.BackgroundCompilation", "false").option(
+                        "engine.OSRCompilationThreshold", "1000").option("engine.TraceCompilation", "true").build()) {
+            context.eval(source);
+            Value mainFunction = context.getBindings("wasm").getMember("main");
+            Assert.assertEquals(ITERATIONS, mainFunction.execute().asInt());
+        }
+        String trace = log.toString();
+        Assert.assertTrue("Loop was not compiled with OSR:\n" + trace, trace.contains("opt done") && trace.contains("<OSR@"));
+    }
+
+    /**
+     * A module exporting {@code main}, which increments a local in a loop until it reaches
+     * {@link #ITERATIONS} and returns it.
+     */
+    private static final byte[] binary = new byte[]{
+                    // magic and version
+                    (byte) 0x00, (byte) 0x61, (byte) 0x73, (byte) 0x6d,
+                    (byte) 0x01, (byte) 0x00, (byte) 0x00, (byte) 0x00,
+                    // type section: () -> i32
+                    (byte) 0x01, (byte) 0x05, (byte) 0x01, (byte) 0x60, (byte) 0x00, (byte) 0x01, (byte) 0x7f,
+                    // function section
+                    (byte) 0x03, (byte) 0x02, (byte) 0x01, (byte) 0x00,
+                    // export section: "main"
+                    (byte) 0x07, (byte) 0x08, (byte) 0x01, (byte) 0x04, (byte) 0x6d, (byte) 0x61, (byte) 0x69, (byte) 0x6e, (byte) 0x00, (byte) 0x00,
+                    // code section, one body with one i32 local
+                    (byte) 0x0a, (byte) 0x19, (byte) 0x01, (byte) 0x17, (byte) 0x01, (byte) 0x01, (byte) 0x7f,
+                    // loop
+                    (byte) 0x03, (byte) 0x40,
+                    // local.get 0, i32.const 1, i32.add, local.tee 0
+                    (byte) 0x20, (byte) 0x00, (byte) 0x41, (byte) 0x01, (byte) 0x6a, (byte) 0x22, (byte) 0x00,
+                    // i32.const 1000000, i32.lt_s, br_if 0
+                    (byte) 0x41, (byte) 0xc0, (byte) 0x84, (byte) 0x3d, (byte) 0x48, (byte) 0x0d, (byte) 0x00,
+                    // end of loop, local.get 0, end of function
+                    (byte) 0x0b, (byte) 0x20, (byte) 0x00, (byte) 0x0b
+    };
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.wasm.nodes;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.BytecodeOSRNode;
+import com.oracle.truffle.api.nodes.LoopNode;
+import com.oracle.truffle.api.nodes.RepeatingNode;
+
+/**
+ * Executes the body of a loop block until it no longer branches to the loop header. The loop
+ * header is a back-edge target for bytecode-level OSR, so that long-running loops are transferred
+ * to compiled code specialized to the start offset of the loop.
+ */
+public final class WasmLoopNode extends LoopNode implements BytecodeOSRNode {
+
+    @Child private WasmBlockNode body;
+
+    private Object osrMetadata;
+
+    public WasmLoopNode(WasmBlockNode body) {
+        this.body = body;
+    }
+
+    @Override
+    public RepeatingNode getRepeatingNode() {
+        return body;
+    }
+
+    @SuppressWarnings("deprecation")
+    @Override
+    public void executeLoop(VirtualFrame frame) {
+        execute(frame);
+    }
+
+    @Override
+    public Object execute(VirtualFrame frame) {
+        int loopCount = 0;
+        try {
+            int unwindCounter;
+            while ((unwindCounter = body.executeRepeatingWithValue(frame)) == 0) {
+                if (CompilerDirectives.inInterpreter()) {
+                    loopCount++;
+                    if (BytecodeOSRNode.pollOSRBackEdge(this)) {
+                        Object result = BytecodeOSRNode.tryOSR(this, body.startOfset(), null, frame);
+                        if (result != null && (Integer) result != 0) {
+                            return result;
+                        }
+                    }
+                }
+            }
+            return unwindCounter;
+        } finally {
+            reportLoopCount(this, loopCount);
+        }
+    }
+
+    @Override
+    public Object executeOSR(VirtualFrame osrFrame, int target, Object interpreterState) {
+        assert target == body.startOfset();
+        int unwindCounter;
+        while ((unwindCounter = body.executeRepeatingWithValue(osrFrame)) == 0) {
+            if (CompilerDirectives.inInterpreter()) {
+                // The OSR code got invalidated, continue in the interpreter loop.
+                return 0;
+            }
+        }
+        return unwindCounter;
+    }
+
+    @Override
+    public Object getOSRMetadata() {
+        return osrMetadata;
+    }
+
+    @Override
+    public void setOSRMetadata(Object osrMetadata) {
+        this.osrMetadata = osrMetadata;
+    }
+}